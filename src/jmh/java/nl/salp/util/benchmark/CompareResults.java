@@ -0,0 +1,140 @@
+package nl.salp.util.benchmark;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares two JMH result files in CSV format (<code>-rf csv</code>), such as a baseline in <code>src/jmh/results</code>
+ * and a new run, printing the change of every score, including the GC profiler allocation rates.
+ */
+public final class CompareResults {
+    /**
+     * Utility class, no instances.
+     */
+    private CompareResults() {
+    }
+
+    /**
+     * Compare two result files.
+     *
+     * @param args The baseline result file and the current result file.
+     *
+     * @throws IOException When reading a result file failed.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: CompareResults <baseline.csv> <current.csv>");
+            System.exit(1);
+        }
+        Map<String, Result> baseline = read(new File(args[0]));
+        Map<String, Result> current = read(new File(args[1]));
+        System.out.println(String.format("%-90s %15s %15s %9s  %s", "Benchmark", "Baseline", "Current", "Change", "Unit"));
+        for (Map.Entry<String, Result> entry : current.entrySet()) {
+            Result result = entry.getValue();
+            Result base = baseline.get(entry.getKey());
+            if (base == null) {
+                System.out.println(String.format("%-90s %15s %15.3f %9s  %s", entry.getKey(), "-", result.score, "new", result.unit));
+            } else {
+                String change = base.score == 0 ? "-" : String.format("%+8.1f%%", (result.score - base.score) * 100 / base.score);
+                System.out.println(String.format("%-90s %15.3f %15.3f %9s  %s", entry.getKey(), base.score, result.score, change, result.unit));
+            }
+        }
+        for (String key : baseline.keySet()) {
+            if (!current.containsKey(key)) {
+                System.out.println(String.format("%-90s %15.3f %15s %9s", key, baseline.get(key).score, "-", "removed"));
+            }
+        }
+    }
+
+    /**
+     * Read the results of a file, keyed by the benchmark name and its parameters.
+     *
+     * @param file The file.
+     *
+     * @return The results.
+     *
+     * @throws IOException When reading the file failed.
+     */
+    private static Map<String, Result> read(File file) throws IOException {
+        Map<String, Result> results = new LinkedHashMap<String, Result>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"));
+        try {
+            List<String> header = parseLine(reader.readLine());
+            int scoreColumn = header.indexOf("Score");
+            int unitColumn = header.indexOf("Unit");
+            String line;
+            while ((line = reader.readLine()) != null) {
+                List<String> fields = parseLine(line);
+                StringBuilder key = new StringBuilder(fields.get(0));
+                for (int i = unitColumn + 1; i < fields.size(); i++) {
+                    if (fields.get(i).length() == 0) {
+                        continue;
+                    }
+                    key.append(' ').append(header.get(i).replace("Param: ", "")).append('=').append(fields.get(i));
+                }
+                results.put(key.toString(), new Result(Double.parseDouble(fields.get(scoreColumn)), fields.get(unitColumn)));
+            }
+        } finally {
+            reader.close();
+        }
+        return results;
+    }
+
+    /**
+     * Split a CSV line into fields, removing the quotes around fields.
+     *
+     * @param line The line.
+     *
+     * @return The fields.
+     */
+    private static List<String> parseLine(String line) {
+        List<String> fields = new ArrayList<String>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (c == ',' && !quoted) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * The score and unit of a benchmark result.
+     */
+    private static final class Result {
+        /**
+         * The score.
+         */
+        private final double score;
+        /**
+         * The unit of the score.
+         */
+        private final String unit;
+
+        /**
+         * Create a new Result.
+         *
+         * @param score The score.
+         * @param unit  The unit of the score.
+         */
+        private Result(double score, String unit) {
+            this.score = score;
+            this.unit = unit;
+        }
+    }
+}
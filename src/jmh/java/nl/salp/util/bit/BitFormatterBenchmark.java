@@ -0,0 +1,78 @@
+package nl.salp.util.bit;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for dumping a 1 MB buffer with {@link BitFormatter}, into a reused <code>char[]</code> and into a
+ * {@link StringBuilder}, and for formatting single values.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BitFormatterBenchmark {
+    /**
+     * The buffer to dump.
+     */
+    private byte[] data;
+    /**
+     * The reused array for the dump.
+     */
+    private char[] chars;
+    /**
+     * The reused builder for the dump.
+     */
+    private StringBuilder builder;
+    /**
+     * The value to format.
+     */
+    private long value = 0x5A5A5A5A5A5A5A5AL;
+
+    /**
+     * Create the buffer and the output.
+     */
+    @Setup
+    public void setUp() {
+        data = new byte[1 << 20];
+        new Random(1).nextBytes(data);
+        chars = new char[(int) BitFormatter.getHexDumpLength(data.length, 0)];
+        builder = new StringBuilder(chars.length);
+    }
+
+    @Benchmark
+    public int hexDumpToChars() {
+        return BitFormatter.hexDump(data, 0, data.length, 0, chars, 0);
+    }
+
+    @Benchmark
+    public int hexDumpToStringBuilder() throws IOException {
+        builder.setLength(0);
+        BitFormatter.hexDump(builder, data, 0, data.length, 0);
+        return builder.length();
+    }
+
+    @Benchmark
+    public int formatBinary() {
+        return BitFormatter.formatBinary(value, 64, chars, 0);
+    }
+
+    @Benchmark
+    public String longToBinaryStringFormat() {
+        return String.format("%64s", Long.toBinaryString(value)).replace(' ', '0');
+    }
+}
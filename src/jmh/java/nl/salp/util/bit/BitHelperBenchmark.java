@@ -0,0 +1,104 @@
+package nl.salp.util.bit;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import nl.salp.util.bit.BitHelper.IntegerBitHelper;
+import nl.salp.util.bit.BitHelper.LongBitHelper;
+
+/**
+ * Benchmarks for the scalar (single bit, primitive) and bulk (multiple bits, boxed) {@link BitHelper} operations, with
+ * the plain primitive operations as baseline.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BitHelperBenchmark {
+    /**
+     * The helper for ints.
+     */
+    private final IntegerBitHelper intHelper = new IntegerBitHelper();
+    /**
+     * The helper for longs.
+     */
+    private final LongBitHelper longHelper = new LongBitHelper();
+    /**
+     * The int value to operate on; not final to prevent constant folding.
+     */
+    private int intValue = 0x5A5A5A5A;
+    /**
+     * The long value to operate on.
+     */
+    private long longValue = 0x5A5A5A5AL;
+    /**
+     * The bit index to operate on.
+     */
+    private int bit = 13;
+
+    @Benchmark
+    public boolean intIsBitSet() {
+        return intHelper.isBitSet(intValue, bit);
+    }
+
+    @Benchmark
+    public int intSetBit() {
+        return intHelper.setBit(intValue, bit);
+    }
+
+    @Benchmark
+    public int intUnsetBit() {
+        return intHelper.unsetBit(intValue, bit);
+    }
+
+    @Benchmark
+    public boolean intIsMsbSet() {
+        return intHelper.isMsbSet(intValue);
+    }
+
+    @Benchmark
+    public Integer intSetBits() {
+        return intHelper.setBit(intValue, 1, 5, 9, 13, 17, 21, 25, 29);
+    }
+
+    @Benchmark
+    public boolean intIsBitSetPrimitive() {
+        return (intValue & (1 << bit)) != 0;
+    }
+
+    @Benchmark
+    public boolean longIsBitSet() {
+        return longHelper.isBitSet(longValue, bit);
+    }
+
+    @Benchmark
+    public long longSetBit() {
+        return longHelper.setBit(longValue, bit);
+    }
+
+    @Benchmark
+    public Long longSetBits() {
+        return longHelper.setBit(longValue, 1, 5, 9, 13, 17, 21, 25, 29);
+    }
+
+    @Benchmark
+    public boolean longIsBitSetPrimitive() {
+        return (longValue & (1L << bit)) != 0;
+    }
+
+    @Benchmark
+    public String intToBinaryString() {
+        return intHelper.toBinaryString(intValue);
+    }
+}
@@ -0,0 +1,71 @@
+package nl.salp.util.bit;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for a <code>BETWEEN</code> predicate over 1M rows of 16 bit values, with a {@link BitSlicedIndex} and
+ * with a scan of the values.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BitSlicedIndexBenchmark {
+    /**
+     * The values.
+     */
+    private long[] values;
+    /**
+     * The index over the values.
+     */
+    private BitSlicedIndex index;
+
+    /**
+     * Create the values and the index.
+     */
+    @Setup
+    public void setUp() {
+        values = new long[1 << 20];
+        Random rng = new Random(1);
+        for (int i = 0; i < values.length; i++) {
+            values[i] = rng.nextInt(1 << 16);
+        }
+        index = new BitSlicedIndex(values);
+    }
+
+    @Benchmark
+    public LongBitSet betweenIndex() {
+        return index.between(10000, 30000);
+    }
+
+    @Benchmark
+    public LongBitSet betweenScan() {
+        LongBitSet rows = new LongBitSet(values.length);
+        for (int i = 0; i < values.length; i++) {
+            long value = values[i];
+            if (value >= 10000 && value <= 30000) {
+                rows.set(i);
+            }
+        }
+        return rows;
+    }
+
+    @Benchmark
+    public LongBitSet topKIndex() {
+        return index.topK(100);
+    }
+}
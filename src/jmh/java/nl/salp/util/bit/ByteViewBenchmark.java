@@ -0,0 +1,76 @@
+package nl.salp.util.bit;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for decoding 64 KB of big-endian ints with {@link ByteView}, with byte-wise shifts and with an
+ * <code>IntBuffer</code> view.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ByteViewBenchmark {
+    /**
+     * The data to decode.
+     */
+    private byte[] data;
+    /**
+     * The reused array for the values.
+     */
+    private int[] values;
+
+    /**
+     * Create the data and the values.
+     */
+    @Setup
+    public void setUp() {
+        data = new byte[1 << 16];
+        new Random(1).nextBytes(data);
+        values = new int[data.length / 4];
+    }
+
+    @Benchmark
+    public int getIntsByteView() {
+        return ByteView.BIG_ENDIAN.getInts(data, 0, values, 0, values.length);
+    }
+
+    @Benchmark
+    public int getIntsShifts() {
+        for (int i = 0, offset = 0; i < values.length; i++, offset += 4) {
+            values[i] = (data[offset] & 0xFF) << 24 | (data[offset + 1] & 0xFF) << 16 | (data[offset + 2] & 0xFF) << 8
+                    | (data[offset + 3] & 0xFF);
+        }
+        return values.length;
+    }
+
+    @Benchmark
+    public int getIntsIntBuffer() {
+        ByteBuffer.wrap(data).asIntBuffer().get(values);
+        return values.length;
+    }
+
+    @Benchmark
+    public long getLongByteView() {
+        long sum = 0;
+        for (int offset = 0; offset <= data.length - 8; offset += 8) {
+            sum += ByteView.LITTLE_ENDIAN.getLong(data, offset);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,183 @@
+package nl.salp.util.collection;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for {@link ImmutablePair} hashing and map lookups with pairs of small integers, the case that suffered
+ * most from a weak pair hash, compared with {@link PairHashMap} and with pairs using the previous
+ * <code>left ^ right * 31</code> hash.
+ *
+ * <p>
+ * The <code>grid</code> keys are all pairs of a square of small integers, the <code>symmetric</code> keys are pairs
+ * of distinct small integers in both orders.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ImmutablePairBenchmark {
+    /**
+     * The number of keys in the maps.
+     */
+    @Param({"1000", "100000"})
+    private int size;
+    /**
+     * The distribution of the keys.
+     */
+    @Param({"grid", "symmetric"})
+    private String keys;
+
+    /**
+     * The left-hand values of the keys, boxed once.
+     */
+    private Integer[] lefts;
+    /**
+     * The right-hand values of the keys, boxed once.
+     */
+    private Integer[] rights;
+    /**
+     * The HashMap with pairs as keys.
+     */
+    private Map<ImmutablePair<Integer, Integer>, Integer> hashMap;
+    /**
+     * The PairHashMap with the same keys.
+     */
+    private PairHashMap<Integer, Integer, Integer> pairHashMap;
+    /**
+     * The HashMap with the same keys as pairs using the previous hash.
+     */
+    private Map<LegacyHashPair, Integer> legacyHashMap;
+    /**
+     * The index of the next key to look up.
+     */
+    private int next;
+
+    /**
+     * Create the keys and maps.
+     */
+    @Setup
+    public void setUp() {
+        lefts = new Integer[size];
+        rights = new Integer[size];
+        if ("symmetric".equals(keys)) {
+            int i = 0;
+            for (int right = 1; i < size; right++) {
+                for (int left = 0; left < right && i < size; left++) {
+                    lefts[i] = left;
+                    rights[i++] = right;
+                    if (i < size) {
+                        lefts[i] = right;
+                        rights[i++] = left;
+                    }
+                }
+            }
+        } else {
+            int columns = (int) Math.sqrt(size);
+            for (int i = 0; i < size; i++) {
+                lefts[i] = i / columns;
+                rights[i] = i % columns;
+            }
+        }
+        hashMap = new HashMap<ImmutablePair<Integer, Integer>, Integer>();
+        pairHashMap = new PairHashMap<Integer, Integer, Integer>();
+        legacyHashMap = new HashMap<LegacyHashPair, Integer>();
+        for (int i = 0; i < size; i++) {
+            hashMap.put(new ImmutablePair<Integer, Integer>(lefts[i], rights[i]), i);
+            pairHashMap.put(lefts[i], rights[i], i);
+            legacyHashMap.put(new LegacyHashPair(lefts[i], rights[i]), i);
+        }
+    }
+
+    @Benchmark
+    public int createAndHash() {
+        int i = nextIndex();
+        return new ImmutablePair<Integer, Integer>(lefts[i], rights[i]).hashCode();
+    }
+
+    @Benchmark
+    public Integer hashMapGet() {
+        int i = nextIndex();
+        return hashMap.get(new ImmutablePair<Integer, Integer>(lefts[i], rights[i]));
+    }
+
+    @Benchmark
+    public Integer legacyHashMapGet() {
+        int i = nextIndex();
+        return legacyHashMap.get(new LegacyHashPair(lefts[i], rights[i]));
+    }
+
+    @Benchmark
+    public Integer pairHashMapGet() {
+        int i = nextIndex();
+        return pairHashMap.get(lefts[i], rights[i]);
+    }
+
+    /**
+     * Get the index of the next key, cycling through all keys.
+     *
+     * @return The index.
+     */
+    private int nextIndex() {
+        int i = next;
+        next = i + 1 == size ? 0 : i + 1;
+        return i;
+    }
+
+    /**
+     * Pair of integers with the hash {@link ImmutablePair} used before the mixed and cached hash, as the baseline for
+     * the lookups.
+     */
+    private static final class LegacyHashPair {
+        /**
+         * The left-hand value.
+         */
+        private final Integer leftValue;
+        /**
+         * The right-hand value.
+         */
+        private final Integer rightValue;
+
+        /**
+         * Create a new LegacyHashPair.
+         *
+         * @param leftValue  The left-hand value.
+         * @param rightValue The right-hand value.
+         */
+        private LegacyHashPair(Integer leftValue, Integer rightValue) {
+            this.leftValue = leftValue;
+            this.rightValue = rightValue;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            boolean equals = obj == this;
+            if (!equals && obj instanceof LegacyHashPair) {
+                LegacyHashPair other = (LegacyHashPair) obj;
+                equals = leftValue.equals(other.leftValue) && rightValue.equals(other.rightValue);
+            }
+            return equals;
+        }
+
+        @Override
+        public int hashCode() {
+            return leftValue.hashCode() ^ rightValue.hashCode() * 31;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package nl.salp.util.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for {@link ChunkedByteStreamReader} at several stream and chunk sizes, reading the whole stream into an
+ * array and passing the chunks to a consumer.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ChunkedByteStreamReaderBenchmark {
+    /**
+     * The number of bytes in the stream.
+     */
+    @Param({"1024", "65536", "1048576"})
+    private int streamBytes;
+    /**
+     * The number of bytes in a chunk.
+     */
+    @Param({"128", "8192"})
+    private int chunkBytes;
+
+    /**
+     * The data of the stream.
+     */
+    private byte[] data;
+    /**
+     * The reader.
+     */
+    private ChunkedByteStreamReader reader;
+
+    /**
+     * Create the data and the reader.
+     */
+    @Setup
+    public void setUp() {
+        data = new byte[streamBytes];
+        new Random(1).nextBytes(data);
+        reader = new ChunkedByteStreamReader(chunkBytes);
+    }
+
+    @Benchmark
+    public byte[] readAll() throws IOException {
+        return reader.read(new ByteArrayInputStream(data));
+    }
+
+    @Benchmark
+    public long readChunks(final Blackhole blackhole) throws IOException {
+        return reader.read(new ByteArrayInputStream(data), new ChunkConsumer() {
+            @Override
+            public void accept(byte[] chunk, int offset, int length) {
+                blackhole.consume(chunk);
+            }
+        });
+    }
+}
@@ -0,0 +1,117 @@
+package nl.salp.util.io;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import nl.salp.util.bit.VarIntCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for decoding 1M sorted longs (gaps of up to 255 with 1% larger gaps) with {@link PForDeltaCodec}, as a
+ * whole and streaming in chunks of 8 KB, and with bulk {@link VarIntCodec} decoding of the deltas. Scores are per
+ * value: 1 ns/op is a billion values per second.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PForDeltaCodecBenchmark {
+    /**
+     * The number of values.
+     */
+    private static final int VALUES = 1 << 20;
+    /**
+     * The number of bytes per chunk of the streaming decode.
+     */
+    private static final int CHUNK_BYTES = 8192;
+
+    /**
+     * The codec.
+     */
+    private PForDeltaCodec codec;
+    /**
+     * The encoded values.
+     */
+    private byte[] encoded;
+    /**
+     * The deltas of the values as zigzag varints.
+     */
+    private byte[] varInts;
+    /**
+     * The reused array for the decoded varints.
+     */
+    private long[] decoded;
+    /**
+     * The sum of the values passed to the stream consumer.
+     */
+    private long sum;
+    /**
+     * The stream consumer.
+     */
+    private final LongValueConsumer consumer = new LongValueConsumer() {
+        @Override
+        public void accept(long value) {
+            sum += value;
+        }
+    };
+
+    /**
+     * Create and encode the values.
+     */
+    @Setup
+    public void setUp() {
+        Random rng = new Random(1);
+        long[] values = new long[VALUES];
+        long[] deltas = new long[VALUES];
+        long value = 0;
+        for (int i = 0; i < VALUES; i++) {
+            deltas[i] = rng.nextInt(100) == 0 ? rng.nextInt(1 << 20) : rng.nextInt(256);
+            value += deltas[i];
+            values[i] = value;
+        }
+        codec = new PForDeltaCodec();
+        encoded = codec.encode(values);
+        varInts = new byte[VALUES * VarIntCodec.MAX_LONG_BYTES];
+        int length = VarIntCodec.encodeLongs(deltas, 0, VALUES, true, varInts, 0);
+        varInts = Arrays.copyOf(varInts, length);
+        decoded = new long[VALUES];
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public long[] decodeBlocks() {
+        return codec.decode(ByteBuffer.wrap(encoded));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public long decodeStream() {
+        sum = 0;
+        PForDeltaCodec.StreamDecoder decoder = codec.createStreamDecoder(consumer);
+        for (int offset = 0; offset < encoded.length; offset += CHUNK_BYTES) {
+            decoder.accept(encoded, offset, Math.min(CHUNK_BYTES, encoded.length - offset));
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public long[] decodeVarInts() {
+        VarIntCodec.decodeLongs(varInts, 0, decoded, 0, VALUES, true);
+        return decoded;
+    }
+}
@@ -0,0 +1,138 @@
+package nl.salp.util.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import nl.salp.util.collection.PairList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for encoding and decoding lists of integer-string pairs with {@link PairCodec}, compared with Java
+ * serialization of the same pairs as a list of {@link AbstractMap.SimpleImmutableEntry} instances, since
+ * {@link nl.salp.util.collection.ImmutablePair} is not serializable.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PairCodecBenchmark {
+    /**
+     * The number of pairs.
+     */
+    @Param({"1", "1000"})
+    private int size;
+
+    /**
+     * The codec.
+     */
+    private PairCodec<Integer, String> codec;
+    /**
+     * The pairs.
+     */
+    private PairList<Integer, String> pairs;
+    /**
+     * The pairs as serializable entries.
+     */
+    private ArrayList<Map.Entry<Integer, String>> entries;
+    /**
+     * The reused buffer for encoding.
+     */
+    private ByteBuffer buffer;
+    /**
+     * The pairs encoded with the codec.
+     */
+    private byte[] encoded;
+    /**
+     * The entries encoded with Java serialization.
+     */
+    private byte[] serialized;
+
+    /**
+     * Create and encode the pairs.
+     *
+     * @throws IOException When serializing the entries failed.
+     */
+    @Setup
+    public void setUp() throws IOException {
+        Random rng = new Random(1);
+        codec = new PairCodec<Integer, String>(ValueCodecs.INTEGER, ValueCodecs.STRING);
+        pairs = new PairList<Integer, String>(size);
+        entries = new ArrayList<Map.Entry<Integer, String>>(size);
+        for (int i = 0; i < size; i++) {
+            Integer left = rng.nextInt(1000);
+            String right = "value-" + rng.nextInt(100);
+            pairs.add(left, right);
+            entries.add(new AbstractMap.SimpleImmutableEntry<Integer, String>(left, right));
+        }
+        buffer = ByteBuffer.allocate(codec.encodedSize(pairs));
+        codec.encode(pairs, buffer);
+        encoded = buffer.array().clone();
+        serialized = serialize();
+    }
+
+    @Benchmark
+    public ByteBuffer encodePairCodec() {
+        buffer.clear();
+        codec.encode(pairs, buffer);
+        return buffer;
+    }
+
+    @Benchmark
+    public byte[] encodeObjectOutputStream() throws IOException {
+        return serialize();
+    }
+
+    @Benchmark
+    public PairList<Integer, String> decodePairCodec() {
+        return codec.decodeList(ByteBuffer.wrap(encoded));
+    }
+
+    @Benchmark
+    public Object decodeObjectInputStream() throws IOException, ClassNotFoundException {
+        ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serialized));
+        try {
+            return in.readObject();
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Serialize the entries.
+     *
+     * @return The serialized entries.
+     *
+     * @throws IOException When serializing failed.
+     */
+    private byte[] serialize() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        try {
+            out.writeObject(entries);
+        } finally {
+            out.close();
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,22 @@
+package nl.salp.util;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a method that does not allocate on the heap once it has been compiled, so it can be called on hot paths
+ * without creating garbage.
+ *
+ * <p>
+ * Exceptions for invalid arguments are not covered. The marked methods are checked by the allocation tests, which
+ * measure the bytes allocated by the calling thread.
+ * </p>
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface AllocationFree {
+}
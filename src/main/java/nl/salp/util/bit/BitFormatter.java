@@ -0,0 +1,478 @@
+package nl.salp.util.bit;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+
+import nl.salp.util.AllocationFree;
+
+/**
+ * Table driven binary and hexadecimal formatting of values and byte ranges into a <code>char[]</code> or an
+ * {@link Appendable}, for dumping large buffers.
+ *
+ * <p>
+ * Every byte is looked up in a table with its digits instead of being formatted, and nothing is allocated per value:
+ * the <code>char[]</code> methods are {@link AllocationFree} and the {@link Appendable} methods write per character or,
+ * for a {@link StringBuilder} or a {@link Writer}, per line of a reused buffer. Hexadecimal digits are lower case.
+ * </p>
+ *
+ * <p>
+ * The hex dump layout is that of <code>hexdump -C</code>: 16 bytes per line, preceded by the address of the first byte
+ * and followed by the printable ASCII characters, e.g.
+ * </p>
+ * <pre>
+ * 00000000  48 65 6c 6c 6f 2c 20 77  6f 72 6c 64 21 0a 00 ff  |Hello, world!...|
+ * </pre>
+ * <p>
+ * Addresses have 8 digits, or 16 when the last address does not fit in 32 bits.
+ * </p>
+ */
+public final class BitFormatter {
+    /**
+     * The number of bytes per line of a hex dump.
+     */
+    public static final int DUMP_BYTES_PER_LINE = 16;
+
+    /**
+     * The hexadecimal digits.
+     */
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    /**
+     * The two hexadecimal digits of every byte value.
+     */
+    private static final char[] BYTE_HEX = new char[256 * 2];
+    /**
+     * The eight binary digits of every byte value.
+     */
+    private static final char[] BYTE_BINARY = new char[256 * 8];
+    /**
+     * The character shown for every byte value in the ASCII column of a hex dump.
+     */
+    private static final char[] BYTE_ASCII = new char[256];
+
+    static {
+        for (int b = 0; b < 256; b++) {
+            BYTE_HEX[b << 1] = HEX_DIGITS[b >>> 4];
+            BYTE_HEX[(b << 1) + 1] = HEX_DIGITS[b & 0xF];
+            for (int bit = 0; bit < 8; bit++) {
+                BYTE_BINARY[(b << 3) + bit] = (b & (0x80 >>> bit)) == 0 ? '0' : '1';
+            }
+            BYTE_ASCII[b] = b >= 0x20 && b < 0x7F ? (char) b : '.';
+        }
+    }
+
+    /**
+     * Utility class, no instances.
+     */
+    private BitFormatter() {
+    }
+
+    /**
+     * Write the low bits of a value as binary digits, most significant first, left-padded with 0's.
+     *
+     * @param value  The value.
+     * @param bits   The number of bits to write (1-64), e.g. 8 for a byte.
+     * @param dest   The array to write to.
+     * @param offset The offset of the first digit.
+     *
+     * @return The offset after the last digit.
+     *
+     * @throws IllegalArgumentException  When the number of bits is not valid.
+     * @throws IndexOutOfBoundsException When the digits do not fit in the array.
+     */
+    @AllocationFree
+    public static int formatBinary(long value, int bits, char[] dest, int offset) throws IllegalArgumentException, IndexOutOfBoundsException {
+        checkBits(bits);
+        checkRange(dest.length, offset, bits);
+        int position = offset;
+        int head = bits & 7;
+        for (int bit = bits - 1; bit >= bits - head; bit--) {
+            dest[position++] = (char) ('0' + ((value >>> bit) & 1));
+        }
+        for (int shift = bits - head - 8; shift >= 0; shift -= 8) {
+            System.arraycopy(BYTE_BINARY, (int) ((value >>> shift) & 0xFF) << 3, dest, position, 8);
+            position += 8;
+        }
+        return position;
+    }
+
+    /**
+     * Write the low bits of a value as hexadecimal digits, most significant first, left-padded with 0's.
+     *
+     * @param value  The value.
+     * @param bits   The number of bits to write (1-64), e.g. 32 for an int; a digit is written per started 4 bits.
+     * @param dest   The array to write to.
+     * @param offset The offset of the first digit.
+     *
+     * @return The offset after the last digit.
+     *
+     * @throws IllegalArgumentException  When the number of bits is not valid.
+     * @throws IndexOutOfBoundsException When the digits do not fit in the array.
+     */
+    @AllocationFree
+    public static int formatHex(long value, int bits, char[] dest, int offset) throws IllegalArgumentException, IndexOutOfBoundsException {
+        checkBits(bits);
+        int digits = (bits + 3) >>> 2;
+        checkRange(dest.length, offset, digits);
+        long bitsValue = value & (-1L >>> (64 - bits));
+        int position = offset;
+        for (int shift = (digits - 1) << 2; shift >= 0; shift -= 4) {
+            dest[position++] = HEX_DIGITS[(int) ((bitsValue >>> shift) & 0xF)];
+        }
+        return position;
+    }
+
+    /**
+     * Write a range of bytes as binary digits, 8 per byte without separators.
+     *
+     * @param data       The bytes.
+     * @param offset     The offset of the first byte.
+     * @param length     The number of bytes.
+     * @param dest       The array to write to.
+     * @param destOffset The offset of the first digit.
+     *
+     * @return The offset after the last digit.
+     *
+     * @throws IndexOutOfBoundsException When the range is not valid or the digits do not fit in the array.
+     */
+    @AllocationFree
+    public static int formatBinary(byte[] data, int offset, int length, char[] dest, int destOffset) throws IndexOutOfBoundsException {
+        checkRange(data.length, offset, length);
+        checkRange(dest.length, destOffset, length << 3);
+        int position = destOffset;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            System.arraycopy(BYTE_BINARY, (data[i] & 0xFF) << 3, dest, position, 8);
+            position += 8;
+        }
+        return position;
+    }
+
+    /**
+     * Write a range of bytes as hexadecimal digits, 2 per byte without separators.
+     *
+     * @param data       The bytes.
+     * @param offset     The offset of the first byte.
+     * @param length     The number of bytes.
+     * @param dest       The array to write to.
+     * @param destOffset The offset of the first digit.
+     *
+     * @return The offset after the last digit.
+     *
+     * @throws IndexOutOfBoundsException When the range is not valid or the digits do not fit in the array.
+     */
+    @AllocationFree
+    public static int formatHex(byte[] data, int offset, int length, char[] dest, int destOffset) throws IndexOutOfBoundsException {
+        checkRange(data.length, offset, length);
+        checkRange(dest.length, destOffset, length << 1);
+        int position = destOffset;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            int index = (data[i] & 0xFF) << 1;
+            dest[position++] = BYTE_HEX[index];
+            dest[position++] = BYTE_HEX[index + 1];
+        }
+        return position;
+    }
+
+    /**
+     * Append the low bits of a value as binary digits, most significant first, left-padded with 0's.
+     *
+     * @param out   The appendable.
+     * @param value The value.
+     * @param bits  The number of bits to write (1-64).
+     *
+     * @throws IOException              When appending failed.
+     * @throws IllegalArgumentException When the number of bits is not valid.
+     */
+    public static void appendBinary(Appendable out, long value, int bits) throws IOException, IllegalArgumentException {
+        checkBits(bits);
+        for (int bit = bits - 1; bit >= 0; bit--) {
+            out.append((char) ('0' + ((value >>> bit) & 1)));
+        }
+    }
+
+    /**
+     * Append the low bits of a value as hexadecimal digits, most significant first, left-padded with 0's.
+     *
+     * @param out   The appendable.
+     * @param value The value.
+     * @param bits  The number of bits to write (1-64); a digit is written per started 4 bits.
+     *
+     * @throws IOException              When appending failed.
+     * @throws IllegalArgumentException When the number of bits is not valid.
+     */
+    public static void appendHex(Appendable out, long value, int bits) throws IOException, IllegalArgumentException {
+        checkBits(bits);
+        long bitsValue = value & (-1L >>> (64 - bits));
+        for (int shift = (((bits + 3) >>> 2) - 1) << 2; shift >= 0; shift -= 4) {
+            out.append(HEX_DIGITS[(int) ((bitsValue >>> shift) & 0xF)]);
+        }
+    }
+
+    /**
+     * Append a range of bytes as binary digits, 8 per byte without separators.
+     *
+     * @param out    The appendable.
+     * @param data   The bytes.
+     * @param offset The offset of the first byte.
+     * @param length The number of bytes.
+     *
+     * @throws IOException               When appending failed.
+     * @throws IndexOutOfBoundsException When the range is not valid.
+     */
+    public static void appendBinary(Appendable out, byte[] data, int offset, int length) throws IOException, IndexOutOfBoundsException {
+        checkRange(data.length, offset, length);
+        for (int i = offset, end = offset + length; i < end; i++) {
+            int index = (data[i] & 0xFF) << 3;
+            for (int bit = 0; bit < 8; bit++) {
+                out.append(BYTE_BINARY[index + bit]);
+            }
+        }
+    }
+
+    /**
+     * Append a range of bytes as hexadecimal digits, 2 per byte without separators.
+     *
+     * @param out    The appendable.
+     * @param data   The bytes.
+     * @param offset The offset of the first byte.
+     * @param length The number of bytes.
+     *
+     * @throws IOException               When appending failed.
+     * @throws IndexOutOfBoundsException When the range is not valid.
+     */
+    public static void appendHex(Appendable out, byte[] data, int offset, int length) throws IOException, IndexOutOfBoundsException {
+        checkRange(data.length, offset, length);
+        for (int i = offset, end = offset + length; i < end; i++) {
+            int index = (data[i] & 0xFF) << 1;
+            out.append(BYTE_HEX[index]).append(BYTE_HEX[index + 1]);
+        }
+    }
+
+    /**
+     * Append the remaining bytes of a buffer as hexadecimal digits, 2 per byte without separators, without changing
+     * the position of the buffer.
+     *
+     * @param out    The appendable.
+     * @param buffer The buffer.
+     *
+     * @throws IOException When appending failed.
+     */
+    public static void appendHex(Appendable out, ByteBuffer buffer) throws IOException {
+        for (int i = buffer.position(), end = buffer.limit(); i < end; i++) {
+            int index = (buffer.get(i) & 0xFF) << 1;
+            out.append(BYTE_HEX[index]).append(BYTE_HEX[index + 1]);
+        }
+    }
+
+    /**
+     * Get the number of characters of a hex dump.
+     *
+     * @param length  The number of bytes.
+     * @param address The address of the first byte.
+     *
+     * @return The number of characters, including the line separators.
+     */
+    public static long getHexDumpLength(int length, long address) {
+        long lines = (length + DUMP_BYTES_PER_LINE - 1) / DUMP_BYTES_PER_LINE;
+        long full = length / DUMP_BYTES_PER_LINE;
+        int partial = length % DUMP_BYTES_PER_LINE;
+        return lines * (addressDigits(length, address) + 2 + 3 * DUMP_BYTES_PER_LINE + 1 + 1 + 2 + 1)
+                + full * DUMP_BYTES_PER_LINE + partial;
+    }
+
+    /**
+     * Write a hex dump of a range of bytes.
+     *
+     * @param data       The bytes.
+     * @param offset     The offset of the first byte.
+     * @param length     The number of bytes.
+     * @param address    The address to show for the first byte, e.g. its offset in a larger buffer.
+     * @param dest       The array to write to.
+     * @param destOffset The offset of the first character.
+     *
+     * @return The offset after the last character.
+     *
+     * @throws IndexOutOfBoundsException When the range is not valid or the dump does not fit in the array, see
+     *                                   {@link #getHexDumpLength(int, long)}.
+     */
+    @AllocationFree
+    public static int hexDump(byte[] data, int offset, int length, long address, char[] dest, int destOffset) throws IndexOutOfBoundsException {
+        checkRange(data.length, offset, length);
+        long dumpLength = getHexDumpLength(length, address);
+        if (dumpLength > dest.length - destOffset || destOffset < 0) {
+            throw new IndexOutOfBoundsException("Hex dump of " + dumpLength + " characters does not fit at offset " + destOffset + " of " + dest.length);
+        }
+        int digits = addressDigits(length, address);
+        int position = destOffset;
+        for (int i = 0; i < length; i += DUMP_BYTES_PER_LINE) {
+            position = dumpLine(data, offset + i, Math.min(DUMP_BYTES_PER_LINE, length - i), address + i, digits, dest, position);
+        }
+        return position;
+    }
+
+    /**
+     * Append a hex dump of a range of bytes.
+     *
+     * @param out     The appendable.
+     * @param data    The bytes.
+     * @param offset  The offset of the first byte.
+     * @param length  The number of bytes.
+     * @param address The address to show for the first byte, e.g. its offset in a larger buffer.
+     *
+     * @throws IOException               When appending failed.
+     * @throws IndexOutOfBoundsException When the range is not valid.
+     */
+    public static void hexDump(Appendable out, byte[] data, int offset, int length, long address) throws IOException, IndexOutOfBoundsException {
+        checkRange(data.length, offset, length);
+        int digits = addressDigits(length, address);
+        char[] line = new char[lineLength(digits)];
+        for (int i = 0; i < length; i += DUMP_BYTES_PER_LINE) {
+            int end = dumpLine(data, offset + i, Math.min(DUMP_BYTES_PER_LINE, length - i), address + i, digits, line, 0);
+            append(out, line, end);
+        }
+    }
+
+    /**
+     * Append a hex dump of the remaining bytes of a buffer, without changing the position of the buffer. The address of
+     * the first byte is its position.
+     *
+     * @param out    The appendable.
+     * @param buffer The buffer.
+     *
+     * @throws IOException When appending failed.
+     */
+    public static void hexDump(Appendable out, ByteBuffer buffer) throws IOException {
+        int position = buffer.position();
+        int length = buffer.remaining();
+        if (buffer.hasArray()) {
+            hexDump(out, buffer.array(), buffer.arrayOffset() + position, length, position);
+            return;
+        }
+        int digits = addressDigits(length, position);
+        char[] line = new char[lineLength(digits)];
+        byte[] bytes = new byte[DUMP_BYTES_PER_LINE];
+        for (int i = 0; i < length; i += DUMP_BYTES_PER_LINE) {
+            int count = Math.min(DUMP_BYTES_PER_LINE, length - i);
+            for (int b = 0; b < count; b++) {
+                bytes[b] = buffer.get(position + i + b);
+            }
+            int end = dumpLine(bytes, 0, count, position + i, digits, line, 0);
+            append(out, line, end);
+        }
+    }
+
+    /**
+     * Write a line of a hex dump.
+     *
+     * @param data     The bytes.
+     * @param offset   The offset of the first byte of the line.
+     * @param count    The number of bytes on the line (1-16).
+     * @param address  The address of the first byte of the line.
+     * @param digits   The number of digits of the address.
+     * @param dest     The array to write to.
+     * @param position The offset of the first character.
+     *
+     * @return The offset after the line separator.
+     */
+    private static int dumpLine(byte[] data, int offset, int count, long address, int digits, char[] dest, int position) {
+        for (int shift = (digits - 1) << 2; shift >= 0; shift -= 4) {
+            dest[position++] = HEX_DIGITS[(int) ((address >>> shift) & 0xF)];
+        }
+        dest[position++] = ' ';
+        for (int i = 0; i < DUMP_BYTES_PER_LINE; i++) {
+            if (i == DUMP_BYTES_PER_LINE / 2) {
+                dest[position++] = ' ';
+            }
+            dest[position++] = ' ';
+            if (i < count) {
+                int index = (data[offset + i] & 0xFF) << 1;
+                dest[position++] = BYTE_HEX[index];
+                dest[position++] = BYTE_HEX[index + 1];
+            } else {
+                dest[position++] = ' ';
+                dest[position++] = ' ';
+            }
+        }
+        dest[position++] = ' ';
+        dest[position++] = ' ';
+        dest[position++] = '|';
+        for (int i = 0; i < count; i++) {
+            dest[position++] = BYTE_ASCII[data[offset + i] & 0xFF];
+        }
+        dest[position++] = '|';
+        dest[position++] = '\n';
+        return position;
+    }
+
+    /**
+     * Append characters from an array, in bulk for the appendables that support it.
+     *
+     * @param out    The appendable.
+     * @param chars  The characters.
+     * @param length The number of characters.
+     *
+     * @throws IOException When appending failed.
+     */
+    private static void append(Appendable out, char[] chars, int length) throws IOException {
+        if (out instanceof StringBuilder) {
+            ((StringBuilder) out).append(chars, 0, length);
+        } else if (out instanceof Writer) {
+            ((Writer) out).write(chars, 0, length);
+        } else {
+            for (int i = 0; i < length; i++) {
+                out.append(chars[i]);
+            }
+        }
+    }
+
+    /**
+     * Get the number of characters of a full line of a hex dump.
+     *
+     * @param digits The number of digits of the address.
+     *
+     * @return The number of characters, including the line separator.
+     */
+    private static int lineLength(int digits) {
+        return digits + 2 + 3 * DUMP_BYTES_PER_LINE + 1 + 1 + 2 + DUMP_BYTES_PER_LINE + 1;
+    }
+
+    /**
+     * Get the number of digits of the addresses of a hex dump.
+     *
+     * @param length  The number of bytes.
+     * @param address The address of the first byte.
+     *
+     * @return 8, or 16 when the last address does not fit in 32 bits.
+     */
+    private static int addressDigits(int length, long address) {
+        return ((address + length - 1) >>> 32) == 0 ? 8 : 16;
+    }
+
+    /**
+     * Check a number of bits of a value.
+     *
+     * @param bits The number of bits.
+     *
+     * @throws IllegalArgumentException When the number of bits is not valid.
+     */
+    private static void checkBits(int bits) throws IllegalArgumentException {
+        if (bits < 1 || bits > 64) {
+            throw new IllegalArgumentException("Number of bits " + bits + " is not valid, the range is 1 - 64");
+        }
+    }
+
+    /**
+     * Check that a range is valid for an array.
+     *
+     * @param arrayLength The length of the array.
+     * @param offset      The offset of the range.
+     * @param length      The length of the range.
+     *
+     * @throws IndexOutOfBoundsException When the range is not valid.
+     */
+    private static void checkRange(int arrayLength, int offset, int length) throws IndexOutOfBoundsException {
+        if (offset < 0 || length < 0 || offset > arrayLength - length) {
+            throw new IndexOutOfBoundsException("Range " + offset + " + " + length + " is not valid for an array of " + arrayLength + " elements");
+        }
+    }
+}
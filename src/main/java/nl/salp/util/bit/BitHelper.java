@@ -1,8 +1,15 @@
 package nl.salp.util.bit;
 
+import nl.salp.util.AllocationFree;
+
 /**
  * Base implementation for data type specific bitwise operation helper functions.
  *
+ * <p>
+ * The generic operations box their values and take the bit indexes as varargs, so they allocate on every call. The
+ * implementations add {@link AllocationFree} overloads for primitive values and a single bit index.
+ * </p>
+ *
  * @param <K> The type to work on.
  */
 public abstract class BitHelper<K extends Number> {
@@ -163,11 +170,9 @@ public abstract class BitHelper<K extends Number> {
      * @return The binary string.
      */
     public final String toBinaryString(K value) {
-        String str = String.format("%" + bitLength + "s", Long.toBinaryString(value.longValue())).replace(' ', '0');
-        if (str.length() > bitLength) {
-            str = str.substring(str.length() - bitLength);
-        }
-        return str;
+        char[] digits = new char[bitLength];
+        BitFormatter.formatBinary(value.longValue(), bitLength, digits, 0);
+        return new String(digits);
     }
 
     /**
@@ -260,6 +265,126 @@ public abstract class BitHelper<K extends Number> {
             super(8);
         }
 
+        /**
+         * Check if a bit at a certain position is set, counting from LSB, starting with 0.
+         *
+         * @param value The value to check the bit on.
+         * @param bit   The index of the bit to check.
+         *
+         * @return <code>true</code> if the bit is set.
+         *
+         * @throws IllegalArgumentException When the bit index is not valid.
+         */
+        @AllocationFree
+        public boolean isBitSet(byte value, int bit) {
+            checkBitIndex(bit);
+            return (value & (1 << bit)) != 0;
+        }
+
+        /**
+         * Set the bit at a certain position to 1, counting from LSB, starting with 0.
+         *
+         * @param value The value to set the bit on.
+         * @param bit   The index of the bit to set.
+         *
+         * @return The new value.
+         *
+         * @throws IllegalArgumentException When the bit index is not valid.
+         */
+        @AllocationFree
+        public byte setBit(byte value, int bit) {
+            checkBitIndex(bit);
+            return (byte) (value | (1 << bit));
+        }
+
+        /**
+         * Set the bit at a certain position to 0, counting from LSB, starting with 0.
+         *
+         * @param value The value to unset the bit on.
+         * @param bit   The index of the bit to unset.
+         *
+         * @return The new value.
+         *
+         * @throws IllegalArgumentException When the bit index is not valid.
+         */
+        @AllocationFree
+        public byte unsetBit(byte value, int bit) {
+            checkBitIndex(bit);
+            return (byte) (value & ~(1 << bit));
+        }
+
+        /**
+         * Check if the LSB is set on the value.
+         *
+         * @param value The value.
+         *
+         * @return <code>true</code> if the LSB is set.
+         */
+        @AllocationFree
+        public boolean isLsbSet(byte value) {
+            return (value & 1) != 0;
+        }
+
+        /**
+         * Set the LSB to 1 on the value.
+         *
+         * @param value The value.
+         *
+         * @return The value with the LSB set to 1.
+         */
+        @AllocationFree
+        public byte setLsb(byte value) {
+            return (byte) (value | 1);
+        }
+
+        /**
+         * Set the LSB to 0 on the value.
+         *
+         * @param value The value.
+         *
+         * @return The value with the LSB set to 0.
+         */
+        @AllocationFree
+        public byte unsetLsb(byte value) {
+            return (byte) (value & ~1);
+        }
+
+        /**
+         * Check if the MSB is set to 1 on a value.
+         *
+         * @param value The value.
+         *
+         * @return <code>true</code> if the MSB is set.
+         */
+        @AllocationFree
+        public boolean isMsbSet(byte value) {
+            return value < 0;
+        }
+
+        /**
+         * Set the MSB to 1 on a value.
+         *
+         * @param value The value.
+         *
+         * @return The value with the MSB set to 1.
+         */
+        @AllocationFree
+        public byte setMsb(byte value) {
+            return (byte) (value | Byte.MIN_VALUE);
+        }
+
+        /**
+         * Set the MSB to 0 on a value.
+         *
+         * @param value The value.
+         *
+         * @return The value with the MSB set to 0.
+         */
+        @AllocationFree
+        public byte unsetMsb(byte value) {
+            return (byte) (value & ~Byte.MIN_VALUE);
+        }
+
         @Override
         protected Byte getLsbMask() {
             return 1;
@@ -307,6 +432,126 @@ public abstract class BitHelper<K extends Number> {
             super(16);
         }
 
+        /**
+         * Check if a bit at a certain position is set, counting from LSB, starting with 0.
+         *
+         * @param value The value to check the bit on.
+         * @param bit   The index of the bit to check.
+         *
+         * @return <code>true</code> if the bit is set.
+         *
+         * @throws IllegalArgumentException When the bit index is not valid.
+         */
+        @AllocationFree
+        public boolean isBitSet(short value, int bit) {
+            checkBitIndex(bit);
+            return (value & (1 << bit)) != 0;
+        }
+
+        /**
+         * Set the bit at a certain position to 1, counting from LSB, starting with 0.
+         *
+         * @param value The value to set the bit on.
+         * @param bit   The index of the bit to set.
+         *
+         * @return The new value.
+         *
+         * @throws IllegalArgumentException When the bit index is not valid.
+         */
+        @AllocationFree
+        public short setBit(short value, int bit) {
+            checkBitIndex(bit);
+            return (short) (value | (1 << bit));
+        }
+
+        /**
+         * Set the bit at a certain position to 0, counting from LSB, starting with 0.
+         *
+         * @param value The value to unset the bit on.
+         * @param bit   The index of the bit to unset.
+         *
+         * @return The new value.
+         *
+         * @throws IllegalArgumentException When the bit index is not valid.
+         */
+        @AllocationFree
+        public short unsetBit(short value, int bit) {
+            checkBitIndex(bit);
+            return (short) (value & ~(1 << bit));
+        }
+
+        /**
+         * Check if the LSB is set on the value.
+         *
+         * @param value The value.
+         *
+         * @return <code>true</code> if the LSB is set.
+         */
+        @AllocationFree
+        public boolean isLsbSet(short value) {
+            return (value & 1) != 0;
+        }
+
+        /**
+         * Set the LSB to 1 on the value.
+         *
+         * @param value The value.
+         *
+         * @return The value with the LSB set to 1.
+         */
+        @AllocationFree
+        public short setLsb(short value) {
+            return (short) (value | 1);
+        }
+
+        /**
+         * Set the LSB to 0 on the value.
+         *
+         * @param value The value.
+         *
+         * @return The value with the LSB set to 0.
+         */
+        @AllocationFree
+        public short unsetLsb(short value) {
+            return (short) (value & ~1);
+        }
+
+        /**
+         * Check if the MSB is set to 1 on a value.
+         *
+         * @param value The value.
+         *
+         * @return <code>true</code> if the MSB is set.
+         */
+        @AllocationFree
+        public boolean isMsbSet(short value) {
+            return value < 0;
+        }
+
+        /**
+         * Set the MSB to 1 on a value.
+         *
+         * @param value The value.
+         *
+         * @return The value with the MSB set to 1.
+         */
+        @AllocationFree
+        public short setMsb(short value) {
+            return (short) (value | Short.MIN_VALUE);
+        }
+
+        /**
+         * Set the MSB to 0 on a value.
+         *
+         * @param value The value.
+         *
+         * @return The value with the MSB set to 0.
+         */
+        @AllocationFree
+        public short unsetMsb(short value) {
+            return (short) (value & ~Short.MIN_VALUE);
+        }
+
         @Override
         protected Short getLsbMask() {
             return 1;
@@ -354,6 +599,126 @@ public abstract class BitHelper<K extends Number> {
             super(32);
         }
 
+        /**
+         * Check if a bit at a certain position is set, counting from LSB, starting with 0.
+         *
+         * @param value The value to check the bit on.
+         * @param bit   The index of the bit to check.
+         *
+         * @return <code>true</code> if the bit is set.
+         *
+         * @throws IllegalArgumentException When the bit index is not valid.
+         */
+        @AllocationFree
+        public boolean isBitSet(int value, int bit) {
+            checkBitIndex(bit);
+            return (value & (1 << bit)) != 0;
+        }
+
+        /**
+         * Set the bit at a certain position to 1, counting from LSB, starting with 0.
+         *
+         * @param value The value to set the bit on.
+         * @param bit   The index of the bit to set.
+         *
+         * @return The new value.
+         *
+         * @throws IllegalArgumentException When the bit index is not valid.
+         */
+        @AllocationFree
+        public int setBit(int value, int bit) {
+            checkBitIndex(bit);
+            return (value | (1 << bit));
+        }
+
+        /**
+         * Set the bit at a certain position to 0, counting from LSB, starting with 0.
+         *
+         * @param value The value to unset the bit on.
+         * @param bit   The index of the bit to unset.
+         *
+         * @return The new value.
+         *
+         * @throws IllegalArgumentException When the bit index is not valid.
+         */
+        @AllocationFree
+        public int unsetBit(int value, int bit) {
+            checkBitIndex(bit);
+            return (value & ~(1 << bit));
+        }
+
+        /**
+         * Check if the LSB is set on the value.
+         *
+         * @param value The value.
+         *
+         * @return <code>true</code> if the LSB is set.
+         */
+        @AllocationFree
+        public boolean isLsbSet(int value) {
+            return (value & 1) != 0;
+        }
+
+        /**
+         * Set the LSB to 1 on the value.
+         *
+         * @param value The value.
+         *
+         * @return The value with the LSB set to 1.
+         */
+        @AllocationFree
+        public int setLsb(int value) {
+            return (value | 1);
+        }
+
+        /**
+         * Set the LSB to 0 on the value.
+         *
+         * @param value The value.
+         *
+         * @return The value with the LSB set to 0.
+         */
+        @AllocationFree
+        public int unsetLsb(int value) {
+            return (value & ~1);
+        }
+
+        /**
+         * Check if the MSB is set to 1 on a value.
+         *
+         * @param value The value.
+         *
+         * @return <code>true</code> if the MSB is set.
+         */
+        @AllocationFree
+        public boolean isMsbSet(int value) {
+            return value < 0;
+        }
+
+        /**
+         * Set the MSB to 1 on a value.
+         *
+         * @param value The value.
+         *
+         * @return The value with the MSB set to 1.
+         */
+        @AllocationFree
+        public int setMsb(int value) {
+            return (value | Integer.MIN_VALUE);
+        }
+
+        /**
+         * Set the MSB to 0 on a value.
+         *
+         * @param value The value.
+         *
+         * @return The value with the MSB set to 0.
+         */
+        @AllocationFree
+        public int unsetMsb(int value) {
+            return (value & ~Integer.MIN_VALUE);
+        }
+
         @Override
         protected Integer getLsbMask() {
             return 1;
@@ -398,7 +763,127 @@ public abstract class BitHelper<K extends Number> {
          * Create a new LongBitHelper.
          */
         public LongBitHelper() {
-            super(32);
+            super(64);
+        }
+
+        /**
+         * Check if a bit at a certain position is set, counting from LSB, starting with 0.
+         *
+         * @param value The value to check the bit on.
+         * @param bit   The index of the bit to check.
+         *
+         * @return <code>true</code> if the bit is set.
+         *
+         * @throws IllegalArgumentException When the bit index is not valid.
+         */
+        @AllocationFree
+        public boolean isBitSet(long value, int bit) {
+            checkBitIndex(bit);
+            return (value & (1L << bit)) != 0;
+        }
+
+        /**
+         * Set the bit at a certain position to 1, counting from LSB, starting with 0.
+         *
+         * @param value The value to set the bit on.
+         * @param bit   The index of the bit to set.
+         *
+         * @return The new value.
+         *
+         * @throws IllegalArgumentException When the bit index is not valid.
+         */
+        @AllocationFree
+        public long setBit(long value, int bit) {
+            checkBitIndex(bit);
+            return (value | (1L << bit));
+        }
+
+        /**
+         * Set the bit at a certain position to 0, counting from LSB, starting with 0.
+         *
+         * @param value The value to unset the bit on.
+         * @param bit   The index of the bit to unset.
+         *
+         * @return The new value.
+         *
+         * @throws IllegalArgumentException When the bit index is not valid.
+         */
+        @AllocationFree
+        public long unsetBit(long value, int bit) {
+            checkBitIndex(bit);
+            return (value & ~(1L << bit));
+        }
+
+        /**
+         * Check if the LSB is set on the value.
+         *
+         * @param value The value.
+         *
+         * @return <code>true</code> if the LSB is set.
+         */
+        @AllocationFree
+        public boolean isLsbSet(long value) {
+            return (value & 1) != 0;
+        }
+
+        /**
+         * Set the LSB to 1 on the value.
+         *
+         * @param value The value.
+         *
+         * @return The value with the LSB set to 1.
+         */
+        @AllocationFree
+        public long setLsb(long value) {
+            return (value | 1);
+        }
+
+        /**
+         * Set the LSB to 0 on the value.
+         *
+         * @param value The value.
+         *
+         * @return The value with the LSB set to 0.
+         */
+        @AllocationFree
+        public long unsetLsb(long value) {
+            return (value & ~1);
+        }
+
+        /**
+         * Check if the MSB is set to 1 on a value.
+         *
+         * @param value The value.
+         *
+         * @return <code>true</code> if the MSB is set.
+         */
+        @AllocationFree
+        public boolean isMsbSet(long value) {
+            return value < 0;
+        }
+
+        /**
+         * Set the MSB to 1 on a value.
+         *
+         * @param value The value.
+         *
+         * @return The value with the MSB set to 1.
+         */
+        @AllocationFree
+        public long setMsb(long value) {
+            return (value | Long.MIN_VALUE);
+        }
+
+        /**
+         * Set the MSB to 0 on a value.
+         *
+         * @param value The value.
+         *
+         * @return The value with the MSB set to 0.
+         */
+        @AllocationFree
+        public long unsetMsb(long value) {
+            return (value & ~Long.MIN_VALUE);
         }
 
         @Override
@@ -426,7 +911,7 @@ public abstract class BitHelper<K extends Number> {
             long result = 0;
             for (int idx : bitIndexes) {
                 checkBitIndex(idx);
-                result = result | (1 << idx);
+                result = result | (1L << idx);
             }
             return result;
         }
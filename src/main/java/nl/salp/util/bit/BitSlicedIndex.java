@@ -0,0 +1,336 @@
+package nl.salp.util.bit;
+
+/**
+ * Bit-sliced index over a column of non-negative integer values, answering range, equality and top-K queries with a
+ * {@link LongBitSet} of matching rows.
+ *
+ * <p>
+ * Slice <code>i</code> is a {@link LongBitSet} with bit <code>row</code> set when bit <code>i</code> of the value of
+ * the row is set. Queries compare all rows against a value at once by walking the slices from the MSB down and
+ * combining them with {@link LongBitSet#and(LongBitSet)}, {@link LongBitSet#or(LongBitSet)} and
+ * {@link LongBitSet#andNot(LongBitSet)}, so a query takes a few bulk word operations per slice: its cost scales with
+ * the bit width of the values, with a 64 rows per word constant, instead of comparing every row.
+ * </p>
+ *
+ * <p>
+ * Instances are immutable and thread-safe; the returned bit sets are new and owned by the caller.
+ * </p>
+ */
+public class BitSlicedIndex {
+    /**
+     * The number of rows.
+     */
+    private final long rows;
+    /**
+     * The slices, indexed by bit position.
+     */
+    private final LongBitSet[] slices;
+
+    /**
+     * Create a new BitSlicedIndex over values, using as many slices as the largest value needs.
+     *
+     * @param values The values, one per row.
+     *
+     * @throws IllegalArgumentException When no values are provided or a value is negative.
+     */
+    public BitSlicedIndex(long[] values) throws IllegalArgumentException {
+        this(values, bitsFor(values));
+    }
+
+    /**
+     * Create a new BitSlicedIndex over values with a fixed number of slices.
+     *
+     * @param values The values, one per row.
+     * @param bits   The number of slices (1 - 63).
+     *
+     * @throws IllegalArgumentException When no values are provided, the number of slices is not valid or a value is
+     *                                  negative or does not fit in the slices.
+     */
+    public BitSlicedIndex(long[] values, int bits) throws IllegalArgumentException {
+        if (values == null) {
+            throw new IllegalArgumentException("No values provided");
+        }
+        if (bits < 1 || bits > 63) {
+            throw new IllegalArgumentException("Number of bits " + bits + " is not valid, the range is 1 - 63");
+        }
+        this.rows = values.length;
+        this.slices = new LongBitSet[bits];
+        long[][] words = new long[bits][];
+        for (int bit = 0; bit < bits; bit++) {
+            slices[bit] = new LongBitSet(rows);
+            words[bit] = slices[bit].words();
+        }
+        for (int row = 0; row < values.length; row++) {
+            long value = values[row];
+            if (value < 0 || value >>> bits != 0) {
+                throw new IllegalArgumentException("Value " + value + " of row " + row + " does not fit in " + bits + " bits");
+            }
+            long rowBit = 1L << row;
+            int wordIndex = row >>> 6;
+            while (value != 0) {
+                words[Long.numberOfTrailingZeros(value)][wordIndex] |= rowBit;
+                value &= value - 1;
+            }
+        }
+    }
+
+    /**
+     * Get the number of rows.
+     *
+     * @return The number of rows.
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    /**
+     * Get the number of slices, which is the number of bits per value.
+     *
+     * @return The number of slices.
+     */
+    public int getBits() {
+        return slices.length;
+    }
+
+    /**
+     * Get the value of a row from the slices.
+     *
+     * @param row The row.
+     *
+     * @return The value.
+     *
+     * @throws IndexOutOfBoundsException When the row is not valid.
+     */
+    public long get(long row) throws IndexOutOfBoundsException {
+        long value = 0;
+        for (int bit = 0; bit < slices.length; bit++) {
+            if (slices[bit].get(row)) {
+                value |= 1L << bit;
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Find the rows with a value.
+     *
+     * @param value The value.
+     *
+     * @return The matching rows.
+     */
+    public LongBitSet equalTo(long value) {
+        if (value < 0 || value >>> slices.length != 0) {
+            return new LongBitSet(rows);
+        }
+        LongBitSet result = allRows();
+        for (int bit = slices.length - 1; bit >= 0; bit--) {
+            if ((value & (1L << bit)) != 0) {
+                result.and(slices[bit]);
+            } else {
+                result.andNot(slices[bit]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Find the rows with a value less than a bound.
+     *
+     * @param bound The bound (exclusive).
+     *
+     * @return The matching rows.
+     */
+    public LongBitSet lessThan(long bound) {
+        return compare(bound, false);
+    }
+
+    /**
+     * Find the rows with a value less than or equal to a bound.
+     *
+     * @param bound The bound (inclusive).
+     *
+     * @return The matching rows.
+     */
+    public LongBitSet lessThanOrEqual(long bound) {
+        return compare(bound, true);
+    }
+
+    /**
+     * Find the rows with a value greater than a bound.
+     *
+     * @param bound The bound (exclusive).
+     *
+     * @return The matching rows.
+     */
+    public LongBitSet greaterThan(long bound) {
+        return allRows().andNot(compare(bound, true));
+    }
+
+    /**
+     * Find the rows with a value greater than or equal to a bound.
+     *
+     * @param bound The bound (inclusive).
+     *
+     * @return The matching rows.
+     */
+    public LongBitSet greaterThanOrEqual(long bound) {
+        return allRows().andNot(compare(bound, false));
+    }
+
+    /**
+     * Find the rows with a value in a range, like <code>value BETWEEN from AND to</code>.
+     *
+     * @param from The lower bound (inclusive).
+     * @param to   The upper bound (inclusive).
+     *
+     * @return The matching rows, none if the lower bound is above the upper bound.
+     */
+    public LongBitSet between(long from, long to) {
+        if (from > to) {
+            return new LongBitSet(rows);
+        }
+        return compare(to, true).andNot(compare(from, false));
+    }
+
+    /**
+     * Find the rows with the largest values.
+     *
+     * @param k The number of rows.
+     *
+     * @return The rows, with ties at the smallest included value broken by the lowest rows.
+     *
+     * @throws IllegalArgumentException When the number of rows is negative.
+     */
+    public LongBitSet topK(long k) throws IllegalArgumentException {
+        return topK(k, allRows());
+    }
+
+    /**
+     * Find the rows with the largest values among candidate rows, such as the result of a range query.
+     *
+     * <p>
+     * The slices are walked from the MSB down, keeping the rows that are certainly in the result and the rows that are
+     * still tied: at each slice the tied rows with the bit set are added to the result if that does not exceed
+     * <code>k</code> rows, otherwise the tied rows are narrowed down to them. The remaining rows are taken from the rows
+     * that are tied over all slices.
+     * </p>
+     *
+     * @param k          The number of rows.
+     * @param candidates The candidate rows, not modified.
+     *
+     * @return The rows, all candidates if there are at most <code>k</code> candidates, with ties at the smallest
+     * included value broken by the lowest rows.
+     *
+     * @throws IllegalArgumentException When the number of rows is negative or the candidates do not have a bit per row.
+     */
+    public LongBitSet topK(long k, LongBitSet candidates) throws IllegalArgumentException {
+        if (k < 0) {
+            throw new IllegalArgumentException("Number of rows " + k + " is not valid");
+        }
+        LongBitSet tied = new LongBitSet(rows).or(candidates);
+        if (tied.cardinality() <= k) {
+            return tied;
+        }
+        LongBitSet result = new LongBitSet(rows);
+        LongBitSet included = new LongBitSet(rows);
+        long count = 0;
+        for (int bit = slices.length - 1; bit >= 0 && count < k; bit--) {
+            included.clear();
+            included.or(tied).and(slices[bit]);
+            long includedCount = included.cardinality();
+            if (count + includedCount > k) {
+                tied.and(slices[bit]);
+            } else {
+                result.or(included);
+                count += includedCount;
+                tied.andNot(slices[bit]);
+            }
+        }
+        for (long row = tied.nextSetBit(0); row >= 0 && count < k; row = tied.nextSetBit(row + 1)) {
+            result.set(row);
+            count++;
+        }
+        return result;
+    }
+
+    /**
+     * Find the rows with a value less than (or equal to) a bound, walking the slices from the MSB down while keeping
+     * the rows that are certainly less and the rows that are equal so far.
+     *
+     * @param bound     The bound.
+     * @param inclusive <code>true</code> to include the rows equal to the bound.
+     *
+     * @return The matching rows.
+     */
+    private LongBitSet compare(long bound, boolean inclusive) {
+        if (bound < 0) {
+            return new LongBitSet(rows);
+        }
+        if (bound >>> slices.length != 0) {
+            return allRows();
+        }
+        LongBitSet less = new LongBitSet(rows);
+        LongBitSet equal = allRows();
+        LongBitSet lower = new LongBitSet(rows);
+        for (int bit = slices.length - 1; bit >= 0; bit--) {
+            if ((bound & (1L << bit)) != 0) {
+                lower.clear();
+                less.or(lower.or(equal).andNot(slices[bit]));
+                equal.and(slices[bit]);
+            } else {
+                equal.andNot(slices[bit]);
+            }
+        }
+        return inclusive ? less.or(equal) : less;
+    }
+
+    /**
+     * Create a bit set with the bits of all rows set.
+     *
+     * @return The bit set.
+     */
+    private LongBitSet allRows() {
+        LongBitSet all = new LongBitSet(rows);
+        long[] words = all.words();
+        for (int i = 0; i < words.length; i++) {
+            words[i] = -1L;
+        }
+        if ((rows & 63) != 0) {
+            words[words.length - 1] = (1L << rows) - 1;
+        }
+        return all;
+    }
+
+    /**
+     * Get the number of bits needed for the largest of values.
+     *
+     * @param values The values.
+     *
+     * @return The number of bits, at least 1.
+     *
+     * @throws IllegalArgumentException When no values are provided or a value is negative.
+     */
+    private static int bitsFor(long[] values) throws IllegalArgumentException {
+        if (values == null) {
+            throw new IllegalArgumentException("No values provided");
+        }
+        long all = 0;
+        for (long value : values) {
+            all |= value;
+        }
+        if (all < 0) {
+            throw new IllegalArgumentException("Negative values can not be indexed");
+        }
+        return Math.max(1, 64 - Long.numberOfLeadingZeros(all));
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("BitSlicedIndex [");
+        sb.append("rows: ").append(rows).append(", ");
+        sb.append("bits: ").append(slices.length);
+        sb.append("]");
+        return sb.toString();
+    }
+}
@@ -0,0 +1,506 @@
+package nl.salp.util.bit;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Base implementation for Bloom filters over primitive <code>long</code> and <code>byte[]</code> keys.
+ *
+ * <p>
+ * Keys are hashed once to 64 bits, from which the implementations derive the bit positions by double hashing. Keys
+ * are never boxed. In concurrent mode the bits are stored in an {@link AtomicLongArray} and set with a compare-and-set
+ * loop, so multiple threads can add keys while others query; otherwise a plain <code>long[]</code> is used and the
+ * filter is not thread-safe.
+ * </p>
+ *
+ * @see StandardBloomFilter
+ * @see BlockedBloomFilter
+ */
+public abstract class BloomFilter {
+    /**
+     * The maximum number of bit positions per key, which already gives a false positive rate of about 2^-64 at the
+     * optimal size.
+     */
+    public static final int MAX_HASHES = 64;
+    /**
+     * The serialized type of a {@link StandardBloomFilter}.
+     */
+    private static final byte TYPE_STANDARD = 1;
+    /**
+     * The serialized type of a {@link BlockedBloomFilter}.
+     */
+    private static final byte TYPE_BLOCKED = 2;
+    /**
+     * The size of the serialized header: type, number of hash functions and number of bits.
+     */
+    private static final int HEADER_BYTES = 1 + 4 + 8;
+
+    /**
+     * The number of bits.
+     */
+    private final long bitLength;
+    /**
+     * The number of bit positions per key.
+     */
+    private final int hashes;
+    /**
+     * The bits, when not in concurrent mode.
+     */
+    private final long[] words;
+    /**
+     * The bits, when in concurrent mode.
+     */
+    private final AtomicLongArray atomicWords;
+
+    /**
+     * Create a new BloomFilter.
+     *
+     * @param bitLength  The number of bits, a multiple of 64.
+     * @param hashes     The number of bit positions per key.
+     * @param concurrent <code>true</code> to allow concurrent adds.
+     *
+     * @throws IllegalArgumentException When the number of bits or hashes is not valid.
+     */
+    protected BloomFilter(long bitLength, int hashes, boolean concurrent) throws IllegalArgumentException {
+        if (bitLength < 64 || (bitLength & 63) != 0 || (bitLength >>> 6) > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Number of bits " + bitLength + " is not valid, it must be a positive multiple of 64");
+        }
+        checkHashes(hashes);
+        this.bitLength = bitLength;
+        this.hashes = hashes;
+        int wordLength = (int) (bitLength >>> 6);
+        this.words = concurrent ? null : new long[wordLength];
+        this.atomicWords = concurrent ? new AtomicLongArray(wordLength) : null;
+    }
+
+    /**
+     * Add a key.
+     *
+     * @param key The key.
+     */
+    public final void add(long key) {
+        addHash(Hashing.hash(key));
+    }
+
+    /**
+     * Add a key.
+     *
+     * @param key The key.
+     */
+    public final void add(byte[] key) {
+        addHash(Hashing.hash(key, 0, key.length));
+    }
+
+    /**
+     * Check if a key might have been added.
+     *
+     * @param key The key.
+     *
+     * @return <code>false</code> if the key was definitely not added, <code>true</code> if it might have been.
+     */
+    public final boolean mightContain(long key) {
+        return containsHash(Hashing.hash(key));
+    }
+
+    /**
+     * Check if a key might have been added.
+     *
+     * @param key The key.
+     *
+     * @return <code>false</code> if the key was definitely not added, <code>true</code> if it might have been.
+     */
+    public final boolean mightContain(byte[] key) {
+        return containsHash(Hashing.hash(key, 0, key.length));
+    }
+
+    /**
+     * Get the number of bits.
+     *
+     * @return The number of bits.
+     */
+    public final long getNumberOfBits() {
+        return bitLength;
+    }
+
+    /**
+     * Get the number of bit positions per key.
+     *
+     * @return The number of hash functions.
+     */
+    public final int getNumberOfHashes() {
+        return hashes;
+    }
+
+    /**
+     * Check if the filter allows concurrent adds.
+     *
+     * @return <code>true</code> if the filter is in concurrent mode.
+     */
+    public final boolean isConcurrent() {
+        return atomicWords != null;
+    }
+
+    /**
+     * Get the number of bytes written by {@link BloomFilter#writeTo(ByteBuffer)}.
+     *
+     * @return The number of bytes.
+     *
+     * @throws IllegalStateException When the filter is too large to be serialized to a buffer.
+     */
+    public final int getSerializedSize() throws IllegalStateException {
+        long size = HEADER_BYTES + (bitLength >>> 3);
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Filter of " + bitLength + " bits is too large to serialize");
+        }
+        return (int) size;
+    }
+
+    /**
+     * Write the filter at the current position of a buffer.
+     *
+     * <p>
+     * In concurrent mode, adds that happen while writing may or may not be included.
+     * </p>
+     *
+     * @param buffer The buffer.
+     *
+     * @throws java.nio.BufferOverflowException When the buffer does not have enough space remaining.
+     */
+    public final void writeTo(ByteBuffer buffer) {
+        buffer.put(getType());
+        buffer.putInt(hashes);
+        buffer.putLong(bitLength);
+        int wordLength = (int) (bitLength >>> 6);
+        for (int i = 0; i < wordLength; i++) {
+            buffer.putLong(word(i));
+        }
+    }
+
+    /**
+     * Read a filter written by {@link BloomFilter#writeTo(ByteBuffer)} at the current position of a buffer.
+     *
+     * @param buffer     The buffer.
+     * @param concurrent <code>true</code> to allow concurrent adds on the read filter.
+     *
+     * @return The filter.
+     *
+     * @throws java.nio.BufferUnderflowException When the buffer does not contain a complete header.
+     * @throws IllegalArgumentException         When the data is not a valid filter or the buffer does not contain all
+     *                                          bits of the filter.
+     */
+    public static BloomFilter readFrom(ByteBuffer buffer, boolean concurrent) throws IllegalArgumentException {
+        byte type = buffer.get();
+        int hashes = buffer.getInt();
+        long bitLength = buffer.getLong();
+        // Validate the header against the data before allocating the bits.
+        checkHashes(hashes);
+        if (bitLength < 0 || (bitLength >>> 3) > buffer.remaining()) {
+            throw new IllegalArgumentException("Number of bits " + bitLength + " does not fit in " + buffer.remaining() + " bytes");
+        }
+        BloomFilter filter;
+        if (type == TYPE_STANDARD) {
+            filter = new StandardBloomFilter(bitLength, hashes, concurrent);
+        } else if (type == TYPE_BLOCKED) {
+            filter = new BlockedBloomFilter(bitLength, hashes, concurrent);
+        } else {
+            throw new IllegalArgumentException("Unknown Bloom filter type " + type);
+        }
+        int wordLength = (int) (bitLength >>> 6);
+        for (int i = 0; i < wordLength; i++) {
+            long word = buffer.getLong();
+            if (filter.words != null) {
+                filter.words[i] = word;
+            } else {
+                filter.atomicWords.set(i, word);
+            }
+        }
+        return filter;
+    }
+
+    /**
+     * Calculate the optimal number of bits for a number of keys and a false positive rate.
+     *
+     * @param expectedKeys      The expected number of keys.
+     * @param falsePositiveRate The desired false positive rate.
+     * @param multiple          The multiple to round the number of bits up to.
+     *
+     * @return The number of bits.
+     *
+     * @throws IllegalArgumentException When the number of keys or the false positive rate is not valid.
+     */
+    protected static long optimalBits(long expectedKeys, double falsePositiveRate, int multiple) throws IllegalArgumentException {
+        if (expectedKeys < 1) {
+            throw new IllegalArgumentException("Expected number of keys " + expectedKeys + " is not valid, the minimum is 1");
+        }
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("False positive rate " + falsePositiveRate + " is not valid, it must be between 0 and 1");
+        }
+        double bits = -expectedKeys * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+        return ((long) Math.ceil(bits / multiple)) * multiple;
+    }
+
+    /**
+     * Calculate the optimal number of hash functions for a number of bits per key.
+     *
+     * @param expectedKeys The expected number of keys.
+     * @param bits         The number of bits.
+     *
+     * @return The number of hash functions, at most {@link BloomFilter#MAX_HASHES}.
+     */
+    protected static int optimalHashes(long expectedKeys, long bits) {
+        return (int) Math.max(1, Math.min(MAX_HASHES, Math.round((double) bits / expectedKeys * Math.log(2))));
+    }
+
+    /**
+     * Check if a number of bit positions per key is valid.
+     *
+     * @param hashes The number of bit positions per key.
+     *
+     * @throws IllegalArgumentException When the number is not valid.
+     */
+    private static void checkHashes(int hashes) throws IllegalArgumentException {
+        if (hashes < 1 || hashes > MAX_HASHES) {
+            throw new IllegalArgumentException("Number of hashes " + hashes + " is not valid, the range is 1 - " + MAX_HASHES);
+        }
+    }
+
+    /**
+     * Get a word of the bits.
+     *
+     * @param index The index of the word.
+     *
+     * @return The word.
+     */
+    protected final long word(int index) {
+        return words != null ? words[index] : atomicWords.get(index);
+    }
+
+    /**
+     * Set a bit.
+     *
+     * @param index The index of the word.
+     * @param mask  The mask with the bit to set.
+     */
+    protected final void setBit(int index, long mask) {
+        if (words != null) {
+            words[index] |= mask;
+        } else {
+            long current;
+            do {
+                current = atomicWords.get(index);
+                if ((current & mask) == mask) {
+                    return;
+                }
+            } while (!atomicWords.compareAndSet(index, current, current | mask));
+        }
+    }
+
+    /**
+     * Get the serialized type of the implementation.
+     *
+     * @return The type.
+     */
+    protected abstract byte getType();
+
+    /**
+     * Add the hash of a key.
+     *
+     * @param hash The 64-bit hash.
+     */
+    protected abstract void addHash(long hash);
+
+    /**
+     * Check if the hash of a key might have been added.
+     *
+     * @param hash The 64-bit hash.
+     *
+     * @return <code>true</code> if all bits of the hash are set.
+     */
+    protected abstract boolean containsHash(long hash);
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(getClass().getSimpleName()).append(" [");
+        sb.append("bits: ").append(bitLength).append(", ");
+        sb.append("hashes: ").append(hashes).append(", ");
+        sb.append("concurrent: ").append(isConcurrent());
+        sb.append("]");
+        return sb.toString();
+    }
+
+    /**
+     * Classic {@link BloomFilter}, spreading the bit positions of a key over the whole bit array.
+     */
+    public static final class StandardBloomFilter extends BloomFilter {
+        /**
+         * Create a new StandardBloomFilter sized for a number of keys and a false positive rate.
+         *
+         * @param expectedKeys      The expected number of keys.
+         * @param falsePositiveRate The desired false positive rate (between 0 and 1).
+         * @param concurrent        <code>true</code> to allow concurrent adds.
+         *
+         * @throws IllegalArgumentException When the number of keys or the false positive rate is not valid.
+         */
+        public StandardBloomFilter(long expectedKeys, double falsePositiveRate, boolean concurrent) throws IllegalArgumentException {
+            this(optimalBits(expectedKeys, falsePositiveRate, 64), expectedKeys, concurrent);
+        }
+
+        /**
+         * Create a new StandardBloomFilter with a number of bits and the optimal number of hashes.
+         *
+         * @param bits         The number of bits.
+         * @param expectedKeys The expected number of keys.
+         * @param concurrent   <code>true</code> to allow concurrent adds.
+         */
+        private StandardBloomFilter(long bits, long expectedKeys, boolean concurrent) {
+            this(bits, optimalHashes(expectedKeys, bits), concurrent);
+        }
+
+        /**
+         * Create a new StandardBloomFilter.
+         *
+         * @param bitLength  The number of bits, a multiple of 64.
+         * @param hashes     The number of bit positions per key.
+         * @param concurrent <code>true</code> to allow concurrent adds.
+         *
+         * @throws IllegalArgumentException When the number of bits or hashes is not valid.
+         */
+        public StandardBloomFilter(long bitLength, int hashes, boolean concurrent) throws IllegalArgumentException {
+            super(bitLength, hashes, concurrent);
+        }
+
+        @Override
+        protected byte getType() {
+            return TYPE_STANDARD;
+        }
+
+        @Override
+        protected void addHash(long hash) {
+            long bits = getNumberOfBits();
+            long h1 = hash >>> 32;
+            long h2 = (hash & 0xFFFFFFFFL) | 1;
+            for (int i = 0, k = getNumberOfHashes(); i < k; i++) {
+                long bit = (h1 + i * h2) % bits;
+                setBit((int) (bit >>> 6), 1L << bit);
+            }
+        }
+
+        @Override
+        protected boolean containsHash(long hash) {
+            long bits = getNumberOfBits();
+            long h1 = hash >>> 32;
+            long h2 = (hash & 0xFFFFFFFFL) | 1;
+            for (int i = 0, k = getNumberOfHashes(); i < k; i++) {
+                long bit = (h1 + i * h2) % bits;
+                if ((word((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Cache-line blocked {@link BloomFilter}, setting all bit positions of a key within a single 512-bit block.
+     *
+     * <p>
+     * A query touches a single 64-byte block instead of one cache line per hash function, at the cost of a slightly
+     * higher false positive rate than a {@link StandardBloomFilter} of the same size.
+     * </p>
+     */
+    public static final class BlockedBloomFilter extends BloomFilter {
+        /**
+         * The number of bits in a block.
+         */
+        private static final int BLOCK_BITS = 512;
+
+        /**
+         * The number of blocks.
+         */
+        private final long blocks;
+
+        /**
+         * Create a new BlockedBloomFilter sized for a number of keys and a false positive rate.
+         *
+         * @param expectedKeys      The expected number of keys.
+         * @param falsePositiveRate The desired false positive rate (between 0 and 1).
+         * @param concurrent        <code>true</code> to allow concurrent adds.
+         *
+         * @throws IllegalArgumentException When the number of keys or the false positive rate is not valid.
+         */
+        public BlockedBloomFilter(long expectedKeys, double falsePositiveRate, boolean concurrent) throws IllegalArgumentException {
+            this(optimalBits(expectedKeys, falsePositiveRate, BLOCK_BITS), expectedKeys, concurrent);
+        }
+
+        /**
+         * Create a new BlockedBloomFilter with a number of bits and the optimal number of hashes.
+         *
+         * @param bits         The number of bits.
+         * @param expectedKeys The expected number of keys.
+         * @param concurrent   <code>true</code> to allow concurrent adds.
+         */
+        private BlockedBloomFilter(long bits, long expectedKeys, boolean concurrent) {
+            this(bits, optimalHashes(expectedKeys, bits), concurrent);
+        }
+
+        /**
+         * Create a new BlockedBloomFilter.
+         *
+         * @param bitLength  The number of bits, a multiple of 512.
+         * @param hashes     The number of bit positions per key.
+         * @param concurrent <code>true</code> to allow concurrent adds.
+         *
+         * @throws IllegalArgumentException When the number of bits or hashes is not valid.
+         */
+        public BlockedBloomFilter(long bitLength, int hashes, boolean concurrent) throws IllegalArgumentException {
+            super(bitLength, hashes, concurrent);
+            if (bitLength % BLOCK_BITS != 0) {
+                throw new IllegalArgumentException("Number of bits " + bitLength + " is not valid, it must be a multiple of " + BLOCK_BITS);
+            }
+            this.blocks = bitLength / BLOCK_BITS;
+        }
+
+        @Override
+        protected byte getType() {
+            return TYPE_BLOCKED;
+        }
+
+        @Override
+        protected void addHash(long hash) {
+            int firstWord = firstWord(hash);
+            int h1 = (int) hash;
+            int h2 = (int) Hashing.mix(hash) | 1;
+            for (int i = 0, k = getNumberOfHashes(); i < k; i++) {
+                int bit = (h1 + i * h2) & (BLOCK_BITS - 1);
+                setBit(firstWord + (bit >>> 6), 1L << bit);
+            }
+        }
+
+        @Override
+        protected boolean containsHash(long hash) {
+            int firstWord = firstWord(hash);
+            int h1 = (int) hash;
+            int h2 = (int) Hashing.mix(hash) | 1;
+            for (int i = 0, k = getNumberOfHashes(); i < k; i++) {
+                int bit = (h1 + i * h2) & (BLOCK_BITS - 1);
+                if ((word(firstWord + (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Get the index of the first word of the block of a hash, using the high 32 bits of the hash.
+         *
+         * @param hash The hash.
+         *
+         * @return The index of the first word.
+         */
+        private int firstWord(long hash) {
+            long block = ((hash >>> 32) * blocks) >>> 32;
+            return (int) block << 3;
+        }
+    }
+}
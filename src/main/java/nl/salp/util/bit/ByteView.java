@@ -0,0 +1,760 @@
+package nl.salp.util.bit;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import nl.salp.util.AllocationFree;
+
+/**
+ * Big- or little-endian view for reading and writing primitives at arbitrary offsets of a <code>byte[]</code> or
+ * {@link ByteBuffer}, instead of assembling them from single bytes.
+ *
+ * <p>
+ * Arrays are accessed with word-level kernels: on Java 21 and later the multi-release JAR uses
+ * <code>MethodHandles.byteArrayViewVarHandle</code>, which compiles to single unaligned loads and stores (with a byte
+ * swap when needed), older JVMs use shifts, with a load or store per byte. Buffers with an accessible array are
+ * accessed the same way; other buffers through their absolute getters and setters, swapping the bytes when the order of
+ * the buffer differs. The order and position of a buffer are never changed.
+ * </p>
+ *
+ * <p>
+ * The offsets are checked before any byte is read or written. Instances are immutable and thread-safe.
+ * </p>
+ *
+ * @see nl.salp.util.io.PrimitiveStreamDecoder
+ */
+public final class ByteView {
+    /**
+     * The big-endian (network order) view.
+     */
+    public static final ByteView BIG_ENDIAN = new ByteView(ByteOrder.BIG_ENDIAN);
+    /**
+     * The little-endian view.
+     */
+    public static final ByteView LITTLE_ENDIAN = new ByteView(ByteOrder.LITTLE_ENDIAN);
+
+    /**
+     * The byte order.
+     */
+    private final ByteOrder order;
+    /**
+     * <code>true</code> for big-endian, <code>false</code> for little-endian.
+     */
+    private final boolean bigEndian;
+
+    /**
+     * Create a new ByteView.
+     *
+     * @param order The byte order.
+     */
+    private ByteView(ByteOrder order) {
+        this.order = order;
+        this.bigEndian = order == ByteOrder.BIG_ENDIAN;
+    }
+
+    /**
+     * Get the view for a byte order.
+     *
+     * @param order The byte order.
+     *
+     * @return The view.
+     *
+     * @throws IllegalArgumentException When no byte order is provided.
+     */
+    public static ByteView of(ByteOrder order) throws IllegalArgumentException {
+        if (order == null) {
+            throw new IllegalArgumentException("No byte order provided");
+        }
+        return order == ByteOrder.BIG_ENDIAN ? BIG_ENDIAN : LITTLE_ENDIAN;
+    }
+
+    /**
+     * Get the byte order.
+     *
+     * @return The byte order.
+     */
+    public ByteOrder getOrder() {
+        return order;
+    }
+
+    /**
+     * Read a short.
+     *
+     * @param data   The data.
+     * @param offset The offset of the first byte.
+     *
+     * @return The value.
+     *
+     * @throws IndexOutOfBoundsException When the array does not have 2 bytes at the offset.
+     */
+    @AllocationFree
+    public short getShort(byte[] data, int offset) throws IndexOutOfBoundsException {
+        checkRange(data.length, offset, 2);
+        return bigEndian ? Intrinsics.getShortBE(data, offset) : Intrinsics.getShortLE(data, offset);
+    }
+
+    /**
+     * Read an unsigned short.
+     *
+     * @param data   The data.
+     * @param offset The offset of the first byte.
+     *
+     * @return The value (0 - 65535).
+     *
+     * @throws IndexOutOfBoundsException When the array does not have 2 bytes at the offset.
+     */
+    @AllocationFree
+    public int getUnsignedShort(byte[] data, int offset) throws IndexOutOfBoundsException {
+        return getShort(data, offset) & 0xFFFF;
+    }
+
+    /**
+     * Read an int.
+     *
+     * @param data   The data.
+     * @param offset The offset of the first byte.
+     *
+     * @return The value.
+     *
+     * @throws IndexOutOfBoundsException When the array does not have 4 bytes at the offset.
+     */
+    @AllocationFree
+    public int getInt(byte[] data, int offset) throws IndexOutOfBoundsException {
+        checkRange(data.length, offset, 4);
+        return bigEndian ? Intrinsics.getIntBE(data, offset) : Intrinsics.getIntLE(data, offset);
+    }
+
+    /**
+     * Read an unsigned int.
+     *
+     * @param data   The data.
+     * @param offset The offset of the first byte.
+     *
+     * @return The value (0 - 2^32-1).
+     *
+     * @throws IndexOutOfBoundsException When the array does not have 4 bytes at the offset.
+     */
+    @AllocationFree
+    public long getUnsignedInt(byte[] data, int offset) throws IndexOutOfBoundsException {
+        return getInt(data, offset) & 0xFFFFFFFFL;
+    }
+
+    /**
+     * Read a long.
+     *
+     * @param data   The data.
+     * @param offset The offset of the first byte.
+     *
+     * @return The value.
+     *
+     * @throws IndexOutOfBoundsException When the array does not have 8 bytes at the offset.
+     */
+    @AllocationFree
+    public long getLong(byte[] data, int offset) throws IndexOutOfBoundsException {
+        checkRange(data.length, offset, 8);
+        return bigEndian ? Intrinsics.getLongBE(data, offset) : Intrinsics.getLongLE(data, offset);
+    }
+
+    /**
+     * Read an IEEE 754 float.
+     *
+     * @param data   The data.
+     * @param offset The offset of the first byte.
+     *
+     * @return The value.
+     *
+     * @throws IndexOutOfBoundsException When the array does not have 4 bytes at the offset.
+     */
+    @AllocationFree
+    public float getFloat(byte[] data, int offset) throws IndexOutOfBoundsException {
+        return Float.intBitsToFloat(getInt(data, offset));
+    }
+
+    /**
+     * Read an IEEE 754 double.
+     *
+     * @param data   The data.
+     * @param offset The offset of the first byte.
+     *
+     * @return The value.
+     *
+     * @throws IndexOutOfBoundsException When the array does not have 8 bytes at the offset.
+     */
+    @AllocationFree
+    public double getDouble(byte[] data, int offset) throws IndexOutOfBoundsException {
+        return Double.longBitsToDouble(getLong(data, offset));
+    }
+
+    /**
+     * Write a short.
+     *
+     * @param data   The data.
+     * @param offset The offset of the first byte.
+     * @param value  The value.
+     *
+     * @throws IndexOutOfBoundsException When the array does not have 2 bytes at the offset.
+     */
+    @AllocationFree
+    public void putShort(byte[] data, int offset, short value) throws IndexOutOfBoundsException {
+        checkRange(data.length, offset, 2);
+        if (bigEndian) {
+            Intrinsics.putShortBE(data, offset, value);
+        } else {
+            Intrinsics.putShortLE(data, offset, value);
+        }
+    }
+
+    /**
+     * Write an unsigned short.
+     *
+     * @param data   The data.
+     * @param offset The offset of the first byte.
+     * @param value  The value (0 - 65535).
+     *
+     * @throws IndexOutOfBoundsException When the array does not have 2 bytes at the offset.
+     * @throws IllegalArgumentException  When the value is not a valid unsigned short.
+     */
+    @AllocationFree
+    public void putUnsignedShort(byte[] data, int offset, int value) throws IndexOutOfBoundsException, IllegalArgumentException {
+        putShort(data, offset, toUnsignedShort(value));
+    }
+
+    /**
+     * Write an int.
+     *
+     * @param data   The data.
+     * @param offset The offset of the first byte.
+     * @param value  The value.
+     *
+     * @throws IndexOutOfBoundsException When the array does not have 4 bytes at the offset.
+     */
+    @AllocationFree
+    public void putInt(byte[] data, int offset, int value) throws IndexOutOfBoundsException {
+        checkRange(data.length, offset, 4);
+        if (bigEndian) {
+            Intrinsics.putIntBE(data, offset, value);
+        } else {
+            Intrinsics.putIntLE(data, offset, value);
+        }
+    }
+
+    /**
+     * Write an unsigned int.
+     *
+     * @param data   The data.
+     * @param offset The offset of the first byte.
+     * @param value  The value (0 - 2^32-1).
+     *
+     * @throws IndexOutOfBoundsException When the array does not have 4 bytes at the offset.
+     * @throws IllegalArgumentException  When the value is not a valid unsigned int.
+     */
+    @AllocationFree
+    public void putUnsignedInt(byte[] data, int offset, long value) throws IndexOutOfBoundsException, IllegalArgumentException {
+        putInt(data, offset, toUnsignedInt(value));
+    }
+
+    /**
+     * Write a long.
+     *
+     * @param data   The data.
+     * @param offset The offset of the first byte.
+     * @param value  The value.
+     *
+     * @throws IndexOutOfBoundsException When the array does not have 8 bytes at the offset.
+     */
+    @AllocationFree
+    public void putLong(byte[] data, int offset, long value) throws IndexOutOfBoundsException {
+        checkRange(data.length, offset, 8);
+        if (bigEndian) {
+            Intrinsics.putLongBE(data, offset, value);
+        } else {
+            Intrinsics.putLongLE(data, offset, value);
+        }
+    }
+
+    /**
+     * Write an IEEE 754 float.
+     *
+     * @param data   The data.
+     * @param offset The offset of the first byte.
+     * @param value  The value.
+     *
+     * @throws IndexOutOfBoundsException When the array does not have 4 bytes at the offset.
+     */
+    @AllocationFree
+    public void putFloat(byte[] data, int offset, float value) throws IndexOutOfBoundsException {
+        putInt(data, offset, Float.floatToRawIntBits(value));
+    }
+
+    /**
+     * Write an IEEE 754 double.
+     *
+     * @param data   The data.
+     * @param offset The offset of the first byte.
+     * @param value  The value.
+     *
+     * @throws IndexOutOfBoundsException When the array does not have 8 bytes at the offset.
+     */
+    @AllocationFree
+    public void putDouble(byte[] data, int offset, double value) throws IndexOutOfBoundsException {
+        putLong(data, offset, Double.doubleToRawLongBits(value));
+    }
+
+    /**
+     * Read a short at an absolute index of a buffer.
+     *
+     * @param buffer The buffer.
+     * @param index  The index of the first byte.
+     *
+     * @return The value.
+     *
+     * @throws IndexOutOfBoundsException When the buffer does not have 2 bytes before its limit at the index.
+     */
+    @AllocationFree
+    public short getShort(ByteBuffer buffer, int index) throws IndexOutOfBoundsException {
+        if (buffer.hasArray()) {
+            checkRange(buffer.limit(), index, 2);
+            return getShort(buffer.array(), buffer.arrayOffset() + index);
+        }
+        short value = buffer.getShort(index);
+        return buffer.order() == order ? value : Short.reverseBytes(value);
+    }
+
+    /**
+     * Read an unsigned short at an absolute index of a buffer.
+     *
+     * @param buffer The buffer.
+     * @param index  The index of the first byte.
+     *
+     * @return The value (0 - 65535).
+     *
+     * @throws IndexOutOfBoundsException When the buffer does not have 2 bytes before its limit at the index.
+     */
+    @AllocationFree
+    public int getUnsignedShort(ByteBuffer buffer, int index) throws IndexOutOfBoundsException {
+        return getShort(buffer, index) & 0xFFFF;
+    }
+
+    /**
+     * Read an int at an absolute index of a buffer.
+     *
+     * @param buffer The buffer.
+     * @param index  The index of the first byte.
+     *
+     * @return The value.
+     *
+     * @throws IndexOutOfBoundsException When the buffer does not have 4 bytes before its limit at the index.
+     */
+    @AllocationFree
+    public int getInt(ByteBuffer buffer, int index) throws IndexOutOfBoundsException {
+        if (buffer.hasArray()) {
+            checkRange(buffer.limit(), index, 4);
+            return getInt(buffer.array(), buffer.arrayOffset() + index);
+        }
+        int value = buffer.getInt(index);
+        return buffer.order() == order ? value : Integer.reverseBytes(value);
+    }
+
+    /**
+     * Read an unsigned int at an absolute index of a buffer.
+     *
+     * @param buffer The buffer.
+     * @param index  The index of the first byte.
+     *
+     * @return The value (0 - 2^32-1).
+     *
+     * @throws IndexOutOfBoundsException When the buffer does not have 4 bytes before its limit at the index.
+     */
+    @AllocationFree
+    public long getUnsignedInt(ByteBuffer buffer, int index) throws IndexOutOfBoundsException {
+        return getInt(buffer, index) & 0xFFFFFFFFL;
+    }
+
+    /**
+     * Read a long at an absolute index of a buffer.
+     *
+     * @param buffer The buffer.
+     * @param index  The index of the first byte.
+     *
+     * @return The value.
+     *
+     * @throws IndexOutOfBoundsException When the buffer does not have 8 bytes before its limit at the index.
+     */
+    @AllocationFree
+    public long getLong(ByteBuffer buffer, int index) throws IndexOutOfBoundsException {
+        if (buffer.hasArray()) {
+            checkRange(buffer.limit(), index, 8);
+            return getLong(buffer.array(), buffer.arrayOffset() + index);
+        }
+        long value = buffer.getLong(index);
+        return buffer.order() == order ? value : Long.reverseBytes(value);
+    }
+
+    /**
+     * Read an IEEE 754 float at an absolute index of a buffer.
+     *
+     * @param buffer The buffer.
+     * @param index  The index of the first byte.
+     *
+     * @return The value.
+     *
+     * @throws IndexOutOfBoundsException When the buffer does not have 4 bytes before its limit at the index.
+     */
+    @AllocationFree
+    public float getFloat(ByteBuffer buffer, int index) throws IndexOutOfBoundsException {
+        return Float.intBitsToFloat(getInt(buffer, index));
+    }
+
+    /**
+     * Read an IEEE 754 double at an absolute index of a buffer.
+     *
+     * @param buffer The buffer.
+     * @param index  The index of the first byte.
+     *
+     * @return The value.
+     *
+     * @throws IndexOutOfBoundsException When the buffer does not have 8 bytes before its limit at the index.
+     */
+    @AllocationFree
+    public double getDouble(ByteBuffer buffer, int index) throws IndexOutOfBoundsException {
+        return Double.longBitsToDouble(getLong(buffer, index));
+    }
+
+    /**
+     * Write a short at an absolute index of a buffer.
+     *
+     * @param buffer The buffer.
+     * @param index  The index of the first byte.
+     * @param value  The value.
+     *
+     * @throws IndexOutOfBoundsException When the buffer does not have 2 bytes before its limit at the index.
+     */
+    @AllocationFree
+    public void putShort(ByteBuffer buffer, int index, short value) throws IndexOutOfBoundsException {
+        if (buffer.hasArray()) {
+            checkRange(buffer.limit(), index, 2);
+            putShort(buffer.array(), buffer.arrayOffset() + index, value);
+        } else {
+            buffer.putShort(index, buffer.order() == order ? value : Short.reverseBytes(value));
+        }
+    }
+
+    /**
+     * Write an unsigned short at an absolute index of a buffer.
+     *
+     * @param buffer The buffer.
+     * @param index  The index of the first byte.
+     * @param value  The value (0 - 65535).
+     *
+     * @throws IndexOutOfBoundsException When the buffer does not have 2 bytes before its limit at the index.
+     * @throws IllegalArgumentException  When the value is not a valid unsigned short.
+     */
+    @AllocationFree
+    public void putUnsignedShort(ByteBuffer buffer, int index, int value) throws IndexOutOfBoundsException, IllegalArgumentException {
+        putShort(buffer, index, toUnsignedShort(value));
+    }
+
+    /**
+     * Write an int at an absolute index of a buffer.
+     *
+     * @param buffer The buffer.
+     * @param index  The index of the first byte.
+     * @param value  The value.
+     *
+     * @throws IndexOutOfBoundsException When the buffer does not have 4 bytes before its limit at the index.
+     */
+    @AllocationFree
+    public void putInt(ByteBuffer buffer, int index, int value) throws IndexOutOfBoundsException {
+        if (buffer.hasArray()) {
+            checkRange(buffer.limit(), index, 4);
+            putInt(buffer.array(), buffer.arrayOffset() + index, value);
+        } else {
+            buffer.putInt(index, buffer.order() == order ? value : Integer.reverseBytes(value));
+        }
+    }
+
+    /**
+     * Write an unsigned int at an absolute index of a buffer.
+     *
+     * @param buffer The buffer.
+     * @param index  The index of the first byte.
+     * @param value  The value (0 - 2^32-1).
+     *
+     * @throws IndexOutOfBoundsException When the buffer does not have 4 bytes before its limit at the index.
+     * @throws IllegalArgumentException  When the value is not a valid unsigned int.
+     */
+    @AllocationFree
+    public void putUnsignedInt(ByteBuffer buffer, int index, long value) throws IndexOutOfBoundsException, IllegalArgumentException {
+        putInt(buffer, index, toUnsignedInt(value));
+    }
+
+    /**
+     * Write a long at an absolute index of a buffer.
+     *
+     * @param buffer The buffer.
+     * @param index  The index of the first byte.
+     * @param value  The value.
+     *
+     * @throws IndexOutOfBoundsException When the buffer does not have 8 bytes before its limit at the index.
+     */
+    @AllocationFree
+    public void putLong(ByteBuffer buffer, int index, long value) throws IndexOutOfBoundsException {
+        if (buffer.hasArray()) {
+            checkRange(buffer.limit(), index, 8);
+            putLong(buffer.array(), buffer.arrayOffset() + index, value);
+        } else {
+            buffer.putLong(index, buffer.order() == order ? value : Long.reverseBytes(value));
+        }
+    }
+
+    /**
+     * Write an IEEE 754 float at an absolute index of a buffer.
+     *
+     * @param buffer The buffer.
+     * @param index  The index of the first byte.
+     * @param value  The value.
+     *
+     * @throws IndexOutOfBoundsException When the buffer does not have 4 bytes before its limit at the index.
+     */
+    @AllocationFree
+    public void putFloat(ByteBuffer buffer, int index, float value) throws IndexOutOfBoundsException {
+        putInt(buffer, index, Float.floatToRawIntBits(value));
+    }
+
+    /**
+     * Write an IEEE 754 double at an absolute index of a buffer.
+     *
+     * @param buffer The buffer.
+     * @param index  The index of the first byte.
+     * @param value  The value.
+     *
+     * @throws IndexOutOfBoundsException When the buffer does not have 8 bytes before its limit at the index.
+     */
+    @AllocationFree
+    public void putDouble(ByteBuffer buffer, int index, double value) throws IndexOutOfBoundsException {
+        putLong(buffer, index, Double.doubleToRawLongBits(value));
+    }
+
+    /**
+     * Read consecutive shorts into an array.
+     *
+     * @param data         The data.
+     * @param offset       The offset of the first byte.
+     * @param values       The array for the values.
+     * @param valuesOffset The index of the first value in the array.
+     * @param count        The number of values.
+     *
+     * @return The offset after the last value read.
+     *
+     * @throws IndexOutOfBoundsException When the data or the values array are too small.
+     */
+    @AllocationFree
+    public int getShorts(byte[] data, int offset, short[] values, int valuesOffset, int count) throws IndexOutOfBoundsException {
+        checkBulk(data.length, offset, values.length, valuesOffset, count, 2);
+        for (int i = 0; i < count; i++, offset += 2) {
+            values[valuesOffset + i] = bigEndian ? Intrinsics.getShortBE(data, offset) : Intrinsics.getShortLE(data, offset);
+        }
+        return offset;
+    }
+
+    /**
+     * Read consecutive ints into an array.
+     *
+     * @param data         The data.
+     * @param offset       The offset of the first byte.
+     * @param values       The array for the values.
+     * @param valuesOffset The index of the first value in the array.
+     * @param count        The number of values.
+     *
+     * @return The offset after the last value read.
+     *
+     * @throws IndexOutOfBoundsException When the data or the values array are too small.
+     */
+    @AllocationFree
+    public int getInts(byte[] data, int offset, int[] values, int valuesOffset, int count) throws IndexOutOfBoundsException {
+        checkBulk(data.length, offset, values.length, valuesOffset, count, 4);
+        for (int i = 0; i < count; i++, offset += 4) {
+            values[valuesOffset + i] = bigEndian ? Intrinsics.getIntBE(data, offset) : Intrinsics.getIntLE(data, offset);
+        }
+        return offset;
+    }
+
+    /**
+     * Read consecutive longs into an array.
+     *
+     * @param data         The data.
+     * @param offset       The offset of the first byte.
+     * @param values       The array for the values.
+     * @param valuesOffset The index of the first value in the array.
+     * @param count        The number of values.
+     *
+     * @return The offset after the last value read.
+     *
+     * @throws IndexOutOfBoundsException When the data or the values array are too small.
+     */
+    @AllocationFree
+    public int getLongs(byte[] data, int offset, long[] values, int valuesOffset, int count) throws IndexOutOfBoundsException {
+        checkBulk(data.length, offset, values.length, valuesOffset, count, 8);
+        for (int i = 0; i < count; i++, offset += 8) {
+            values[valuesOffset + i] = bigEndian ? Intrinsics.getLongBE(data, offset) : Intrinsics.getLongLE(data, offset);
+        }
+        return offset;
+    }
+
+    /**
+     * Write consecutive shorts from an array.
+     *
+     * @param values       The values.
+     * @param valuesOffset The index of the first value in the array.
+     * @param count        The number of values.
+     * @param data         The data.
+     * @param offset       The offset of the first byte.
+     *
+     * @return The offset after the last value written.
+     *
+     * @throws IndexOutOfBoundsException When the data or the values array are too small.
+     */
+    @AllocationFree
+    public int putShorts(short[] values, int valuesOffset, int count, byte[] data, int offset) throws IndexOutOfBoundsException {
+        checkBulk(data.length, offset, values.length, valuesOffset, count, 2);
+        for (int i = 0; i < count; i++, offset += 2) {
+            if (bigEndian) {
+                Intrinsics.putShortBE(data, offset, values[valuesOffset + i]);
+            } else {
+                Intrinsics.putShortLE(data, offset, values[valuesOffset + i]);
+            }
+        }
+        return offset;
+    }
+
+    /**
+     * Write consecutive ints from an array.
+     *
+     * @param values       The values.
+     * @param valuesOffset The index of the first value in the array.
+     * @param count        The number of values.
+     * @param data         The data.
+     * @param offset       The offset of the first byte.
+     *
+     * @return The offset after the last value written.
+     *
+     * @throws IndexOutOfBoundsException When the data or the values array are too small.
+     */
+    @AllocationFree
+    public int putInts(int[] values, int valuesOffset, int count, byte[] data, int offset) throws IndexOutOfBoundsException {
+        checkBulk(data.length, offset, values.length, valuesOffset, count, 4);
+        for (int i = 0; i < count; i++, offset += 4) {
+            if (bigEndian) {
+                Intrinsics.putIntBE(data, offset, values[valuesOffset + i]);
+            } else {
+                Intrinsics.putIntLE(data, offset, values[valuesOffset + i]);
+            }
+        }
+        return offset;
+    }
+
+    /**
+     * Write consecutive longs from an array.
+     *
+     * @param values       The values.
+     * @param valuesOffset The index of the first value in the array.
+     * @param count        The number of values.
+     * @param data         The data.
+     * @param offset       The offset of the first byte.
+     *
+     * @return The offset after the last value written.
+     *
+     * @throws IndexOutOfBoundsException When the data or the values array are too small.
+     */
+    @AllocationFree
+    public int putLongs(long[] values, int valuesOffset, int count, byte[] data, int offset) throws IndexOutOfBoundsException {
+        checkBulk(data.length, offset, values.length, valuesOffset, count, 8);
+        for (int i = 0; i < count; i++, offset += 8) {
+            if (bigEndian) {
+                Intrinsics.putLongBE(data, offset, values[valuesOffset + i]);
+            } else {
+                Intrinsics.putLongLE(data, offset, values[valuesOffset + i]);
+            }
+        }
+        return offset;
+    }
+
+    /**
+     * Check that a value fits in an unsigned short.
+     *
+     * @param value The value.
+     *
+     * @return The value as short.
+     *
+     * @throws IllegalArgumentException When the value does not fit.
+     */
+    private static short toUnsignedShort(int value) throws IllegalArgumentException {
+        if ((value & ~0xFFFF) != 0) {
+            throw new IllegalArgumentException("Value " + value + " is not valid, the range is 0 - 65535");
+        }
+        return (short) value;
+    }
+
+    /**
+     * Check that a value fits in an unsigned int.
+     *
+     * @param value The value.
+     *
+     * @return The value as int.
+     *
+     * @throws IllegalArgumentException When the value does not fit.
+     */
+    private static int toUnsignedInt(long value) throws IllegalArgumentException {
+        if ((value & ~0xFFFFFFFFL) != 0) {
+            throw new IllegalArgumentException("Value " + value + " is not valid, the range is 0 - 4294967295");
+        }
+        return (int) value;
+    }
+
+    /**
+     * Check that a range of bytes is within an array or buffer.
+     *
+     * @param length The number of bytes in the array or buffer.
+     * @param offset The offset of the first byte.
+     * @param bytes  The number of bytes.
+     *
+     * @throws IndexOutOfBoundsException When the range is not within the array or buffer.
+     */
+    private static void checkRange(int length, int offset, int bytes) throws IndexOutOfBoundsException {
+        if (offset < 0 || offset > length - bytes) {
+            throw new IndexOutOfBoundsException("Offset " + offset + " is not valid for " + bytes + " bytes in " + length + " bytes");
+        }
+    }
+
+    /**
+     * Check the ranges of a bulk read or write.
+     *
+     * @param length       The number of bytes in the data.
+     * @param offset       The offset of the first byte.
+     * @param valuesLength The length of the values array.
+     * @param valuesOffset The index of the first value in the array.
+     * @param count        The number of values.
+     * @param width        The number of bytes per value.
+     *
+     * @throws IndexOutOfBoundsException When a range is not valid.
+     */
+    private static void checkBulk(int length, int offset, int valuesLength, int valuesOffset, int count, int width)
+            throws IndexOutOfBoundsException {
+        if (count < 0 || valuesOffset < 0 || valuesOffset > valuesLength - count) {
+            throw new IndexOutOfBoundsException(count + " values at index " + valuesOffset + " are not valid for an array of " + valuesLength);
+        }
+        if (offset < 0 || offset > length - (long) count * width) {
+            throw new IndexOutOfBoundsException("Offset " + offset + " is not valid for " + count + " values of " + width + " bytes in "
+                    + length + " bytes");
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("ByteView [");
+        sb.append("order: ").append(order);
+        sb.append("]");
+        return sb.toString();
+    }
+}
@@ -0,0 +1,424 @@
+package nl.salp.util.bit;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Elias-Fano encoding of a non-decreasing sequence of non-negative longs, such as a posting list.
+ *
+ * <p>
+ * Each value is split in <code>l = floor(log2(universe / count))</code> low bits, stored verbatim, and the remaining high
+ * bits, stored in unary in a {@link LongBitSet}: value <code>i</code> sets bit <code>(value &gt;&gt;&gt; l) + i</code>.
+ * This takes less than <code>3 + l</code> bits per value, close to the information theoretic minimum. A
+ * {@link RankSelect} index over the high bits gives access to the i-th value with a <code>select1</code> and finds the
+ * first value at or after a bound with a <code>select0</code>, so lists can be intersected by skipping instead of
+ * decoding them completely.
+ * </p>
+ *
+ * <p>
+ * Instances are immutable and thread-safe; {@link EliasFano.Cursor} instances are not.
+ * </p>
+ */
+public class EliasFano {
+    /**
+     * The number of values.
+     */
+    private final long size;
+    /**
+     * The number of low bits per value.
+     */
+    private final int lowBits;
+    /**
+     * The mask for the low bits of a value.
+     */
+    private final long lowMask;
+    /**
+     * The low bits of the values, packed contiguously.
+     */
+    private final long[] lowWords;
+    /**
+     * The high bits of the values, in unary.
+     */
+    private final LongBitSet highBits;
+    /**
+     * The rank/select index over the high bits.
+     */
+    private final RankSelect index;
+    /**
+     * The last value, or -1 if there are no values.
+     */
+    private final long last;
+
+    /**
+     * Create a new EliasFano encoding of values.
+     *
+     * @param values The values, non-decreasing and non-negative.
+     *
+     * @throws IllegalArgumentException When the values are not non-decreasing and non-negative.
+     */
+    public EliasFano(long[] values) throws IllegalArgumentException {
+        this(build(values));
+    }
+
+    /**
+     * Create a new EliasFano from a completed builder.
+     *
+     * @param builder The builder.
+     */
+    private EliasFano(Builder builder) {
+        this.size = builder.size;
+        this.lowBits = builder.lowBits;
+        this.lowMask = builder.lowMask;
+        this.lowWords = builder.lowWords;
+        this.highBits = builder.highBits;
+        this.index = new RankSelect(highBits);
+        this.last = builder.previous;
+    }
+
+    /**
+     * Get the number of values.
+     *
+     * @return The number of values.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Get the number of bits used by the encoded values, excluding the rank/select index.
+     *
+     * @return The number of bits.
+     */
+    public long getEncodedBits() {
+        return ((long) lowWords.length + highBits.words().length) << 6;
+    }
+
+    /**
+     * Get a value.
+     *
+     * @param i The index of the value.
+     *
+     * @return The value.
+     *
+     * @throws IndexOutOfBoundsException When the index is not valid.
+     */
+    public long get(long i) throws IndexOutOfBoundsException {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("Index " + i + " is not valid for " + size + " values");
+        }
+        return value(i, index.select1(i));
+    }
+
+    /**
+     * Find the index of the first value at or after a bound.
+     *
+     * @param bound The bound.
+     *
+     * @return The index of the first value that is at least the bound, or the number of values if there is none.
+     */
+    public long nextGEQIndex(long bound) {
+        return nextGEQIndex(bound, 0);
+    }
+
+    /**
+     * Find the first value at or after a bound.
+     *
+     * @param bound The bound.
+     *
+     * @return The first value that is at least the bound, or -1 if there is none.
+     */
+    public long nextGEQ(long bound) {
+        long i = nextGEQIndex(bound);
+        return i < size ? get(i) : -1;
+    }
+
+    /**
+     * Create a cursor over the values, positioned before the first value.
+     *
+     * @return The cursor.
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * Find the index of the first value at or after a bound, starting at an index.
+     *
+     * @param bound The bound.
+     * @param from  The index to start at.
+     *
+     * @return The index of the first value that is at least the bound, or the number of values if there is none.
+     */
+    private long nextGEQIndex(long bound, long from) {
+        if (bound > last || from >= size) {
+            return size;
+        }
+        if (bound <= 0) {
+            return from;
+        }
+        long high = bound >>> lowBits;
+        long position = high == 0 ? 0 : index.select0(high - 1) + 1;
+        long i = position - high;
+        if (i < from) {
+            i = from;
+            position = index.select1(i);
+        }
+        while (true) {
+            position = highBits.nextSetBit(position);
+            if (((position - i) << lowBits | low(i)) >= bound) {
+                return i;
+            }
+            i++;
+            position++;
+        }
+    }
+
+    /**
+     * Get a value from its index and the position of its high bits.
+     *
+     * @param i        The index.
+     * @param position The position of the set bit of the value in the high bits.
+     *
+     * @return The value.
+     */
+    private long value(long i, long position) {
+        return (position - i) << lowBits | low(i);
+    }
+
+    /**
+     * Get the low bits of a value.
+     *
+     * @param i The index of the value.
+     *
+     * @return The low bits.
+     */
+    private long low(long i) {
+        if (lowBits == 0) {
+            return 0;
+        }
+        long bitIndex = i * lowBits;
+        int word = (int) (bitIndex >>> 6);
+        int shift = (int) (bitIndex & 63);
+        long low = lowWords[word] >>> shift;
+        if (shift + lowBits > 64) {
+            low |= lowWords[word + 1] << (64 - shift);
+        }
+        return low & lowMask;
+    }
+
+    /**
+     * Build the encoding of an array of values.
+     *
+     * @param values The values.
+     *
+     * @return The completed builder.
+     *
+     * @throws IllegalArgumentException When the values are not non-decreasing and non-negative.
+     */
+    private static Builder build(long[] values) throws IllegalArgumentException {
+        if (values == null) {
+            throw new IllegalArgumentException("No values provided");
+        }
+        Builder builder = new Builder(values.length, values.length == 0 ? 0 : Math.max(0, values[values.length - 1]));
+        for (long value : values) {
+            builder.add(value);
+        }
+        return builder;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("EliasFano [");
+        sb.append("size: ").append(size).append(", ");
+        sb.append("lowBits: ").append(lowBits).append(", ");
+        sb.append("encodedBits: ").append(getEncodedBits());
+        sb.append("]");
+        return sb.toString();
+    }
+
+    /**
+     * Cursor for iterating over the values in order and skipping ahead, e.g. to intersect sequences.
+     */
+    public final class Cursor {
+        /**
+         * The index of the next value.
+         */
+        private long next;
+        /**
+         * The position in the high bits to search for the next value from.
+         */
+        private long position;
+
+        /**
+         * Create a new Cursor before the first value.
+         */
+        private Cursor() {
+        }
+
+        /**
+         * Check if there are more values.
+         *
+         * @return <code>true</code> if there are more values.
+         */
+        public boolean hasNext() {
+            return next < size;
+        }
+
+        /**
+         * Get the next value.
+         *
+         * @return The value.
+         *
+         * @throws NoSuchElementException When there are no more values.
+         */
+        public long next() throws NoSuchElementException {
+            if (next >= size) {
+                throw new NoSuchElementException("No more values");
+            }
+            position = highBits.nextSetBit(position);
+            return value(next++, position++);
+        }
+
+        /**
+         * Skip to the first value at or after a bound, without moving back.
+         *
+         * @param bound The bound.
+         *
+         * @return The first value after the current position that is at least the bound, or -1 if there is none.
+         */
+        public long skipTo(long bound) {
+            long i = nextGEQIndex(bound, next);
+            if (i >= size) {
+                next = size;
+                return -1;
+            }
+            next = i;
+            position = index.select1(i);
+            return next();
+        }
+
+        /**
+         * Get the index of the next value.
+         *
+         * @return The index.
+         */
+        public long nextIndex() {
+            return next;
+        }
+    }
+
+    /**
+     * Builder for encoding a known number of values up to a known maximum one at a time, for sequences that are too
+     * large for an array.
+     */
+    public static final class Builder {
+        /**
+         * The number of values.
+         */
+        private final long size;
+        /**
+         * The maximum value.
+         */
+        private final long maxValue;
+        /**
+         * The number of low bits per value.
+         */
+        private final int lowBits;
+        /**
+         * The mask for the low bits of a value.
+         */
+        private final long lowMask;
+        /**
+         * The low bits of the values.
+         */
+        private final long[] lowWords;
+        /**
+         * The high bits of the values.
+         */
+        private final LongBitSet highBits;
+        /**
+         * The number of added values.
+         */
+        private long added;
+        /**
+         * The last added value, or -1.
+         */
+        private long previous = -1;
+
+        /**
+         * Create a new Builder.
+         *
+         * @param size     The number of values.
+         * @param maxValue The maximum value.
+         *
+         * @throws IllegalArgumentException When the number of values or the maximum value is negative, or the
+         *                                  encoding is too large.
+         */
+        public Builder(long size, long maxValue) throws IllegalArgumentException {
+            if (size < 0) {
+                throw new IllegalArgumentException("Number of values " + size + " is not valid, the minimum is 0");
+            }
+            if (maxValue < 0) {
+                throw new IllegalArgumentException("Maximum value " + maxValue + " is not valid, the minimum is 0");
+            }
+            this.size = size;
+            this.maxValue = maxValue;
+            long ratio = size == 0 ? 0 : (maxValue / size) + (maxValue % size == size - 1 ? 1 : 0);
+            this.lowBits = ratio == 0 ? 0 : 63 - Long.numberOfLeadingZeros(ratio);
+            this.lowMask = (1L << lowBits) - 1;
+            long lowWordCount = (size * lowBits + 63) >>> 6;
+            if (lowWordCount > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException(size + " values of " + lowBits + " low bits do not fit in an array");
+            }
+            this.lowWords = new long[(int) lowWordCount];
+            this.highBits = new LongBitSet(size + (maxValue >>> lowBits) + 1);
+        }
+
+        /**
+         * Add the next value.
+         *
+         * @param value The value, at least the previous value and at most the maximum value.
+         *
+         * @return This builder.
+         *
+         * @throws IllegalArgumentException When the value is out of order or range.
+         * @throws IllegalStateException    When all values have been added already.
+         */
+        public Builder add(long value) throws IllegalArgumentException, IllegalStateException {
+            if (added == size) {
+                throw new IllegalStateException("All " + size + " values have been added already");
+            }
+            if (value < 0 || value < previous || value > maxValue) {
+                throw new IllegalArgumentException("Value " + value + " is not valid after " + previous + " with maximum " + maxValue);
+            }
+            if (lowBits > 0) {
+                long bitIndex = added * lowBits;
+                int word = (int) (bitIndex >>> 6);
+                int shift = (int) (bitIndex & 63);
+                long low = value & lowMask;
+                lowWords[word] |= low << shift;
+                if (shift + lowBits > 64) {
+                    lowWords[word + 1] |= low >>> (64 - shift);
+                }
+            }
+            highBits.set((value >>> lowBits) + added);
+            added++;
+            previous = value;
+            return this;
+        }
+
+        /**
+         * Create the encoding.
+         *
+         * @return The encoding.
+         *
+         * @throws IllegalStateException When not all values have been added.
+         */
+        public EliasFano build() throws IllegalStateException {
+            if (added != size) {
+                throw new IllegalStateException(added + " of " + size + " values have been added");
+            }
+            return new EliasFano(this);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package nl.salp.util.bit;
+
+/**
+ * 64-bit hash functions for primitive keys, used by the probabilistic structures in this package.
+ */
+final class Hashing {
+    /**
+     * Seed mixed into every hash, so that a key of 0 does not hash to 0.
+     */
+    private static final long SEED = 0x9E3779B97F4A7C15L;
+    /**
+     * First MurmurHash3 x64 128-bit multiplication constant.
+     */
+    private static final long C1 = 0x87C37B91114253D5L;
+    /**
+     * Second MurmurHash3 x64 128-bit multiplication constant.
+     */
+    private static final long C2 = 0x4CF5AD432745937FL;
+
+    /**
+     * Utility class, no instances.
+     */
+    private Hashing() {
+    }
+
+    /**
+     * Hash a long value using the MurmurHash3 64-bit finalizer.
+     *
+     * @param value The value.
+     *
+     * @return The hash.
+     */
+    static long hash(long value) {
+        return mix(value ^ SEED);
+    }
+
+    /**
+     * Hash a range of bytes using the first 64 bits of MurmurHash3 x64 128-bit.
+     *
+     * @param data   The data.
+     * @param offset The offset of the first byte.
+     * @param length The number of bytes.
+     *
+     * @return The hash.
+     */
+    static long hash(byte[] data, int offset, int length) {
+        long h1 = SEED;
+        long h2 = SEED;
+        int end = offset + (length & ~15);
+        int i = offset;
+        for (; i < end; i += 16) {
+            long k1 = Intrinsics.getLongLE(data, i);
+            long k2 = Intrinsics.getLongLE(data, i + 8);
+            h1 ^= mixK1(k1);
+            h1 = Long.rotateLeft(h1, 27) + h2;
+            h1 = h1 * 5 + 0x52DCE729;
+            h2 ^= mixK2(k2);
+            h2 = Long.rotateLeft(h2, 31) + h1;
+            h2 = h2 * 5 + 0x38495AB5;
+        }
+        long k1 = 0;
+        long k2 = 0;
+        int tail = offset + length - i;
+        for (int t = tail - 1; t >= 8; t--) {
+            k2 = (k2 << 8) | (data[i + t] & 0xFF);
+        }
+        for (int t = Math.min(tail, 8) - 1; t >= 0; t--) {
+            k1 = (k1 << 8) | (data[i + t] & 0xFF);
+        }
+        h2 ^= tail > 8 ? mixK2(k2) : 0;
+        h1 ^= tail > 0 ? mixK1(k1) : 0;
+        h1 ^= length;
+        h2 ^= length;
+        h1 += h2;
+        h2 += h1;
+        h1 = mix(h1);
+        h2 = mix(h2);
+        return h1 + h2;
+    }
+
+    /**
+     * The MurmurHash3 64-bit finalizer, a bijective mix with full avalanche.
+     *
+     * @param h The value.
+     *
+     * @return The mixed value.
+     */
+    static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * Mix the first 64-bit block of a 128-bit chunk.
+     *
+     * @param k1 The block.
+     *
+     * @return The mixed block.
+     */
+    private static long mixK1(long k1) {
+        k1 *= C1;
+        k1 = Long.rotateLeft(k1, 31);
+        return k1 * C2;
+    }
+
+    /**
+     * Mix the second 64-bit block of a 128-bit chunk.
+     *
+     * @param k2 The block.
+     *
+     * @return The mixed block.
+     */
+    private static long mixK2(long k2) {
+        k2 *= C2;
+        k2 = Long.rotateLeft(k2, 33);
+        return k2 * C1;
+    }
+}
@@ -0,0 +1,316 @@
+package nl.salp.util.bit;
+
+/**
+ * Word-level kernels of the hot paths in this package that newer JDKs provide as intrinsics.
+ *
+ * <p>
+ * This is the portable implementation. The multi-release JAR holds a variant for Java 21 in
+ * <code>META-INF/versions/21</code>, using <code>VarHandle</code> views, <code>Long.compress</code> and
+ * <code>Long.expand</code> (<code>PEXT</code> and <code>PDEP</code> on x86), which the runtime picks up
+ * automatically. Both variants must give the same results.
+ * </p>
+ *
+ * <p>
+ * The portable word accessors assemble and split values with byte-wise shifts, so they never allocate. Before Java 21
+ * C2 does not merge these into single loads and stores, so every word access costs a load or store per byte; wrapping
+ * the array in a <code>ByteBuffer</code> would give single loads, but stays allocation-free only where escape analysis
+ * removes the wrapper, which the allocation tests showed it does not do reliably.
+ * </p>
+ */
+final class Intrinsics {
+    /**
+     * The bits of the 7-bit groups of a varint word, without the continuation bits.
+     */
+    private static final long VARINT_GROUP_BITS = 0x7F7F7F7F7F7F7F7FL;
+
+    /**
+     * Utility class, no instances.
+     */
+    private Intrinsics() {
+    }
+
+    /**
+     * Read a little-endian long from a byte array.
+     *
+     * @param data   The data.
+     * @param offset The offset of the first byte.
+     *
+     * @return The value.
+     *
+     * @throws IndexOutOfBoundsException When the array does not have 8 bytes at the offset.
+     */
+    static long getLongLE(byte[] data, int offset) throws IndexOutOfBoundsException {
+        return (data[offset] & 0xFFL)
+                | (data[offset + 1] & 0xFFL) << 8
+                | (data[offset + 2] & 0xFFL) << 16
+                | (data[offset + 3] & 0xFFL) << 24
+                | (data[offset + 4] & 0xFFL) << 32
+                | (data[offset + 5] & 0xFFL) << 40
+                | (data[offset + 6] & 0xFFL) << 48
+                | (data[offset + 7] & 0xFFL) << 56;
+    }
+
+    /**
+     * Read a little-endian short from a byte array.
+     *
+     * @param data   The data.
+     * @param offset The offset of the first byte.
+     *
+     * @return The value.
+     *
+     * @throws IndexOutOfBoundsException When the array does not have 2 bytes at the offset.
+     */
+    static short getShortLE(byte[] data, int offset) throws IndexOutOfBoundsException {
+        return (short) ((data[offset] & 0xFF)
+                | (data[offset + 1] & 0xFF) << 8);
+    }
+
+    /**
+     * Read a big-endian short from a byte array.
+     *
+     * @param data   The data.
+     * @param offset The offset of the first byte.
+     *
+     * @return The value.
+     *
+     * @throws IndexOutOfBoundsException When the array does not have 2 bytes at the offset.
+     */
+    static short getShortBE(byte[] data, int offset) throws IndexOutOfBoundsException {
+        return (short) ((data[offset] & 0xFF) << 8
+                | (data[offset + 1] & 0xFF));
+    }
+
+    /**
+     * Read a little-endian int from a byte array.
+     *
+     * @param data   The data.
+     * @param offset The offset of the first byte.
+     *
+     * @return The value.
+     *
+     * @throws IndexOutOfBoundsException When the array does not have 4 bytes at the offset.
+     */
+    static int getIntLE(byte[] data, int offset) throws IndexOutOfBoundsException {
+        return (data[offset] & 0xFF)
+                | (data[offset + 1] & 0xFF) << 8
+                | (data[offset + 2] & 0xFF) << 16
+                | (data[offset + 3] & 0xFF) << 24;
+    }
+
+    /**
+     * Read a big-endian int from a byte array.
+     *
+     * @param data   The data.
+     * @param offset The offset of the first byte.
+     *
+     * @return The value.
+     *
+     * @throws IndexOutOfBoundsException When the array does not have 4 bytes at the offset.
+     */
+    static int getIntBE(byte[] data, int offset) throws IndexOutOfBoundsException {
+        return (data[offset] & 0xFF) << 24
+                | (data[offset + 1] & 0xFF) << 16
+                | (data[offset + 2] & 0xFF) << 8
+                | (data[offset + 3] & 0xFF);
+    }
+
+    /**
+     * Read a big-endian long from a byte array.
+     *
+     * @param data   The data.
+     * @param offset The offset of the first byte.
+     *
+     * @return The value.
+     *
+     * @throws IndexOutOfBoundsException When the array does not have 8 bytes at the offset.
+     */
+    static long getLongBE(byte[] data, int offset) throws IndexOutOfBoundsException {
+        return (data[offset] & 0xFFL) << 56
+                | (data[offset + 1] & 0xFFL) << 48
+                | (data[offset + 2] & 0xFFL) << 40
+                | (data[offset + 3] & 0xFFL) << 32
+                | (data[offset + 4] & 0xFFL) << 24
+                | (data[offset + 5] & 0xFFL) << 16
+                | (data[offset + 6] & 0xFFL) << 8
+                | (data[offset + 7] & 0xFFL);
+    }
+
+    /**
+     * Write a short little-endian to a byte array.
+     *
+     * @param data   The data.
+     * @param offset The offset of the first byte.
+     * @param value  The value.
+     *
+     * @throws IndexOutOfBoundsException When the array does not have 2 bytes at the offset.
+     */
+    static void putShortLE(byte[] data, int offset, short value) throws IndexOutOfBoundsException {
+        data[offset] = (byte) value;
+        data[offset + 1] = (byte) (value >> 8);
+    }
+
+    /**
+     * Write a short big-endian to a byte array.
+     *
+     * @param data   The data.
+     * @param offset The offset of the first byte.
+     * @param value  The value.
+     *
+     * @throws IndexOutOfBoundsException When the array does not have 2 bytes at the offset.
+     */
+    static void putShortBE(byte[] data, int offset, short value) throws IndexOutOfBoundsException {
+        data[offset] = (byte) (value >> 8);
+        data[offset + 1] = (byte) value;
+    }
+
+    /**
+     * Write a int little-endian to a byte array.
+     *
+     * @param data   The data.
+     * @param offset The offset of the first byte.
+     * @param value  The value.
+     *
+     * @throws IndexOutOfBoundsException When the array does not have 4 bytes at the offset.
+     */
+    static void putIntLE(byte[] data, int offset, int value) throws IndexOutOfBoundsException {
+        data[offset] = (byte) value;
+        data[offset + 1] = (byte) (value >>> 8);
+        data[offset + 2] = (byte) (value >>> 16);
+        data[offset + 3] = (byte) (value >>> 24);
+    }
+
+    /**
+     * Write a int big-endian to a byte array.
+     *
+     * @param data   The data.
+     * @param offset The offset of the first byte.
+     * @param value  The value.
+     *
+     * @throws IndexOutOfBoundsException When the array does not have 4 bytes at the offset.
+     */
+    static void putIntBE(byte[] data, int offset, int value) throws IndexOutOfBoundsException {
+        data[offset] = (byte) (value >>> 24);
+        data[offset + 1] = (byte) (value >>> 16);
+        data[offset + 2] = (byte) (value >>> 8);
+        data[offset + 3] = (byte) value;
+    }
+
+    /**
+     * Write a long little-endian to a byte array.
+     *
+     * @param data   The data.
+     * @param offset The offset of the first byte.
+     * @param value  The value.
+     *
+     * @throws IndexOutOfBoundsException When the array does not have 8 bytes at the offset.
+     */
+    static void putLongLE(byte[] data, int offset, long value) throws IndexOutOfBoundsException {
+        data[offset] = (byte) value;
+        data[offset + 1] = (byte) (value >>> 8);
+        data[offset + 2] = (byte) (value >>> 16);
+        data[offset + 3] = (byte) (value >>> 24);
+        data[offset + 4] = (byte) (value >>> 32);
+        data[offset + 5] = (byte) (value >>> 40);
+        data[offset + 6] = (byte) (value >>> 48);
+        data[offset + 7] = (byte) (value >>> 56);
+    }
+
+    /**
+     * Write a long big-endian to a byte array.
+     *
+     * @param data   The data.
+     * @param offset The offset of the first byte.
+     * @param value  The value.
+     *
+     * @throws IndexOutOfBoundsException When the array does not have 8 bytes at the offset.
+     */
+    static void putLongBE(byte[] data, int offset, long value) throws IndexOutOfBoundsException {
+        data[offset] = (byte) (value >>> 56);
+        data[offset + 1] = (byte) (value >>> 48);
+        data[offset + 2] = (byte) (value >>> 40);
+        data[offset + 3] = (byte) (value >>> 32);
+        data[offset + 4] = (byte) (value >>> 24);
+        data[offset + 5] = (byte) (value >>> 16);
+        data[offset + 6] = (byte) (value >>> 8);
+        data[offset + 7] = (byte) value;
+    }
+
+    /**
+     * Compact the 7-bit groups of a varint of up to 8 bytes read as little-endian word into its value.
+     *
+     * @param word  The word, starting with the first byte of the varint.
+     * @param bytes The number of bytes of the varint (1-8).
+     *
+     * @return The value.
+     */
+    static long compactVarInt(long word, int bytes) {
+        long x = word & (-1L >>> (64 - (bytes << 3))) & VARINT_GROUP_BITS;
+        x = (x & 0x007F007F007F007FL) | ((x & 0x7F007F007F007F00L) >>> 1);
+        x = (x & 0x00003FFF00003FFFL) | ((x & 0x3FFF00003FFF0000L) >>> 2);
+        return (x & 0x000000000FFFFFFFL) | ((x & 0x0FFFFFFF00000000L) >>> 4);
+    }
+
+    /**
+     * Spread the low 32 bits of a value over the even bits of a long, for 2D Morton codes.
+     *
+     * @param value The value; the high 32 bits are ignored.
+     *
+     * @return The spread bits.
+     */
+    static long spread2(long value) {
+        long x = value & 0x00000000FFFFFFFFL;
+        x = (x | (x << 16)) & 0x0000FFFF0000FFFFL;
+        x = (x | (x << 8)) & 0x00FF00FF00FF00FFL;
+        x = (x | (x << 4)) & 0x0F0F0F0F0F0F0F0FL;
+        x = (x | (x << 2)) & 0x3333333333333333L;
+        return (x | (x << 1)) & 0x5555555555555555L;
+    }
+
+    /**
+     * Gather the even bits of a long into the low 32 bits, the inverse of {@link #spread2(long)}.
+     *
+     * @param code The code.
+     *
+     * @return The gathered bits.
+     */
+    static long compact2(long code) {
+        long x = code & 0x5555555555555555L;
+        x = (x | (x >>> 1)) & 0x3333333333333333L;
+        x = (x | (x >>> 2)) & 0x0F0F0F0F0F0F0F0FL;
+        x = (x | (x >>> 4)) & 0x00FF00FF00FF00FFL;
+        x = (x | (x >>> 8)) & 0x0000FFFF0000FFFFL;
+        return (x | (x >>> 16)) & 0x00000000FFFFFFFFL;
+    }
+
+    /**
+     * Spread the low 21 bits of a value over every third bit of a long, starting at bit 0, for 3D Morton codes.
+     *
+     * @param value The value; the bits above 21 are ignored.
+     *
+     * @return The spread bits.
+     */
+    static long spread3(long value) {
+        long x = value & 0x00000000001FFFFFL;
+        x = (x | (x << 32)) & 0x001F00000000FFFFL;
+        x = (x | (x << 16)) & 0x001F0000FF0000FFL;
+        x = (x | (x << 8)) & 0x100F00F00F00F00FL;
+        x = (x | (x << 4)) & 0x10C30C30C30C30C3L;
+        return (x | (x << 2)) & 0x1249249249249249L;
+    }
+
+    /**
+     * Gather every third bit of a long, starting at bit 0, into the low 21 bits, the inverse of {@link #spread3(long)}.
+     *
+     * @param code The code.
+     *
+     * @return The gathered bits.
+     */
+    static long compact3(long code) {
+        long x = code & 0x1249249249249249L;
+        x = (x | (x >>> 2)) & 0x10C30C30C30C30C3L;
+        x = (x | (x >>> 4)) & 0x100F00F00F00F00FL;
+        x = (x | (x >>> 8)) & 0x001F0000FF0000FFL;
+        x = (x | (x >>> 16)) & 0x001F00000000FFFFL;
+        return (x | (x >>> 32)) & 0x00000000001FFFFFL;
+    }
+}
@@ -0,0 +1,341 @@
+package nl.salp.util.bit;
+
+import java.util.Arrays;
+
+/**
+ * Fixed size bit set on the Java heap, backed by a <code>long[]</code>.
+ *
+ * <p>
+ * Bits are numbered from the LSB, starting with 0, like {@link BitHelper}: bit <code>i</code> is bit <code>i % 64</code>
+ * of word <code>i / 64</code>. Unlike {@link java.util.BitSet} the size is fixed, indexes are longs and the backing
+ * words are accessible, which allows other structures (such as {@link RankSelect}) to be built on top of it.
+ * </p>
+ *
+ * <p>
+ * This class is not thread-safe.
+ * </p>
+ *
+ * @see MappedBitSet
+ */
+public class LongBitSet {
+    /**
+     * The words holding the bits.
+     */
+    private final long[] words;
+    /**
+     * The number of bits.
+     */
+    private final long bitLength;
+
+    /**
+     * Create a new LongBitSet with all bits cleared.
+     *
+     * @param bitLength The number of bits.
+     *
+     * @throws IllegalArgumentException When the number of bits is negative or too large.
+     */
+    public LongBitSet(long bitLength) throws IllegalArgumentException {
+        this(new long[wordsFor(bitLength)], bitLength);
+    }
+
+    /**
+     * Create a new LongBitSet backed by existing words.
+     *
+     * @param words     The words, used as is (not copied). Bits beyond the number of bits must be 0.
+     * @param bitLength The number of bits.
+     *
+     * @throws IllegalArgumentException When the number of words does not match the number of bits or a bit beyond the
+     *                                  number of bits is set.
+     */
+    public LongBitSet(long[] words, long bitLength) throws IllegalArgumentException {
+        if (words == null) {
+            throw new IllegalArgumentException("No words provided");
+        }
+        if (words.length != wordsFor(bitLength)) {
+            throw new IllegalArgumentException(words.length + " words provided for " + bitLength + " bits");
+        }
+        if ((bitLength & 63) != 0 && words[words.length - 1] >>> bitLength != 0) {
+            throw new IllegalArgumentException("Bits beyond the " + bitLength + " bits are set");
+        }
+        this.words = words;
+        this.bitLength = bitLength;
+    }
+
+    /**
+     * Get the number of bits.
+     *
+     * @return The number of bits.
+     */
+    public long length() {
+        return bitLength;
+    }
+
+    /**
+     * Check if a bit is set.
+     *
+     * @param index The index of the bit.
+     *
+     * @return <code>true</code> if the bit is set.
+     *
+     * @throws IndexOutOfBoundsException When the index is not valid.
+     */
+    public boolean get(long index) throws IndexOutOfBoundsException {
+        checkIndex(index);
+        return (words[(int) (index >>> 6)] & (1L << index)) != 0;
+    }
+
+    /**
+     * Set a bit to 1.
+     *
+     * @param index The index of the bit.
+     *
+     * @throws IndexOutOfBoundsException When the index is not valid.
+     */
+    public void set(long index) throws IndexOutOfBoundsException {
+        checkIndex(index);
+        words[(int) (index >>> 6)] |= 1L << index;
+    }
+
+    /**
+     * Set a bit to 0.
+     *
+     * @param index The index of the bit.
+     *
+     * @throws IndexOutOfBoundsException When the index is not valid.
+     */
+    public void clear(long index) throws IndexOutOfBoundsException {
+        checkIndex(index);
+        words[(int) (index >>> 6)] &= ~(1L << index);
+    }
+
+    /**
+     * Set all bits to 0.
+     */
+    public void clear() {
+        Arrays.fill(words, 0L);
+    }
+
+    /**
+     * Get the index of the first set bit at or after an index.
+     *
+     * @param from The index to start at.
+     *
+     * @return The index of the set bit or <code>-1</code> if there is none.
+     *
+     * @throws IndexOutOfBoundsException When the index is negative.
+     */
+    public long nextSetBit(long from) throws IndexOutOfBoundsException {
+        if (from < 0) {
+            throw new IndexOutOfBoundsException("Bit index " + from + " is not valid, the minimum is 0");
+        }
+        if (from >= bitLength) {
+            return -1;
+        }
+        int wordIndex = (int) (from >>> 6);
+        long word = words[wordIndex] & (-1L << from);
+        while (word == 0) {
+            if (++wordIndex == words.length) {
+                return -1;
+            }
+            word = words[wordIndex];
+        }
+        return ((long) wordIndex << 6) + Long.numberOfTrailingZeros(word);
+    }
+
+    /**
+     * Get the index of the first cleared bit at or after an index.
+     *
+     * @param from The index to start at.
+     *
+     * @return The index of the cleared bit or <code>-1</code> if there is none.
+     *
+     * @throws IndexOutOfBoundsException When the index is negative.
+     */
+    public long nextClearBit(long from) throws IndexOutOfBoundsException {
+        if (from < 0) {
+            throw new IndexOutOfBoundsException("Bit index " + from + " is not valid, the minimum is 0");
+        }
+        if (from >= bitLength) {
+            return -1;
+        }
+        int wordIndex = (int) (from >>> 6);
+        long word = ~words[wordIndex] & (-1L << from);
+        while (word == 0) {
+            if (++wordIndex == words.length) {
+                return -1;
+            }
+            word = ~words[wordIndex];
+        }
+        long index = ((long) wordIndex << 6) + Long.numberOfTrailingZeros(word);
+        return index < bitLength ? index : -1;
+    }
+
+    /**
+     * Count the number of set bits.
+     *
+     * @return The number of set bits.
+     */
+    public long cardinality() {
+        long count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Keep only the bits that are also set in another bit set.
+     *
+     * @param other The other bit set, of the same length.
+     *
+     * @return This bit set.
+     *
+     * @throws IllegalArgumentException When the other bit set has a different length.
+     */
+    public LongBitSet and(LongBitSet other) throws IllegalArgumentException {
+        checkLength(other);
+        for (int i = 0; i < words.length; i++) {
+            words[i] &= other.words[i];
+        }
+        return this;
+    }
+
+    /**
+     * Set the bits that are set in another bit set.
+     *
+     * @param other The other bit set, of the same length.
+     *
+     * @return This bit set.
+     *
+     * @throws IllegalArgumentException When the other bit set has a different length.
+     */
+    public LongBitSet or(LongBitSet other) throws IllegalArgumentException {
+        checkLength(other);
+        for (int i = 0; i < words.length; i++) {
+            words[i] |= other.words[i];
+        }
+        return this;
+    }
+
+    /**
+     * Clear the bits that are set in another bit set.
+     *
+     * @param other The other bit set, of the same length.
+     *
+     * @return This bit set.
+     *
+     * @throws IllegalArgumentException When the other bit set has a different length.
+     */
+    public LongBitSet andNot(LongBitSet other) throws IllegalArgumentException {
+        checkLength(other);
+        for (int i = 0; i < words.length; i++) {
+            words[i] &= ~other.words[i];
+        }
+        return this;
+    }
+
+    /**
+     * Flip the bits that are set in another bit set.
+     *
+     * @param other The other bit set, of the same length.
+     *
+     * @return This bit set.
+     *
+     * @throws IllegalArgumentException When the other bit set has a different length.
+     */
+    public LongBitSet xor(LongBitSet other) throws IllegalArgumentException {
+        checkLength(other);
+        for (int i = 0; i < words.length; i++) {
+            words[i] ^= other.words[i];
+        }
+        return this;
+    }
+
+    /**
+     * Create a copy of this bit set.
+     *
+     * @return The copy.
+     */
+    public LongBitSet copy() {
+        return new LongBitSet(words.clone(), bitLength);
+    }
+
+    /**
+     * Get the backing words. Changes to the array are reflected in the bit set.
+     *
+     * @return The words.
+     */
+    public long[] words() {
+        return words;
+    }
+
+    /**
+     * Check if a bit index is valid.
+     *
+     * @param index The index.
+     *
+     * @throws IndexOutOfBoundsException When the index is not valid.
+     */
+    private void checkIndex(long index) throws IndexOutOfBoundsException {
+        if (index < 0 || index >= bitLength) {
+            throw new IndexOutOfBoundsException("Bit index " + index + " is not valid for " + bitLength + " bits");
+        }
+    }
+
+    /**
+     * Check if another bit set has the same length.
+     *
+     * @param other The other bit set.
+     *
+     * @throws IllegalArgumentException When the other bit set is null or has a different length.
+     */
+    private void checkLength(LongBitSet other) throws IllegalArgumentException {
+        if (other == null) {
+            throw new IllegalArgumentException("No bit set provided");
+        }
+        if (other.bitLength != bitLength) {
+            throw new IllegalArgumentException("Bit set of " + other.bitLength + " bits does not match " + bitLength + " bits");
+        }
+    }
+
+    /**
+     * Get the number of words needed for a number of bits.
+     *
+     * @param bitLength The number of bits.
+     *
+     * @return The number of words.
+     *
+     * @throws IllegalArgumentException When the number of bits is negative or too large.
+     */
+    private static int wordsFor(long bitLength) throws IllegalArgumentException {
+        if (bitLength < 0 || bitLength > (long) Integer.MAX_VALUE << 6) {
+            throw new IllegalArgumentException("Number of bits " + bitLength + " is not valid");
+        }
+        return (int) ((bitLength + 63) >>> 6);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        boolean equals = obj == this;
+        if (!equals && obj instanceof LongBitSet) {
+            LongBitSet other = (LongBitSet) obj;
+            equals = bitLength == other.bitLength && Arrays.equals(words, other.words);
+        }
+        return equals;
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(words);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("LongBitSet [");
+        sb.append("bits: ").append(bitLength).append(", ");
+        sb.append("set: ").append(cardinality());
+        sb.append("]");
+        return sb.toString();
+    }
+}
@@ -0,0 +1,442 @@
+package nl.salp.util.bit;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Persistent bit set backed by a memory-mapped file.
+ *
+ * <p>
+ * Bits are numbered from the LSB, starting with 0, like {@link BitHelper}: bit <code>i</code> is bit <code>i % 64</code>
+ * of the little-endian 64-bit word <code>i / 64</code> (and thus also bit <code>i % 8</code> of byte <code>i / 8</code>).
+ * The data lives in the page cache instead of on the Java heap and is mapped in regions of 1GB, so the number of bits
+ * is only limited by the file system. Reopening an existing file does not read or rebuild anything.
+ * </p>
+ *
+ * <p>
+ * Changes are written back by the operating system at its own pace; {@link MappedBitSet#force()} makes them durable.
+ * Once closed, all operations except {@link MappedBitSet#length()} and {@link MappedBitSet#close()} throw an
+ * {@link IllegalStateException}. This class is not thread-safe.
+ * </p>
+ */
+public class MappedBitSet implements Closeable {
+    /**
+     * Magic number at the start of the file ("salpbits").
+     */
+    private static final long MAGIC = 0x73616C7062697473L;
+    /**
+     * The size of the file header in bytes: the magic number and the number of bits.
+     */
+    private static final int HEADER_BYTES = 16;
+    /**
+     * The number of words in a mapped region, as a power of 2.
+     */
+    private static final int REGION_WORDS_SHIFT = 27;
+    /**
+     * The mask for the word index within a region.
+     */
+    private static final long REGION_WORDS_MASK = (1L << REGION_WORDS_SHIFT) - 1;
+
+    /**
+     * The backing file.
+     */
+    private final RandomAccessFile file;
+    /**
+     * The mapped regions of the data.
+     */
+    private MappedByteBuffer[] regions;
+    /**
+     * The number of bits.
+     */
+    private final long bitLength;
+    /**
+     * The number of 64-bit words.
+     */
+    private final long wordLength;
+    /**
+     * <code>true</code> if the bit set is closed.
+     */
+    private boolean closed;
+
+    /**
+     * Open an existing bit set file.
+     *
+     * @param file The file.
+     *
+     * @throws IOException              When the file could not be opened or mapped.
+     * @throws IllegalArgumentException When the file does not exist or is not a valid bit set file.
+     */
+    public MappedBitSet(File file) throws IOException, IllegalArgumentException {
+        this(file, -1);
+    }
+
+    /**
+     * Open a bit set file, creating it with all bits cleared if it does not exist or is empty.
+     *
+     * @param file      The file.
+     * @param bitLength The number of bits.
+     *
+     * @throws IOException              When the file could not be created, opened or mapped.
+     * @throws IllegalArgumentException When the file is not a valid bit set file, or a bit set file with a different
+     *                                  length.
+     */
+    public MappedBitSet(File file, long bitLength) throws IOException, IllegalArgumentException {
+        if (file == null) {
+            throw new IllegalArgumentException("No file provided");
+        }
+        if (bitLength < 0 && file.length() == 0) {
+            throw new IllegalArgumentException("Bit set file " + file + " does not exist or is empty");
+        }
+        this.file = new RandomAccessFile(file, "rw");
+        try {
+            this.bitLength = readOrCreateHeader(this.file, bitLength);
+            this.wordLength = wordsFor(this.bitLength);
+            this.regions = map(this.file.getChannel(), wordLength);
+        } catch (IOException e) {
+            this.file.close();
+            throw e;
+        } catch (RuntimeException e) {
+            this.file.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Get the number of bits.
+     *
+     * @return The number of bits.
+     */
+    public long length() {
+        return bitLength;
+    }
+
+    /**
+     * Check if a bit is set.
+     *
+     * @param index The index of the bit.
+     *
+     * @return <code>true</code> if the bit is set.
+     *
+     * @throws IndexOutOfBoundsException When the index is not valid.
+     * @throws IllegalStateException     When the bit set is closed.
+     */
+    public boolean get(long index) throws IndexOutOfBoundsException, IllegalStateException {
+        checkOpen();
+        checkIndex(index);
+        return (word(index >>> 6) & (1L << index)) != 0;
+    }
+
+    /**
+     * Set a bit to 1.
+     *
+     * @param index The index of the bit.
+     *
+     * @throws IndexOutOfBoundsException When the index is not valid.
+     * @throws IllegalStateException     When the bit set is closed.
+     */
+    public void set(long index) throws IndexOutOfBoundsException, IllegalStateException {
+        checkOpen();
+        checkIndex(index);
+        long wordIndex = index >>> 6;
+        setWord(wordIndex, word(wordIndex) | (1L << index));
+    }
+
+    /**
+     * Set a bit to 0.
+     *
+     * @param index The index of the bit.
+     *
+     * @throws IndexOutOfBoundsException When the index is not valid.
+     * @throws IllegalStateException     When the bit set is closed.
+     */
+    public void clear(long index) throws IndexOutOfBoundsException, IllegalStateException {
+        checkOpen();
+        checkIndex(index);
+        long wordIndex = index >>> 6;
+        setWord(wordIndex, word(wordIndex) & ~(1L << index));
+    }
+
+    /**
+     * Set all bits to 0.
+     *
+     * @throws IllegalStateException When the bit set is closed.
+     */
+    public void clear() throws IllegalStateException {
+        checkOpen();
+        for (long i = 0; i < wordLength; i++) {
+            setWord(i, 0L);
+        }
+    }
+
+    /**
+     * Get the index of the first set bit at or after an index.
+     *
+     * @param from The index to start at.
+     *
+     * @return The index of the set bit or <code>-1</code> if there is none.
+     *
+     * @throws IndexOutOfBoundsException When the index is negative.
+     * @throws IllegalStateException     When the bit set is closed.
+     */
+    public long nextSetBit(long from) throws IndexOutOfBoundsException, IllegalStateException {
+        checkOpen();
+        if (from < 0) {
+            throw new IndexOutOfBoundsException("Bit index " + from + " is not valid, the minimum is 0");
+        }
+        if (from >= bitLength) {
+            return -1;
+        }
+        long wordIndex = from >>> 6;
+        long word = word(wordIndex) & (-1L << from);
+        while (word == 0) {
+            if (++wordIndex == wordLength) {
+                return -1;
+            }
+            word = word(wordIndex);
+        }
+        return (wordIndex << 6) + Long.numberOfTrailingZeros(word);
+    }
+
+    /**
+     * Get the index of the first cleared bit at or after an index.
+     *
+     * @param from The index to start at.
+     *
+     * @return The index of the cleared bit or <code>-1</code> if there is none.
+     *
+     * @throws IndexOutOfBoundsException When the index is negative.
+     * @throws IllegalStateException     When the bit set is closed.
+     */
+    public long nextClearBit(long from) throws IndexOutOfBoundsException, IllegalStateException {
+        checkOpen();
+        if (from < 0) {
+            throw new IndexOutOfBoundsException("Bit index " + from + " is not valid, the minimum is 0");
+        }
+        if (from >= bitLength) {
+            return -1;
+        }
+        long wordIndex = from >>> 6;
+        long word = ~word(wordIndex) & (-1L << from);
+        while (word == 0) {
+            if (++wordIndex == wordLength) {
+                return -1;
+            }
+            word = ~word(wordIndex);
+        }
+        long index = (wordIndex << 6) + Long.numberOfTrailingZeros(word);
+        return index < bitLength ? index : -1;
+    }
+
+    /**
+     * Count the number of set bits.
+     *
+     * @return The number of set bits.
+     *
+     * @throws IllegalStateException When the bit set is closed.
+     */
+    public long cardinality() throws IllegalStateException {
+        checkOpen();
+        long count = 0;
+        for (long i = 0; i < wordLength; i++) {
+            count += Long.bitCount(word(i));
+        }
+        return count;
+    }
+
+    /**
+     * Get a 64-bit word of the bit set, containing bits <code>64 * index</code> to <code>64 * index + 63</code>.
+     *
+     * @param index The index of the word.
+     *
+     * @return The word.
+     *
+     * @throws IndexOutOfBoundsException When the index is not valid.
+     * @throws IllegalStateException     When the bit set is closed.
+     */
+    public long getWord(long index) throws IndexOutOfBoundsException, IllegalStateException {
+        checkOpen();
+        if (index < 0 || index >= wordLength) {
+            throw new IndexOutOfBoundsException("Word index " + index + " is not valid for " + wordLength + " words");
+        }
+        return word(index);
+    }
+
+    /**
+     * Write all changes to the storage device.
+     *
+     * @throws IllegalStateException When the bit set is closed.
+     */
+    public void force() throws IllegalStateException {
+        checkOpen();
+        for (MappedByteBuffer region : regions) {
+            region.force();
+        }
+    }
+
+    /**
+     * Write all changes to the storage device and close the file.
+     *
+     * <p>
+     * The mapped memory is released once the bit set is garbage collected. Closing a closed bit set has no effect.
+     * </p>
+     *
+     * @throws IOException When closing the file failed.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        force();
+        closed = true;
+        regions = new MappedByteBuffer[0];
+        file.close();
+    }
+
+    /**
+     * Get the number of words.
+     *
+     * @return The number of words.
+     */
+    long wordLength() {
+        return wordLength;
+    }
+
+    /**
+     * Read a word without bounds checking.
+     *
+     * @param index The index of the word.
+     *
+     * @return The word.
+     */
+    long word(long index) {
+        return regions[(int) (index >>> REGION_WORDS_SHIFT)].getLong((int) (index & REGION_WORDS_MASK) << 3);
+    }
+
+    /**
+     * Write a word without bounds checking.
+     *
+     * @param index The index of the word.
+     * @param word  The word.
+     */
+    private void setWord(long index, long word) {
+        regions[(int) (index >>> REGION_WORDS_SHIFT)].putLong((int) (index & REGION_WORDS_MASK) << 3, word);
+    }
+
+    /**
+     * Check if the bit set is not closed.
+     *
+     * @throws IllegalStateException When the bit set is closed.
+     */
+    private void checkOpen() throws IllegalStateException {
+        if (closed) {
+            throw new IllegalStateException("MappedBitSet is closed");
+        }
+    }
+
+    /**
+     * Check if a bit index is valid.
+     *
+     * @param index The index.
+     *
+     * @throws IndexOutOfBoundsException When the index is not valid.
+     */
+    private void checkIndex(long index) throws IndexOutOfBoundsException {
+        if (index < 0 || index >= bitLength) {
+            throw new IndexOutOfBoundsException("Bit index " + index + " is not valid for " + bitLength + " bits");
+        }
+    }
+
+    /**
+     * Read the header of a file, or size an empty file for the bits and write a new header.
+     *
+     * @param file      The file.
+     * @param bitLength The expected number of bits, or <code>-1</code> to accept any length.
+     *
+     * @return The number of bits.
+     *
+     * @throws IOException              When reading or writing the header failed.
+     * @throws IllegalArgumentException When the header is not valid or does not match the expected length.
+     */
+    private static long readOrCreateHeader(RandomAccessFile file, long bitLength) throws IOException, IllegalArgumentException {
+        FileChannel channel = file.getChannel();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        if (channel.size() == 0) {
+            if (bitLength < 0) {
+                throw new IllegalArgumentException("Bit set file does not exist or is empty");
+            }
+            file.setLength(HEADER_BYTES + wordsFor(bitLength) * 8);
+            header.putLong(MAGIC).putLong(bitLength).flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            return bitLength;
+        }
+        while (header.hasRemaining()) {
+            if (channel.read(header, header.position()) < 0) {
+                throw new IllegalArgumentException("Bit set file header is incomplete");
+            }
+        }
+        header.flip();
+        if (header.getLong() != MAGIC) {
+            throw new IllegalArgumentException("File is not a bit set file");
+        }
+        long storedLength = header.getLong();
+        if (storedLength < 0 || HEADER_BYTES + wordsFor(storedLength) * 8 > channel.size()) {
+            throw new IllegalArgumentException("Bit set file header length " + storedLength + " does not fit the file size "
+                    + channel.size());
+        }
+        if (bitLength > -1 && storedLength != bitLength) {
+            throw new IllegalArgumentException("Bit set file has " + storedLength + " bits instead of " + bitLength);
+        }
+        return storedLength;
+    }
+
+    /**
+     * Get the number of words needed for a number of bits, without overflowing for the largest lengths.
+     *
+     * @param bitLength The number of bits.
+     *
+     * @return The number of words.
+     */
+    private static long wordsFor(long bitLength) {
+        return (bitLength >>> 6) + ((bitLength & 63) == 0 ? 0 : 1);
+    }
+
+    /**
+     * Map the data of a bit set file.
+     *
+     * @param channel    The file channel.
+     * @param wordLength The number of words.
+     *
+     * @return The mapped regions.
+     *
+     * @throws IOException When mapping failed.
+     */
+    private static MappedByteBuffer[] map(FileChannel channel, long wordLength) throws IOException {
+        int count = (int) ((wordLength + REGION_WORDS_MASK) >>> REGION_WORDS_SHIFT);
+        MappedByteBuffer[] regions = new MappedByteBuffer[count];
+        for (int i = 0; i < count; i++) {
+            long firstWord = (long) i << REGION_WORDS_SHIFT;
+            long words = Math.min(wordLength - firstWord, 1L << REGION_WORDS_SHIFT);
+            regions[i] = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_BYTES + firstWord * 8, words * 8);
+            regions[i].order(ByteOrder.LITTLE_ENDIAN);
+        }
+        return regions;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("MappedBitSet [");
+        sb.append("bits: ").append(bitLength);
+        sb.append("]");
+        return sb.toString();
+    }
+}
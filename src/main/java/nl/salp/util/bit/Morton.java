@@ -0,0 +1,522 @@
+package nl.salp.util.bit;
+
+import nl.salp.util.AllocationFree;
+
+/**
+ * Morton (Z-order) codes for 2D and 3D coordinates, interleaving the bits of the coordinates into a single key so
+ * that points close in space mostly have codes close to each other.
+ *
+ * <p>
+ * Coordinates are unsigned. The long codes hold 2D coordinates of 32 bits (the full int range, read as unsigned) and
+ * 3D coordinates of 21 bits; the int codes hold 2D coordinates of 16 bits and 3D coordinates of 10 bits. The bits of x
+ * are at the lowest position of every group, followed by y and z. Codes are ordered as unsigned numbers, which
+ * matters for 2D long codes only.
+ * </p>
+ *
+ * <p>
+ * The bits are spread with magic number shifts and masks, or with a single bit deposit/extract on Java 21 (see
+ * {@link Intrinsics}). The {@link #bigMin2D(long, long, long)} and {@link #litMax2D(long, long, long)} helpers (and
+ * their 3D versions) skip the parts of a Z-order range outside a query box, so a range query over sorted codes only
+ * visits codes inside the box.
+ * </p>
+ */
+public final class Morton {
+    /**
+     * The bits of x in a 2D code.
+     */
+    private static final long MASK_2D = 0x5555555555555555L;
+    /**
+     * The bits of x in a 3D code.
+     */
+    private static final long MASK_3D = 0x1249249249249249L;
+    /**
+     * The maximum coordinate in a 3D long code.
+     */
+    private static final int MAX_3D = (1 << 21) - 1;
+    /**
+     * The maximum coordinate in a 2D int code.
+     */
+    private static final int MAX_INT_2D = (1 << 16) - 1;
+    /**
+     * The maximum coordinate in a 3D int code.
+     */
+    private static final int MAX_INT_3D = (1 << 10) - 1;
+
+    /**
+     * Utility class, no instances.
+     */
+    private Morton() {
+    }
+
+    /**
+     * Encode 2D coordinates of 32 bits into a long code.
+     *
+     * @param x The x coordinate, read as unsigned.
+     * @param y The y coordinate, read as unsigned.
+     *
+     * @return The code.
+     */
+    @AllocationFree
+    public static long encode2D(int x, int y) {
+        return Intrinsics.spread2(x) | Intrinsics.spread2(y) << 1;
+    }
+
+    /**
+     * Get the x coordinate of a 2D long code.
+     *
+     * @param code The code.
+     *
+     * @return The x coordinate, to be read as unsigned.
+     */
+    @AllocationFree
+    public static int decode2DX(long code) {
+        return (int) Intrinsics.compact2(code);
+    }
+
+    /**
+     * Get the y coordinate of a 2D long code.
+     *
+     * @param code The code.
+     *
+     * @return The y coordinate, to be read as unsigned.
+     */
+    @AllocationFree
+    public static int decode2DY(long code) {
+        return (int) Intrinsics.compact2(code >>> 1);
+    }
+
+    /**
+     * Encode 3D coordinates of 21 bits into a long code.
+     *
+     * @param x The x coordinate (0 - 2097151).
+     * @param y The y coordinate (0 - 2097151).
+     * @param z The z coordinate (0 - 2097151).
+     *
+     * @return The code.
+     *
+     * @throws IllegalArgumentException When a coordinate does not fit in 21 bits.
+     */
+    @AllocationFree
+    public static long encode3D(int x, int y, int z) throws IllegalArgumentException {
+        checkCoordinates(x, y, z, MAX_3D);
+        return Intrinsics.spread3(x) | Intrinsics.spread3(y) << 1 | Intrinsics.spread3(z) << 2;
+    }
+
+    /**
+     * Get the x coordinate of a 3D long code.
+     *
+     * @param code The code.
+     *
+     * @return The x coordinate.
+     */
+    @AllocationFree
+    public static int decode3DX(long code) {
+        return (int) Intrinsics.compact3(code);
+    }
+
+    /**
+     * Get the y coordinate of a 3D long code.
+     *
+     * @param code The code.
+     *
+     * @return The y coordinate.
+     */
+    @AllocationFree
+    public static int decode3DY(long code) {
+        return (int) Intrinsics.compact3(code >>> 1);
+    }
+
+    /**
+     * Get the z coordinate of a 3D long code.
+     *
+     * @param code The code.
+     *
+     * @return The z coordinate.
+     */
+    @AllocationFree
+    public static int decode3DZ(long code) {
+        return (int) Intrinsics.compact3(code >>> 2);
+    }
+
+    /**
+     * Encode 2D coordinates of 16 bits into an int code.
+     *
+     * @param x The x coordinate (0 - 65535).
+     * @param y The y coordinate (0 - 65535).
+     *
+     * @return The code.
+     *
+     * @throws IllegalArgumentException When a coordinate does not fit in 16 bits.
+     */
+    @AllocationFree
+    public static int encodeInt2D(int x, int y) throws IllegalArgumentException {
+        checkCoordinates(x, y, 0, MAX_INT_2D);
+        return (int) encode2D(x, y);
+    }
+
+    /**
+     * Get the x coordinate of a 2D int code.
+     *
+     * @param code The code.
+     *
+     * @return The x coordinate.
+     */
+    @AllocationFree
+    public static int decodeInt2DX(int code) {
+        return decode2DX(code & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Get the y coordinate of a 2D int code.
+     *
+     * @param code The code.
+     *
+     * @return The y coordinate.
+     */
+    @AllocationFree
+    public static int decodeInt2DY(int code) {
+        return decode2DY(code & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Encode 3D coordinates of 10 bits into an int code.
+     *
+     * @param x The x coordinate (0 - 1023).
+     * @param y The y coordinate (0 - 1023).
+     * @param z The z coordinate (0 - 1023).
+     *
+     * @return The code.
+     *
+     * @throws IllegalArgumentException When a coordinate does not fit in 10 bits.
+     */
+    @AllocationFree
+    public static int encodeInt3D(int x, int y, int z) throws IllegalArgumentException {
+        checkCoordinates(x, y, z, MAX_INT_3D);
+        return (int) encode3D(x, y, z);
+    }
+
+    /**
+     * Get the x coordinate of a 3D int code.
+     *
+     * @param code The code.
+     *
+     * @return The x coordinate.
+     */
+    @AllocationFree
+    public static int decodeInt3DX(int code) {
+        return decode3DX(code);
+    }
+
+    /**
+     * Get the y coordinate of a 3D int code.
+     *
+     * @param code The code.
+     *
+     * @return The y coordinate.
+     */
+    @AllocationFree
+    public static int decodeInt3DY(int code) {
+        return decode3DY(code);
+    }
+
+    /**
+     * Get the z coordinate of a 3D int code.
+     *
+     * @param code The code.
+     *
+     * @return The z coordinate.
+     */
+    @AllocationFree
+    public static int decodeInt3DZ(int code) {
+        return decode3DZ(code);
+    }
+
+    /**
+     * Encode a range of 2D coordinates into long codes.
+     *
+     * @param x      The x coordinates, read as unsigned.
+     * @param y      The y coordinates, read as unsigned.
+     * @param codes  The array for the codes.
+     * @param offset The offset of the first coordinates and code in the arrays.
+     * @param length The number of codes.
+     *
+     * @throws IndexOutOfBoundsException When the range is not valid for one of the arrays.
+     */
+    @AllocationFree
+    public static void encode2D(int[] x, int[] y, long[] codes, int offset, int length) throws IndexOutOfBoundsException {
+        checkRange(offset, length, x.length, y.length, codes.length);
+        for (int i = offset, end = offset + length; i < end; i++) {
+            codes[i] = Intrinsics.spread2(x[i]) | Intrinsics.spread2(y[i]) << 1;
+        }
+    }
+
+    /**
+     * Decode a range of 2D long codes into coordinates.
+     *
+     * @param codes  The codes.
+     * @param x      The array for the x coordinates.
+     * @param y      The array for the y coordinates.
+     * @param offset The offset of the first code and coordinates in the arrays.
+     * @param length The number of codes.
+     *
+     * @throws IndexOutOfBoundsException When the range is not valid for one of the arrays.
+     */
+    @AllocationFree
+    public static void decode2D(long[] codes, int[] x, int[] y, int offset, int length) throws IndexOutOfBoundsException {
+        checkRange(offset, length, x.length, y.length, codes.length);
+        for (int i = offset, end = offset + length; i < end; i++) {
+            long code = codes[i];
+            x[i] = (int) Intrinsics.compact2(code);
+            y[i] = (int) Intrinsics.compact2(code >>> 1);
+        }
+    }
+
+    /**
+     * Encode a range of 3D coordinates into long codes.
+     *
+     * @param x      The x coordinates (0 - 2097151).
+     * @param y      The y coordinates (0 - 2097151).
+     * @param z      The z coordinates (0 - 2097151).
+     * @param codes  The array for the codes.
+     * @param offset The offset of the first coordinates and code in the arrays.
+     * @param length The number of codes.
+     *
+     * @throws IndexOutOfBoundsException When the range is not valid for one of the arrays.
+     * @throws IllegalArgumentException  When a coordinate does not fit in 21 bits.
+     */
+    @AllocationFree
+    public static void encode3D(int[] x, int[] y, int[] z, long[] codes, int offset, int length) throws IndexOutOfBoundsException, IllegalArgumentException {
+        checkRange(offset, length, x.length, y.length, codes.length);
+        checkRange(offset, length, z.length, z.length, z.length);
+        for (int i = offset, end = offset + length; i < end; i++) {
+            codes[i] = encode3D(x[i], y[i], z[i]);
+        }
+    }
+
+    /**
+     * Decode a range of 3D long codes into coordinates.
+     *
+     * @param codes  The codes.
+     * @param x      The array for the x coordinates.
+     * @param y      The array for the y coordinates.
+     * @param z      The array for the z coordinates.
+     * @param offset The offset of the first code and coordinates in the arrays.
+     * @param length The number of codes.
+     *
+     * @throws IndexOutOfBoundsException When the range is not valid for one of the arrays.
+     */
+    @AllocationFree
+    public static void decode3D(long[] codes, int[] x, int[] y, int[] z, int offset, int length) throws IndexOutOfBoundsException {
+        checkRange(offset, length, x.length, y.length, codes.length);
+        checkRange(offset, length, z.length, z.length, z.length);
+        for (int i = offset, end = offset + length; i < end; i++) {
+            long code = codes[i];
+            x[i] = (int) Intrinsics.compact3(code);
+            y[i] = (int) Intrinsics.compact3(code >>> 1);
+            z[i] = (int) Intrinsics.compact3(code >>> 2);
+        }
+    }
+
+    /**
+     * Check if a 2D code is inside the box spanned by the codes of its minimum and maximum corner.
+     *
+     * @param code The code.
+     * @param min  The code of the minimum corner.
+     * @param max  The code of the maximum corner.
+     *
+     * @return <code>true</code> if the code is inside the box.
+     */
+    @AllocationFree
+    public static boolean isInBox2D(long code, long min, long max) {
+        return isInBox(code, min, max, MASK_2D) && isInBox(code, min, max, MASK_2D << 1);
+    }
+
+    /**
+     * Check if a 3D code is inside the box spanned by the codes of its minimum and maximum corner.
+     *
+     * @param code The code.
+     * @param min  The code of the minimum corner.
+     * @param max  The code of the maximum corner.
+     *
+     * @return <code>true</code> if the code is inside the box.
+     */
+    @AllocationFree
+    public static boolean isInBox3D(long code, long min, long max) {
+        return isInBox(code, min, max, MASK_3D) && isInBox(code, min, max, MASK_3D << 1) && isInBox(code, min, max, MASK_3D << 2);
+    }
+
+    /**
+     * Get the BIGMIN of a 2D code outside a query box: the lowest code inside the box that is greater than the code.
+     * A range scan that runs out of the box continues at this code.
+     *
+     * @param code The code, between the codes of the corners but outside the box.
+     * @param min  The code of the minimum corner of the box.
+     * @param max  The code of the maximum corner of the box.
+     *
+     * @return The BIGMIN.
+     */
+    @AllocationFree
+    public static long bigMin2D(long code, long min, long max) {
+        return bigMin(code, min, max, 63, MASK_2D, 2);
+    }
+
+    /**
+     * Get the LITMAX of a 2D code outside a query box: the highest code inside the box that is less than the code.
+     * A backwards range scan that runs out of the box continues at this code.
+     *
+     * @param code The code, between the codes of the corners but outside the box.
+     * @param min  The code of the minimum corner of the box.
+     * @param max  The code of the maximum corner of the box.
+     *
+     * @return The LITMAX.
+     */
+    @AllocationFree
+    public static long litMax2D(long code, long min, long max) {
+        return litMax(code, min, max, 63, MASK_2D, 2);
+    }
+
+    /**
+     * Get the BIGMIN of a 3D code outside a query box: the lowest code inside the box that is greater than the code.
+     *
+     * @param code The code, between the codes of the corners but outside the box.
+     * @param min  The code of the minimum corner of the box.
+     * @param max  The code of the maximum corner of the box.
+     *
+     * @return The BIGMIN.
+     */
+    @AllocationFree
+    public static long bigMin3D(long code, long min, long max) {
+        return bigMin(code, min, max, 62, MASK_3D, 3);
+    }
+
+    /**
+     * Get the LITMAX of a 3D code outside a query box: the highest code inside the box that is less than the code.
+     *
+     * @param code The code, between the codes of the corners but outside the box.
+     * @param min  The code of the minimum corner of the box.
+     * @param max  The code of the maximum corner of the box.
+     *
+     * @return The LITMAX.
+     */
+    @AllocationFree
+    public static long litMax3D(long code, long min, long max) {
+        return litMax(code, min, max, 62, MASK_3D, 3);
+    }
+
+    /**
+     * Check if the bits of one dimension of a code are between those of the corners of a box.
+     *
+     * @param code The code.
+     * @param min  The code of the minimum corner.
+     * @param max  The code of the maximum corner.
+     * @param mask The bits of the dimension.
+     *
+     * @return <code>true</code> if the code is inside the box in the dimension.
+     */
+    private static boolean isInBox(long code, long min, long max, long mask) {
+        long value = (code & mask) ^ Long.MIN_VALUE;
+        return value >= ((min & mask) ^ Long.MIN_VALUE) && value <= ((max & mask) ^ Long.MIN_VALUE);
+    }
+
+    /**
+     * Calculate the BIGMIN of a code (Tropf and Herzog), walking the bits from the most significant one.
+     *
+     * @param code       The code.
+     * @param min        The code of the minimum corner of the box.
+     * @param max        The code of the maximum corner of the box.
+     * @param topBit     The index of the highest bit of a code.
+     * @param mask       The bits of the first dimension.
+     * @param dimensions The number of dimensions.
+     *
+     * @return The BIGMIN.
+     */
+    private static long bigMin(long code, long min, long max, int topBit, long mask, int dimensions) {
+        long bigMin = min;
+        for (int bit = topBit; bit >= 0; bit--) {
+            long bitMask = 1L << bit;
+            long lower = (mask << (bit % dimensions)) & (bitMask - 1);
+            boolean codeBit = (code & bitMask) != 0;
+            boolean minBit = (min & bitMask) != 0;
+            boolean maxBit = (max & bitMask) != 0;
+            if (!codeBit && !minBit && maxBit) {
+                bigMin = (min | bitMask) & ~lower;
+                max = (max & ~bitMask) | lower;
+            } else if (!codeBit && minBit && maxBit) {
+                return min;
+            } else if (codeBit && !minBit && !maxBit) {
+                return bigMin;
+            } else if (codeBit && !minBit && maxBit) {
+                min = (min | bitMask) & ~lower;
+            }
+        }
+        return bigMin;
+    }
+
+    /**
+     * Calculate the LITMAX of a code (Tropf and Herzog), walking the bits from the most significant one.
+     *
+     * @param code       The code.
+     * @param min        The code of the minimum corner of the box.
+     * @param max        The code of the maximum corner of the box.
+     * @param topBit     The index of the highest bit of a code.
+     * @param mask       The bits of the first dimension.
+     * @param dimensions The number of dimensions.
+     *
+     * @return The LITMAX.
+     */
+    private static long litMax(long code, long min, long max, int topBit, long mask, int dimensions) {
+        long litMax = max;
+        for (int bit = topBit; bit >= 0; bit--) {
+            long bitMask = 1L << bit;
+            long lower = (mask << (bit % dimensions)) & (bitMask - 1);
+            boolean codeBit = (code & bitMask) != 0;
+            boolean minBit = (min & bitMask) != 0;
+            boolean maxBit = (max & bitMask) != 0;
+            if (!codeBit && !minBit && maxBit) {
+                max = (max & ~bitMask) | lower;
+            } else if (!codeBit && minBit && maxBit) {
+                return litMax;
+            } else if (codeBit && !minBit && !maxBit) {
+                return max;
+            } else if (codeBit && !minBit && maxBit) {
+                litMax = (max & ~bitMask) | lower;
+                min = (min | bitMask) & ~lower;
+            }
+        }
+        return litMax;
+    }
+
+    /**
+     * Check that coordinates fit in a code.
+     *
+     * @param x   The x coordinate.
+     * @param y   The y coordinate.
+     * @param z   The z coordinate, 0 for 2D codes.
+     * @param max The maximum coordinate.
+     *
+     * @throws IllegalArgumentException When a coordinate does not fit.
+     */
+    private static void checkCoordinates(int x, int y, int z, int max) throws IllegalArgumentException {
+        if ((x | y | z) < 0 || x > max || y > max || z > max) {
+            throw new IllegalArgumentException("Coordinates (" + x + ", " + y + ", " + z + ") are not valid, the range is 0 - " + max);
+        }
+    }
+
+    /**
+     * Check that a range is valid for arrays.
+     *
+     * @param offset  The offset of the range.
+     * @param length  The length of the range.
+     * @param length1 The length of the first array.
+     * @param length2 The length of the second array.
+     * @param length3 The length of the third array.
+     *
+     * @throws IndexOutOfBoundsException When the range is not valid for one of the arrays.
+     */
+    private static void checkRange(int offset, int length, int length1, int length2, int length3) throws IndexOutOfBoundsException {
+        int arrayLength = Math.min(length1, Math.min(length2, length3));
+        if (offset < 0 || length < 0 || offset > arrayLength - length) {
+            throw new IndexOutOfBoundsException("Range " + offset + " + " + length + " is not valid for arrays of " + arrayLength + " elements");
+        }
+    }
+}
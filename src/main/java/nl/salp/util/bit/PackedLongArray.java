@@ -0,0 +1,427 @@
+package nl.salp.util.bit;
+
+import java.util.Arrays;
+
+/**
+ * Fixed size array of unsigned integers of 1 to 64 bits each, packed contiguously in a <code>long[]</code>.
+ *
+ * <p>
+ * Value <code>i</code> occupies bits <code>[i * bitsPerValue, (i + 1) * bitsPerValue)</code>, numbered from the LSB
+ * like {@link LongBitSet}, so a value may span two words. Every block of 64 values occupies exactly
+ * <code>bitsPerValue</code> words, which allows a block to be decoded or encoded in one pass with fixed shifts and no
+ * per-value bounds checks.
+ * </p>
+ *
+ * <p>
+ * Setting a value that does not fit in the current number of bits widens all values first. This is done in place,
+ * from the last value to the first, so it only needs the extra words for the wider values.
+ * </p>
+ *
+ * <p>
+ * This class is not thread-safe.
+ * </p>
+ */
+public class PackedLongArray {
+    /**
+     * The number of values in a block, as a power of 2.
+     */
+    private static final int BLOCK_SHIFT = 6;
+    /**
+     * The number of values in a block.
+     */
+    public static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+
+    /**
+     * The number of values.
+     */
+    private final int size;
+    /**
+     * The number of bits per value.
+     */
+    private int bitsPerValue;
+    /**
+     * The mask for a value.
+     */
+    private long mask;
+    /**
+     * The words holding the values.
+     */
+    private long[] words;
+
+    /**
+     * Create a new PackedLongArray with all values 0.
+     *
+     * @param size         The number of values.
+     * @param bitsPerValue The number of bits per value (1-64).
+     *
+     * @throws IllegalArgumentException When the size or number of bits is not valid.
+     */
+    public PackedLongArray(int size, int bitsPerValue) throws IllegalArgumentException {
+        if (size < 0) {
+            throw new IllegalArgumentException("Size " + size + " is not valid, the minimum is 0");
+        }
+        checkBitsPerValue(bitsPerValue);
+        this.size = size;
+        this.bitsPerValue = bitsPerValue;
+        this.mask = maskFor(bitsPerValue);
+        this.words = new long[wordsFor(size, bitsPerValue)];
+    }
+
+    /**
+     * Get the number of values.
+     *
+     * @return The number of values.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the number of bits per value.
+     *
+     * @return The number of bits per value.
+     */
+    public int getBitsPerValue() {
+        return bitsPerValue;
+    }
+
+    /**
+     * Get the number of blocks of {@link PackedLongArray#BLOCK_SIZE} values; the last block may be partially used.
+     *
+     * @return The number of blocks.
+     */
+    public int getBlockCount() {
+        return (size + BLOCK_SIZE - 1) >>> BLOCK_SHIFT;
+    }
+
+    /**
+     * Get a value.
+     *
+     * @param index The index of the value.
+     *
+     * @return The value.
+     *
+     * @throws IndexOutOfBoundsException When the index is not valid.
+     */
+    public long get(int index) throws IndexOutOfBoundsException {
+        checkIndex(index);
+        return read(words, (long) index * bitsPerValue, bitsPerValue, mask);
+    }
+
+    /**
+     * Set a value, widening all values when it does not fit in the current number of bits.
+     *
+     * @param index The index of the value.
+     * @param value The value, as unsigned.
+     *
+     * @throws IndexOutOfBoundsException When the index is not valid.
+     */
+    public void set(int index, long value) throws IndexOutOfBoundsException {
+        checkIndex(index);
+        if ((value & ~mask) != 0) {
+            resize(bitsRequired(value));
+        }
+        write(words, (long) index * bitsPerValue, bitsPerValue, mask, value);
+    }
+
+    /**
+     * Widen all values to a number of bits, in place.
+     *
+     * @param newBitsPerValue The new number of bits per value, at least the current number of bits.
+     *
+     * @throws IllegalArgumentException When the number of bits is not valid or less than the current number of bits.
+     */
+    public void resize(int newBitsPerValue) throws IllegalArgumentException {
+        checkBitsPerValue(newBitsPerValue);
+        if (newBitsPerValue < bitsPerValue) {
+            throw new IllegalArgumentException("Number of bits " + newBitsPerValue + " is less than the current " + bitsPerValue);
+        }
+        if (newBitsPerValue == bitsPerValue) {
+            return;
+        }
+        long[] newWords = Arrays.copyOf(words, wordsFor(size, newBitsPerValue));
+        long newMask = maskFor(newBitsPerValue);
+        for (int i = size - 1; i >= 0; i--) {
+            long value = read(newWords, (long) i * bitsPerValue, bitsPerValue, mask);
+            write(newWords, (long) i * newBitsPerValue, newBitsPerValue, newMask, value);
+        }
+        this.words = newWords;
+        this.bitsPerValue = newBitsPerValue;
+        this.mask = newMask;
+    }
+
+    /**
+     * Decode a block of {@link PackedLongArray#BLOCK_SIZE} values.
+     *
+     * <p>
+     * Values beyond the size of the array in the last block are decoded as 0.
+     * </p>
+     *
+     * @param block  The index of the block.
+     * @param values The array to decode to.
+     * @param offset The offset in the array of the first value.
+     *
+     * @throws IndexOutOfBoundsException When the block or the array range is not valid.
+     */
+    public void decodeBlock(int block, long[] values, int offset) throws IndexOutOfBoundsException {
+        checkBlock(block, values, offset);
+        int word = block * bitsPerValue;
+        if (bitsPerValue == 64) {
+            System.arraycopy(words, word, values, offset, BLOCK_SIZE);
+        } else if ((64 % bitsPerValue) == 0) {
+            decodeAligned(words, word, bitsPerValue, mask, values, offset);
+        } else {
+            decodeUnaligned(words, word, bitsPerValue, mask, values, offset);
+        }
+    }
+
+    /**
+     * Encode a block of {@link PackedLongArray#BLOCK_SIZE} values, widening all values when needed.
+     *
+     * <p>
+     * Values beyond the size of the array in the last block must be 0.
+     * </p>
+     *
+     * @param block  The index of the block.
+     * @param values The array with the values.
+     * @param offset The offset in the array of the first value.
+     *
+     * @throws IndexOutOfBoundsException When the block or the array range is not valid.
+     * @throws IllegalArgumentException  When a value beyond the size of the array is not 0.
+     */
+    public void encodeBlock(int block, long[] values, int offset) throws IndexOutOfBoundsException, IllegalArgumentException {
+        checkBlock(block, values, offset);
+        long all = 0;
+        for (int i = 0; i < BLOCK_SIZE; i++) {
+            all |= values[offset + i];
+        }
+        for (int i = size - (block << BLOCK_SHIFT); i < BLOCK_SIZE; i++) {
+            if (values[offset + i] != 0) {
+                throw new IllegalArgumentException("Value " + ((block << BLOCK_SHIFT) + i) + " is beyond the size " + size);
+            }
+        }
+        if ((all & ~mask) != 0) {
+            resize(bitsRequired(all));
+        }
+        int word = block * bitsPerValue;
+        if (bitsPerValue == 64) {
+            System.arraycopy(values, offset, words, word, BLOCK_SIZE);
+        } else {
+            encode(words, word, bitsPerValue, values, offset);
+        }
+    }
+
+    /**
+     * Get the backing words. Changes to the array are reflected in the values, but widening replaces the array.
+     *
+     * @return The words.
+     */
+    public long[] words() {
+        return words;
+    }
+
+    /**
+     * Get the number of bits needed to store an unsigned value.
+     *
+     * @param value The value.
+     *
+     * @return The number of bits (1-64).
+     */
+    public static int bitsRequired(long value) {
+        return Math.max(1, 64 - Long.numberOfLeadingZeros(value));
+    }
+
+    /**
+     * Decode a block where the number of bits divides 64, so no value spans two words.
+     *
+     * @param words        The words.
+     * @param word         The first word of the block.
+     * @param bitsPerValue The number of bits per value.
+     * @param mask         The mask for a value.
+     * @param values       The array to decode to.
+     * @param offset       The offset in the array of the first value.
+     */
+    private static void decodeAligned(long[] words, int word, int bitsPerValue, long mask, long[] values, int offset) {
+        int valuesPerWord = 64 / bitsPerValue;
+        for (int w = word, end = word + bitsPerValue; w < end; w++) {
+            long bits = words[w];
+            for (int i = 0; i < valuesPerWord; i++) {
+                values[offset++] = bits & mask;
+                bits >>>= bitsPerValue;
+            }
+        }
+    }
+
+    /**
+     * Decode a block where values may span two words.
+     *
+     * @param words        The words.
+     * @param word         The first word of the block.
+     * @param bitsPerValue The number of bits per value.
+     * @param mask         The mask for a value.
+     * @param values       The array to decode to.
+     * @param offset       The offset in the array of the first value.
+     */
+    private static void decodeUnaligned(long[] words, int word, int bitsPerValue, long mask, long[] values, int offset) {
+        long bits = words[word];
+        int shift = 0;
+        for (int i = 0; i < BLOCK_SIZE; i++) {
+            long value = bits >>> shift;
+            shift += bitsPerValue;
+            if (shift >= 64) {
+                shift -= 64;
+                if (shift > 0 || i < BLOCK_SIZE - 1) {
+                    bits = words[++word];
+                    value |= bits << (bitsPerValue - shift);
+                }
+            }
+            values[offset + i] = value & mask;
+        }
+    }
+
+    /**
+     * Encode a block of values that all fit in the number of bits.
+     *
+     * @param words        The words.
+     * @param word         The first word of the block.
+     * @param bitsPerValue The number of bits per value.
+     * @param values       The array with the values.
+     * @param offset       The offset in the array of the first value.
+     */
+    private static void encode(long[] words, int word, int bitsPerValue, long[] values, int offset) {
+        long bits = 0;
+        int shift = 0;
+        for (int i = 0; i < BLOCK_SIZE; i++) {
+            long value = values[offset + i];
+            bits |= value << shift;
+            shift += bitsPerValue;
+            if (shift >= 64) {
+                words[word++] = bits;
+                shift -= 64;
+                bits = shift > 0 ? value >>> (bitsPerValue - shift) : 0;
+            }
+        }
+    }
+
+    /**
+     * Read a value.
+     *
+     * @param words        The words.
+     * @param bitIndex     The index of the first bit of the value.
+     * @param bitsPerValue The number of bits per value.
+     * @param mask         The mask for a value.
+     *
+     * @return The value.
+     */
+    private static long read(long[] words, long bitIndex, int bitsPerValue, long mask) {
+        int word = (int) (bitIndex >>> 6);
+        int shift = (int) (bitIndex & 63);
+        long value = words[word] >>> shift;
+        if (shift + bitsPerValue > 64) {
+            value |= words[word + 1] << (64 - shift);
+        }
+        return value & mask;
+    }
+
+    /**
+     * Write a value.
+     *
+     * @param words        The words.
+     * @param bitIndex     The index of the first bit of the value.
+     * @param bitsPerValue The number of bits per value.
+     * @param mask         The mask for a value.
+     * @param value        The value, which must fit in the mask.
+     */
+    private static void write(long[] words, long bitIndex, int bitsPerValue, long mask, long value) {
+        int word = (int) (bitIndex >>> 6);
+        int shift = (int) (bitIndex & 63);
+        words[word] = (words[word] & ~(mask << shift)) | (value << shift);
+        if (shift + bitsPerValue > 64) {
+            int spilled = 64 - shift;
+            words[word + 1] = (words[word + 1] & ~(mask >>> spilled)) | (value >>> spilled);
+        }
+    }
+
+    /**
+     * Check if an index is valid.
+     *
+     * @param index The index.
+     *
+     * @throws IndexOutOfBoundsException When the index is not valid.
+     */
+    private void checkIndex(int index) throws IndexOutOfBoundsException {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " is not valid for size " + size);
+        }
+    }
+
+    /**
+     * Check if a block and an array range for its values are valid.
+     *
+     * @param block  The block.
+     * @param values The array.
+     * @param offset The offset in the array of the first value.
+     *
+     * @throws IndexOutOfBoundsException When the block or the array range is not valid.
+     */
+    private void checkBlock(int block, long[] values, int offset) throws IndexOutOfBoundsException {
+        if (block < 0 || block >= getBlockCount()) {
+            throw new IndexOutOfBoundsException("Block " + block + " is not valid for " + getBlockCount() + " blocks");
+        }
+        if (offset < 0 || offset > values.length - BLOCK_SIZE) {
+            throw new IndexOutOfBoundsException("Offset " + offset + " is not valid for " + values.length + " values");
+        }
+    }
+
+    /**
+     * Check if a number of bits per value is valid.
+     *
+     * @param bitsPerValue The number of bits.
+     *
+     * @throws IllegalArgumentException When the number of bits is not valid.
+     */
+    private static void checkBitsPerValue(int bitsPerValue) throws IllegalArgumentException {
+        if (bitsPerValue < 1 || bitsPerValue > 64) {
+            throw new IllegalArgumentException("Number of bits " + bitsPerValue + " is not valid, it must be between 1 and 64");
+        }
+    }
+
+    /**
+     * Get the mask for a number of bits per value.
+     *
+     * @param bitsPerValue The number of bits.
+     *
+     * @return The mask.
+     */
+    private static long maskFor(int bitsPerValue) {
+        return bitsPerValue == 64 ? -1L : (1L << bitsPerValue) - 1;
+    }
+
+    /**
+     * Get the number of words needed for a number of values, rounded up to whole blocks.
+     *
+     * @param size         The number of values.
+     * @param bitsPerValue The number of bits per value.
+     *
+     * @return The number of words.
+     *
+     * @throws IllegalArgumentException When the values do not fit in an array.
+     */
+    private static int wordsFor(int size, int bitsPerValue) throws IllegalArgumentException {
+        long words = ((size + BLOCK_SIZE - 1L) >>> BLOCK_SHIFT) * bitsPerValue;
+        if (words > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(size + " values of " + bitsPerValue + " bits do not fit in an array");
+        }
+        return (int) words;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("PackedLongArray [");
+        sb.append("size: ").append(size).append(", ");
+        sb.append("bitsPerValue: ").append(bitsPerValue);
+        sb.append("]");
+        return sb.toString();
+    }
+}
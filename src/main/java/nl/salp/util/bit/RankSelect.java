@@ -0,0 +1,326 @@
+package nl.salp.util.bit;
+
+/**
+ * Rank/select index over a static {@link LongBitSet}.
+ *
+ * <p>
+ * <code>rank</code> counts the set (or cleared) bits before a position and <code>select</code> finds the position of
+ * the k-th set (or cleared) bit. The index uses a two-level directory: an absolute count per superblock of 2^16 bits
+ * and a 16-bit count relative to the superblock per block of 512 bits, which adds about 3.2% to the size of the bit
+ * set. Rank is answered in constant time with at most 8 popcounts. Select uses a sampled hint for every 8192nd bit to
+ * narrow the search to a few superblocks, followed by a search over the blocks and popcounts within a block.
+ * </p>
+ *
+ * <p>
+ * The bit set must not be modified after the index is created. This class is thread-safe.
+ * </p>
+ */
+public class RankSelect {
+    /**
+     * The number of bits in a superblock, as a power of 2.
+     */
+    private static final int SUPERBLOCK_SHIFT = 16;
+    /**
+     * The number of bits in a block, as a power of 2.
+     */
+    private static final int BLOCK_SHIFT = 9;
+    /**
+     * The number of blocks in a superblock, as a power of 2.
+     */
+    private static final int BLOCKS_PER_SUPERBLOCK_SHIFT = SUPERBLOCK_SHIFT - BLOCK_SHIFT;
+    /**
+     * The number of words in a block, as a power of 2.
+     */
+    private static final int WORDS_PER_BLOCK_SHIFT = BLOCK_SHIFT - 6;
+    /**
+     * The number of set (or cleared) bits between select hints, as a power of 2.
+     */
+    private static final int SAMPLE_SHIFT = 13;
+
+    /**
+     * The words of the bit set.
+     */
+    private final long[] words;
+    /**
+     * The number of bits.
+     */
+    private final long bitLength;
+    /**
+     * The number of set bits.
+     */
+    private final long ones;
+    /**
+     * The number of set bits before each superblock.
+     */
+    private final long[] superblockRanks;
+    /**
+     * The number of set bits before each block, relative to its superblock.
+     */
+    private final char[] blockRanks;
+    /**
+     * The superblock containing every 2^{@link RankSelect#SAMPLE_SHIFT}-th set bit.
+     */
+    private final int[] oneHints;
+    /**
+     * The superblock containing every 2^{@link RankSelect#SAMPLE_SHIFT}-th cleared bit.
+     */
+    private final int[] zeroHints;
+
+    /**
+     * Create a new RankSelect index.
+     *
+     * @param bits The bit set to index.
+     *
+     * @throws IllegalArgumentException When no bit set was provided.
+     */
+    public RankSelect(LongBitSet bits) throws IllegalArgumentException {
+        if (bits == null) {
+            throw new IllegalArgumentException("No bit set provided");
+        }
+        this.words = bits.words();
+        this.bitLength = bits.length();
+
+        int blockCount = (words.length >>> WORDS_PER_BLOCK_SHIFT) + 1;
+        int superblockCount = (blockCount - 1 >>> BLOCKS_PER_SUPERBLOCK_SHIFT) + 1;
+        this.superblockRanks = new long[superblockCount];
+        this.blockRanks = new char[blockCount];
+        long total = 0;
+        for (int block = 0; block < blockCount; block++) {
+            int superblock = block >>> BLOCKS_PER_SUPERBLOCK_SHIFT;
+            if ((block & ((1 << BLOCKS_PER_SUPERBLOCK_SHIFT) - 1)) == 0) {
+                superblockRanks[superblock] = total;
+            }
+            blockRanks[block] = (char) (total - superblockRanks[superblock]);
+            int end = Math.min((block + 1) << WORDS_PER_BLOCK_SHIFT, words.length);
+            for (int w = block << WORDS_PER_BLOCK_SHIFT; w < end; w++) {
+                total += Long.bitCount(words[w]);
+            }
+        }
+        this.ones = total;
+        this.oneHints = createHints(true, ones);
+        this.zeroHints = createHints(false, bitLength - ones);
+    }
+
+    /**
+     * Get the number of bits.
+     *
+     * @return The number of bits.
+     */
+    public long length() {
+        return bitLength;
+    }
+
+    /**
+     * Get the number of set bits.
+     *
+     * @return The number of set bits.
+     */
+    public long ones() {
+        return ones;
+    }
+
+    /**
+     * Get the number of cleared bits.
+     *
+     * @return The number of cleared bits.
+     */
+    public long zeros() {
+        return bitLength - ones;
+    }
+
+    /**
+     * Count the set bits before a position.
+     *
+     * @param index The position (0 to the number of bits, inclusive).
+     *
+     * @return The number of set bits in <code>[0, index)</code>.
+     *
+     * @throws IndexOutOfBoundsException When the position is not valid.
+     */
+    public long rank1(long index) throws IndexOutOfBoundsException {
+        if (index < 0 || index > bitLength) {
+            throw new IndexOutOfBoundsException("Position " + index + " is not valid for " + bitLength + " bits");
+        }
+        int block = (int) (index >>> BLOCK_SHIFT);
+        long rank = superblockRanks[block >>> BLOCKS_PER_SUPERBLOCK_SHIFT] + blockRanks[block];
+        int end = (int) (index >>> 6);
+        for (int w = block << WORDS_PER_BLOCK_SHIFT; w < end; w++) {
+            rank += Long.bitCount(words[w]);
+        }
+        if ((index & 63) != 0) {
+            rank += Long.bitCount(words[end] & ((1L << index) - 1));
+        }
+        return rank;
+    }
+
+    /**
+     * Count the cleared bits before a position.
+     *
+     * @param index The position (0 to the number of bits, inclusive).
+     *
+     * @return The number of cleared bits in <code>[0, index)</code>.
+     *
+     * @throws IndexOutOfBoundsException When the position is not valid.
+     */
+    public long rank0(long index) throws IndexOutOfBoundsException {
+        return index - rank1(index);
+    }
+
+    /**
+     * Find the position of the k-th set bit.
+     *
+     * @param rank The rank (k) of the set bit, starting at 0.
+     *
+     * @return The position of the set bit.
+     *
+     * @throws IndexOutOfBoundsException When the rank is negative or not less than the number of set bits.
+     */
+    public long select1(long rank) throws IndexOutOfBoundsException {
+        if (rank < 0 || rank >= ones) {
+            throw new IndexOutOfBoundsException("Rank " + rank + " is not valid for " + ones + " set bits");
+        }
+        return select(true, rank, oneHints);
+    }
+
+    /**
+     * Find the position of the k-th cleared bit.
+     *
+     * @param rank The rank (k) of the cleared bit, starting at 0.
+     *
+     * @return The position of the cleared bit.
+     *
+     * @throws IndexOutOfBoundsException When the rank is negative or not less than the number of cleared bits.
+     */
+    public long select0(long rank) throws IndexOutOfBoundsException {
+        if (rank < 0 || rank >= bitLength - ones) {
+            throw new IndexOutOfBoundsException("Rank " + rank + " is not valid for " + (bitLength - ones) + " cleared bits");
+        }
+        return select(false, rank, zeroHints);
+    }
+
+    /**
+     * Find the position of the k-th set or cleared bit.
+     *
+     * @param one   <code>true</code> to find a set bit, <code>false</code> for a cleared bit.
+     * @param rank  The rank, which must be valid.
+     * @param hints The hints for the kind of bit.
+     *
+     * @return The position.
+     */
+    private long select(boolean one, long rank, int[] hints) {
+        int hint = (int) (rank >>> SAMPLE_SHIFT);
+        int low = hints[hint];
+        int high = hint + 1 < hints.length ? hints[hint + 1] : superblockRanks.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (superblockRank(one, mid) <= rank) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        rank -= superblockRank(one, low);
+
+        int firstBlock = low << BLOCKS_PER_SUPERBLOCK_SHIFT;
+        int lowBlock = firstBlock;
+        int highBlock = Math.min(firstBlock + (1 << BLOCKS_PER_SUPERBLOCK_SHIFT), blockRanks.length) - 1;
+        while (lowBlock < highBlock) {
+            int mid = (lowBlock + highBlock + 1) >>> 1;
+            if (blockRank(one, mid, firstBlock) <= rank) {
+                lowBlock = mid;
+            } else {
+                highBlock = mid - 1;
+            }
+        }
+        int remaining = (int) (rank - blockRank(one, lowBlock, firstBlock));
+
+        int w = lowBlock << WORDS_PER_BLOCK_SHIFT;
+        long word = one ? words[w] : ~words[w];
+        int count;
+        while (remaining >= (count = Long.bitCount(word))) {
+            remaining -= count;
+            word = one ? words[++w] : ~words[++w];
+        }
+        return ((long) w << 6) + selectInWord(word, remaining);
+    }
+
+    /**
+     * Get the number of set or cleared bits before a superblock.
+     *
+     * @param one        <code>true</code> to count set bits, <code>false</code> for cleared bits.
+     * @param superblock The superblock.
+     *
+     * @return The count.
+     */
+    private long superblockRank(boolean one, int superblock) {
+        long rank = superblockRanks[superblock];
+        return one ? rank : ((long) superblock << SUPERBLOCK_SHIFT) - rank;
+    }
+
+    /**
+     * Get the number of set or cleared bits before a block, relative to its superblock.
+     *
+     * @param one        <code>true</code> to count set bits, <code>false</code> for cleared bits.
+     * @param block      The block.
+     * @param firstBlock The first block of the superblock.
+     *
+     * @return The count.
+     */
+    private int blockRank(boolean one, int block, int firstBlock) {
+        int rank = blockRanks[block];
+        return one ? rank : ((block - firstBlock) << BLOCK_SHIFT) - rank;
+    }
+
+    /**
+     * Create the select hints: the superblock containing every 2^{@link RankSelect#SAMPLE_SHIFT}-th set or cleared bit.
+     *
+     * @param one   <code>true</code> for set bits, <code>false</code> for cleared bits.
+     * @param count The number of set or cleared bits.
+     *
+     * @return The hints.
+     */
+    private int[] createHints(boolean one, long count) {
+        int[] hints = new int[(int) ((count + (1L << SAMPLE_SHIFT) - 1) >>> SAMPLE_SHIFT)];
+        int superblock = 0;
+        for (int i = 0; i < hints.length; i++) {
+            long rank = (long) i << SAMPLE_SHIFT;
+            while (superblock + 1 < superblockRanks.length && superblockRank(one, superblock + 1) <= rank) {
+                superblock++;
+            }
+            hints[i] = superblock;
+        }
+        return hints;
+    }
+
+    /**
+     * Find the position of the k-th set bit within a word.
+     *
+     * @param word The word.
+     * @param rank The rank (k), less than the number of set bits in the word.
+     *
+     * @return The bit position (0-63).
+     */
+    static int selectInWord(long word, int rank) {
+        int shift = 0;
+        int count;
+        while (rank >= (count = Integer.bitCount((int) (word >>> shift) & 0xFF))) {
+            rank -= count;
+            shift += 8;
+        }
+        int b = (int) (word >>> shift) & 0xFF;
+        for (; rank > 0; rank--) {
+            b &= b - 1;
+        }
+        return shift + Integer.numberOfTrailingZeros(b);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("RankSelect [");
+        sb.append("bits: ").append(bitLength).append(", ");
+        sb.append("ones: ").append(ones);
+        sb.append("]");
+        return sb.toString();
+    }
+}
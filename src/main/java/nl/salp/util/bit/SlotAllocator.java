@@ -0,0 +1,411 @@
+package nl.salp.util.bit;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import nl.salp.util.AllocationFree;
+
+/**
+ * Allocator for slot IDs (e.g. connection or buffer indexes) from a fixed range, backed by a hierarchical bitmap.
+ *
+ * <p>
+ * The slots are a bitmap of 64 slots per word, with bit <code>i</code> set when slot <code>i</code> is free. Above it
+ * two summary trees have a bit per word of the level below: one marks the words with a free slot (non-full), the other
+ * the words with an allocated slot (non-empty). Finding the lowest free slot or the next allocated slot descends the
+ * tree, taking <code>O(log64 n)</code> words for millions of slots instead of a scan.
+ * </p>
+ *
+ * <p>
+ * In concurrent mode the words are stored in {@link AtomicLongArray}s and updated with compare-and-set, without
+ * locks. A summary bit is set after its child word gets a bit and cleared after it loses its last one, then checked
+ * against the child again, so a summary never hides a free or allocated slot. A summary bit may briefly mark a word
+ * that has just become full or empty; searches skip such words.
+ * </p>
+ */
+public class SlotAllocator {
+    /**
+     * The tree of free slots, with the slot bitmap as level 0.
+     */
+    private static final int FREE = 0;
+    /**
+     * The tree of allocated slots, with the complement of the slot bitmap as level 0.
+     */
+    private static final int USED = 1;
+
+    /**
+     * The number of slots.
+     */
+    private final long capacity;
+    /**
+     * The number of levels, including the slot bitmap.
+     */
+    private final int levels;
+    /**
+     * The words per tree and level, when not in concurrent mode; the used tree has no level 0.
+     */
+    private final long[][][] words;
+    /**
+     * The words per tree and level, when in concurrent mode.
+     */
+    private final AtomicLongArray[][] atomicWords;
+
+    /**
+     * Create a new SlotAllocator with all slots free.
+     *
+     * @param capacity   The number of slots.
+     * @param concurrent <code>true</code> to allow concurrent allocation and freeing.
+     *
+     * @throws IllegalArgumentException When the number of slots is not positive or too large.
+     */
+    public SlotAllocator(long capacity, boolean concurrent) throws IllegalArgumentException {
+        if (capacity < 1 || (capacity - 1) >>> 6 >= Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Capacity " + capacity + " is not valid, the range is 1 - " + ((long) Integer.MAX_VALUE << 6));
+        }
+        this.capacity = capacity;
+        int levelCount = 1;
+        for (long bits = capacity; bits > 64; bits = (bits + 63) >>> 6) {
+            levelCount++;
+        }
+        this.levels = levelCount;
+        long[][][] initial = new long[2][levels][];
+        long bits = capacity;
+        for (int level = 0; level < levels; level++) {
+            int wordCount = (int) ((bits + 63) >>> 6);
+            initial[FREE][level] = new long[wordCount];
+            Arrays.fill(initial[FREE][level], -1L);
+            if ((bits & 63) != 0) {
+                initial[FREE][level][wordCount - 1] = (1L << bits) - 1;
+            }
+            if (level > 0) {
+                initial[USED][level] = new long[wordCount];
+                long[] children = level == 1 ? initial[FREE][0] : initial[USED][level - 1];
+                for (int child = 0; child < children.length; child++) {
+                    if (level == 1 ? ~children[child] != 0 : children[child] != 0) {
+                        initial[USED][level][child >>> 6] |= 1L << child;
+                    }
+                }
+            }
+            bits = wordCount;
+        }
+        if (concurrent) {
+            this.words = null;
+            this.atomicWords = new AtomicLongArray[2][levels];
+            for (int level = 0; level < levels; level++) {
+                atomicWords[FREE][level] = new AtomicLongArray(initial[FREE][level]);
+                atomicWords[USED][level] = level == 0 ? null : new AtomicLongArray(initial[USED][level]);
+            }
+        } else {
+            this.words = initial;
+            this.atomicWords = null;
+        }
+    }
+
+    /**
+     * Get the number of slots.
+     *
+     * @return The number of slots.
+     */
+    public long getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Check if the allocator allows concurrent allocation and freeing.
+     *
+     * @return <code>true</code> if the allocator is in concurrent mode.
+     */
+    public boolean isConcurrent() {
+        return atomicWords != null;
+    }
+
+    /**
+     * Allocate the lowest free slot.
+     *
+     * @return The slot, or -1 if all slots are allocated.
+     */
+    @AllocationFree
+    public long allocate() {
+        while (true) {
+            long slot = find(FREE, 0);
+            if (slot < 0) {
+                return -1;
+            }
+            int index = (int) (slot >>> 6);
+            long bit = 1L << slot;
+            long old = get(FREE, 0, index);
+            if ((old & bit) != 0 && compareAndSet(FREE, 0, index, old, old & ~bit)) {
+                if (old == bit) {
+                    clearSummary(FREE, 1, index);
+                }
+                if (old == -1L) {
+                    setSummary(USED, 1, index);
+                }
+                return slot;
+            }
+        }
+    }
+
+    /**
+     * Free an allocated slot.
+     *
+     * @param slot The slot.
+     *
+     * @throws IndexOutOfBoundsException When the slot is not valid.
+     * @throws IllegalStateException     When the slot is not allocated.
+     */
+    @AllocationFree
+    public void free(long slot) throws IndexOutOfBoundsException, IllegalStateException {
+        checkSlot(slot);
+        int index = (int) (slot >>> 6);
+        long bit = 1L << slot;
+        long old;
+        do {
+            old = get(FREE, 0, index);
+            if ((old & bit) != 0) {
+                throw new IllegalStateException("Slot " + slot + " is not allocated");
+            }
+        } while (!compareAndSet(FREE, 0, index, old, old | bit));
+        if (old == 0) {
+            setSummary(FREE, 1, index);
+        }
+        if ((old | bit) == -1L) {
+            clearSummary(USED, 1, index);
+        }
+    }
+
+    /**
+     * Check if a slot is allocated.
+     *
+     * @param slot The slot.
+     *
+     * @return <code>true</code> if the slot is allocated.
+     *
+     * @throws IndexOutOfBoundsException When the slot is not valid.
+     */
+    @AllocationFree
+    public boolean isAllocated(long slot) throws IndexOutOfBoundsException {
+        checkSlot(slot);
+        return (get(FREE, 0, (int) (slot >>> 6)) & (1L << slot)) == 0;
+    }
+
+    /**
+     * Find the first allocated slot at or after a slot.
+     *
+     * @param from The slot to start at.
+     *
+     * @return The allocated slot, or -1 if there is none.
+     *
+     * @throws IndexOutOfBoundsException When the slot is negative.
+     */
+    @AllocationFree
+    public long nextAllocated(long from) throws IndexOutOfBoundsException {
+        checkFrom(from);
+        long slot = find(USED, from);
+        return slot < capacity ? slot : -1;
+    }
+
+    /**
+     * Find the first free slot at or after a slot, without allocating it.
+     *
+     * @param from The slot to start at.
+     *
+     * @return The free slot, or -1 if there is none.
+     *
+     * @throws IndexOutOfBoundsException When the slot is negative.
+     */
+    @AllocationFree
+    public long nextFree(long from) throws IndexOutOfBoundsException {
+        checkFrom(from);
+        return find(FREE, from);
+    }
+
+    /**
+     * Count the allocated slots, by scanning the slot bitmap.
+     *
+     * @return The number of allocated slots.
+     */
+    public long getAllocatedCount() {
+        long free = 0;
+        int wordCount = wordCount(0);
+        for (int i = 0; i < wordCount; i++) {
+            free += Long.bitCount(get(FREE, 0, i));
+        }
+        return capacity - free;
+    }
+
+    /**
+     * Find the first set bit at or after an index at level 0 of a tree, ascending the tree while the rest of a word is
+     * empty and descending it into the first set bit.
+     *
+     * @param tree The tree.
+     * @param from The index to start at.
+     *
+     * @return The index of the bit, or -1 if there is none.
+     */
+    private long find(int tree, long from) {
+        int level = 0;
+        long index = from;
+        while (true) {
+            long wordIndex = index >>> 6;
+            if (wordIndex >= wordCount(level)) {
+                return -1;
+            }
+            long word = get(tree, level, (int) wordIndex) & (-1L << index);
+            if (word == 0) {
+                if (level == levels - 1) {
+                    return -1;
+                }
+                level++;
+                index = wordIndex + 1;
+            } else {
+                long found = (wordIndex << 6) + Long.numberOfTrailingZeros(word);
+                if (level == 0) {
+                    return found;
+                }
+                level--;
+                index = found << 6;
+            }
+        }
+    }
+
+    /**
+     * Set the summary bit of a word that got its first bit, and of the summary word if that got its first bit too.
+     *
+     * @param tree  The tree.
+     * @param level The level of the summary.
+     * @param index The index of the child word.
+     */
+    private void setSummary(int tree, int level, int index) {
+        if (level == levels) {
+            return;
+        }
+        int wordIndex = index >>> 6;
+        long bit = 1L << index;
+        long old;
+        do {
+            old = get(tree, level, wordIndex);
+            if ((old & bit) != 0) {
+                return;
+            }
+        } while (!compareAndSet(tree, level, wordIndex, old, old | bit));
+        if (old == 0) {
+            setSummary(tree, level + 1, wordIndex);
+        }
+    }
+
+    /**
+     * Clear the summary bit of a word that lost its last bit, and of the summary word if that lost its last bit too.
+     * The child word is checked again afterwards, setting the bit again if it got a bit in the meantime.
+     *
+     * @param tree  The tree.
+     * @param level The level of the summary.
+     * @param index The index of the child word.
+     */
+    private void clearSummary(int tree, int level, int index) {
+        if (level == levels) {
+            return;
+        }
+        int wordIndex = index >>> 6;
+        long bit = 1L << index;
+        long old;
+        do {
+            old = get(tree, level, wordIndex);
+            if ((old & bit) == 0) {
+                return;
+            }
+        } while (!compareAndSet(tree, level, wordIndex, old, old & ~bit));
+        if (old == bit) {
+            clearSummary(tree, level + 1, wordIndex);
+        }
+        if (get(tree, level - 1, index) != 0) {
+            setSummary(tree, level, index);
+        }
+    }
+
+    /**
+     * Get a word of a tree.
+     *
+     * @param tree  The tree.
+     * @param level The level.
+     * @param index The index of the word.
+     *
+     * @return The word; level 0 of the used tree is the complement of the slot bitmap.
+     */
+    private long get(int tree, int level, int index) {
+        if (tree == USED && level == 0) {
+            return ~get(FREE, 0, index);
+        }
+        return atomicWords == null ? words[tree][level][index] : atomicWords[tree][level].get(index);
+    }
+
+    /**
+     * Replace a word of a tree if it has an expected value.
+     *
+     * @param tree   The tree.
+     * @param level  The level, above 0 for the used tree.
+     * @param index  The index of the word.
+     * @param expect The expected value.
+     * @param update The new value.
+     *
+     * @return <code>true</code> if the word was replaced.
+     */
+    private boolean compareAndSet(int tree, int level, int index, long expect, long update) {
+        if (atomicWords != null) {
+            return atomicWords[tree][level].compareAndSet(index, expect, update);
+        }
+        long[] levelWords = words[tree][level];
+        if (levelWords[index] != expect) {
+            return false;
+        }
+        levelWords[index] = update;
+        return true;
+    }
+
+    /**
+     * Get the number of words of a level.
+     *
+     * @param level The level.
+     *
+     * @return The number of words.
+     */
+    private int wordCount(int level) {
+        return atomicWords == null ? words[FREE][level].length : atomicWords[FREE][level].length();
+    }
+
+    /**
+     * Check that a slot is valid.
+     *
+     * @param slot The slot.
+     *
+     * @throws IndexOutOfBoundsException When the slot is not valid.
+     */
+    private void checkSlot(long slot) throws IndexOutOfBoundsException {
+        if (slot < 0 || slot >= capacity) {
+            throw new IndexOutOfBoundsException("Slot " + slot + " is not valid for " + capacity + " slots");
+        }
+    }
+
+    /**
+     * Check that a slot to start a search at is valid.
+     *
+     * @param from The slot.
+     *
+     * @throws IndexOutOfBoundsException When the slot is negative.
+     */
+    private static void checkFrom(long from) throws IndexOutOfBoundsException {
+        if (from < 0) {
+            throw new IndexOutOfBoundsException("Slot " + from + " is not valid, the minimum is 0");
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("SlotAllocator [");
+        sb.append("capacity: ").append(capacity).append(", ");
+        sb.append("levels: ").append(levels).append(", ");
+        sb.append("concurrent: ").append(isConcurrent());
+        sb.append("]");
+        return sb.toString();
+    }
+}
@@ -0,0 +1,577 @@
+package nl.salp.util.bit;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Variable length (LEB128) encoding of integers, with zigzag encoding for signed values.
+ *
+ * <p>
+ * A value is written 7 bits at a time, starting with the least significant group, with the MSB of every byte set when
+ * more bytes follow. Zigzag encoding maps signed values to unsigned values with a small magnitude
+ * (<code>0, -1, 1, -2, 2, ...</code> to <code>0, 1, 2, 3, 4, ...</code>) so small negative values stay short as well.
+ * </p>
+ *
+ * <p>
+ * All decoding methods, for buffers and for byte arrays, throw a {@link BufferUnderflowException} when the data ends
+ * within a value and an {@link IllegalArgumentException} when a value is longer than allowed for its type.
+ * </p>
+ */
+public final class VarIntCodec {
+    /**
+     * The maximum number of bytes of an encoded int.
+     */
+    public static final int MAX_INT_BYTES = 5;
+    /**
+     * The maximum number of bytes of an encoded long.
+     */
+    public static final int MAX_LONG_BYTES = 10;
+    /**
+     * The continuation bit (MSB) of every byte of a little-endian word.
+     */
+    private static final long CONTINUATION_BITS = 0x8080808080808080L;
+
+    /**
+     * Utility class, no instances.
+     */
+    private VarIntCodec() {
+    }
+
+    /**
+     * Zigzag encode a signed int.
+     *
+     * @param value The value.
+     *
+     * @return The encoded value.
+     */
+    public static int zigZagEncode(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    /**
+     * Decode a zigzag encoded int.
+     *
+     * @param value The encoded value.
+     *
+     * @return The signed value.
+     */
+    public static int zigZagDecode(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Zigzag encode a signed long.
+     *
+     * @param value The value.
+     *
+     * @return The encoded value.
+     */
+    public static long zigZagEncode(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    /**
+     * Decode a zigzag encoded long.
+     *
+     * @param value The encoded value.
+     *
+     * @return The signed value.
+     */
+    public static long zigZagDecode(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Get the number of bytes of an int encoded as unsigned varint.
+     *
+     * @param value The value.
+     *
+     * @return The number of bytes (1-5).
+     */
+    public static int sizeOf(int value) {
+        return (31 - Integer.numberOfLeadingZeros(value | 1)) / 7 + 1;
+    }
+
+    /**
+     * Get the number of bytes of a long encoded as unsigned varint.
+     *
+     * @param value The value.
+     *
+     * @return The number of bytes (1-10).
+     */
+    public static int sizeOf(long value) {
+        return (63 - Long.numberOfLeadingZeros(value | 1)) / 7 + 1;
+    }
+
+    /**
+     * Write an int as unsigned varint.
+     *
+     * @param buffer The buffer to write to.
+     * @param value  The value.
+     */
+    public static void writeInt(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) (value | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * Write a long as unsigned varint.
+     *
+     * @param buffer The buffer to write to.
+     * @param value  The value.
+     */
+    public static void writeLong(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) (value | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * Read an unsigned varint encoded int.
+     *
+     * <p>
+     * From a buffer with a backing array and at least 8 bytes remaining, the value is decoded from a single word like
+     * {@link VarIntCodec#decodeInts(byte[], int, int[], int, int, boolean)}.
+     * </p>
+     *
+     * @param buffer The buffer to read from.
+     *
+     * @return The value.
+     *
+     * @throws BufferUnderflowException When the buffer ends within the varint.
+     * @throws IllegalArgumentException When the varint is longer than {@link VarIntCodec#MAX_INT_BYTES}.
+     */
+    public static int readInt(ByteBuffer buffer) throws BufferUnderflowException, IllegalArgumentException {
+        if (buffer.hasArray() && buffer.remaining() >= 8) {
+            long word = Intrinsics.getLongLE(buffer.array(), buffer.arrayOffset() + buffer.position());
+            int bytes = (Long.numberOfTrailingZeros(~word & CONTINUATION_BITS) >>> 3) + 1;
+            if (bytes <= MAX_INT_BYTES) {
+                buffer.position(buffer.position() + bytes);
+                return (int) Intrinsics.compactVarInt(word, bytes);
+            }
+        }
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint, more than " + MAX_INT_BYTES + " bytes for an int");
+    }
+
+    /**
+     * Read an unsigned varint encoded long.
+     *
+     * <p>
+     * From a buffer with a backing array and at least 8 bytes remaining, values of up to 8 bytes are decoded from a
+     * single word like {@link VarIntCodec#decodeLongs(byte[], int, long[], int, int, boolean)}.
+     * </p>
+     *
+     * @param buffer The buffer to read from.
+     *
+     * @return The value.
+     *
+     * @throws BufferUnderflowException When the buffer ends within the varint.
+     * @throws IllegalArgumentException When the varint is longer than {@link VarIntCodec#MAX_LONG_BYTES}.
+     */
+    public static long readLong(ByteBuffer buffer) throws BufferUnderflowException, IllegalArgumentException {
+        if (buffer.hasArray() && buffer.remaining() >= 8) {
+            long word = Intrinsics.getLongLE(buffer.array(), buffer.arrayOffset() + buffer.position());
+            long stops = ~word & CONTINUATION_BITS;
+            if (stops != 0) {
+                int bytes = (Long.numberOfTrailingZeros(stops) >>> 3) + 1;
+                buffer.position(buffer.position() + bytes);
+                return Intrinsics.compactVarInt(word, bytes);
+            }
+        }
+        long value = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint, more than " + MAX_LONG_BYTES + " bytes for a long");
+    }
+
+    /**
+     * Encode a range of ints as varints into a byte array.
+     *
+     * @param values     The values.
+     * @param offset     The offset of the first value.
+     * @param length     The number of values.
+     * @param zigZag     <code>true</code> to zigzag encode the values first.
+     * @param data       The array to encode to, with space for up to {@link VarIntCodec#MAX_INT_BYTES} per value.
+     * @param dataOffset The offset in the array of the first byte.
+     *
+     * @return The offset in the array after the last byte.
+     *
+     * @throws IndexOutOfBoundsException When a range is not valid or the array is too small.
+     */
+    public static int encodeInts(int[] values, int offset, int length, boolean zigZag, byte[] data, int dataOffset) throws IndexOutOfBoundsException {
+        checkRange(values.length, offset, length);
+        int position = dataOffset;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            int value = zigZag ? zigZagEncode(values[i]) : values[i];
+            while ((value & ~0x7F) != 0) {
+                data[position++] = (byte) (value | 0x80);
+                value >>>= 7;
+            }
+            data[position++] = (byte) value;
+        }
+        return position;
+    }
+
+    /**
+     * Encode a range of longs as varints into a byte array.
+     *
+     * @param values     The values.
+     * @param offset     The offset of the first value.
+     * @param length     The number of values.
+     * @param zigZag     <code>true</code> to zigzag encode the values first.
+     * @param data       The array to encode to, with space for up to {@link VarIntCodec#MAX_LONG_BYTES} per value.
+     * @param dataOffset The offset in the array of the first byte.
+     *
+     * @return The offset in the array after the last byte.
+     *
+     * @throws IndexOutOfBoundsException When a range is not valid or the array is too small.
+     */
+    public static int encodeLongs(long[] values, int offset, int length, boolean zigZag, byte[] data, int dataOffset) throws IndexOutOfBoundsException {
+        checkRange(values.length, offset, length);
+        int position = dataOffset;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            long value = zigZag ? zigZagEncode(values[i]) : values[i];
+            while ((value & ~0x7FL) != 0) {
+                data[position++] = (byte) (value | 0x80);
+                value >>>= 7;
+            }
+            data[position++] = (byte) value;
+        }
+        return position;
+    }
+
+    /**
+     * Decode varints from a byte array into a range of ints.
+     *
+     * <p>
+     * Where at least 8 bytes remain, a value is decoded from a single little-endian word: the first byte without the
+     * MSB set gives the length and the 7-bit groups are compacted with three shift-and-mask steps, without a loop over
+     * the bytes.
+     * </p>
+     *
+     * @param data       The array with the varints.
+     * @param dataOffset The offset in the array of the first byte.
+     * @param values     The array to decode to.
+     * @param offset     The offset of the first value.
+     * @param length     The number of values.
+     * @param zigZag     <code>true</code> to zigzag decode the values.
+     *
+     * @return The offset in the array after the last byte.
+     *
+     * @throws IndexOutOfBoundsException When the range of values is not valid.
+     * @throws BufferUnderflowException  When the data ends within a value.
+     * @throws IllegalArgumentException  When a value is too long for an int.
+     */
+    public static int decodeInts(byte[] data, int dataOffset, int[] values, int offset, int length, boolean zigZag) throws IndexOutOfBoundsException, BufferUnderflowException, IllegalArgumentException {
+        return decodeInts(data, dataOffset, data.length, values, offset, length, zigZag);
+    }
+
+    /**
+     * Decode varints from a byte array into a range of longs.
+     *
+     * <p>
+     * Values of up to 8 bytes (56 bits) are decoded from a single little-endian word where at least 8 bytes remain, see
+     * {@link VarIntCodec#decodeInts(byte[], int, int[], int, int, boolean)}; longer values are decoded per byte.
+     * </p>
+     *
+     * @param data       The array with the varints.
+     * @param dataOffset The offset in the array of the first byte.
+     * @param values     The array to decode to.
+     * @param offset     The offset of the first value.
+     * @param length     The number of values.
+     * @param zigZag     <code>true</code> to zigzag decode the values.
+     *
+     * @return The offset in the array after the last byte.
+     *
+     * @throws IndexOutOfBoundsException When the range of values is not valid.
+     * @throws BufferUnderflowException  When the data ends within a value.
+     * @throws IllegalArgumentException  When a value is too long for a long.
+     */
+    public static int decodeLongs(byte[] data, int dataOffset, long[] values, int offset, int length, boolean zigZag) throws IndexOutOfBoundsException, BufferUnderflowException, IllegalArgumentException {
+        return decodeLongs(data, dataOffset, data.length, values, offset, length, zigZag);
+    }
+
+    /**
+     * Write a range of ints as varints at the current position of a buffer.
+     *
+     * @param buffer The buffer.
+     * @param values The values.
+     * @param offset The offset of the first value.
+     * @param length The number of values.
+     * @param zigZag <code>true</code> to zigzag encode the values first.
+     *
+     * @throws IndexOutOfBoundsException        When the range of values is not valid.
+     * @throws java.nio.BufferOverflowException When the buffer does not have enough space remaining.
+     */
+    public static void writeInts(ByteBuffer buffer, int[] values, int offset, int length, boolean zigZag) throws IndexOutOfBoundsException {
+        checkRange(values.length, offset, length);
+        if (buffer.hasArray() && buffer.remaining() >= (long) length * MAX_INT_BYTES) {
+            int start = buffer.arrayOffset() + buffer.position();
+            buffer.position(encodeInts(values, offset, length, zigZag, buffer.array(), start) - buffer.arrayOffset());
+        } else {
+            for (int i = offset, end = offset + length; i < end; i++) {
+                writeInt(buffer, zigZag ? zigZagEncode(values[i]) : values[i]);
+            }
+        }
+    }
+
+    /**
+     * Write a range of longs as varints at the current position of a buffer.
+     *
+     * @param buffer The buffer.
+     * @param values The values.
+     * @param offset The offset of the first value.
+     * @param length The number of values.
+     * @param zigZag <code>true</code> to zigzag encode the values first.
+     *
+     * @throws IndexOutOfBoundsException        When the range of values is not valid.
+     * @throws java.nio.BufferOverflowException When the buffer does not have enough space remaining.
+     */
+    public static void writeLongs(ByteBuffer buffer, long[] values, int offset, int length, boolean zigZag) throws IndexOutOfBoundsException {
+        checkRange(values.length, offset, length);
+        if (buffer.hasArray() && buffer.remaining() >= (long) length * MAX_LONG_BYTES) {
+            int start = buffer.arrayOffset() + buffer.position();
+            buffer.position(encodeLongs(values, offset, length, zigZag, buffer.array(), start) - buffer.arrayOffset());
+        } else {
+            for (int i = offset, end = offset + length; i < end; i++) {
+                writeLong(buffer, zigZag ? zigZagEncode(values[i]) : values[i]);
+            }
+        }
+    }
+
+    /**
+     * Read varints at the current position of a buffer into a range of ints.
+     *
+     * @param buffer The buffer.
+     * @param values The array to decode to.
+     * @param offset The offset of the first value.
+     * @param length The number of values.
+     * @param zigZag <code>true</code> to zigzag decode the values.
+     *
+     * @throws IndexOutOfBoundsException When the range of values is not valid.
+     * @throws BufferUnderflowException  When the data ends within a value.
+     * @throws IllegalArgumentException  When a value is too long for an int.
+     */
+    public static void readInts(ByteBuffer buffer, int[] values, int offset, int length, boolean zigZag) throws IndexOutOfBoundsException, BufferUnderflowException, IllegalArgumentException {
+        if (buffer.hasArray()) {
+            int start = buffer.arrayOffset() + buffer.position();
+            int end = decodeInts(buffer.array(), start, buffer.arrayOffset() + buffer.limit(), values, offset, length, zigZag);
+            buffer.position(end - buffer.arrayOffset());
+        } else {
+            checkRange(values.length, offset, length);
+            for (int i = offset, end = offset + length; i < end; i++) {
+                int value = (int) readSlow(buffer, MAX_INT_BYTES);
+                values[i] = zigZag ? zigZagDecode(value) : value;
+            }
+        }
+    }
+
+    /**
+     * Read varints at the current position of a buffer into a range of longs.
+     *
+     * @param buffer The buffer.
+     * @param values The array to decode to.
+     * @param offset The offset of the first value.
+     * @param length The number of values.
+     * @param zigZag <code>true</code> to zigzag decode the values.
+     *
+     * @throws IndexOutOfBoundsException When the range of values is not valid.
+     * @throws BufferUnderflowException  When the data ends within a value.
+     * @throws IllegalArgumentException  When a value is too long for a long.
+     */
+    public static void readLongs(ByteBuffer buffer, long[] values, int offset, int length, boolean zigZag) throws IndexOutOfBoundsException, BufferUnderflowException, IllegalArgumentException {
+        if (buffer.hasArray()) {
+            int start = buffer.arrayOffset() + buffer.position();
+            int end = decodeLongs(buffer.array(), start, buffer.arrayOffset() + buffer.limit(), values, offset, length, zigZag);
+            buffer.position(end - buffer.arrayOffset());
+        } else {
+            checkRange(values.length, offset, length);
+            for (int i = offset, end = offset + length; i < end; i++) {
+                long value = readSlow(buffer, MAX_LONG_BYTES);
+                values[i] = zigZag ? zigZagDecode(value) : value;
+            }
+        }
+    }
+
+    /**
+     * Count the number of complete varints in a range of bytes, which is the number of bytes without the MSB set.
+     *
+     * <p>
+     * Bytes after the last complete varint belong to a varint that continues after the range.
+     * </p>
+     *
+     * @param data   The array.
+     * @param offset The offset of the first byte.
+     * @param length The number of bytes.
+     *
+     * @return The number of complete varints.
+     */
+    public static int countValues(byte[] data, int offset, int length) {
+        int count = 0;
+        int position = offset;
+        int end = offset + length;
+        for (; position <= end - 8; position += 8) {
+            count += Long.bitCount(~Intrinsics.getLongLE(data, position) & CONTINUATION_BITS);
+        }
+        for (; position < end; position++) {
+            count += data[position] >>> 31 ^ 1;
+        }
+        return count;
+    }
+
+    /**
+     * Decode varints from a range of a byte array into a range of ints.
+     *
+     * @param data       The array with the varints.
+     * @param dataOffset The offset in the array of the first byte.
+     * @param dataLimit  The offset in the array after the last byte that may be read.
+     * @param values     The array to decode to.
+     * @param offset     The offset of the first value.
+     * @param length     The number of values.
+     * @param zigZag     <code>true</code> to zigzag decode the values.
+     *
+     * @return The offset in the array after the last byte.
+     *
+     * @throws IndexOutOfBoundsException When the range of values is not valid.
+     * @throws BufferUnderflowException  When the data ends within a value.
+     * @throws IllegalArgumentException  When a value is too long for an int.
+     */
+    private static int decodeInts(byte[] data, int dataOffset, int dataLimit, int[] values, int offset, int length, boolean zigZag) throws IndexOutOfBoundsException, BufferUnderflowException, IllegalArgumentException {
+        checkRange(values.length, offset, length);
+        int position = dataOffset;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            int value;
+            if (position <= dataLimit - 8) {
+                long word = Intrinsics.getLongLE(data, position);
+                int bytes = (Long.numberOfTrailingZeros(~word & CONTINUATION_BITS) >>> 3) + 1;
+                if (bytes > MAX_INT_BYTES) {
+                    throw new IllegalArgumentException("Malformed varint, more than " + MAX_INT_BYTES + " bytes for an int");
+                }
+                value = (int) Intrinsics.compactVarInt(word, bytes);
+                position += bytes;
+            } else {
+                value = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    if (position == dataLimit) {
+                        throw new BufferUnderflowException();
+                    }
+                    if (shift == MAX_INT_BYTES * 7) {
+                        throw new IllegalArgumentException("Malformed varint, more than " + MAX_INT_BYTES + " bytes for an int");
+                    }
+                    b = data[position++];
+                    value |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+            }
+            values[i] = zigZag ? zigZagDecode(value) : value;
+        }
+        return position;
+    }
+
+    /**
+     * Decode varints from a range of a byte array into a range of longs.
+     *
+     * @param data       The array with the varints.
+     * @param dataOffset The offset in the array of the first byte.
+     * @param dataLimit  The offset in the array after the last byte that may be read.
+     * @param values     The array to decode to.
+     * @param offset     The offset of the first value.
+     * @param length     The number of values.
+     * @param zigZag     <code>true</code> to zigzag decode the values.
+     *
+     * @return The offset in the array after the last byte.
+     *
+     * @throws IndexOutOfBoundsException When the range of values is not valid.
+     * @throws BufferUnderflowException  When the data ends within a value.
+     * @throws IllegalArgumentException  When a value is too long for a long.
+     */
+    private static int decodeLongs(byte[] data, int dataOffset, int dataLimit, long[] values, int offset, int length, boolean zigZag) throws IndexOutOfBoundsException, BufferUnderflowException, IllegalArgumentException {
+        checkRange(values.length, offset, length);
+        int position = dataOffset;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            long value;
+            long word = position <= dataLimit - 8 ? Intrinsics.getLongLE(data, position) : -1L;
+            long stops = ~word & CONTINUATION_BITS;
+            if (stops != 0) {
+                int bytes = (Long.numberOfTrailingZeros(stops) >>> 3) + 1;
+                value = Intrinsics.compactVarInt(word, bytes);
+                position += bytes;
+            } else {
+                value = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    if (position == dataLimit) {
+                        throw new BufferUnderflowException();
+                    }
+                    if (shift == MAX_LONG_BYTES * 7) {
+                        throw new IllegalArgumentException("Malformed varint, more than " + MAX_LONG_BYTES + " bytes for a long");
+                    }
+                    b = data[position++];
+                    value |= (long) (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+            }
+            values[i] = zigZag ? zigZagDecode(value) : value;
+        }
+        return position;
+    }
+
+    /**
+     * Read a varint per byte from a buffer without a backing array.
+     *
+     * @param buffer   The buffer.
+     * @param maxBytes The maximum number of bytes.
+     *
+     * @return The value.
+     *
+     * @throws BufferUnderflowException When the buffer ends within the value.
+     * @throws IllegalArgumentException When the value is too long.
+     */
+    private static long readSlow(ByteBuffer buffer, int maxBytes) throws BufferUnderflowException, IllegalArgumentException {
+        long value = 0;
+        for (int shift = 0; shift < maxBytes * 7; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint, more than " + maxBytes + " bytes");
+    }
+
+    /**
+     * Check if a range of an array is valid.
+     *
+     * @param arrayLength The length of the array.
+     * @param offset      The offset of the range.
+     * @param length      The length of the range.
+     *
+     * @throws IndexOutOfBoundsException When the range is not valid.
+     */
+    private static void checkRange(int arrayLength, int offset, int length) throws IndexOutOfBoundsException {
+        if (offset < 0 || length < 0 || offset > arrayLength - length) {
+            throw new IndexOutOfBoundsException("Range " + offset + "+" + length + " is not valid for " + arrayLength + " values");
+        }
+    }
+}
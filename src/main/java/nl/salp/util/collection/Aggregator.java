@@ -0,0 +1,32 @@
+package nl.salp.util.collection;
+
+/**
+ * Aggregation of values into a single result, used for grouping pairs.
+ *
+ * <p>
+ * All values of a single group are aggregated by the same thread, so implementations may return a mutated instance
+ * from {@link Aggregator#accumulate(Object, Object)}.
+ * </p>
+ *
+ * @param <V> The type of the values to aggregate.
+ * @param <A> The type of the aggregate.
+ * @see ParallelPairOperations#groupByLeft(PairList, Aggregator)
+ */
+public interface Aggregator<V, A> {
+    /**
+     * Create a new, empty, aggregate.
+     *
+     * @return The aggregate.
+     */
+    A create();
+
+    /**
+     * Add a value to an aggregate.
+     *
+     * @param aggregate The aggregate.
+     * @param value     The value to add.
+     *
+     * @return The new aggregate, which may be the same instance as the provided aggregate.
+     */
+    A accumulate(A aggregate, V value);
+}
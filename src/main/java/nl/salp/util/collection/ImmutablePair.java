@@ -21,6 +21,10 @@ public class ImmutablePair<L, R> {
      * The right-hand value.
      */
     private final R rightValue;
+    /**
+     * The cached hash code, calculated once on construction.
+     */
+    private final int hash;
 
     /**
      * Create a new ImmutablePair.
@@ -39,6 +43,7 @@ public class ImmutablePair<L, R> {
         }
         this.leftValue = leftValue;
         this.rightValue = rightValue;
+        this.hash = hash(leftValue, rightValue);
     }
 
     /**
@@ -61,19 +66,40 @@ public class ImmutablePair<L, R> {
 
     @Override
     public boolean equals(Object obj) {
-        boolean equals = false;
-        if (obj != null && obj instanceof ImmutablePair) {
+        boolean equals = obj == this;
+        if (!equals && obj instanceof ImmutablePair) {
             ImmutablePair other = (ImmutablePair) obj;
-            equals = leftValue.equals(other.leftValue) && rightValue.equals(other.rightValue);
+            equals = hash == other.hash && leftValue.equals(other.leftValue) && rightValue.equals(other.rightValue);
         }
         return equals;
     }
 
     @Override
     public int hashCode() {
-        int bits = leftValue.hashCode();
-        bits ^= rightValue.hashCode() * 31;
-        return bits;
+        return hash;
+    }
+
+    /**
+     * Calculate the hash code for a pair of values as used by {@link ImmutablePair#hashCode()}.
+     *
+     * <p>
+     * The hash codes of both values are combined into a single 64-bit value which is then run through the
+     * MurmurHash3 64-bit finalizer, so that low-entropy values (e.g. small integers) and switched pairs spread evenly.
+     * </p>
+     *
+     * @param leftValue  The left-hand value, not null.
+     * @param rightValue The right-hand value, not null.
+     *
+     * @return The hash code.
+     */
+    static int hash(Object leftValue, Object rightValue) {
+        long bits = ((long) leftValue.hashCode() << 32) | (rightValue.hashCode() & 0xFFFFFFFFL);
+        bits ^= bits >>> 33;
+        bits *= 0xFF51AFD7ED558CCDL;
+        bits ^= bits >>> 33;
+        bits *= 0xC4CEB9FE1A85EC53L;
+        bits ^= bits >>> 33;
+        return (int) (bits ^ (bits >>> 32));
     }
 
     @Override
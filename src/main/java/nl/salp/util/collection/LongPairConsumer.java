@@ -0,0 +1,16 @@
+package nl.salp.util.collection;
+
+/**
+ * Callback accepting a pair of primitive long values.
+ *
+ * @see PairConsumer
+ */
+public interface LongPairConsumer {
+    /**
+     * Accept a pair of values.
+     *
+     * @param left  The left-hand value.
+     * @param right The right-hand value.
+     */
+    void accept(long left, long right);
+}
@@ -0,0 +1,291 @@
+package nl.salp.util.collection;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Columnar list of pairs of primitive long values.
+ *
+ * <p>
+ * The primitive counterpart of {@link PairList}, storing the values in two <code>long[]</code> columns: 16 bytes per
+ * pair instead of a boxed {@link ImmutablePair} of two {@link Long} instances.
+ * </p>
+ *
+ * <p>
+ * This class is not thread-safe.
+ * </p>
+ *
+ * @see PairList
+ */
+public class LongPairList {
+    /**
+     * The default initial capacity.
+     */
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * The left-hand values.
+     */
+    long[] lefts;
+    /**
+     * The right-hand values.
+     */
+    long[] rights;
+    /**
+     * The number of pairs in the list.
+     */
+    int size;
+
+    /**
+     * Create a new LongPairList with the default capacity.
+     */
+    public LongPairList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Create a new LongPairList with an initial capacity.
+     *
+     * @param capacity The initial capacity.
+     *
+     * @throws IllegalArgumentException When the capacity is negative.
+     */
+    public LongPairList(int capacity) throws IllegalArgumentException {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity " + capacity + " is not valid, the minimum is 0");
+        }
+        lefts = new long[capacity];
+        rights = new long[capacity];
+    }
+
+    /**
+     * Add a pair of values.
+     *
+     * @param left  The left-hand value.
+     * @param right The right-hand value.
+     */
+    public void add(long left, long right) {
+        ensureCapacity(size + 1);
+        lefts[size] = left;
+        rights[size] = right;
+        size++;
+    }
+
+    /**
+     * Add all pairs from another list.
+     *
+     * @param other The list to add the pairs of.
+     *
+     * @throws IllegalArgumentException When the list is null.
+     */
+    public void addAll(LongPairList other) throws IllegalArgumentException {
+        if (other == null) {
+            throw new IllegalArgumentException("No pair list provided");
+        }
+        addAll(other.lefts, other.rights, 0, other.size);
+    }
+
+    /**
+     * Add the values of two equally sized arrays as pairs.
+     *
+     * @param leftValues  The left-hand values.
+     * @param rightValues The right-hand values.
+     *
+     * @throws IllegalArgumentException When an array is null or the arrays differ in length.
+     */
+    public void addAll(long[] leftValues, long[] rightValues) throws IllegalArgumentException {
+        if (leftValues == null || rightValues == null) {
+            throw new IllegalArgumentException("No values provided");
+        }
+        if (leftValues.length != rightValues.length) {
+            throw new IllegalArgumentException("Different number of left (" + leftValues.length + ") and right ("
+                    + rightValues.length + ") values provided");
+        }
+        addAll(leftValues, rightValues, 0, leftValues.length);
+    }
+
+    /**
+     * Add a range of values from two arrays as pairs.
+     *
+     * @param leftValues  The left-hand values.
+     * @param rightValues The right-hand values.
+     * @param offset      The index of the first value to add.
+     * @param length      The number of values to add.
+     */
+    private void addAll(long[] leftValues, long[] rightValues, int offset, int length) {
+        ensureCapacity(size + length);
+        System.arraycopy(leftValues, offset, lefts, size, length);
+        System.arraycopy(rightValues, offset, rights, size, length);
+        size += length;
+    }
+
+    /**
+     * Get the left-hand value at an index.
+     *
+     * @param index The index.
+     *
+     * @return The value.
+     *
+     * @throws IndexOutOfBoundsException When the index is not valid.
+     */
+    public long getLeft(int index) throws IndexOutOfBoundsException {
+        checkIndex(index);
+        return lefts[index];
+    }
+
+    /**
+     * Get the right-hand value at an index.
+     *
+     * @param index The index.
+     *
+     * @return The value.
+     *
+     * @throws IndexOutOfBoundsException When the index is not valid.
+     */
+    public long getRight(int index) throws IndexOutOfBoundsException {
+        checkIndex(index);
+        return rights[index];
+    }
+
+    /**
+     * Get the pair at an index, creating a new {@link ImmutablePair} instance.
+     *
+     * @param index The index.
+     *
+     * @return The pair.
+     *
+     * @throws IndexOutOfBoundsException When the index is not valid.
+     */
+    public ImmutablePair<Long, Long> get(int index) throws IndexOutOfBoundsException {
+        return new ImmutablePair<Long, Long>(getLeft(index), getRight(index));
+    }
+
+    /**
+     * Get the number of pairs.
+     *
+     * @return The number of pairs.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Check if the list is empty.
+     *
+     * @return <code>true</code> if the list contains no pairs.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Remove all pairs, keeping the current capacity.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Sort the pairs by their left-hand values in ascending order. The sort is stable.
+     */
+    public void sortByLeft() {
+        PairSorter.sort(lefts, rights, Arrays.copyOf(lefts, size), Arrays.copyOf(rights, size), 0, size);
+    }
+
+    /**
+     * Sort the pairs by their right-hand values in ascending order. The sort is stable.
+     */
+    public void sortByRight() {
+        PairSorter.sort(rights, lefts, Arrays.copyOf(rights, size), Arrays.copyOf(lefts, size), 0, size);
+    }
+
+    /**
+     * Pass all pairs, in order, to a consumer.
+     *
+     * @param consumer The consumer.
+     *
+     * @throws IllegalArgumentException When the consumer is null.
+     */
+    public void forEach(LongPairConsumer consumer) throws IllegalArgumentException {
+        if (consumer == null) {
+            throw new IllegalArgumentException("No consumer provided");
+        }
+        long[] l = lefts;
+        long[] r = rights;
+        for (int i = 0, n = size; i < n; i++) {
+            consumer.accept(l[i], r[i]);
+        }
+    }
+
+    /**
+     * Create a list with an {@link ImmutablePair} instance for every pair.
+     *
+     * @return The pairs.
+     */
+    public List<ImmutablePair<Long, Long>> toPairs() {
+        List<ImmutablePair<Long, Long>> pairs = new ArrayList<ImmutablePair<Long, Long>>(size);
+        for (int i = 0; i < size; i++) {
+            pairs.add(get(i));
+        }
+        return pairs;
+    }
+
+    /**
+     * Grow the columns if needed.
+     *
+     * @param capacity The minimum required capacity.
+     */
+    private void ensureCapacity(int capacity) {
+        if (capacity > lefts.length) {
+            int newCapacity = Math.max(capacity, lefts.length + (lefts.length >> 1) + 1);
+            lefts = Arrays.copyOf(lefts, newCapacity);
+            rights = Arrays.copyOf(rights, newCapacity);
+        }
+    }
+
+    /**
+     * Check if an index is valid for the current content.
+     *
+     * @param index The index.
+     *
+     * @throws IndexOutOfBoundsException When the index is not valid.
+     */
+    private void checkIndex(int index) throws IndexOutOfBoundsException {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " is not valid for size " + size);
+        }
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        boolean equals = false;
+        if (obj != null && obj instanceof LongPairList) {
+            LongPairList other = (LongPairList) obj;
+            equals = size == other.size;
+            for (int i = 0; equals && i < size; i++) {
+                equals = lefts[i] == other.lefts[i] && rights[i] == other.rights[i];
+            }
+        }
+        return equals;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (int i = 0; i < size; i++) {
+            long bits = lefts[i] * 31 + rights[i];
+            hash = 31 * hash + (int) (bits ^ (bits >>> 32));
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("LongPairList [");
+        sb.append("size: ").append(size);
+        sb.append("]");
+        return sb.toString();
+    }
+}
@@ -0,0 +1,17 @@
+package nl.salp.util.collection;
+
+/**
+ * Callback accepting the left-hand and right-hand value of a pair without requiring an {@link ImmutablePair} instance.
+ *
+ * @param <L> The type of the left-hand value.
+ * @param <R> The type of the right-hand value.
+ */
+public interface PairConsumer<L, R> {
+    /**
+     * Accept a pair of values.
+     *
+     * @param left  The left-hand value.
+     * @param right The right-hand value.
+     */
+    void accept(L left, R right);
+}
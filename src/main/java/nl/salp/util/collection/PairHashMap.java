@@ -0,0 +1,349 @@
+package nl.salp.util.collection;
+
+/**
+ * Open-addressing hash map with a two-part key (left, right).
+ *
+ * <p>
+ * Functionally equivalent to a {@code Map<ImmutablePair<L, R>, V>}, without the need to allocate an {@link ImmutablePair}
+ * for every lookup. The keys, their hash codes and the values are stored in parallel flat arrays and collisions are
+ * resolved with linear probing, so a lookup is a sequential scan over (mostly) a single cache line and allocates nothing.
+ * Removal uses backward-shift deletion, so no tombstones are left behind.
+ * </p>
+ *
+ * <p>
+ * Keys and values can not be null. This class is not thread-safe.
+ * </p>
+ *
+ * @param <L> The type of the left-hand key.
+ * @param <R> The type of the right-hand key.
+ * @param <V> The type of the value.
+ */
+public class PairHashMap<L, R, V> {
+    /**
+     * The default initial capacity.
+     */
+    private static final int DEFAULT_CAPACITY = 16;
+    /**
+     * The maximum capacity (number of slots).
+     */
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+    /**
+     * The maximum fill ratio of the table before it is grown.
+     */
+    private static final float LOAD_FACTOR = 0.75f;
+
+    /**
+     * The left-hand keys, null for an empty slot.
+     */
+    private Object[] lefts;
+    /**
+     * The right-hand keys.
+     */
+    private Object[] rights;
+    /**
+     * The values.
+     */
+    private Object[] values;
+    /**
+     * The cached hash codes of the keys.
+     */
+    private int[] hashes;
+    /**
+     * The number of entries in the map.
+     */
+    private int size;
+    /**
+     * The number of entries at which the table is grown.
+     */
+    private int threshold;
+
+    /**
+     * Create a new PairHashMap with the default capacity.
+     */
+    public PairHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Create a new PairHashMap that can hold a number of entries without growing.
+     *
+     * @param expectedSize The expected number of entries.
+     *
+     * @throws IllegalArgumentException When the expected size is negative.
+     */
+    public PairHashMap(int expectedSize) throws IllegalArgumentException {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Expected size " + expectedSize + " is not valid, the minimum is 0");
+        }
+        allocate(tableSizeFor((long) Math.ceil(expectedSize / (double) LOAD_FACTOR)));
+    }
+
+    /**
+     * Get the value mapped to a key.
+     *
+     * @param left  The left-hand key.
+     * @param right The right-hand key.
+     *
+     * @return The value or <code>null</code> if there is no value mapped to the key.
+     *
+     * @throws IllegalArgumentException When one of the keys is null.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(L left, R right) throws IllegalArgumentException {
+        int slot = find(left, right);
+        return slot < 0 ? null : (V) values[slot];
+    }
+
+    /**
+     * Check if a value is mapped to a key.
+     *
+     * @param left  The left-hand key.
+     * @param right The right-hand key.
+     *
+     * @return <code>true</code> if a value is mapped to the key.
+     *
+     * @throws IllegalArgumentException When one of the keys is null.
+     */
+    public boolean containsKey(L left, R right) throws IllegalArgumentException {
+        return find(left, right) > -1;
+    }
+
+    /**
+     * Map a value to a key, replacing any previously mapped value.
+     *
+     * @param left  The left-hand key.
+     * @param right The right-hand key.
+     * @param value The value.
+     *
+     * @return The previously mapped value or <code>null</code> if there was none.
+     *
+     * @throws IllegalArgumentException When one of the keys or the value is null.
+     * @throws IllegalStateException    When the map has reached its maximum capacity.
+     */
+    @SuppressWarnings("unchecked")
+    public V put(L left, R right, V value) throws IllegalArgumentException, IllegalStateException {
+        checkKeys(left, right);
+        if (value == null) {
+            throw new IllegalArgumentException("No value provided");
+        }
+        int hash = ImmutablePair.hash(left, right);
+        int mask = lefts.length - 1;
+        int slot = hash & mask;
+        Object current;
+        while ((current = lefts[slot]) != null) {
+            if (hashes[slot] == hash && current.equals(left) && rights[slot].equals(right)) {
+                V previous = (V) values[slot];
+                values[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (size >= threshold) {
+            resize();
+            slot = freeSlot(hash);
+        }
+        lefts[slot] = left;
+        rights[slot] = right;
+        values[slot] = value;
+        hashes[slot] = hash;
+        size++;
+        return null;
+    }
+
+    /**
+     * Remove the value mapped to a key.
+     *
+     * @param left  The left-hand key.
+     * @param right The right-hand key.
+     *
+     * @return The removed value or <code>null</code> if there was no value mapped to the key.
+     *
+     * @throws IllegalArgumentException When one of the keys is null.
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(L left, R right) throws IllegalArgumentException {
+        int slot = find(left, right);
+        if (slot < 0) {
+            return null;
+        }
+        V previous = (V) values[slot];
+        shiftBackward(slot);
+        size--;
+        return previous;
+    }
+
+    /**
+     * Get the number of entries in the map.
+     *
+     * @return The number of entries.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Check if the map is empty.
+     *
+     * @return <code>true</code> if the map has no entries.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Remove all entries from the map, keeping the current capacity.
+     */
+    public void clear() {
+        for (int i = 0; i < lefts.length; i++) {
+            lefts[i] = null;
+            rights[i] = null;
+            values[i] = null;
+        }
+        size = 0;
+    }
+
+    /**
+     * Find the slot of a key.
+     *
+     * @param left  The left-hand key.
+     * @param right The right-hand key.
+     *
+     * @return The slot or <code>-1</code> if the key is not in the map.
+     */
+    private int find(Object left, Object right) {
+        checkKeys(left, right);
+        int hash = ImmutablePair.hash(left, right);
+        int mask = lefts.length - 1;
+        int slot = hash & mask;
+        Object current;
+        while ((current = lefts[slot]) != null) {
+            if (hashes[slot] == hash && current.equals(left) && rights[slot].equals(right)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Empty a slot, shifting back the entries of the probe sequence following it so no gaps are introduced.
+     *
+     * @param slot The slot to empty.
+     */
+    private void shiftBackward(int slot) {
+        int mask = lefts.length - 1;
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (lefts[next] != null) {
+            int home = hashes[next] & mask;
+            // Only move the entry if its home slot is not located cyclically in (gap, next].
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                lefts[gap] = lefts[next];
+                rights[gap] = rights[next];
+                values[gap] = values[next];
+                hashes[gap] = hashes[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        lefts[gap] = null;
+        rights[gap] = null;
+        values[gap] = null;
+    }
+
+    /**
+     * Double the size of the table and re-insert all entries.
+     *
+     * @throws IllegalStateException When the map has reached its maximum capacity.
+     */
+    private void resize() throws IllegalStateException {
+        if (lefts.length == MAXIMUM_CAPACITY) {
+            throw new IllegalStateException("Maximum capacity of " + MAXIMUM_CAPACITY + " slots reached");
+        }
+        Object[] oldLefts = lefts;
+        Object[] oldRights = rights;
+        Object[] oldValues = values;
+        int[] oldHashes = hashes;
+        allocate(oldLefts.length << 1);
+        for (int i = 0; i < oldLefts.length; i++) {
+            if (oldLefts[i] != null) {
+                int slot = freeSlot(oldHashes[i]);
+                lefts[slot] = oldLefts[i];
+                rights[slot] = oldRights[i];
+                values[slot] = oldValues[i];
+                hashes[slot] = oldHashes[i];
+            }
+        }
+    }
+
+    /**
+     * Find the first free slot in the probe sequence of a hash code.
+     *
+     * @param hash The hash code.
+     *
+     * @return The free slot.
+     */
+    private int freeSlot(int hash) {
+        int mask = lefts.length - 1;
+        int slot = hash & mask;
+        while (lefts[slot] != null) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Allocate empty tables.
+     *
+     * @param capacity The number of slots, a power of two.
+     */
+    private void allocate(int capacity) {
+        lefts = new Object[capacity];
+        rights = new Object[capacity];
+        values = new Object[capacity];
+        hashes = new int[capacity];
+        threshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    /**
+     * Get the smallest power of two table size that can hold a number of slots.
+     *
+     * @param slots The number of slots.
+     *
+     * @return The table size.
+     */
+    private static int tableSizeFor(long slots) {
+        int capacity = DEFAULT_CAPACITY;
+        while (capacity < slots && capacity < MAXIMUM_CAPACITY) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    /**
+     * Check that both keys are provided.
+     *
+     * @param left  The left-hand key.
+     * @param right The right-hand key.
+     *
+     * @throws IllegalArgumentException When one of the keys is null.
+     */
+    private static void checkKeys(Object left, Object right) throws IllegalArgumentException {
+        if (left == null) {
+            throw new IllegalArgumentException("No left key provided");
+        }
+        if (right == null) {
+            throw new IllegalArgumentException("No right key provided");
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("PairHashMap [");
+        sb.append("size: ").append(size).append(", ");
+        sb.append("capacity: ").append(lefts.length);
+        sb.append("]");
+        return sb.toString();
+    }
+}
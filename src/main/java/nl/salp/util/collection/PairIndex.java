@@ -0,0 +1,518 @@
+package nl.salp.util.collection;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrent set of {@link ImmutablePair} instances, indexed by both the left-hand and the right-hand value.
+ *
+ * <p>
+ * Both indexes map a value to a growable bucket of the pairs containing it, which is modified in place, so adding or
+ * removing a pair takes amortized constant time regardless of the number of pairs per value. Lookups return an
+ * immutable copy of a bucket that is made on the first lookup after a modification and shared until the next one;
+ * lookups of unmodified buckets and {@link PairIndex#contains(ImmutablePair)} never lock, refreshing a copy locks the
+ * stripe of the value. Modifications lock the stripe of the left-hand value and the stripe of the right-hand value (in
+ * a fixed order), so that a pair is added to or removed from both indexes atomically with respect to other
+ * modifications. Writers only contend when their values fall into the same stripe.
+ * </p>
+ *
+ * <p>
+ * This class is thread-safe.
+ * </p>
+ *
+ * @param <L> The type of the left-hand values.
+ * @param <R> The type of the right-hand values.
+ */
+public class PairIndex<L, R> {
+    /**
+     * The default number of lock stripes.
+     */
+    private static final int DEFAULT_STRIPES = 64;
+    /**
+     * The number of pairs above which a bucket keeps the positions of its pairs.
+     */
+    private static final int INDEXED_BUCKET_SIZE = 16;
+    /**
+     * Shared empty result, returned for values without pairs.
+     */
+    private static final ImmutablePair[] NO_PAIRS = new ImmutablePair[0];
+
+    /**
+     * All pairs, for duplicate checks and lookups of single pairs.
+     */
+    private final ConcurrentMap<ImmutablePair<L, R>, Boolean> pairs;
+    /**
+     * The pairs by left-hand value.
+     */
+    private final ConcurrentMap<L, Bucket<L, R>> byLeft;
+    /**
+     * The pairs by right-hand value.
+     */
+    private final ConcurrentMap<R, Bucket<L, R>> byRight;
+    /**
+     * The lock stripes, selected by the hash code of a value.
+     */
+    private final ReentrantLock[] locks;
+    /**
+     * The number of pairs.
+     */
+    private final AtomicInteger size = new AtomicInteger();
+
+    /**
+     * Create a new PairIndex with the default number of stripes.
+     */
+    public PairIndex() {
+        this(DEFAULT_STRIPES);
+    }
+
+    /**
+     * Create a new PairIndex.
+     *
+     * @param stripes The minimum number of lock stripes, rounded up to a power of two.
+     *
+     * @throws IllegalArgumentException When the number of stripes is not positive.
+     */
+    public PairIndex(int stripes) throws IllegalArgumentException {
+        if (stripes < 1) {
+            throw new IllegalArgumentException("Number of stripes " + stripes + " is not valid, the minimum is 1");
+        }
+        int count = 1;
+        while (count < stripes) {
+            count <<= 1;
+        }
+        this.locks = new ReentrantLock[count];
+        for (int i = 0; i < count; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        this.pairs = new ConcurrentHashMap<ImmutablePair<L, R>, Boolean>(16, 0.75f, count);
+        this.byLeft = new ConcurrentHashMap<L, Bucket<L, R>>(16, 0.75f, count);
+        this.byRight = new ConcurrentHashMap<R, Bucket<L, R>>(16, 0.75f, count);
+    }
+
+    /**
+     * Add a pair.
+     *
+     * @param pair The pair.
+     *
+     * @return <code>true</code> if the pair was added, <code>false</code> if an equal pair was already present.
+     *
+     * @throws IllegalArgumentException When the pair is null.
+     */
+    public boolean add(ImmutablePair<L, R> pair) throws IllegalArgumentException {
+        checkPair(pair);
+        L left = pair.getLeftValue();
+        R right = pair.getRightValue();
+        int first = stripe(left);
+        int second = stripe(right);
+        lock(first, second);
+        try {
+            if (pairs.putIfAbsent(pair, Boolean.TRUE) != null) {
+                return false;
+            }
+            bucket(byLeft, left).add(pair);
+            bucket(byRight, right).add(pair);
+            size.incrementAndGet();
+            return true;
+        } finally {
+            unlock(first, second);
+        }
+    }
+
+    /**
+     * Add a pair of values.
+     *
+     * @param left  The left-hand value.
+     * @param right The right-hand value.
+     *
+     * @return <code>true</code> if the pair was added, <code>false</code> if an equal pair was already present.
+     *
+     * @throws IllegalArgumentException When one of the values is null.
+     */
+    public boolean add(L left, R right) throws IllegalArgumentException {
+        return add(new ImmutablePair<L, R>(left, right));
+    }
+
+    /**
+     * Remove a pair.
+     *
+     * @param pair The pair.
+     *
+     * @return <code>true</code> if the pair was removed, <code>false</code> if it was not present.
+     *
+     * @throws IllegalArgumentException When the pair is null.
+     */
+    public boolean remove(ImmutablePair<L, R> pair) throws IllegalArgumentException {
+        checkPair(pair);
+        L left = pair.getLeftValue();
+        R right = pair.getRightValue();
+        int first = stripe(left);
+        int second = stripe(right);
+        lock(first, second);
+        try {
+            if (pairs.remove(pair) == null) {
+                return false;
+            }
+            remove(byLeft, left, pair);
+            remove(byRight, right, pair);
+            size.decrementAndGet();
+            return true;
+        } finally {
+            unlock(first, second);
+        }
+    }
+
+    /**
+     * Check if a pair is present.
+     *
+     * @param pair The pair.
+     *
+     * @return <code>true</code> if the pair is present.
+     *
+     * @throws IllegalArgumentException When the pair is null.
+     */
+    public boolean contains(ImmutablePair<L, R> pair) throws IllegalArgumentException {
+        checkPair(pair);
+        return pairs.containsKey(pair);
+    }
+
+    /**
+     * Get the pairs with a left-hand value.
+     *
+     * @param left The left-hand value.
+     *
+     * @return An unmodifiable list of the pairs, unaffected by later modifications of the index.
+     *
+     * @throws IllegalArgumentException When the value is null.
+     */
+    public List<ImmutablePair<L, R>> byLeft(L left) throws IllegalArgumentException {
+        if (left == null) {
+            throw new IllegalArgumentException("No left value provided");
+        }
+        return lookup(byLeft, left);
+    }
+
+    /**
+     * Get the pairs with a right-hand value.
+     *
+     * @param right The right-hand value.
+     *
+     * @return An unmodifiable list of the pairs, unaffected by later modifications of the index.
+     *
+     * @throws IllegalArgumentException When the value is null.
+     */
+    public List<ImmutablePair<L, R>> byRight(R right) throws IllegalArgumentException {
+        if (right == null) {
+            throw new IllegalArgumentException("No right value provided");
+        }
+        return lookup(byRight, right);
+    }
+
+    /**
+     * Get the number of pairs.
+     *
+     * @return The number of pairs.
+     */
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * Create a consistent snapshot of all pairs.
+     *
+     * <p>
+     * All stripes are locked while the snapshot is taken, so it reflects the index at a single point in time. Lookups
+     * of unmodified buckets are not blocked, modifications wait until the snapshot is complete.
+     * </p>
+     *
+     * @return A list with all pairs, in no particular order.
+     */
+    public List<ImmutablePair<L, R>> snapshot() {
+        for (ReentrantLock lock : locks) {
+            lock.lock();
+        }
+        try {
+            List<ImmutablePair<L, R>> snapshot = new ArrayList<ImmutablePair<L, R>>(size.get());
+            for (Bucket<L, R> bucket : byLeft.values()) {
+                bucket.addTo(snapshot);
+            }
+            return snapshot;
+        } finally {
+            for (int i = locks.length - 1; i >= 0; i--) {
+                locks[i].unlock();
+            }
+        }
+    }
+
+    /**
+     * Get the pairs of a value, copying its bucket under the lock of its stripe if it was modified since the last
+     * lookup.
+     *
+     * @param index The index.
+     * @param value The value.
+     * @param <K>   The type of the value.
+     *
+     * @return The unmodifiable list of pairs.
+     */
+    private <K> List<ImmutablePair<L, R>> lookup(ConcurrentMap<K, Bucket<L, R>> index, K value) {
+        Bucket<L, R> bucket = index.get(value);
+        if (bucket == null) {
+            return asList(null);
+        }
+        ImmutablePair<L, R>[] copy = bucket.copy;
+        if (copy == null) {
+            ReentrantLock lock = locks[stripe(value)];
+            lock.lock();
+            try {
+                copy = bucket.copy();
+            } finally {
+                lock.unlock();
+            }
+        }
+        return asList(copy);
+    }
+
+    /**
+     * Get the lock stripe of a value.
+     *
+     * @param value The value.
+     *
+     * @return The stripe index.
+     */
+    private int stripe(Object value) {
+        int hash = value.hashCode();
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        return hash & (locks.length - 1);
+    }
+
+    /**
+     * Lock two stripes, lowest index first.
+     *
+     * @param first  The first stripe.
+     * @param second The second stripe.
+     */
+    private void lock(int first, int second) {
+        locks[Math.min(first, second)].lock();
+        if (first != second) {
+            locks[Math.max(first, second)].lock();
+        }
+    }
+
+    /**
+     * Unlock two stripes locked by {@link PairIndex#lock(int, int)}.
+     *
+     * @param first  The first stripe.
+     * @param second The second stripe.
+     */
+    private void unlock(int first, int second) {
+        if (first != second) {
+            locks[Math.max(first, second)].unlock();
+        }
+        locks[Math.min(first, second)].unlock();
+    }
+
+    /**
+     * Get the bucket of a value, creating it if the value has no pairs. The stripe of the value must be locked.
+     *
+     * @param index The index.
+     * @param value The value.
+     * @param <K>   The type of the value.
+     * @param <L>   The type of the left-hand values.
+     * @param <R>   The type of the right-hand values.
+     *
+     * @return The bucket.
+     */
+    private static <K, L, R> Bucket<L, R> bucket(ConcurrentMap<K, Bucket<L, R>> index, K value) {
+        Bucket<L, R> bucket = index.get(value);
+        if (bucket == null) {
+            bucket = new Bucket<L, R>();
+            index.put(value, bucket);
+        }
+        return bucket;
+    }
+
+    /**
+     * Remove a pair from the bucket of a value, removing the bucket if no pairs remain. The stripe of the value must be
+     * locked.
+     *
+     * @param index The index.
+     * @param value The value.
+     * @param pair  The pair, which must be in the bucket.
+     * @param <K>   The type of the value.
+     * @param <L>   The type of the left-hand values.
+     * @param <R>   The type of the right-hand values.
+     */
+    private static <K, L, R> void remove(ConcurrentMap<K, Bucket<L, R>> index, K value, ImmutablePair<L, R> pair) {
+        Bucket<L, R> bucket = index.get(value);
+        bucket.remove(pair);
+        if (bucket.count == 0) {
+            index.remove(value);
+        }
+    }
+
+    /**
+     * Wrap an array of pairs in an unmodifiable list.
+     *
+     * @param pairs The pairs, may be null.
+     * @param <L>   The type of the left-hand values.
+     * @param <R>   The type of the right-hand values.
+     *
+     * @return The list.
+     */
+    @SuppressWarnings("unchecked")
+    private static <L, R> List<ImmutablePair<L, R>> asList(ImmutablePair<L, R>[] pairs) {
+        return Collections.unmodifiableList(Arrays.asList(pairs == null ? (ImmutablePair<L, R>[]) NO_PAIRS : pairs));
+    }
+
+    /**
+     * Check that a pair is provided.
+     *
+     * @param pair The pair.
+     *
+     * @throws IllegalArgumentException When the pair is null.
+     */
+    private static void checkPair(ImmutablePair pair) throws IllegalArgumentException {
+        if (pair == null) {
+            throw new IllegalArgumentException("No pair provided");
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("PairIndex [");
+        sb.append("stripes: ").append(locks.length).append(", ");
+        sb.append("size: ").append(size.get());
+        sb.append("]");
+        return sb.toString();
+    }
+
+    /**
+     * The pairs of a single value, only modified and copied under the lock of the stripe of the value.
+     *
+     * <p>
+     * Pairs are appended to a growing array and removed by moving the last pair into their place. Buckets with more
+     * than {@link PairIndex#INDEXED_BUCKET_SIZE} pairs keep the position of every pair, so that removing is not a
+     * linear search.
+     * </p>
+     *
+     * @param <L> The type of the left-hand values.
+     * @param <R> The type of the right-hand values.
+     */
+    private static final class Bucket<L, R> {
+        /**
+         * The pairs, followed by unused slots.
+         */
+        private ImmutablePair<L, R>[] pairs;
+        /**
+         * The number of pairs.
+         */
+        private int count;
+        /**
+         * The positions of the pairs, <code>null</code> while the bucket is small.
+         */
+        private Map<ImmutablePair<L, R>, Integer> positions;
+        /**
+         * The copy of the pairs for lookups, <code>null</code> after a modification until the next lookup.
+         */
+        private volatile ImmutablePair<L, R>[] copy;
+
+        /**
+         * Create a new, empty Bucket.
+         */
+        @SuppressWarnings("unchecked")
+        private Bucket() {
+            this.pairs = new ImmutablePair[2];
+        }
+
+        /**
+         * Append a pair.
+         *
+         * @param pair The pair, not yet in the bucket.
+         */
+        private void add(ImmutablePair<L, R> pair) {
+            if (count == pairs.length) {
+                pairs = Arrays.copyOf(pairs, count * 2);
+            }
+            pairs[count] = pair;
+            if (positions != null) {
+                positions.put(pair, count);
+            } else if (count == INDEXED_BUCKET_SIZE) {
+                positions = new HashMap<ImmutablePair<L, R>, Integer>(count * 4);
+                for (int i = 0; i <= count; i++) {
+                    positions.put(pairs[i], i);
+                }
+            }
+            count++;
+            copy = null;
+        }
+
+        /**
+         * Remove a pair, moving the last pair into its place.
+         *
+         * @param pair The pair, which must be in the bucket.
+         */
+        private void remove(ImmutablePair<L, R> pair) {
+            int position = positions != null ? positions.remove(pair) : indexOf(pair);
+            int last = --count;
+            if (position != last) {
+                pairs[position] = pairs[last];
+                if (positions != null) {
+                    positions.put(pairs[position], position);
+                }
+            }
+            pairs[last] = null;
+            copy = null;
+        }
+
+        /**
+         * Get the copy of the pairs for lookups, making it if the bucket was modified.
+         *
+         * @return The copy.
+         */
+        private ImmutablePair<L, R>[] copy() {
+            ImmutablePair<L, R>[] copy = this.copy;
+            if (copy == null) {
+                copy = Arrays.copyOf(pairs, count);
+                this.copy = copy;
+            }
+            return copy;
+        }
+
+        /**
+         * Add the pairs to a list.
+         *
+         * @param list The list.
+         */
+        private void addTo(List<ImmutablePair<L, R>> list) {
+            for (int i = 0; i < count; i++) {
+                list.add(pairs[i]);
+            }
+        }
+
+        /**
+         * Find a pair by a linear search.
+         *
+         * @param pair The pair.
+         *
+         * @return The position or <code>-1</code> if the pair was not found.
+         */
+        private int indexOf(ImmutablePair<L, R> pair) {
+            for (int i = 0; i < count; i++) {
+                if (pairs[i].equals(pair)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+}
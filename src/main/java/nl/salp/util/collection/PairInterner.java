@@ -0,0 +1,348 @@
+package nl.salp.util.collection;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+
+/**
+ * Interner for {@link ImmutablePair} instances, returning a single canonical instance for equal pairs.
+ *
+ * <p>
+ * Canonical instances are only weakly referenced by the interner, so they can be garbage collected once they are no
+ * longer used elsewhere. The table is divided into independently locked segments; lookups of already interned pairs
+ * do not take a lock and do not allocate. Since equal interned pairs are the same instance, comparing them takes the
+ * reference-equality fast path of {@link ImmutablePair#equals(Object)}.
+ * </p>
+ *
+ * <p>
+ * This class is thread-safe.
+ * </p>
+ *
+ * @param <L> The type of the left-hand value.
+ * @param <R> The type of the right-hand value.
+ */
+public class PairInterner<L, R> {
+    /**
+     * The default number of segments.
+     */
+    private static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+    /**
+     * The maximum number of segments.
+     */
+    private static final int MAXIMUM_CONCURRENCY_LEVEL = 1 << 16;
+
+    /**
+     * The segments, selected by the top bits of the hash code of a pair.
+     */
+    private final Segment<L, R>[] segments;
+    /**
+     * The right shift to get the segment index from a hash code.
+     */
+    private final int segmentShift;
+    /**
+     * The queue on which the entries of collected pairs are placed.
+     */
+    private final ReferenceQueue<ImmutablePair<L, R>> queue;
+
+    /**
+     * Create a new PairInterner with the default concurrency level.
+     */
+    public PairInterner() {
+        this(DEFAULT_CONCURRENCY_LEVEL);
+    }
+
+    /**
+     * Create a new PairInterner.
+     *
+     * @param concurrencyLevel The estimated number of concurrently interning threads, used to size the number of segments.
+     *
+     * @throws IllegalArgumentException When the concurrency level is not positive.
+     */
+    @SuppressWarnings("unchecked")
+    public PairInterner(int concurrencyLevel) throws IllegalArgumentException {
+        if (concurrencyLevel < 1) {
+            throw new IllegalArgumentException("Concurrency level " + concurrencyLevel + " is not valid, the minimum is 1");
+        }
+        int count = 1;
+        int bits = 0;
+        while (count < concurrencyLevel && count < MAXIMUM_CONCURRENCY_LEVEL) {
+            count <<= 1;
+            bits++;
+        }
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment<L, R>();
+        }
+        this.segmentShift = 32 - bits;
+        this.queue = new ReferenceQueue<ImmutablePair<L, R>>();
+    }
+
+    /**
+     * Get the canonical instance for a pair of values, creating it if there is none.
+     *
+     * @param left  The left-hand value.
+     * @param right The right-hand value.
+     *
+     * @return The canonical instance.
+     *
+     * @throws IllegalArgumentException When one of the values is null.
+     */
+    public ImmutablePair<L, R> intern(L left, R right) throws IllegalArgumentException {
+        if (left == null) {
+            throw new IllegalArgumentException("No left value provided");
+        }
+        if (right == null) {
+            throw new IllegalArgumentException("No right value provided");
+        }
+        int hash = ImmutablePair.hash(left, right);
+        Segment<L, R> segment = segmentFor(hash);
+        ImmutablePair<L, R> pair = segment.get(hash, left, right);
+        if (pair == null) {
+            expungeCollectedEntries();
+            pair = segment.intern(hash, left, right, null, queue);
+        }
+        return pair;
+    }
+
+    /**
+     * Get the canonical instance for a pair, making the pair itself the canonical instance if there is none.
+     *
+     * @param pair The pair.
+     *
+     * @return The canonical instance.
+     *
+     * @throws IllegalArgumentException When the pair is null.
+     */
+    public ImmutablePair<L, R> intern(ImmutablePair<L, R> pair) throws IllegalArgumentException {
+        if (pair == null) {
+            throw new IllegalArgumentException("No pair provided");
+        }
+        L left = pair.getLeftValue();
+        R right = pair.getRightValue();
+        int hash = pair.hashCode();
+        Segment<L, R> segment = segmentFor(hash);
+        ImmutablePair<L, R> canonical = segment.get(hash, left, right);
+        if (canonical == null) {
+            expungeCollectedEntries();
+            canonical = segment.intern(hash, left, right, pair, queue);
+        }
+        return canonical;
+    }
+
+    /**
+     * Get the number of interned pairs, including pairs that have been collected but not yet removed.
+     *
+     * @return The number of interned pairs.
+     */
+    public int size() {
+        expungeCollectedEntries();
+        int size = 0;
+        for (Segment<L, R> segment : segments) {
+            size += segment.count;
+        }
+        return size;
+    }
+
+    /**
+     * Get the segment for a hash code.
+     *
+     * @param hash The hash code.
+     *
+     * @return The segment.
+     */
+    private Segment<L, R> segmentFor(int hash) {
+        return segmentShift == 32 ? segments[0] : segments[hash >>> segmentShift];
+    }
+
+    /**
+     * Remove the entries of all pairs that have been garbage collected.
+     */
+    @SuppressWarnings("unchecked")
+    private void expungeCollectedEntries() {
+        Entry<L, R> entry;
+        while ((entry = (Entry<L, R>) queue.poll()) != null) {
+            segmentFor(entry.hash).remove(entry);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("PairInterner [");
+        sb.append("segments: ").append(segments.length).append(", ");
+        sb.append("size: ").append(size());
+        sb.append("]");
+        return sb.toString();
+    }
+
+    /**
+     * Hash chain entry, weakly referencing an interned pair.
+     *
+     * @param <L> The type of the left-hand value.
+     * @param <R> The type of the right-hand value.
+     */
+    private static final class Entry<L, R> extends WeakReference<ImmutablePair<L, R>> {
+        /**
+         * The hash code of the pair.
+         */
+        private final int hash;
+        /**
+         * The next entry in the chain.
+         */
+        private volatile Entry<L, R> next;
+
+        /**
+         * Create a new Entry.
+         *
+         * @param pair  The pair.
+         * @param hash  The hash code of the pair.
+         * @param next  The next entry in the chain.
+         * @param queue The queue to register the entry with.
+         */
+        private Entry(ImmutablePair<L, R> pair, int hash, Entry<L, R> next, ReferenceQueue<ImmutablePair<L, R>> queue) {
+            super(pair, queue);
+            this.hash = hash;
+            this.next = next;
+        }
+    }
+
+    /**
+     * Independently locked part of the table.
+     *
+     * <p>
+     * Modifications are made while holding the segment lock and published by the volatile write of
+     * {@link Segment#count}; lookups read the count first and then traverse the chains without locking.
+     * </p>
+     *
+     * @param <L> The type of the left-hand value.
+     * @param <R> The type of the right-hand value.
+     */
+    private static final class Segment<L, R> {
+        /**
+         * The initial number of hash chains.
+         */
+        private static final int INITIAL_CAPACITY = 16;
+        /**
+         * The maximum number of hash chains.
+         */
+        private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+        /**
+         * The hash chains.
+         */
+        private volatile Entry<L, R>[] table;
+        /**
+         * The number of entries.
+         */
+        private volatile int count;
+
+        /**
+         * Create a new, empty, Segment.
+         */
+        @SuppressWarnings("unchecked")
+        private Segment() {
+            table = new Entry[INITIAL_CAPACITY];
+        }
+
+        /**
+         * Look up an interned pair without locking.
+         *
+         * @param hash  The hash code of the pair.
+         * @param left  The left-hand value.
+         * @param right The right-hand value.
+         *
+         * @return The interned pair or <code>null</code> if it was not found.
+         */
+        private ImmutablePair<L, R> get(int hash, Object left, Object right) {
+            if (count != 0) {
+                Entry<L, R>[] tab = table;
+                for (Entry<L, R> e = tab[hash & (tab.length - 1)]; e != null; e = e.next) {
+                    if (e.hash == hash) {
+                        ImmutablePair<L, R> pair = e.get();
+                        if (pair != null && pair.getLeftValue().equals(left) && pair.getRightValue().equals(right)) {
+                            return pair;
+                        }
+                    }
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Intern a pair while holding the segment lock.
+         *
+         * @param hash      The hash code of the pair.
+         * @param left      The left-hand value.
+         * @param right     The right-hand value.
+         * @param candidate The instance to intern if there is none, or <code>null</code> to create a new instance.
+         * @param queue     The queue to register new entries with.
+         *
+         * @return The canonical instance.
+         */
+        private synchronized ImmutablePair<L, R> intern(int hash, L left, R right, ImmutablePair<L, R> candidate,
+                                                        ReferenceQueue<ImmutablePair<L, R>> queue) {
+            ImmutablePair<L, R> pair = get(hash, left, right);
+            if (pair == null) {
+                if (count >= table.length - (table.length >> 2) && table.length < MAXIMUM_CAPACITY) {
+                    rehash(queue);
+                }
+                pair = candidate != null ? candidate : new ImmutablePair<L, R>(left, right);
+                Entry<L, R>[] tab = table;
+                int index = hash & (tab.length - 1);
+                tab[index] = new Entry<L, R>(pair, hash, tab[index], queue);
+                count = count + 1;
+            }
+            return pair;
+        }
+
+        /**
+         * Remove an entry of a collected pair.
+         *
+         * @param entry The entry.
+         */
+        private synchronized void remove(Entry<L, R> entry) {
+            Entry<L, R>[] tab = table;
+            int index = entry.hash & (tab.length - 1);
+            Entry<L, R> previous = null;
+            for (Entry<L, R> e = tab[index]; e != null; previous = e, e = e.next) {
+                if (e == entry) {
+                    if (previous == null) {
+                        tab[index] = e.next;
+                    } else {
+                        previous.next = e.next;
+                    }
+                    count = count - 1;
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Double the number of hash chains, dropping the entries of collected pairs.
+         *
+         * <p>
+         * New entries are created so that concurrent readers can keep traversing the old chains.
+         * </p>
+         *
+         * @param queue The queue to register the new entries with.
+         */
+        @SuppressWarnings("unchecked")
+        private void rehash(ReferenceQueue<ImmutablePair<L, R>> queue) {
+            Entry<L, R>[] oldTable = table;
+            Entry<L, R>[] newTable = new Entry[oldTable.length << 1];
+            int mask = newTable.length - 1;
+            int live = 0;
+            for (Entry<L, R> head : oldTable) {
+                for (Entry<L, R> e = head; e != null; e = e.next) {
+                    ImmutablePair<L, R> pair = e.get();
+                    if (pair != null) {
+                        int index = e.hash & mask;
+                        newTable[index] = new Entry<L, R>(pair, e.hash, newTable[index], queue);
+                        live++;
+                    }
+                }
+            }
+            table = newTable;
+            count = live;
+        }
+    }
+}
@@ -0,0 +1,366 @@
+package nl.salp.util.collection;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Columnar (structure-of-arrays) list of pairs.
+ *
+ * <p>
+ * The left-hand and right-hand values are stored in two separate arrays instead of as a list of {@link ImmutablePair}
+ * instances, saving the object header and reference per entry and keeping scans over a single column sequential.
+ * {@link ImmutablePair} instances are only created when explicitly requested via {@link PairList#get(int)} or
+ * {@link PairList#toPairs()}.
+ * </p>
+ *
+ * <p>
+ * Values can not be null. This class is not thread-safe.
+ * </p>
+ *
+ * @param <L> The type of the left-hand values.
+ * @param <R> The type of the right-hand values.
+ * @see LongPairList
+ */
+public class PairList<L, R> {
+    /**
+     * The default initial capacity.
+     */
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * The left-hand values.
+     */
+    Object[] lefts;
+    /**
+     * The right-hand values.
+     */
+    Object[] rights;
+    /**
+     * The number of pairs in the list.
+     */
+    int size;
+
+    /**
+     * Create a new PairList with the default capacity.
+     */
+    public PairList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Create a new PairList with an initial capacity.
+     *
+     * @param capacity The initial capacity.
+     *
+     * @throws IllegalArgumentException When the capacity is negative.
+     */
+    public PairList(int capacity) throws IllegalArgumentException {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity " + capacity + " is not valid, the minimum is 0");
+        }
+        lefts = new Object[capacity];
+        rights = new Object[capacity];
+    }
+
+    /**
+     * Add a pair of values.
+     *
+     * @param left  The left-hand value.
+     * @param right The right-hand value.
+     *
+     * @throws IllegalArgumentException When one of the values is null.
+     */
+    public void add(L left, R right) throws IllegalArgumentException {
+        checkValues(left, right);
+        ensureCapacity(size + 1);
+        lefts[size] = left;
+        rights[size] = right;
+        size++;
+    }
+
+    /**
+     * Add the values of a pair.
+     *
+     * @param pair The pair.
+     *
+     * @throws IllegalArgumentException When the pair is null.
+     */
+    public void add(ImmutablePair<? extends L, ? extends R> pair) throws IllegalArgumentException {
+        if (pair == null) {
+            throw new IllegalArgumentException("No pair provided");
+        }
+        add(pair.getLeftValue(), pair.getRightValue());
+    }
+
+    /**
+     * Add all pairs from another list.
+     *
+     * @param other The list to add the pairs of.
+     *
+     * @throws IllegalArgumentException When the list is null.
+     */
+    public void addAll(PairList<? extends L, ? extends R> other) throws IllegalArgumentException {
+        if (other == null) {
+            throw new IllegalArgumentException("No pair list provided");
+        }
+        int count = other.size;
+        ensureCapacity(size + count);
+        System.arraycopy(other.lefts, 0, lefts, size, count);
+        System.arraycopy(other.rights, 0, rights, size, count);
+        size += count;
+    }
+
+    /**
+     * Add the values of two equally sized arrays as pairs.
+     *
+     * @param leftValues  The left-hand values.
+     * @param rightValues The right-hand values.
+     *
+     * @throws IllegalArgumentException When an array is null, the arrays differ in length or contain a null value.
+     */
+    public void addAll(L[] leftValues, R[] rightValues) throws IllegalArgumentException {
+        if (leftValues == null || rightValues == null) {
+            throw new IllegalArgumentException("No values provided");
+        }
+        if (leftValues.length != rightValues.length) {
+            throw new IllegalArgumentException("Different number of left (" + leftValues.length + ") and right ("
+                    + rightValues.length + ") values provided");
+        }
+        for (int i = 0; i < leftValues.length; i++) {
+            checkValues(leftValues[i], rightValues[i]);
+        }
+        int count = leftValues.length;
+        ensureCapacity(size + count);
+        System.arraycopy(leftValues, 0, lefts, size, count);
+        System.arraycopy(rightValues, 0, rights, size, count);
+        size += count;
+    }
+
+    /**
+     * Add the values of a collection of pairs.
+     *
+     * @param pairs The pairs.
+     *
+     * @throws IllegalArgumentException When the collection is null or contains a null pair.
+     */
+    public void addAll(Collection<? extends ImmutablePair<? extends L, ? extends R>> pairs) throws IllegalArgumentException {
+        if (pairs == null) {
+            throw new IllegalArgumentException("No pairs provided");
+        }
+        ensureCapacity(size + pairs.size());
+        for (ImmutablePair<? extends L, ? extends R> pair : pairs) {
+            add(pair);
+        }
+    }
+
+    /**
+     * Get the left-hand value at an index.
+     *
+     * @param index The index.
+     *
+     * @return The value.
+     *
+     * @throws IndexOutOfBoundsException When the index is not valid.
+     */
+    @SuppressWarnings("unchecked")
+    public L getLeft(int index) throws IndexOutOfBoundsException {
+        checkIndex(index);
+        return (L) lefts[index];
+    }
+
+    /**
+     * Get the right-hand value at an index.
+     *
+     * @param index The index.
+     *
+     * @return The value.
+     *
+     * @throws IndexOutOfBoundsException When the index is not valid.
+     */
+    @SuppressWarnings("unchecked")
+    public R getRight(int index) throws IndexOutOfBoundsException {
+        checkIndex(index);
+        return (R) rights[index];
+    }
+
+    /**
+     * Get the pair at an index, creating a new {@link ImmutablePair} instance.
+     *
+     * @param index The index.
+     *
+     * @return The pair.
+     *
+     * @throws IndexOutOfBoundsException When the index is not valid.
+     */
+    public ImmutablePair<L, R> get(int index) throws IndexOutOfBoundsException {
+        return new ImmutablePair<L, R>(getLeft(index), getRight(index));
+    }
+
+    /**
+     * Get the number of pairs.
+     *
+     * @return The number of pairs.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Check if the list is empty.
+     *
+     * @return <code>true</code> if the list contains no pairs.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Remove all pairs, keeping the current capacity.
+     */
+    public void clear() {
+        Arrays.fill(lefts, 0, size, null);
+        Arrays.fill(rights, 0, size, null);
+        size = 0;
+    }
+
+    /**
+     * Sort the pairs by their left-hand values. The sort is stable.
+     *
+     * @param comparator The comparator for the left-hand values.
+     *
+     * @throws IllegalArgumentException When the comparator is null.
+     */
+    @SuppressWarnings("unchecked")
+    public void sortByLeft(Comparator<? super L> comparator) throws IllegalArgumentException {
+        if (comparator == null) {
+            throw new IllegalArgumentException("No comparator provided");
+        }
+        PairSorter.sort(lefts, rights, Arrays.copyOf(lefts, size), Arrays.copyOf(rights, size), 0, size,
+                (Comparator<Object>) comparator);
+    }
+
+    /**
+     * Sort the pairs by their right-hand values. The sort is stable.
+     *
+     * @param comparator The comparator for the right-hand values.
+     *
+     * @throws IllegalArgumentException When the comparator is null.
+     */
+    @SuppressWarnings("unchecked")
+    public void sortByRight(Comparator<? super R> comparator) throws IllegalArgumentException {
+        if (comparator == null) {
+            throw new IllegalArgumentException("No comparator provided");
+        }
+        PairSorter.sort(rights, lefts, Arrays.copyOf(rights, size), Arrays.copyOf(lefts, size), 0, size,
+                (Comparator<Object>) comparator);
+    }
+
+    /**
+     * Pass all pairs, in order, to a consumer.
+     *
+     * @param consumer The consumer.
+     *
+     * @throws IllegalArgumentException When the consumer is null.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(PairConsumer<? super L, ? super R> consumer) throws IllegalArgumentException {
+        if (consumer == null) {
+            throw new IllegalArgumentException("No consumer provided");
+        }
+        Object[] l = lefts;
+        Object[] r = rights;
+        for (int i = 0, n = size; i < n; i++) {
+            consumer.accept((L) l[i], (R) r[i]);
+        }
+    }
+
+    /**
+     * Create a list with an {@link ImmutablePair} instance for every pair.
+     *
+     * @return The pairs.
+     */
+    public List<ImmutablePair<L, R>> toPairs() {
+        List<ImmutablePair<L, R>> pairs = new ArrayList<ImmutablePair<L, R>>(size);
+        for (int i = 0; i < size; i++) {
+            pairs.add(get(i));
+        }
+        return pairs;
+    }
+
+    /**
+     * Grow the columns if needed.
+     *
+     * @param capacity The minimum required capacity.
+     */
+    private void ensureCapacity(int capacity) {
+        if (capacity > lefts.length) {
+            int newCapacity = Math.max(capacity, lefts.length + (lefts.length >> 1) + 1);
+            lefts = Arrays.copyOf(lefts, newCapacity);
+            rights = Arrays.copyOf(rights, newCapacity);
+        }
+    }
+
+    /**
+     * Check if an index is valid for the current content.
+     *
+     * @param index The index.
+     *
+     * @throws IndexOutOfBoundsException When the index is not valid.
+     */
+    private void checkIndex(int index) throws IndexOutOfBoundsException {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " is not valid for size " + size);
+        }
+    }
+
+    /**
+     * Check that both values are provided.
+     *
+     * @param left  The left-hand value.
+     * @param right The right-hand value.
+     *
+     * @throws IllegalArgumentException When one of the values is null.
+     */
+    private static void checkValues(Object left, Object right) throws IllegalArgumentException {
+        if (left == null) {
+            throw new IllegalArgumentException("No left value provided");
+        }
+        if (right == null) {
+            throw new IllegalArgumentException("No right value provided");
+        }
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        boolean equals = false;
+        if (obj != null && obj instanceof PairList) {
+            PairList other = (PairList) obj;
+            equals = size == other.size;
+            for (int i = 0; equals && i < size; i++) {
+                equals = lefts[i].equals(other.lefts[i]) && rights[i].equals(other.rights[i]);
+            }
+        }
+        return equals;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (int i = 0; i < size; i++) {
+            hash = 31 * hash + ImmutablePair.hash(lefts[i], rights[i]);
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("PairList [");
+        sb.append("size: ").append(size);
+        sb.append("]");
+        return sb.toString();
+    }
+}
@@ -0,0 +1,287 @@
+package nl.salp.util.collection;
+
+import java.util.Comparator;
+
+/**
+ * Stable merge sort on two parallel columns, ordering by the first (key) column and moving the second column along.
+ *
+ * <p>
+ * The sort methods take an auxiliary copy of both columns, which must hold the same content as the columns for the
+ * range being sorted; both the columns and the auxiliary arrays are used as scratch space.
+ * </p>
+ */
+final class PairSorter {
+    /**
+     * Ranges smaller than this are sorted with insertion sort.
+     */
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+
+    /**
+     * Utility class, no instances.
+     */
+    private PairSorter() {
+    }
+
+    /**
+     * Sort a range of two object columns by the key column.
+     *
+     * @param keys       The key column, sorted on return.
+     * @param values     The value column, permuted along with the keys.
+     * @param auxKeys    Copy of the key column.
+     * @param auxValues  Copy of the value column.
+     * @param from       The first index to sort (inclusive).
+     * @param to         The last index to sort (exclusive).
+     * @param comparator The comparator for the keys.
+     */
+    static void sort(Object[] keys, Object[] values, Object[] auxKeys, Object[] auxValues, int from, int to,
+                     Comparator<Object> comparator) {
+        int length = to - from;
+        if (length < INSERTION_SORT_THRESHOLD) {
+            for (int i = from + 1; i < to; i++) {
+                Object key = keys[i];
+                Object value = values[i];
+                int j = i - 1;
+                while (j >= from && comparator.compare(keys[j], key) > 0) {
+                    keys[j + 1] = keys[j];
+                    values[j + 1] = values[j];
+                    j--;
+                }
+                keys[j + 1] = key;
+                values[j + 1] = value;
+            }
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        sort(auxKeys, auxValues, keys, values, from, mid, comparator);
+        sort(auxKeys, auxValues, keys, values, mid, to, comparator);
+        merge(auxKeys, auxValues, keys, values, from, mid, to, comparator);
+    }
+
+    /**
+     * Merge two adjacent sorted runs of object columns into the destination columns.
+     *
+     * @param srcKeys    The source key column.
+     * @param srcValues  The source value column.
+     * @param dstKeys    The destination key column.
+     * @param dstValues  The destination value column.
+     * @param from       The start of the first run (inclusive).
+     * @param mid        The end of the first run and start of the second run.
+     * @param to         The end of the second run (exclusive).
+     * @param comparator The comparator for the keys.
+     */
+    static void merge(Object[] srcKeys, Object[] srcValues, Object[] dstKeys, Object[] dstValues, int from, int mid, int to,
+                      Comparator<Object> comparator) {
+        if (mid == from || mid == to || comparator.compare(srcKeys[mid - 1], srcKeys[mid]) <= 0) {
+            System.arraycopy(srcKeys, from, dstKeys, from, to - from);
+            System.arraycopy(srcValues, from, dstValues, from, to - from);
+            return;
+        }
+        merge(srcKeys, srcValues, dstKeys, dstValues, from, mid, mid, to, from, comparator);
+    }
+
+    /**
+     * Merge two sorted runs of object columns into the destination columns, taking from the first run on equal keys.
+     *
+     * @param srcKeys    The source key column.
+     * @param srcValues  The source value column.
+     * @param dstKeys    The destination key column.
+     * @param dstValues  The destination value column.
+     * @param p          The start of the first run (inclusive).
+     * @param pEnd       The end of the first run (exclusive).
+     * @param q          The start of the second run (inclusive).
+     * @param qEnd       The end of the second run (exclusive).
+     * @param d          The destination index of the first merged entry.
+     * @param comparator The comparator for the keys.
+     */
+    static void merge(Object[] srcKeys, Object[] srcValues, Object[] dstKeys, Object[] dstValues, int p, int pEnd, int q,
+                      int qEnd, int d, Comparator<Object> comparator) {
+        while (p < pEnd && q < qEnd) {
+            if (comparator.compare(srcKeys[p], srcKeys[q]) <= 0) {
+                dstKeys[d] = srcKeys[p];
+                dstValues[d++] = srcValues[p++];
+            } else {
+                dstKeys[d] = srcKeys[q];
+                dstValues[d++] = srcValues[q++];
+            }
+        }
+        System.arraycopy(srcKeys, p, dstKeys, d, pEnd - p);
+        System.arraycopy(srcValues, p, dstValues, d, pEnd - p);
+        d += pEnd - p;
+        System.arraycopy(srcKeys, q, dstKeys, d, qEnd - q);
+        System.arraycopy(srcValues, q, dstValues, d, qEnd - q);
+    }
+
+    /**
+     * Find the first index in a sorted range of which the key is not less than a key.
+     *
+     * @param keys       The key column.
+     * @param from       The start of the range (inclusive).
+     * @param to         The end of the range (exclusive).
+     * @param key        The key to search for.
+     * @param comparator The comparator for the keys.
+     *
+     * @return The index, <code>to</code> if all keys are less.
+     */
+    static int lowerBound(Object[] keys, int from, int to, Object key, Comparator<Object> comparator) {
+        while (from < to) {
+            int mid = (from + to) >>> 1;
+            if (comparator.compare(keys[mid], key) < 0) {
+                from = mid + 1;
+            } else {
+                to = mid;
+            }
+        }
+        return from;
+    }
+
+    /**
+     * Find the first index in a sorted range of which the key is greater than a key.
+     *
+     * @param keys       The key column.
+     * @param from       The start of the range (inclusive).
+     * @param to         The end of the range (exclusive).
+     * @param key        The key to search for.
+     * @param comparator The comparator for the keys.
+     *
+     * @return The index, <code>to</code> if no key is greater.
+     */
+    static int upperBound(Object[] keys, int from, int to, Object key, Comparator<Object> comparator) {
+        while (from < to) {
+            int mid = (from + to) >>> 1;
+            if (comparator.compare(keys[mid], key) <= 0) {
+                from = mid + 1;
+            } else {
+                to = mid;
+            }
+        }
+        return from;
+    }
+
+    /**
+     * Sort a range of two long columns by the key column.
+     *
+     * @param keys      The key column, sorted on return.
+     * @param values    The value column, permuted along with the keys.
+     * @param auxKeys   Copy of the key column.
+     * @param auxValues Copy of the value column.
+     * @param from      The first index to sort (inclusive).
+     * @param to        The last index to sort (exclusive).
+     */
+    static void sort(long[] keys, long[] values, long[] auxKeys, long[] auxValues, int from, int to) {
+        int length = to - from;
+        if (length < INSERTION_SORT_THRESHOLD) {
+            for (int i = from + 1; i < to; i++) {
+                long key = keys[i];
+                long value = values[i];
+                int j = i - 1;
+                while (j >= from && keys[j] > key) {
+                    keys[j + 1] = keys[j];
+                    values[j + 1] = values[j];
+                    j--;
+                }
+                keys[j + 1] = key;
+                values[j + 1] = value;
+            }
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        sort(auxKeys, auxValues, keys, values, from, mid);
+        sort(auxKeys, auxValues, keys, values, mid, to);
+        merge(auxKeys, auxValues, keys, values, from, mid, to);
+    }
+
+    /**
+     * Merge two adjacent sorted runs of long columns into the destination columns.
+     *
+     * @param srcKeys   The source key column.
+     * @param srcValues The source value column.
+     * @param dstKeys   The destination key column.
+     * @param dstValues The destination value column.
+     * @param from      The start of the first run (inclusive).
+     * @param mid       The end of the first run and start of the second run.
+     * @param to        The end of the second run (exclusive).
+     */
+    static void merge(long[] srcKeys, long[] srcValues, long[] dstKeys, long[] dstValues, int from, int mid, int to) {
+        if (mid == from || mid == to || srcKeys[mid - 1] <= srcKeys[mid]) {
+            System.arraycopy(srcKeys, from, dstKeys, from, to - from);
+            System.arraycopy(srcValues, from, dstValues, from, to - from);
+            return;
+        }
+        merge(srcKeys, srcValues, dstKeys, dstValues, from, mid, mid, to, from);
+    }
+
+    /**
+     * Merge two sorted runs of long columns into the destination columns, taking from the first run on equal keys.
+     *
+     * @param srcKeys   The source key column.
+     * @param srcValues The source value column.
+     * @param dstKeys   The destination key column.
+     * @param dstValues The destination value column.
+     * @param p         The start of the first run (inclusive).
+     * @param pEnd      The end of the first run (exclusive).
+     * @param q         The start of the second run (inclusive).
+     * @param qEnd      The end of the second run (exclusive).
+     * @param d         The destination index of the first merged entry.
+     */
+    static void merge(long[] srcKeys, long[] srcValues, long[] dstKeys, long[] dstValues, int p, int pEnd, int q, int qEnd,
+                      int d) {
+        while (p < pEnd && q < qEnd) {
+            if (srcKeys[p] <= srcKeys[q]) {
+                dstKeys[d] = srcKeys[p];
+                dstValues[d++] = srcValues[p++];
+            } else {
+                dstKeys[d] = srcKeys[q];
+                dstValues[d++] = srcValues[q++];
+            }
+        }
+        System.arraycopy(srcKeys, p, dstKeys, d, pEnd - p);
+        System.arraycopy(srcValues, p, dstValues, d, pEnd - p);
+        d += pEnd - p;
+        System.arraycopy(srcKeys, q, dstKeys, d, qEnd - q);
+        System.arraycopy(srcValues, q, dstValues, d, qEnd - q);
+    }
+
+    /**
+     * Find the first index in a sorted range of which the key is not less than a key.
+     *
+     * @param keys The key column.
+     * @param from The start of the range (inclusive).
+     * @param to   The end of the range (exclusive).
+     * @param key  The key to search for.
+     *
+     * @return The index, <code>to</code> if all keys are less.
+     */
+    static int lowerBound(long[] keys, int from, int to, long key) {
+        while (from < to) {
+            int mid = (from + to) >>> 1;
+            if (keys[mid] < key) {
+                from = mid + 1;
+            } else {
+                to = mid;
+            }
+        }
+        return from;
+    }
+
+    /**
+     * Find the first index in a sorted range of which the key is greater than a key.
+     *
+     * @param keys The key column.
+     * @param from The start of the range (inclusive).
+     * @param to   The end of the range (exclusive).
+     * @param key  The key to search for.
+     *
+     * @return The index, <code>to</code> if no key is greater.
+     */
+    static int upperBound(long[] keys, int from, int to, long key) {
+        while (from < to) {
+            int mid = (from + to) >>> 1;
+            if (keys[mid] <= key) {
+                from = mid + 1;
+            } else {
+                to = mid;
+            }
+        }
+        return from;
+    }
+}
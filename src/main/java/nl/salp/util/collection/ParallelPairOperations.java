@@ -0,0 +1,885 @@
+package nl.salp.util.collection;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Parallel sort, group-by and join operations on pair collections.
+ *
+ * <p>
+ * The work is split into independent tasks that are executed on a provided {@link ExecutorService}, joining all tasks
+ * of a phase before starting the next one:
+ * </p>
+ * <ul>
+ * <li>Sorting sorts one run per task and then merges the runs pairwise, splitting every merge into independent parts
+ * by binary search so that the last merge rounds are parallel as well.</li>
+ * <li>Grouping and joining first partition the entries by the (mixed) hash of their left-hand value, after which every
+ * partition is processed by a single task using a flat open-addressing table.</li>
+ * </ul>
+ *
+ * <p>
+ * The calling thread blocks until the operation is complete. The collections must not be modified during an operation.
+ * </p>
+ */
+public class ParallelPairOperations {
+    /**
+     * Collections smaller than this are processed on the calling thread.
+     */
+    private static final int SEQUENTIAL_THRESHOLD = 8192;
+    /**
+     * The minimum number of entries per merge part.
+     */
+    private static final int MIN_MERGE_SIZE = 4096;
+    /**
+     * The number of hash partitions per task, to even out skew between partitions.
+     */
+    private static final int PARTITIONS_PER_TASK = 4;
+
+    /**
+     * The executor to run the tasks on.
+     */
+    private final ExecutorService executor;
+    /**
+     * The number of tasks to split an operation into.
+     */
+    private final int parallelism;
+
+    /**
+     * Create a new ParallelPairOperations using one task per available processor.
+     *
+     * @param executor The executor to run the tasks on.
+     *
+     * @throws IllegalArgumentException When no executor was provided.
+     */
+    public ParallelPairOperations(ExecutorService executor) throws IllegalArgumentException {
+        this(executor, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Create a new ParallelPairOperations.
+     *
+     * @param executor    The executor to run the tasks on.
+     * @param parallelism The number of tasks to split an operation into, typically the number of threads of the executor.
+     *
+     * @throws IllegalArgumentException When no executor or an invalid parallelism was provided.
+     */
+    public ParallelPairOperations(ExecutorService executor, int parallelism) throws IllegalArgumentException {
+        if (executor == null) {
+            throw new IllegalArgumentException("No executor provided");
+        }
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism " + parallelism + " is not valid, the minimum is 1");
+        }
+        this.executor = executor;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Sort a list by its left-hand values. The sort is stable.
+     *
+     * @param list       The list to sort.
+     * @param comparator The comparator for the left-hand values.
+     * @param <L>        The type of the left-hand values.
+     * @param <R>        The type of the right-hand values.
+     *
+     * @throws IllegalArgumentException When the list or comparator is null.
+     */
+    @SuppressWarnings("unchecked")
+    public <L, R> void sortByLeft(PairList<L, R> list, Comparator<? super L> comparator) throws IllegalArgumentException {
+        checkArguments(list, comparator);
+        sort(new ObjectColumnSort(list.lefts, list.rights, list.size, (Comparator<Object>) comparator));
+    }
+
+    /**
+     * Sort a list by its right-hand values. The sort is stable.
+     *
+     * @param list       The list to sort.
+     * @param comparator The comparator for the right-hand values.
+     * @param <L>        The type of the left-hand values.
+     * @param <R>        The type of the right-hand values.
+     *
+     * @throws IllegalArgumentException When the list or comparator is null.
+     */
+    @SuppressWarnings("unchecked")
+    public <L, R> void sortByRight(PairList<L, R> list, Comparator<? super R> comparator) throws IllegalArgumentException {
+        checkArguments(list, comparator);
+        sort(new ObjectColumnSort(list.rights, list.lefts, list.size, (Comparator<Object>) comparator));
+    }
+
+    /**
+     * Sort a list by its left-hand values in ascending order. The sort is stable.
+     *
+     * @param list The list to sort.
+     *
+     * @throws IllegalArgumentException When the list is null.
+     */
+    public void sortByLeft(LongPairList list) throws IllegalArgumentException {
+        if (list == null) {
+            throw new IllegalArgumentException("No pair list provided");
+        }
+        sort(new LongColumnSort(list.lefts, list.rights, list.size));
+    }
+
+    /**
+     * Sort a list by its right-hand values in ascending order. The sort is stable.
+     *
+     * @param list The list to sort.
+     *
+     * @throws IllegalArgumentException When the list is null.
+     */
+    public void sortByRight(LongPairList list) throws IllegalArgumentException {
+        if (list == null) {
+            throw new IllegalArgumentException("No pair list provided");
+        }
+        sort(new LongColumnSort(list.rights, list.lefts, list.size));
+    }
+
+    /**
+     * Group the pairs of a list by their left-hand values, aggregating the right-hand values of each group.
+     *
+     * @param list       The list to group.
+     * @param aggregator The aggregator for the right-hand values.
+     * @param <L>        The type of the left-hand values.
+     * @param <R>        The type of the right-hand values.
+     * @param <A>        The type of the aggregate.
+     *
+     * @return A list with a single pair for each distinct left-hand value and its aggregate, in no particular order.
+     *
+     * @throws IllegalArgumentException When the list or aggregator is null.
+     */
+    @SuppressWarnings("unchecked")
+    public <L, R, A> PairList<L, A> groupByLeft(final PairList<L, R> list, final Aggregator<? super R, A> aggregator)
+            throws IllegalArgumentException {
+        checkArguments(list, aggregator);
+        final Partitioning partitioning = partition(list.lefts, list.size, partitionsFor(list.size));
+        final PairList<L, A>[] groups = new PairList[partitioning.count()];
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(groups.length);
+        for (int p = 0; p < groups.length; p++) {
+            final int partition = p;
+            tasks.add(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    groups[partition] = group(list, aggregator, partitioning, partition);
+                    return null;
+                }
+            });
+        }
+        execute(tasks);
+        return concat(groups);
+    }
+
+    /**
+     * Join two lists on their left-hand values (an inner equi-join).
+     *
+     * @param left  The left list.
+     * @param right The right list.
+     * @param <K>   The type of the left-hand values (the join key).
+     * @param <A>   The type of the right-hand values of the left list.
+     * @param <B>   The type of the right-hand values of the right list.
+     *
+     * @return A list with, for every combination of pairs with an equal key, the key and an {@link ImmutablePair} of
+     * both right-hand values, in no particular order.
+     *
+     * @throws IllegalArgumentException When one of the lists is null.
+     */
+    @SuppressWarnings("unchecked")
+    public <K, A, B> PairList<K, ImmutablePair<A, B>> join(final PairList<K, A> left, final PairList<K, B> right)
+            throws IllegalArgumentException {
+        checkArguments(left, right);
+        // Both sides need the same partitions to find the matching keys in the same partition.
+        int partitions = partitionsFor(Math.max(left.size, right.size));
+        final Partitioning leftPartitioning = partition(left.lefts, left.size, partitions);
+        final Partitioning rightPartitioning = partition(right.lefts, right.size, partitions);
+        final int[] chain = new int[right.size];
+        final PairList<K, ImmutablePair<A, B>>[] joined = new PairList[leftPartitioning.count()];
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(joined.length);
+        for (int p = 0; p < joined.length; p++) {
+            final int partition = p;
+            tasks.add(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    joined[partition] = join(left, leftPartitioning, right, rightPartitioning, chain, partition);
+                    return null;
+                }
+            });
+        }
+        execute(tasks);
+        return concat(joined);
+    }
+
+    /**
+     * Run a parallel merge sort.
+     *
+     * @param sort The columns to sort.
+     */
+    private void sort(final ColumnSort sort) {
+        final int size = sort.size;
+        int runs = Math.min(parallelism, size / (SEQUENTIAL_THRESHOLD / 2));
+        if (size < SEQUENTIAL_THRESHOLD || runs < 2) {
+            sort.sortRun(0, size);
+            return;
+        }
+        int[] bounds = new int[runs + 1];
+        for (int i = 0; i <= runs; i++) {
+            bounds[i] = (int) ((long) size * i / runs);
+        }
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(runs);
+        for (int i = 0; i < runs; i++) {
+            final int from = bounds[i];
+            final int to = bounds[i + 1];
+            tasks.add(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    sort.sortRun(from, to);
+                    return null;
+                }
+            });
+        }
+        execute(tasks);
+
+        boolean inAux = false;
+        while (runs > 1) {
+            tasks = new ArrayList<Callable<Void>>();
+            int merges = runs / 2;
+            int partsPerMerge = Math.max(1, parallelism / merges);
+            int[] merged = new int[(runs + 1) / 2 + 1];
+            for (int i = 0; i < merges; i++) {
+                int from = bounds[2 * i];
+                int mid = bounds[2 * i + 1];
+                int to = bounds[2 * i + 2];
+                addMergeTasks(tasks, sort, inAux, from, mid, mid, to, from, partsPerMerge);
+                merged[i] = from;
+            }
+            if (runs % 2 == 1) {
+                final boolean fromAux = inAux;
+                final int from = bounds[runs - 1];
+                final int to = bounds[runs];
+                tasks.add(new Callable<Void>() {
+                    @Override
+                    public Void call() {
+                        sort.copy(fromAux, from, to);
+                        return null;
+                    }
+                });
+                merged[merges] = from;
+            }
+            runs = (runs + 1) / 2;
+            merged[runs] = size;
+            bounds = merged;
+            execute(tasks);
+            inAux = !inAux;
+        }
+        if (inAux) {
+            sort.copy(true, 0, size);
+        }
+    }
+
+    /**
+     * Split the merge of two runs into independent parts and add a task for each of them.
+     *
+     * @param tasks The tasks to add to.
+     * @param sort  The columns being sorted.
+     * @param inAux <code>true</code> if the runs are in the auxiliary columns and are to be merged into the list columns.
+     * @param p     The start of the first run (inclusive).
+     * @param pEnd  The end of the first run (exclusive).
+     * @param q     The start of the second run (inclusive).
+     * @param qEnd  The end of the second run (exclusive).
+     * @param d     The destination index of the first merged entry.
+     * @param parts The number of parts to split the merge into.
+     */
+    private static void addMergeTasks(List<Callable<Void>> tasks, final ColumnSort sort, final boolean inAux, final int p,
+                                      final int pEnd, final int q, final int qEnd, final int d, int parts) {
+        int firstLength = pEnd - p;
+        int secondLength = qEnd - q;
+        if (parts < 2 || firstLength + secondLength < 2 * MIN_MERGE_SIZE) {
+            tasks.add(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    sort.merge(inAux, p, pEnd, q, qEnd, d);
+                    return null;
+                }
+            });
+            return;
+        }
+        int pSplit;
+        int qSplit;
+        if (firstLength >= secondLength) {
+            pSplit = (p + pEnd) >>> 1;
+            qSplit = sort.lowerBound(inAux, q, qEnd, pSplit);
+        } else {
+            qSplit = (q + qEnd) >>> 1;
+            pSplit = sort.upperBound(inAux, p, pEnd, qSplit);
+        }
+        addMergeTasks(tasks, sort, inAux, p, pSplit, q, qSplit, d, parts / 2);
+        addMergeTasks(tasks, sort, inAux, pSplit, pEnd, qSplit, qEnd, d + (pSplit - p) + (qSplit - q), parts - parts / 2);
+    }
+
+    /**
+     * Get the number of hash partitions for a number of entries.
+     *
+     * @param size The number of entries.
+     *
+     * @return The number of partitions, a power of two.
+     */
+    private int partitionsFor(int size) {
+        int tasks = size < SEQUENTIAL_THRESHOLD ? 1 : parallelism;
+        int partitions = 1;
+        while (partitions < tasks * PARTITIONS_PER_TASK) {
+            partitions <<= 1;
+        }
+        return partitions;
+    }
+
+    /**
+     * Partition the entries of a column by the hash of their values.
+     *
+     * @param keys       The column.
+     * @param size       The number of entries in the column.
+     * @param partitions The number of partitions, a power of two.
+     *
+     * @return The partitioning.
+     */
+    private Partitioning partition(final Object[] keys, final int size, int partitions) {
+        int tasks = size < SEQUENTIAL_THRESHOLD ? 1 : parallelism;
+        final Partitioning partitioning = new Partitioning(size, partitions);
+        final int[][] cursors = new int[tasks][partitions];
+        final int[] chunks = new int[tasks + 1];
+        for (int i = 0; i <= tasks; i++) {
+            chunks[i] = (int) ((long) size * i / tasks);
+        }
+
+        List<Callable<Void>> histogramTasks = new ArrayList<Callable<Void>>(tasks);
+        for (int c = 0; c < tasks; c++) {
+            final int chunk = c;
+            histogramTasks.add(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    int[] counts = cursors[chunk];
+                    for (int i = chunks[chunk]; i < chunks[chunk + 1]; i++) {
+                        int hash = mix(keys[i].hashCode());
+                        partitioning.hashes[i] = hash;
+                        counts[partitioning.partitionOf(hash)]++;
+                    }
+                    return null;
+                }
+            });
+        }
+        execute(histogramTasks);
+
+        int position = 0;
+        for (int p = 0; p < partitions; p++) {
+            partitioning.bounds[p] = position;
+            for (int c = 0; c < tasks; c++) {
+                int count = cursors[c][p];
+                cursors[c][p] = position;
+                position += count;
+            }
+        }
+        partitioning.bounds[partitions] = position;
+
+        List<Callable<Void>> scatterTasks = new ArrayList<Callable<Void>>(tasks);
+        for (int c = 0; c < tasks; c++) {
+            final int chunk = c;
+            scatterTasks.add(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    int[] cursor = cursors[chunk];
+                    for (int i = chunks[chunk]; i < chunks[chunk + 1]; i++) {
+                        partitioning.order[cursor[partitioning.partitionOf(partitioning.hashes[i])]++] = i;
+                    }
+                    return null;
+                }
+            });
+        }
+        execute(scatterTasks);
+        return partitioning;
+    }
+
+    /**
+     * Group a single partition of a list.
+     *
+     * @param list         The list.
+     * @param aggregator   The aggregator for the right-hand values.
+     * @param partitioning The partitioning of the left-hand values of the list.
+     * @param partition    The partition to group.
+     * @param <L>          The type of the left-hand values.
+     * @param <R>          The type of the right-hand values.
+     * @param <A>          The type of the aggregate.
+     *
+     * @return The groups of the partition.
+     */
+    @SuppressWarnings("unchecked")
+    private static <L, R, A> PairList<L, A> group(PairList<L, R> list, Aggregator<? super R, A> aggregator,
+                                                  Partitioning partitioning, int partition) {
+        int from = partitioning.bounds[partition];
+        int to = partitioning.bounds[partition + 1];
+        int mask = tableSize(to - from) - 1;
+        int[] table = new int[mask + 1];
+        Arrays.fill(table, -1);
+        PairList<L, A> groups = new PairList<L, A>();
+        Object[] keys = list.lefts;
+        Object[] values = list.rights;
+        for (int k = from; k < to; k++) {
+            int index = partitioning.order[k];
+            int hash = partitioning.hashes[index];
+            Object key = keys[index];
+            int slot = hash & mask;
+            int group;
+            while ((group = table[slot]) > -1 && !key.equals(groups.lefts[group])) {
+                slot = (slot + 1) & mask;
+            }
+            if (group < 0) {
+                group = groups.size;
+                table[slot] = group;
+                groups.add((L) key, aggregator.accumulate(aggregator.create(), (R) values[index]));
+            } else {
+                groups.rights[group] = aggregator.accumulate((A) groups.rights[group], (R) values[index]);
+            }
+        }
+        return groups;
+    }
+
+    /**
+     * Join a single partition of two lists.
+     *
+     * @param left              The left list.
+     * @param leftPartitioning  The partitioning of the left list.
+     * @param right             The right list, used as build side.
+     * @param rightPartitioning The partitioning of the right list.
+     * @param chain             Shared array linking the indexes of right entries with the same key.
+     * @param partition         The partition to join.
+     * @param <K>               The type of the join key.
+     * @param <A>               The type of the right-hand values of the left list.
+     * @param <B>               The type of the right-hand values of the right list.
+     *
+     * @return The joined pairs of the partition.
+     */
+    @SuppressWarnings("unchecked")
+    private static <K, A, B> PairList<K, ImmutablePair<A, B>> join(PairList<K, A> left, Partitioning leftPartitioning,
+                                                                   PairList<K, B> right, Partitioning rightPartitioning,
+                                                                   int[] chain, int partition) {
+        int from = rightPartitioning.bounds[partition];
+        int to = rightPartitioning.bounds[partition + 1];
+        int mask = tableSize(to - from) - 1;
+        int[] table = new int[mask + 1];
+        Arrays.fill(table, -1);
+        Object[] rightKeys = right.lefts;
+        // Build in reverse, so that every chain links the entries in their original order.
+        for (int k = to - 1; k >= from; k--) {
+            int index = rightPartitioning.order[k];
+            Object key = rightKeys[index];
+            int slot = rightPartitioning.hashes[index] & mask;
+            int head;
+            while ((head = table[slot]) > -1 && !key.equals(rightKeys[head])) {
+                slot = (slot + 1) & mask;
+            }
+            chain[index] = head;
+            table[slot] = index;
+        }
+
+        PairList<K, ImmutablePair<A, B>> joined = new PairList<K, ImmutablePair<A, B>>();
+        Object[] leftKeys = left.lefts;
+        for (int k = leftPartitioning.bounds[partition]; k < leftPartitioning.bounds[partition + 1]; k++) {
+            int index = leftPartitioning.order[k];
+            Object key = leftKeys[index];
+            int slot = leftPartitioning.hashes[index] & mask;
+            int match;
+            while ((match = table[slot]) > -1 && !key.equals(rightKeys[match])) {
+                slot = (slot + 1) & mask;
+            }
+            for (; match > -1; match = chain[match]) {
+                joined.add((K) key, new ImmutablePair<A, B>((A) left.rights[index], (B) right.rights[match]));
+            }
+        }
+        return joined;
+    }
+
+    /**
+     * Concatenate lists.
+     *
+     * @param lists The lists.
+     * @param <L>   The type of the left-hand values.
+     * @param <R>   The type of the right-hand values.
+     *
+     * @return The concatenated list.
+     */
+    private static <L, R> PairList<L, R> concat(PairList<L, R>[] lists) {
+        int size = 0;
+        for (PairList<L, R> list : lists) {
+            size += list.size;
+        }
+        PairList<L, R> result = new PairList<L, R>(size);
+        for (PairList<L, R> list : lists) {
+            result.addAll(list);
+        }
+        return result;
+    }
+
+    /**
+     * Execute tasks and wait for all of them to complete.
+     *
+     * @param tasks The tasks.
+     *
+     * @throws IllegalStateException When interrupted while waiting or a task failed with a checked exception.
+     */
+    private void execute(List<Callable<Void>> tasks) throws IllegalStateException {
+        if (tasks.size() == 1) {
+            try {
+                tasks.get(0).call();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IllegalStateException("Parallel pair operation failed", e);
+            }
+            return;
+        }
+        try {
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a parallel pair operation", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException("Parallel pair operation failed", cause);
+        }
+    }
+
+    /**
+     * Get the size of an open-addressing table for a number of entries, at most half full.
+     *
+     * @param entries The number of entries.
+     *
+     * @return The table size, a power of two.
+     */
+    private static int tableSize(int entries) {
+        int size = 2;
+        while (size < entries * 2) {
+            size <<= 1;
+        }
+        return size;
+    }
+
+    /**
+     * Spread the bits of a hash code using the MurmurHash3 32-bit finalizer.
+     *
+     * @param hash The hash code.
+     *
+     * @return The mixed hash code.
+     */
+    private static int mix(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        hash *= 0xC2B2AE35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+
+    /**
+     * Check that both arguments are provided.
+     *
+     * @param first  The first argument.
+     * @param second The second argument.
+     *
+     * @throws IllegalArgumentException When an argument is null.
+     */
+    private static void checkArguments(Object first, Object second) throws IllegalArgumentException {
+        if (first == null || second == null) {
+            throw new IllegalArgumentException("Missing argument for parallel pair operation");
+        }
+    }
+
+    /**
+     * Entries of a column ordered by hash partition.
+     */
+    private static final class Partitioning {
+        /**
+         * The mixed hash code of every entry, by entry index.
+         */
+        private final int[] hashes;
+        /**
+         * The entry indexes, ordered by partition and by index within a partition.
+         */
+        private final int[] order;
+        /**
+         * The start index of every partition in {@link Partitioning#order}, followed by the total size.
+         */
+        private final int[] bounds;
+        /**
+         * The right shift to get the partition from the top bits of a hash code.
+         */
+        private final int shift;
+
+        /**
+         * Create a new (empty) Partitioning.
+         *
+         * @param size       The number of entries.
+         * @param partitions The number of partitions, a power of two.
+         */
+        private Partitioning(int size, int partitions) {
+            this.hashes = new int[size];
+            this.order = new int[size];
+            this.bounds = new int[partitions + 1];
+            this.shift = 32 - Integer.numberOfTrailingZeros(partitions);
+        }
+
+        /**
+         * Get the number of partitions.
+         *
+         * @return The number of partitions.
+         */
+        private int count() {
+            return bounds.length - 1;
+        }
+
+        /**
+         * Get the partition of a hash code. The top bits are used, leaving the low bits for the tables.
+         *
+         * @param hash The mixed hash code.
+         *
+         * @return The partition.
+         */
+        private int partitionOf(int hash) {
+            return shift == 32 ? 0 : hash >>> shift;
+        }
+    }
+
+    /**
+     * Two columns being sorted by the first column, with their auxiliary copies.
+     */
+    private abstract static class ColumnSort {
+        /**
+         * The number of entries to sort.
+         */
+        final int size;
+
+        /**
+         * Create a new ColumnSort.
+         *
+         * @param size The number of entries to sort.
+         */
+        ColumnSort(int size) {
+            this.size = size;
+        }
+
+        /**
+         * Sort a run within the list columns.
+         *
+         * @param from The start of the run (inclusive).
+         * @param to   The end of the run (exclusive).
+         */
+        abstract void sortRun(int from, int to);
+
+        /**
+         * Merge two sorted runs.
+         *
+         * @param fromAux <code>true</code> to merge from the auxiliary columns into the list columns, otherwise the reverse.
+         * @param p       The start of the first run (inclusive).
+         * @param pEnd    The end of the first run (exclusive).
+         * @param q       The start of the second run (inclusive).
+         * @param qEnd    The end of the second run (exclusive).
+         * @param d       The destination index of the first merged entry.
+         */
+        abstract void merge(boolean fromAux, int p, int pEnd, int q, int qEnd, int d);
+
+        /**
+         * Copy a range to the other set of columns.
+         *
+         * @param fromAux <code>true</code> to copy from the auxiliary columns into the list columns, otherwise the reverse.
+         * @param from    The start of the range (inclusive).
+         * @param to      The end of the range (exclusive).
+         */
+        abstract void copy(boolean fromAux, int from, int to);
+
+        /**
+         * Find the first index in a sorted range of which the key is not less than the key at another index.
+         *
+         * @param inAux <code>true</code> to search the auxiliary columns.
+         * @param from  The start of the range (inclusive).
+         * @param to    The end of the range (exclusive).
+         * @param key   The index of the key to search for.
+         *
+         * @return The index.
+         */
+        abstract int lowerBound(boolean inAux, int from, int to, int key);
+
+        /**
+         * Find the first index in a sorted range of which the key is greater than the key at another index.
+         *
+         * @param inAux <code>true</code> to search the auxiliary columns.
+         * @param from  The start of the range (inclusive).
+         * @param to    The end of the range (exclusive).
+         * @param key   The index of the key to search for.
+         *
+         * @return The index.
+         */
+        abstract int upperBound(boolean inAux, int from, int to, int key);
+    }
+
+    /**
+     * {@link ColumnSort} implementation for object columns.
+     */
+    private static final class ObjectColumnSort extends ColumnSort {
+        /**
+         * The key column of the list.
+         */
+        private final Object[] keys;
+        /**
+         * The value column of the list.
+         */
+        private final Object[] values;
+        /**
+         * The auxiliary key column.
+         */
+        private final Object[] auxKeys;
+        /**
+         * The auxiliary value column.
+         */
+        private final Object[] auxValues;
+        /**
+         * The comparator for the keys.
+         */
+        private final Comparator<Object> comparator;
+
+        /**
+         * Create a new ObjectColumnSort, copying the columns into the auxiliary columns.
+         *
+         * @param keys       The key column.
+         * @param values     The value column.
+         * @param size       The number of entries to sort.
+         * @param comparator The comparator for the keys.
+         */
+        private ObjectColumnSort(Object[] keys, Object[] values, int size, Comparator<Object> comparator) {
+            super(size);
+            this.keys = keys;
+            this.values = values;
+            this.auxKeys = Arrays.copyOf(keys, size);
+            this.auxValues = Arrays.copyOf(values, size);
+            this.comparator = comparator;
+        }
+
+        @Override
+        void sortRun(int from, int to) {
+            PairSorter.sort(keys, values, auxKeys, auxValues, from, to, comparator);
+        }
+
+        @Override
+        void merge(boolean fromAux, int p, int pEnd, int q, int qEnd, int d) {
+            if (fromAux) {
+                PairSorter.merge(auxKeys, auxValues, keys, values, p, pEnd, q, qEnd, d, comparator);
+            } else {
+                PairSorter.merge(keys, values, auxKeys, auxValues, p, pEnd, q, qEnd, d, comparator);
+            }
+        }
+
+        @Override
+        void copy(boolean fromAux, int from, int to) {
+            if (fromAux) {
+                System.arraycopy(auxKeys, from, keys, from, to - from);
+                System.arraycopy(auxValues, from, values, from, to - from);
+            } else {
+                System.arraycopy(keys, from, auxKeys, from, to - from);
+                System.arraycopy(values, from, auxValues, from, to - from);
+            }
+        }
+
+        @Override
+        int lowerBound(boolean inAux, int from, int to, int key) {
+            Object[] column = inAux ? auxKeys : keys;
+            return PairSorter.lowerBound(column, from, to, column[key], comparator);
+        }
+
+        @Override
+        int upperBound(boolean inAux, int from, int to, int key) {
+            Object[] column = inAux ? auxKeys : keys;
+            return PairSorter.upperBound(column, from, to, column[key], comparator);
+        }
+    }
+
+    /**
+     * {@link ColumnSort} implementation for long columns.
+     */
+    private static final class LongColumnSort extends ColumnSort {
+        /**
+         * The key column of the list.
+         */
+        private final long[] keys;
+        /**
+         * The value column of the list.
+         */
+        private final long[] values;
+        /**
+         * The auxiliary key column.
+         */
+        private final long[] auxKeys;
+        /**
+         * The auxiliary value column.
+         */
+        private final long[] auxValues;
+
+        /**
+         * Create a new LongColumnSort, copying the columns into the auxiliary columns.
+         *
+         * @param keys   The key column.
+         * @param values The value column.
+         * @param size   The number of entries to sort.
+         */
+        private LongColumnSort(long[] keys, long[] values, int size) {
+            super(size);
+            this.keys = keys;
+            this.values = values;
+            this.auxKeys = Arrays.copyOf(keys, size);
+            this.auxValues = Arrays.copyOf(values, size);
+        }
+
+        @Override
+        void sortRun(int from, int to) {
+            PairSorter.sort(keys, values, auxKeys, auxValues, from, to);
+        }
+
+        @Override
+        void merge(boolean fromAux, int p, int pEnd, int q, int qEnd, int d) {
+            if (fromAux) {
+                PairSorter.merge(auxKeys, auxValues, keys, values, p, pEnd, q, qEnd, d);
+            } else {
+                PairSorter.merge(keys, values, auxKeys, auxValues, p, pEnd, q, qEnd, d);
+            }
+        }
+
+        @Override
+        void copy(boolean fromAux, int from, int to) {
+            if (fromAux) {
+                System.arraycopy(auxKeys, from, keys, from, to - from);
+                System.arraycopy(auxValues, from, values, from, to - from);
+            } else {
+                System.arraycopy(keys, from, auxKeys, from, to - from);
+                System.arraycopy(values, from, auxValues, from, to - from);
+            }
+        }
+
+        @Override
+        int lowerBound(boolean inAux, int from, int to, int key) {
+            long[] column = inAux ? auxKeys : keys;
+            return PairSorter.lowerBound(column, from, to, column[key]);
+        }
+
+        @Override
+        int upperBound(boolean inAux, int from, int to, int key) {
+            long[] column = inAux ? auxKeys : keys;
+            return PairSorter.upperBound(column, from, to, column[key]);
+        }
+    }
+}
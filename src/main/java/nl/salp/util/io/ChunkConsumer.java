@@ -0,0 +1,24 @@
+package nl.salp.util.io;
+
+import java.io.IOException;
+
+/**
+ * Callback receiving the chunks of a stream read by {@link ChunkedByteStreamReader}, allowing the data to be processed
+ * while it is read instead of after collecting it all.
+ */
+public interface ChunkConsumer {
+    /**
+     * Accept a chunk of data.
+     *
+     * <p>
+     * The array is reused for the next chunk, so the data must be copied if it is needed after returning.
+     * </p>
+     *
+     * @param chunk  The array with the chunk.
+     * @param offset The offset of the first byte of the chunk.
+     * @param length The number of bytes in the chunk.
+     *
+     * @throws IOException When processing the chunk failed.
+     */
+    void accept(byte[] chunk, int offset, int length) throws IOException;
+}
@@ -5,6 +5,12 @@ import java.io.InputStream;
 
 /**
  * Stream reader for reading the content of a stream into a byte[] using specified sized chunks of data.
+ *
+ * <p>
+ * Reads can be instrumented with {@link ReadMetrics}, such as {@link ReadCounters} or
+ * {@link FlightRecorder#readMetrics()}. Without metrics, or while the metrics are disabled, the stream is not timed at
+ * all: the metrics are checked once per read, not per chunk.
+ * </p>
  */
 public class ChunkedByteStreamReader {
     /**
@@ -16,6 +22,10 @@ public class ChunkedByteStreamReader {
      * The size of a chunk in bytes.
      */
     private final int chunkBytes;
+    /**
+     * The metrics to record the reads in, or <code>null</code> to not record them.
+     */
+    private final ReadMetrics metrics;
 
     /**
      * Create a new ChunkedByteStreamReader with the default size (128 bytes).
@@ -30,7 +40,18 @@ public class ChunkedByteStreamReader {
      * @param chunkBytes The size of the chunks to read.
      */
     public ChunkedByteStreamReader(int chunkBytes) {
+        this(chunkBytes, null);
+    }
+
+    /**
+     * Create a new ChunkedByteStreamReader with a specified chunk size, recording every read in metrics.
+     *
+     * @param chunkBytes The size of the chunks to read.
+     * @param metrics    The metrics to record the reads in, or <code>null</code> to not record them.
+     */
+    public ChunkedByteStreamReader(int chunkBytes, ReadMetrics metrics) {
         this.chunkBytes = chunkBytes;
+        this.metrics = metrics;
     }
 
     /**
@@ -51,15 +72,86 @@ public class ChunkedByteStreamReader {
             throw new IllegalArgumentException("No data available while trying to read the stream.");
         }
 
+        ReadMetrics metrics = this.metrics != null && this.metrics.isEnabled() ? this.metrics : null;
+        long start = metrics == null ? 0 : System.nanoTime();
+        long stall = 0;
+        long chunks = 0;
+        long copied = 0;
         byte[] result = new byte[0];
         byte[] chunk = new byte[this.chunkBytes];
         int k;
-        while ((k = stream.read(chunk, 0, chunk.length)) > -1) {
+        while (true) {
+            if (metrics == null) {
+                k = stream.read(chunk, 0, chunk.length);
+            } else {
+                long before = System.nanoTime();
+                k = stream.read(chunk, 0, chunk.length);
+                stall += System.nanoTime() - before;
+            }
+            if (k < 0) {
+                break;
+            }
             byte[] readResult = new byte[result.length + k];
             System.arraycopy(result, 0, readResult, 0, result.length);
             System.arraycopy(chunk, 0, readResult, result.length, k);
+            copied += readResult.length;
+            if (k > 0) {
+                chunks++;
+            }
             result = readResult;
         }
+        if (metrics != null) {
+            metrics.onRead(result.length, chunks, copied, stall, System.nanoTime() - start, result.length);
+        }
         return result;
     }
+
+    /**
+     * Read all the data from a stream, passing each chunk to a consumer as it is read.
+     *
+     * @param stream   The stream to read.
+     * @param consumer The consumer for the chunks.
+     *
+     * @return The number of bytes read.
+     *
+     * @throws IOException              When reading or consuming a chunk failed.
+     * @throws IllegalArgumentException When a null stream or consumer was provided.
+     */
+    public long read(InputStream stream, ChunkConsumer consumer) throws IOException {
+        if (stream == null) {
+            throw new IllegalArgumentException("Tried to read from a null stream.");
+        }
+        if (consumer == null) {
+            throw new IllegalArgumentException("No chunk consumer provided.");
+        }
+
+        ReadMetrics metrics = this.metrics != null && this.metrics.isEnabled() ? this.metrics : null;
+        long start = metrics == null ? 0 : System.nanoTime();
+        long stall = 0;
+        long chunks = 0;
+        long total = 0;
+        byte[] chunk = new byte[this.chunkBytes];
+        int k;
+        while (true) {
+            if (metrics == null) {
+                k = stream.read(chunk, 0, chunk.length);
+            } else {
+                long before = System.nanoTime();
+                k = stream.read(chunk, 0, chunk.length);
+                stall += System.nanoTime() - before;
+            }
+            if (k < 0) {
+                break;
+            }
+            if (k > 0) {
+                consumer.accept(chunk, 0, k);
+                total += k;
+                chunks++;
+            }
+        }
+        if (metrics != null) {
+            metrics.onRead(total, chunks, 0, stall, System.nanoTime() - start, -1);
+        }
+        return total;
+    }
 }
\ No newline at end of file
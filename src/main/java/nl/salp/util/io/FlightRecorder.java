@@ -0,0 +1,63 @@
+package nl.salp.util.io;
+
+/**
+ * Access to the JDK Flight Recorder instrumentation of this package.
+ *
+ * <p>
+ * The events are compiled separately for Java 11 and later, where <code>jdk.jfr</code> is available, into
+ * <code>META-INF/versions/11</code> of the multi-release JAR, and loaded reflectively so the rest of the library keeps
+ * running on older JVMs. The {@link ReadMetrics} are only enabled while
+ * a recording with the event enabled is running; otherwise a read is not timed and the instrumentation costs a single
+ * check per read.
+ * </p>
+ */
+public final class FlightRecorder {
+    /**
+     * The name of the {@link ReadMetrics} implementation emitting Flight Recorder events.
+     */
+    private static final String READ_METRICS_CLASS = "nl.salp.util.io.FlightRecorderReadMetrics";
+    /**
+     * The Flight Recorder read metrics, or <code>null</code> if Flight Recorder is not available.
+     */
+    private static final ReadMetrics READ_METRICS = load();
+
+    /**
+     * Utility class, no instances.
+     */
+    private FlightRecorder() {
+    }
+
+    /**
+     * Check if Flight Recorder events are available in this JVM.
+     *
+     * @return <code>true</code> if the events are available.
+     */
+    public static boolean isAvailable() {
+        return READ_METRICS != null;
+    }
+
+    /**
+     * Get the {@link ReadMetrics} emitting a <code>nl.salp.util.io.ChunkedRead</code> event for every read.
+     *
+     * @return The read metrics, or <code>null</code> if Flight Recorder is not available, which disables the
+     * instrumentation when passed to a {@link ChunkedByteStreamReader}.
+     */
+    public static ReadMetrics readMetrics() {
+        return READ_METRICS;
+    }
+
+    /**
+     * Load the Flight Recorder read metrics.
+     *
+     * @return The read metrics, or <code>null</code> if they can not be loaded.
+     */
+    private static ReadMetrics load() {
+        try {
+            return (ReadMetrics) Class.forName(READ_METRICS_CLASS).getDeclaredConstructor().newInstance();
+        } catch (Exception e) {
+            return null;
+        } catch (LinkageError e) {
+            return null;
+        }
+    }
+}
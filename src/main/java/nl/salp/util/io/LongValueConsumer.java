@@ -0,0 +1,13 @@
+package nl.salp.util.io;
+
+/**
+ * Callback accepting primitive long values, as produced by a streaming decoder.
+ */
+public interface LongValueConsumer {
+    /**
+     * Accept a value.
+     *
+     * @param value The value.
+     */
+    void accept(long value);
+}
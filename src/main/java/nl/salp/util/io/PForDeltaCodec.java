@@ -0,0 +1,807 @@
+package nl.salp.util.io;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import nl.salp.util.bit.ByteView;
+import nl.salp.util.bit.PackedLongArray;
+import nl.salp.util.bit.VarIntCodec;
+
+/**
+ * Compression codec for sequences of <code>long</code> or <code>int</code> values, such as sorted IDs and timestamps,
+ * using delta encoding and patched frame-of-reference (PFOR) bit packing.
+ *
+ * <p>
+ * Each value is replaced by its difference with the previous value. The differences are split in blocks of
+ * {@value PForDeltaCodec#BLOCK_SIZE}; per block the smallest difference is stored as reference and the differences to
+ * the reference are bit packed at a width chosen to minimize the block size. Values that do not fit the width are
+ * stored as exceptions: the low bits are packed with the rest and the high bits follow the block. The last values that
+ * do not fill a block are stored as zigzag varints.
+ * </p>
+ *
+ * <p>
+ * The encoded form is the number of values as varint, followed by one unit per block (and one for the remaining
+ * values), each prefixed with its length in bytes as varint so a unit can be decoded once it has been completely
+ * received. A unit for a block holds the width, the number of exceptions, the zigzag varint reference, the packed
+ * bits as little-endian longs and the exceptions as position and varint high bits.
+ * </p>
+ *
+ * <p>
+ * Instances hold decoding buffers and are not thread-safe; use one instance per thread.
+ * </p>
+ */
+public class PForDeltaCodec {
+    /**
+     * The number of values in a block.
+     */
+    public static final int BLOCK_SIZE = 128;
+    /**
+     * The maximum size of a block unit: length, width, exception count, reference and 64-bit packed values.
+     */
+    private static final int MAX_BLOCK_BYTES = VarIntCodec.MAX_INT_BYTES + 2 + VarIntCodec.MAX_LONG_BYTES + BLOCK_SIZE * 8;
+    /**
+     * The maximum length of a block unit accepted when decoding: width, exception count, reference, 64-bit packed
+     * values and an exception with 64 high bits for every value.
+     */
+    private static final int MAX_BLOCK_UNIT_LENGTH = 2 + VarIntCodec.MAX_LONG_BYTES + BLOCK_SIZE * 8
+            + BLOCK_SIZE * (1 + VarIntCodec.MAX_LONG_BYTES);
+    /**
+     * The minimum size of a block unit: length, width, exception count and reference.
+     */
+    private static final int MIN_BLOCK_BYTES = 4;
+
+    /**
+     * The differences of the current block, or the high bits of its exceptions when decoding.
+     */
+    private final long[] deltas = new long[BLOCK_SIZE];
+    /**
+     * The low bits of the differences of the current block.
+     */
+    private final long[] low = new long[BLOCK_SIZE];
+    /**
+     * The number of differences of the current block per number of bits required.
+     */
+    private final int[] bitCounts = new int[65];
+    /**
+     * The packed bytes of a block read from a buffer without accessible array.
+     */
+    private final byte[] packedBytes = new byte[BLOCK_SIZE * 8];
+    /**
+     * The packed arrays used for packing a block, per width.
+     */
+    private final PackedLongArray[] packed = new PackedLongArray[65];
+
+    /**
+     * Get the maximum number of bytes a number of values is encoded to.
+     *
+     * @param count The number of values.
+     *
+     * @return The maximum number of bytes.
+     */
+    public static int maxEncodedSize(int count) {
+        int tail = count % BLOCK_SIZE;
+        long size = VarIntCodec.MAX_INT_BYTES + (long) (count / BLOCK_SIZE) * MAX_BLOCK_BYTES;
+        if (tail > 0) {
+            size += VarIntCodec.MAX_INT_BYTES + (long) tail * VarIntCodec.MAX_LONG_BYTES;
+        }
+        return (int) Math.min(size, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Encode values.
+     *
+     * @param values The values.
+     *
+     * @return The encoded values.
+     */
+    public byte[] encode(long[] values) {
+        ByteBuffer buffer = ByteBuffer.allocate(maxEncodedSize(values.length));
+        encode(values, null, 0, values.length, buffer);
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    /**
+     * Encode values.
+     *
+     * @param values The values.
+     *
+     * @return The encoded values.
+     */
+    public byte[] encode(int[] values) {
+        ByteBuffer buffer = ByteBuffer.allocate(maxEncodedSize(values.length));
+        encode(null, values, 0, values.length, buffer);
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    /**
+     * Encode a range of values at the current position of a buffer.
+     *
+     * @param values The values.
+     * @param offset The offset of the first value.
+     * @param length The number of values.
+     * @param buffer The buffer.
+     *
+     * @throws IndexOutOfBoundsException        When the range is not valid.
+     * @throws java.nio.BufferOverflowException When the buffer does not have enough space remaining.
+     */
+    public void encode(long[] values, int offset, int length, ByteBuffer buffer) throws IndexOutOfBoundsException {
+        checkRange(values.length, offset, length);
+        encode(values, null, offset, length, buffer);
+    }
+
+    /**
+     * Encode a range of values at the current position of a buffer.
+     *
+     * @param values The values.
+     * @param offset The offset of the first value.
+     * @param length The number of values.
+     * @param buffer The buffer.
+     *
+     * @throws IndexOutOfBoundsException        When the range is not valid.
+     * @throws java.nio.BufferOverflowException When the buffer does not have enough space remaining.
+     */
+    public void encode(int[] values, int offset, int length, ByteBuffer buffer) throws IndexOutOfBoundsException {
+        checkRange(values.length, offset, length);
+        encode(null, values, offset, length, buffer);
+    }
+
+    /**
+     * Decode values.
+     *
+     * @param data The encoded values.
+     *
+     * @return The values.
+     *
+     * @throws IllegalArgumentException When the data is not validly encoded.
+     */
+    public long[] decode(byte[] data) throws IllegalArgumentException {
+        return decode(ByteBuffer.wrap(data));
+    }
+
+    /**
+     * Decode values at the current position of a buffer.
+     *
+     * @param buffer The buffer.
+     *
+     * @return The values.
+     *
+     * @throws java.nio.BufferUnderflowException When the buffer does not contain all encoded values.
+     * @throws IllegalArgumentException         When the data is not validly encoded.
+     */
+    public long[] decode(ByteBuffer buffer) throws IllegalArgumentException {
+        int count = readCount(buffer);
+        checkCount(count, buffer.remaining());
+        long[] values = new long[count];
+        long previous = 0;
+        for (int offset = 0; offset < count; offset += BLOCK_SIZE) {
+            previous = decodeUnit(buffer, Math.min(BLOCK_SIZE, count - offset), previous, values, offset);
+        }
+        return values;
+    }
+
+    /**
+     * Decode values that were encoded as <code>int</code>s at the current position of a buffer.
+     *
+     * @param buffer The buffer.
+     *
+     * @return The values.
+     *
+     * @throws java.nio.BufferUnderflowException When the buffer does not contain all encoded values.
+     * @throws IllegalArgumentException         When the data is not validly encoded or a value is not an int.
+     */
+    public int[] decodeInts(ByteBuffer buffer) throws IllegalArgumentException {
+        int count = readCount(buffer);
+        checkCount(count, buffer.remaining());
+        int[] values = new int[count];
+        long[] block = new long[BLOCK_SIZE];
+        long previous = 0;
+        for (int offset = 0; offset < count; offset += BLOCK_SIZE) {
+            int length = Math.min(BLOCK_SIZE, count - offset);
+            previous = decodeUnit(buffer, length, previous, block, 0);
+            for (int i = 0; i < length; i++) {
+                long value = block[i];
+                if (value != (int) value) {
+                    throw new IllegalArgumentException("Value " + (offset + i) + " is not an int: " + value);
+                }
+                values[offset + i] = (int) value;
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Create a decoder for encoded values that arrive in chunks, for example from
+     * {@link ChunkedByteStreamReader#read(java.io.InputStream, ChunkConsumer)}.
+     *
+     * <p>
+     * The decoder uses this codec instance, which must not be used otherwise while decoding.
+     * </p>
+     *
+     * @param consumer The consumer for the decoded values.
+     *
+     * @return The decoder.
+     *
+     * @throws IllegalArgumentException When no consumer was provided.
+     */
+    public StreamDecoder createStreamDecoder(LongValueConsumer consumer) throws IllegalArgumentException {
+        if (consumer == null) {
+            throw new IllegalArgumentException("No value consumer provided");
+        }
+        return new StreamDecoder(consumer);
+    }
+
+    /**
+     * Encode values from either a long[] or an int[].
+     *
+     * @param longs  The long values, or <code>null</code>.
+     * @param ints   The int values, if no long values.
+     * @param offset The offset of the first value.
+     * @param length The number of values.
+     * @param buffer The buffer.
+     */
+    private void encode(long[] longs, int[] ints, int offset, int length, ByteBuffer buffer) {
+        VarIntCodec.writeInt(buffer, length);
+        long previous = 0;
+        int end = offset + length;
+        for (int start = offset; start < end; start += BLOCK_SIZE) {
+            int count = Math.min(BLOCK_SIZE, end - start);
+            for (int i = 0; i < count; i++) {
+                long value = longs != null ? longs[start + i] : ints[start + i];
+                deltas[i] = value - previous;
+                previous = value;
+            }
+            if (count == BLOCK_SIZE) {
+                encodeBlock(buffer);
+            } else {
+                encodeTail(count, buffer);
+            }
+        }
+    }
+
+    /**
+     * Encode a full block of differences as unit.
+     *
+     * @param buffer The buffer.
+     */
+    private void encodeBlock(ByteBuffer buffer) {
+        long reference = Long.MAX_VALUE;
+        for (long delta : deltas) {
+            reference = Math.min(reference, delta);
+        }
+        Arrays.fill(bitCounts, 0);
+        for (int i = 0; i < BLOCK_SIZE; i++) {
+            long value = deltas[i] - reference;
+            deltas[i] = value;
+            bitCounts[value == 0 ? 0 : PackedLongArray.bitsRequired(value)]++;
+        }
+        int width = selectWidth(bitCounts);
+        int exceptions = 0;
+        int exceptionBytes = 0;
+        for (int i = 0; i < BLOCK_SIZE; i++) {
+            long high = width == 64 ? 0 : deltas[i] >>> width;
+            if (high != 0) {
+                exceptions++;
+                exceptionBytes += 1 + VarIntCodec.sizeOf(high);
+            }
+        }
+        long zigZagReference = VarIntCodec.zigZagEncode(reference);
+        VarIntCodec.writeInt(buffer, 2 + VarIntCodec.sizeOf(zigZagReference) + width * 16 + exceptionBytes);
+        buffer.put((byte) width);
+        buffer.put((byte) exceptions);
+        VarIntCodec.writeLong(buffer, zigZagReference);
+        if (width > 0) {
+            long mask = width == 64 ? -1L : (1L << width) - 1;
+            for (int i = 0; i < BLOCK_SIZE; i++) {
+                low[i] = deltas[i] & mask;
+            }
+            PackedLongArray array = getPacked(width);
+            array.encodeBlock(0, low, 0);
+            array.encodeBlock(1, low, PackedLongArray.BLOCK_SIZE);
+            ByteOrder order = buffer.order();
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            for (long word : array.words()) {
+                buffer.putLong(word);
+            }
+            buffer.order(order);
+        }
+        for (int i = 0; exceptions > 0 && i < BLOCK_SIZE; i++) {
+            long high = deltas[i] >>> width;
+            if (high != 0) {
+                buffer.put((byte) i);
+                VarIntCodec.writeLong(buffer, high);
+            }
+        }
+    }
+
+    /**
+     * Encode the remaining differences that do not fill a block as unit of zigzag varints.
+     *
+     * @param count  The number of differences.
+     * @param buffer The buffer.
+     */
+    private void encodeTail(int count, ByteBuffer buffer) {
+        int size = 0;
+        for (int i = 0; i < count; i++) {
+            size += VarIntCodec.sizeOf(VarIntCodec.zigZagEncode(deltas[i]));
+        }
+        VarIntCodec.writeInt(buffer, size);
+        for (int i = 0; i < count; i++) {
+            VarIntCodec.writeLong(buffer, VarIntCodec.zigZagEncode(deltas[i]));
+        }
+    }
+
+    /**
+     * Select the width that minimizes the size of a block, estimating the size of an exception from the widest value.
+     *
+     * @param bitCounts The number of values per number of bits required.
+     *
+     * @return The width.
+     */
+    private static int selectWidth(int[] bitCounts) {
+        int maxBits = 64;
+        while (maxBits > 0 && bitCounts[maxBits] == 0) {
+            maxBits--;
+        }
+        int bestWidth = maxBits;
+        int bestSize = maxBits * 16;
+        int exceptions = 0;
+        for (int width = maxBits - 1; width >= 0; width--) {
+            exceptions += bitCounts[width + 1];
+            int size = width * 16 + exceptions * (1 + (maxBits - width + 6) / 7);
+            if (size < bestSize) {
+                bestSize = size;
+                bestWidth = width;
+            }
+        }
+        return bestWidth;
+    }
+
+    /**
+     * Decode a unit, checking that it is exactly as long as its length prefix.
+     *
+     * @param buffer   The buffer, at the length prefix of the unit.
+     * @param count    The number of values in the unit.
+     * @param previous The last value of the previous unit.
+     * @param values   The array to decode to.
+     * @param offset   The offset in the array of the first value.
+     *
+     * @return The last decoded value.
+     *
+     * @throws IllegalArgumentException When the unit is not valid.
+     */
+    private long decodeUnit(ByteBuffer buffer, int count, long previous, long[] values, int offset) throws IllegalArgumentException {
+        int length = VarIntCodec.readInt(buffer);
+        if (length < 0 || length > buffer.remaining() || length > maxUnitLength(count)) {
+            throw new IllegalArgumentException("Unit length " + length + " is not valid");
+        }
+        int limit = buffer.limit();
+        buffer.limit(buffer.position() + length);
+        try {
+            if (count == BLOCK_SIZE) {
+                previous = decodeBlock(buffer, previous, values, offset);
+            } else {
+                VarIntCodec.readLongs(buffer, values, offset, count, true);
+                for (int i = offset; i < offset + count; i++) {
+                    previous += values[i];
+                    values[i] = previous;
+                }
+            }
+            if (buffer.hasRemaining()) {
+                throw new IllegalArgumentException("Unit has " + buffer.remaining() + " bytes more than expected");
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Unit is shorter than its length " + length);
+        } finally {
+            buffer.limit(limit);
+        }
+        return previous;
+    }
+
+    /**
+     * Decode a block unit after its length prefix.
+     *
+     * <p>
+     * The packed values are read straight from the bytes of the unit and summed into the output in one pass, with a
+     * dedicated loop for the widths that need no bit stream: 0, the byte-aligned widths 8, 16, 32 and 64, and the
+     * widths 1, 2 and 4 that never span two words. The exceptions follow the packed values, so their high bits are added
+     * afterwards as running correction of the sums.
+     * </p>
+     *
+     * @param buffer   The buffer, limited to the unit.
+     * @param previous The last value of the previous unit.
+     * @param values   The array to decode to.
+     * @param offset   The offset in the array of the first value.
+     *
+     * @return The last decoded value.
+     *
+     * @throws IllegalArgumentException When the block is not valid.
+     */
+    private long decodeBlock(ByteBuffer buffer, long previous, long[] values, int offset) throws IllegalArgumentException {
+        int width = buffer.get() & 0xFF;
+        int exceptions = buffer.get() & 0xFF;
+        if (width > 64 || exceptions > BLOCK_SIZE || (width == 64 && exceptions > 0)) {
+            throw new IllegalArgumentException("Block with width " + width + " and " + exceptions + " exceptions is not valid");
+        }
+        long reference = VarIntCodec.zigZagDecode(VarIntCodec.readLong(buffer));
+        int length = width * 16;
+        if (buffer.remaining() < length) {
+            throw new BufferUnderflowException();
+        }
+        byte[] data;
+        int start;
+        if (buffer.hasArray()) {
+            data = buffer.array();
+            start = buffer.arrayOffset() + buffer.position();
+            buffer.position(buffer.position() + length);
+        } else {
+            data = packedBytes;
+            start = 0;
+            buffer.get(packedBytes, 0, length);
+        }
+        long last = unpack(data, start, width, reference, previous, values, offset);
+        if (exceptions > 0) {
+            Arrays.fill(deltas, 0L);
+            for (int i = 0; i < exceptions; i++) {
+                int position = buffer.get() & 0xFF;
+                if (position >= BLOCK_SIZE) {
+                    throw new IllegalArgumentException("Exception position " + position + " is not valid");
+                }
+                deltas[position] |= VarIntCodec.readLong(buffer) << width;
+            }
+            long correction = 0;
+            for (int i = 0; i < BLOCK_SIZE; i++) {
+                correction += deltas[i];
+                values[offset + i] += correction;
+            }
+            last += correction;
+        }
+        return last;
+    }
+
+    /**
+     * Unpack the low bits of the differences of a block from little-endian words and sum them into values.
+     *
+     * @param data      The data.
+     * @param start     The offset in the data of the first word.
+     * @param width     The number of bits per difference.
+     * @param reference The reference added to every difference.
+     * @param previous  The last value of the previous unit.
+     * @param values    The array to decode to.
+     * @param offset    The offset in the array of the first value.
+     *
+     * @return The last decoded value.
+     */
+    private static long unpack(byte[] data, int start, int width, long reference, long previous, long[] values, int offset) {
+        ByteView view = ByteView.LITTLE_ENDIAN;
+        switch (width) {
+            case 0:
+                for (int i = offset, end = offset + BLOCK_SIZE; i < end; i++) {
+                    previous += reference;
+                    values[i] = previous;
+                }
+                return previous;
+            case 8:
+                for (int i = 0; i < BLOCK_SIZE; i++) {
+                    previous += (data[start + i] & 0xFF) + reference;
+                    values[offset + i] = previous;
+                }
+                return previous;
+            case 16:
+                for (int i = 0; i < BLOCK_SIZE; i++) {
+                    previous += view.getUnsignedShort(data, start + i * 2) + reference;
+                    values[offset + i] = previous;
+                }
+                return previous;
+            case 32:
+                for (int i = 0; i < BLOCK_SIZE; i++) {
+                    previous += view.getUnsignedInt(data, start + i * 4) + reference;
+                    values[offset + i] = previous;
+                }
+                return previous;
+            case 64:
+                for (int i = 0; i < BLOCK_SIZE; i++) {
+                    previous += view.getLong(data, start + i * 8) + reference;
+                    values[offset + i] = previous;
+                }
+                return previous;
+            case 1:
+            case 2:
+            case 4:
+                return unpackAligned(data, start, width, reference, previous, values, offset);
+            default:
+                return unpackUnaligned(data, start, width, reference, previous, values, offset);
+        }
+    }
+
+    /**
+     * Unpack the differences of a block where the width divides 64, so no difference spans two words.
+     *
+     * @param data      The data.
+     * @param start     The offset in the data of the first word.
+     * @param width     The number of bits per difference.
+     * @param reference The reference added to every difference.
+     * @param previous  The last value of the previous unit.
+     * @param values    The array to decode to.
+     * @param offset    The offset in the array of the first value.
+     *
+     * @return The last decoded value.
+     */
+    private static long unpackAligned(byte[] data, int start, int width, long reference, long previous, long[] values,
+            int offset) {
+        long mask = (1L << width) - 1;
+        int perWord = 64 / width;
+        for (int index = start, end = start + width * 16; index < end; index += 8) {
+            long bits = ByteView.LITTLE_ENDIAN.getLong(data, index);
+            for (int i = 0; i < perWord; i++) {
+                previous += (bits & mask) + reference;
+                values[offset++] = previous;
+                bits >>>= width;
+            }
+        }
+        return previous;
+    }
+
+    /**
+     * Unpack the differences of a block where differences may span two words.
+     *
+     * @param data      The data.
+     * @param start     The offset in the data of the first word.
+     * @param width     The number of bits per difference (below 64).
+     * @param reference The reference added to every difference.
+     * @param previous  The last value of the previous unit.
+     * @param values    The array to decode to.
+     * @param offset    The offset in the array of the first value.
+     *
+     * @return The last decoded value.
+     */
+    private static long unpackUnaligned(byte[] data, int start, int width, long reference, long previous, long[] values,
+            int offset) {
+        long mask = (1L << width) - 1;
+        int index = start;
+        long bits = ByteView.LITTLE_ENDIAN.getLong(data, index);
+        int shift = 0;
+        for (int i = 0; i < BLOCK_SIZE; i++) {
+            long value = bits >>> shift;
+            shift += width;
+            if (shift >= 64) {
+                shift -= 64;
+                if (shift > 0 || i < BLOCK_SIZE - 1) {
+                    index += 8;
+                    bits = ByteView.LITTLE_ENDIAN.getLong(data, index);
+                    value |= bits << (width - shift);
+                }
+            }
+            previous += (value & mask) + reference;
+            values[offset + i] = previous;
+        }
+        return previous;
+    }
+
+    /**
+     * Get the packed array for a width, creating it when needed.
+     *
+     * @param width The width.
+     *
+     * @return The packed array for a block.
+     */
+    private PackedLongArray getPacked(int width) {
+        PackedLongArray array = packed[width];
+        if (array == null) {
+            array = new PackedLongArray(BLOCK_SIZE, width);
+            packed[width] = array;
+        }
+        return array;
+    }
+
+    /**
+     * Read the number of encoded values.
+     *
+     * @param buffer The buffer.
+     *
+     * @return The number of values.
+     *
+     * @throws IllegalArgumentException When the number of values is not valid.
+     */
+    private static int readCount(ByteBuffer buffer) throws IllegalArgumentException {
+        int count = VarIntCodec.readInt(buffer);
+        if (count < 0) {
+            throw new IllegalArgumentException("Number of values " + count + " is not valid");
+        }
+        return count;
+    }
+
+    /**
+     * Check that a number of values can be encoded in the remaining bytes, before allocating an array for them: a block
+     * unit takes at least {@value PForDeltaCodec#MIN_BLOCK_BYTES} bytes and a tail unit a length and a byte per value.
+     *
+     * @param count     The number of values.
+     * @param remaining The number of remaining bytes.
+     *
+     * @throws IllegalArgumentException When the values do not fit in the remaining bytes.
+     */
+    private static void checkCount(int count, int remaining) throws IllegalArgumentException {
+        int tail = count % BLOCK_SIZE;
+        long minBytes = (long) (count / BLOCK_SIZE) * MIN_BLOCK_BYTES + (tail > 0 ? 1 + tail : 0);
+        if (minBytes > remaining) {
+            throw new IllegalArgumentException("Number of values " + count + " does not fit in " + remaining + " bytes");
+        }
+    }
+
+    /**
+     * Get the maximum length of a unit accepted when decoding.
+     *
+     * @param count The number of values in the unit.
+     *
+     * @return The maximum length in bytes, without the length prefix.
+     */
+    private static int maxUnitLength(int count) {
+        return count == BLOCK_SIZE ? MAX_BLOCK_UNIT_LENGTH : count * VarIntCodec.MAX_LONG_BYTES;
+    }
+
+    /**
+     * Check if a range of an array is valid.
+     *
+     * @param arrayLength The length of the array.
+     * @param offset      The offset of the range.
+     * @param length      The length of the range.
+     *
+     * @throws IndexOutOfBoundsException When the range is not valid.
+     */
+    private static void checkRange(int arrayLength, int offset, int length) throws IndexOutOfBoundsException {
+        if (offset < 0 || length < 0 || offset > arrayLength - length) {
+            throw new IndexOutOfBoundsException("Range " + offset + "+" + length + " is not valid for " + arrayLength + " values");
+        }
+    }
+
+    /**
+     * Decoder for encoded values arriving in chunks, passing the values to a consumer as soon as their unit is complete.
+     */
+    public final class StreamDecoder implements ChunkConsumer {
+        /**
+         * The consumer for the decoded values.
+         */
+        private final LongValueConsumer consumer;
+        /**
+         * The decoded values of a unit.
+         */
+        private final long[] values = new long[BLOCK_SIZE];
+        /**
+         * The received bytes that have not been decoded yet.
+         */
+        private byte[] pending = new byte[MAX_BLOCK_BYTES];
+        /**
+         * The number of pending bytes.
+         */
+        private int pendingBytes;
+        /**
+         * The number of values, or -1 while it has not been received.
+         */
+        private int count = -1;
+        /**
+         * The number of decoded values.
+         */
+        private int decoded;
+        /**
+         * The last decoded value.
+         */
+        private long previous;
+
+        /**
+         * Create a new StreamDecoder.
+         *
+         * @param consumer The consumer for the decoded values.
+         */
+        private StreamDecoder(LongValueConsumer consumer) {
+            this.consumer = consumer;
+        }
+
+        /**
+         * Decode a chunk, together with the pending bytes of the previous chunks.
+         *
+         * @param chunk  The array with the chunk.
+         * @param offset The offset of the first byte of the chunk.
+         * @param length The number of bytes in the chunk.
+         *
+         * @throws IllegalArgumentException When the data is not validly encoded or continues after the last value.
+         */
+        @Override
+        public void accept(byte[] chunk, int offset, int length) throws IllegalArgumentException {
+            if (pendingBytes + length > pending.length) {
+                pending = Arrays.copyOf(pending, Math.max(pending.length * 2, pendingBytes + length));
+            }
+            System.arraycopy(chunk, offset, pending, pendingBytes, length);
+            pendingBytes += length;
+
+            ByteBuffer buffer = ByteBuffer.wrap(pending, 0, pendingBytes);
+            if (count < 0 && isVarIntComplete(buffer, buffer.position())) {
+                count = readCount(buffer);
+            }
+            while (count >= 0 && decoded < count && isUnitComplete(buffer, Math.min(BLOCK_SIZE, count - decoded))) {
+                int unitCount = Math.min(BLOCK_SIZE, count - decoded);
+                previous = decodeUnit(buffer, unitCount, previous, values, 0);
+                for (int i = 0; i < unitCount; i++) {
+                    consumer.accept(values[i]);
+                }
+                decoded += unitCount;
+            }
+            if (isComplete() && buffer.hasRemaining()) {
+                throw new IllegalArgumentException(buffer.remaining() + " bytes after the last value");
+            }
+            pendingBytes = buffer.remaining();
+            System.arraycopy(pending, buffer.position(), pending, 0, pendingBytes);
+        }
+
+        /**
+         * Check if all values have been decoded.
+         *
+         * @return <code>true</code> if all values have been decoded.
+         */
+        public boolean isComplete() {
+            return count >= 0 && decoded == count;
+        }
+
+        /**
+         * Get the number of decoded values.
+         *
+         * @return The number of decoded values.
+         */
+        public int getDecodedCount() {
+            return decoded;
+        }
+
+        /**
+         * Check if a complete unit is available at the current position of a buffer.
+         *
+         * @param buffer    The buffer.
+         * @param unitCount The number of values in the unit.
+         *
+         * @return <code>true</code> if the unit is complete.
+         *
+         * @throws IllegalArgumentException When the length of the unit is not valid, so the bytes of the unit are not
+         *                                  buffered until they arrive.
+         */
+        private boolean isUnitComplete(ByteBuffer buffer, int unitCount) throws IllegalArgumentException {
+            int position = buffer.position();
+            if (!isVarIntComplete(buffer, position)) {
+                return false;
+            }
+            int length = VarIntCodec.readInt(buffer);
+            if (length < 0 || length > maxUnitLength(unitCount)) {
+                throw new IllegalArgumentException("Unit length " + length + " is not valid");
+            }
+            boolean complete = length <= buffer.remaining();
+            buffer.position(position);
+            return complete;
+        }
+
+        /**
+         * Check if a complete varint is available at a position of a buffer.
+         *
+         * @param buffer   The buffer.
+         * @param position The position.
+         *
+         * @return <code>true</code> if the varint is complete or is longer than allowed for an int.
+         */
+        private boolean isVarIntComplete(ByteBuffer buffer, int position) {
+            for (int i = position; i < buffer.limit() && i < position + VarIntCodec.MAX_INT_BYTES; i++) {
+                if (buffer.get(i) >= 0) {
+                    return true;
+                }
+            }
+            return buffer.limit() >= position + VarIntCodec.MAX_INT_BYTES;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append("StreamDecoder [");
+            sb.append("count: ").append(count).append(", ");
+            sb.append("decoded: ").append(decoded).append(", ");
+            sb.append("pending: ").append(pendingBytes);
+            sb.append("]");
+            return sb.toString();
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package nl.salp.util.io;
+
+import java.nio.ByteBuffer;
+import java.util.Collection;
+
+import nl.salp.util.bit.VarIntCodec;
+import nl.salp.util.collection.ImmutablePair;
+import nl.salp.util.collection.PairList;
+
+/**
+ * Compact binary codec for {@link ImmutablePair} instances and lists of pairs.
+ *
+ * <p>
+ * A single pair is encoded as the encoded left-hand value followed by the encoded right-hand value. A list of pairs is
+ * encoded column-wise: the number of pairs as varint, followed by all left-hand values and then all right-hand values,
+ * which keeps similar values together. There is no per-value type information; the reader must use a codec with the
+ * same value codecs.
+ * </p>
+ *
+ * @param <L> The type of the left-hand values.
+ * @param <R> The type of the right-hand values.
+ * @see ValueCodecs
+ */
+public class PairCodec<L, R> {
+    /**
+     * The codec for the left-hand values.
+     */
+    private final ValueCodec<L> leftCodec;
+    /**
+     * The codec for the right-hand values.
+     */
+    private final ValueCodec<R> rightCodec;
+
+    /**
+     * Create a new PairCodec.
+     *
+     * @param leftCodec  The codec for the left-hand values.
+     * @param rightCodec The codec for the right-hand values.
+     *
+     * @throws IllegalArgumentException When one of the codecs is null.
+     */
+    public PairCodec(ValueCodec<L> leftCodec, ValueCodec<R> rightCodec) throws IllegalArgumentException {
+        if (leftCodec == null) {
+            throw new IllegalArgumentException("No left codec provided");
+        }
+        if (rightCodec == null) {
+            throw new IllegalArgumentException("No right codec provided");
+        }
+        this.leftCodec = leftCodec;
+        this.rightCodec = rightCodec;
+    }
+
+    /**
+     * Get the number of bytes a pair is encoded to.
+     *
+     * @param pair The pair.
+     *
+     * @return The number of bytes.
+     */
+    public int encodedSize(ImmutablePair<L, R> pair) {
+        return leftCodec.encodedSize(pair.getLeftValue()) + rightCodec.encodedSize(pair.getRightValue());
+    }
+
+    /**
+     * Encode a pair at the current position of a buffer.
+     *
+     * @param pair   The pair.
+     * @param buffer The buffer.
+     *
+     * @throws java.nio.BufferOverflowException When the buffer does not have enough space remaining.
+     */
+    public void encode(ImmutablePair<L, R> pair, ByteBuffer buffer) {
+        leftCodec.encode(pair.getLeftValue(), buffer);
+        rightCodec.encode(pair.getRightValue(), buffer);
+    }
+
+    /**
+     * Decode a pair at the current position of a buffer.
+     *
+     * @param buffer The buffer.
+     *
+     * @return The pair.
+     *
+     * @throws java.nio.BufferUnderflowException When the buffer does not contain a complete pair.
+     * @throws IllegalArgumentException         When the data is not a valid encoded pair.
+     */
+    public ImmutablePair<L, R> decode(ByteBuffer buffer) {
+        L left = leftCodec.decode(buffer);
+        R right = rightCodec.decode(buffer);
+        return new ImmutablePair<L, R>(left, right);
+    }
+
+    /**
+     * Get the number of bytes a list of pairs is encoded to.
+     *
+     * @param list The list.
+     *
+     * @return The number of bytes.
+     */
+    public int encodedSize(PairList<L, R> list) {
+        int size = VarIntCodec.sizeOf(list.size());
+        for (int i = 0; i < list.size(); i++) {
+            size += leftCodec.encodedSize(list.getLeft(i)) + rightCodec.encodedSize(list.getRight(i));
+        }
+        return size;
+    }
+
+    /**
+     * Encode a list of pairs column-wise at the current position of a buffer.
+     *
+     * @param list   The list.
+     * @param buffer The buffer.
+     *
+     * @throws java.nio.BufferOverflowException When the buffer does not have enough space remaining.
+     */
+    public void encode(PairList<L, R> list, ByteBuffer buffer) {
+        int size = list.size();
+        VarIntCodec.writeInt(buffer, size);
+        for (int i = 0; i < size; i++) {
+            leftCodec.encode(list.getLeft(i), buffer);
+        }
+        for (int i = 0; i < size; i++) {
+            rightCodec.encode(list.getRight(i), buffer);
+        }
+    }
+
+    /**
+     * Encode a collection of pairs column-wise at the current position of a buffer, in the same format as a
+     * {@link PairList}.
+     *
+     * @param pairs  The pairs.
+     * @param buffer The buffer.
+     *
+     * @throws java.nio.BufferOverflowException When the buffer does not have enough space remaining.
+     */
+    public void encode(Collection<? extends ImmutablePair<L, R>> pairs, ByteBuffer buffer) {
+        VarIntCodec.writeInt(buffer, pairs.size());
+        for (ImmutablePair<L, R> pair : pairs) {
+            leftCodec.encode(pair.getLeftValue(), buffer);
+        }
+        for (ImmutablePair<L, R> pair : pairs) {
+            rightCodec.encode(pair.getRightValue(), buffer);
+        }
+    }
+
+    /**
+     * Decode a column-wise encoded list of pairs at the current position of a buffer.
+     *
+     * @param buffer The buffer.
+     *
+     * @return The list.
+     *
+     * @throws java.nio.BufferUnderflowException When the buffer does not contain a complete list.
+     * @throws IllegalArgumentException         When the data is not a valid encoded list.
+     */
+    @SuppressWarnings("unchecked")
+    public PairList<L, R> decodeList(ByteBuffer buffer) {
+        int size = VarIntCodec.readInt(buffer);
+        // Every value takes at least a byte, which guards against allocating huge arrays for corrupt data.
+        if (size < 0 || size > buffer.remaining() / 2) {
+            throw new IllegalArgumentException("Invalid pair list size " + size);
+        }
+        Object[] lefts = new Object[size];
+        for (int i = 0; i < size; i++) {
+            lefts[i] = leftCodec.decode(buffer);
+        }
+        Object[] rights = new Object[size];
+        for (int i = 0; i < size; i++) {
+            rights[i] = rightCodec.decode(buffer);
+        }
+        PairList<L, R> list = new PairList<L, R>(size);
+        list.addAll((L[]) lefts, (R[]) rights);
+        return list;
+    }
+}
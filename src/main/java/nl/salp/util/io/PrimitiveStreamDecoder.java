@@ -0,0 +1,215 @@
+package nl.salp.util.io;
+
+import nl.salp.util.bit.ByteView;
+
+/**
+ * Decoder for a stream of fixed width big- or little-endian integers arriving in chunks, for example from
+ * {@link ChunkedByteStreamReader#read(java.io.InputStream, ChunkConsumer)}.
+ *
+ * <p>
+ * The complete values of a chunk are decoded in bulk with a {@link ByteView} into a reused batch of the width of the
+ * values, which is then widened to longs; only the bytes of a value that continues in the next chunk are kept until
+ * that chunk arrives.
+ * </p>
+ *
+ * <p>
+ * This class is not thread-safe.
+ * </p>
+ */
+public class PrimitiveStreamDecoder implements ChunkConsumer {
+    /**
+     * The number of values decoded at once.
+     */
+    private static final int BATCH_SIZE = 256;
+
+    /**
+     * The consumer for the decoded values.
+     */
+    private final LongValueConsumer consumer;
+    /**
+     * The view for the byte order of the values.
+     */
+    private final ByteView view;
+    /**
+     * The number of bytes per value.
+     */
+    private final int width;
+    /**
+     * <code>true</code> if the values are unsigned.
+     */
+    private final boolean unsigned;
+    /**
+     * The decoded values of a batch.
+     */
+    private final long[] values = new long[BATCH_SIZE];
+    /**
+     * The batch for values of 2 bytes, <code>null</code> for other widths.
+     */
+    private final short[] shorts;
+    /**
+     * The batch for values of 4 bytes, <code>null</code> for other widths.
+     */
+    private final int[] ints;
+    /**
+     * The bytes of a value that continues in the next chunk.
+     */
+    private final byte[] partial = new byte[8];
+    /**
+     * The number of bytes of a value that continues in the next chunk.
+     */
+    private int partialBytes;
+    /**
+     * The number of decoded values.
+     */
+    private long decoded;
+
+    /**
+     * Create a new PrimitiveStreamDecoder.
+     *
+     * @param consumer The consumer for the decoded values.
+     * @param view     The view for the byte order of the values.
+     * @param width    The number of bytes per value: 1, 2, 4 or 8.
+     * @param unsigned <code>true</code> if the values are unsigned; values of 8 bytes are passed as is.
+     *
+     * @throws IllegalArgumentException When no consumer or view was provided or the width is not valid.
+     */
+    public PrimitiveStreamDecoder(LongValueConsumer consumer, ByteView view, int width, boolean unsigned) throws IllegalArgumentException {
+        if (consumer == null) {
+            throw new IllegalArgumentException("No value consumer provided");
+        }
+        if (view == null) {
+            throw new IllegalArgumentException("No byte view provided");
+        }
+        if (width != 1 && width != 2 && width != 4 && width != 8) {
+            throw new IllegalArgumentException("Width " + width + " is not valid, must be 1, 2, 4 or 8 bytes");
+        }
+        this.consumer = consumer;
+        this.view = view;
+        this.width = width;
+        this.unsigned = unsigned;
+        this.shorts = width == 2 ? new short[BATCH_SIZE] : null;
+        this.ints = width == 4 ? new int[BATCH_SIZE] : null;
+    }
+
+    /**
+     * Decode the values in a chunk, completing the value from the previous chunk first.
+     *
+     * @param chunk  The array with the chunk.
+     * @param offset The offset of the first byte of the chunk.
+     * @param length The number of bytes in the chunk.
+     */
+    @Override
+    public void accept(byte[] chunk, int offset, int length) {
+        int position = offset;
+        int end = offset + length;
+        if (partialBytes > 0) {
+            int bytes = Math.min(width - partialBytes, length);
+            System.arraycopy(chunk, position, partial, partialBytes, bytes);
+            partialBytes += bytes;
+            position += bytes;
+            if (partialBytes < width) {
+                return;
+            }
+            decode(partial, 0, 1);
+            partialBytes = 0;
+            emit(1);
+        }
+        int count = (end - position) / width;
+        while (count > 0) {
+            int batch = Math.min(count, BATCH_SIZE);
+            position = decode(chunk, position, batch);
+            emit(batch);
+            count -= batch;
+        }
+        partialBytes = end - position;
+        System.arraycopy(chunk, position, partial, 0, partialBytes);
+    }
+
+    /**
+     * Check if the last value is complete, i.e. no bytes are waiting for the next chunk.
+     *
+     * @return <code>true</code> if the last value is complete.
+     */
+    public boolean isComplete() {
+        return partialBytes == 0;
+    }
+
+    /**
+     * Get the number of decoded values.
+     *
+     * @return The number of decoded values.
+     */
+    public long getDecodedCount() {
+        return decoded;
+    }
+
+    /**
+     * Decode consecutive values into the batch.
+     *
+     * @param data   The data.
+     * @param offset The offset of the first byte.
+     * @param count  The number of values.
+     *
+     * @return The offset after the last value.
+     */
+    private int decode(byte[] data, int offset, int count) {
+        switch (width) {
+            case 1:
+                for (int i = 0; i < count; i++) {
+                    values[i] = unsigned ? data[offset + i] & 0xFF : data[offset + i];
+                }
+                return offset + count;
+            case 2:
+                offset = view.getShorts(data, offset, shorts, 0, count);
+                if (unsigned) {
+                    for (int i = 0; i < count; i++) {
+                        values[i] = shorts[i] & 0xFFFF;
+                    }
+                } else {
+                    for (int i = 0; i < count; i++) {
+                        values[i] = shorts[i];
+                    }
+                }
+                return offset;
+            case 4:
+                offset = view.getInts(data, offset, ints, 0, count);
+                if (unsigned) {
+                    for (int i = 0; i < count; i++) {
+                        values[i] = ints[i] & 0xFFFFFFFFL;
+                    }
+                } else {
+                    for (int i = 0; i < count; i++) {
+                        values[i] = ints[i];
+                    }
+                }
+                return offset;
+            default:
+                return view.getLongs(data, offset, values, 0, count);
+        }
+    }
+
+    /**
+     * Pass decoded values to the consumer.
+     *
+     * @param count The number of values.
+     */
+    private void emit(int count) {
+        for (int i = 0; i < count; i++) {
+            consumer.accept(values[i]);
+        }
+        decoded += count;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("PrimitiveStreamDecoder [");
+        sb.append("order: ").append(view.getOrder()).append(", ");
+        sb.append("width: ").append(width).append(", ");
+        sb.append("unsigned: ").append(unsigned).append(", ");
+        sb.append("decoded: ").append(decoded).append(", ");
+        sb.append("partial: ").append(partialBytes);
+        sb.append("]");
+        return sb.toString();
+    }
+}
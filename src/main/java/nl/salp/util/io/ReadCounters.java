@@ -0,0 +1,156 @@
+package nl.salp.util.io;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link ReadMetrics} adding up the statistics of all reads in counters, e.g. to expose them as gauges.
+ *
+ * <p>
+ * This class is thread-safe. The counters are updated independently, so a snapshot taken during a read may include
+ * only part of its statistics.
+ * </p>
+ */
+public class ReadCounters implements ReadMetrics {
+    /**
+     * The number of reads.
+     */
+    private final AtomicLong reads = new AtomicLong();
+    /**
+     * The number of bytes read.
+     */
+    private final AtomicLong bytesRead = new AtomicLong();
+    /**
+     * The number of chunks read.
+     */
+    private final AtomicLong chunks = new AtomicLong();
+    /**
+     * The number of bytes copied.
+     */
+    private final AtomicLong bytesCopied = new AtomicLong();
+    /**
+     * The time spent waiting on streams in nanoseconds.
+     */
+    private final AtomicLong stallNanos = new AtomicLong();
+    /**
+     * The total time of the reads in nanoseconds.
+     */
+    private final AtomicLong durationNanos = new AtomicLong();
+    /**
+     * The total size of the returned arrays.
+     */
+    private final AtomicLong resultBytes = new AtomicLong();
+
+    /**
+     * Check if reads should be recorded, which is always the case for counters.
+     *
+     * @return <code>true</code>.
+     */
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public void onRead(long bytesRead, long chunks, long bytesCopied, long stallNanos, long durationNanos, long resultBytes) {
+        this.reads.incrementAndGet();
+        this.bytesRead.addAndGet(bytesRead);
+        this.chunks.addAndGet(chunks);
+        this.bytesCopied.addAndGet(bytesCopied);
+        this.stallNanos.addAndGet(stallNanos);
+        this.durationNanos.addAndGet(durationNanos);
+        if (resultBytes > 0) {
+            this.resultBytes.addAndGet(resultBytes);
+        }
+    }
+
+    /**
+     * Get the number of reads.
+     *
+     * @return The number of reads.
+     */
+    public long getReads() {
+        return reads.get();
+    }
+
+    /**
+     * Get the number of bytes read from the streams.
+     *
+     * @return The number of bytes.
+     */
+    public long getBytesRead() {
+        return bytesRead.get();
+    }
+
+    /**
+     * Get the number of chunks with data read from the streams.
+     *
+     * @return The number of chunks.
+     */
+    public long getChunks() {
+        return chunks.get();
+    }
+
+    /**
+     * Get the number of bytes copied to build the results.
+     *
+     * @return The number of bytes.
+     */
+    public long getBytesCopied() {
+        return bytesCopied.get();
+    }
+
+    /**
+     * Get the time spent waiting on the streams.
+     *
+     * @return The time in nanoseconds.
+     */
+    public long getStallNanos() {
+        return stallNanos.get();
+    }
+
+    /**
+     * Get the total time of the reads.
+     *
+     * @return The time in nanoseconds.
+     */
+    public long getDurationNanos() {
+        return durationNanos.get();
+    }
+
+    /**
+     * Get the total size of the returned arrays.
+     *
+     * @return The number of bytes.
+     */
+    public long getResultBytes() {
+        return resultBytes.get();
+    }
+
+    /**
+     * Reset all counters to 0.
+     */
+    public void reset() {
+        reads.set(0);
+        bytesRead.set(0);
+        chunks.set(0);
+        bytesCopied.set(0);
+        stallNanos.set(0);
+        durationNanos.set(0);
+        resultBytes.set(0);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("ReadCounters [");
+        sb.append("reads: ").append(getReads()).append(", ");
+        sb.append("bytesRead: ").append(getBytesRead()).append(", ");
+        sb.append("chunks: ").append(getChunks()).append(", ");
+        sb.append("bytesCopied: ").append(getBytesCopied()).append(", ");
+        sb.append("stallNanos: ").append(getStallNanos()).append(", ");
+        sb.append("durationNanos: ").append(getDurationNanos()).append(", ");
+        sb.append("resultBytes: ").append(getResultBytes());
+        sb.append("]");
+        return sb.toString();
+    }
+}
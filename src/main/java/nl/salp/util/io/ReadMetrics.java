@@ -0,0 +1,34 @@
+package nl.salp.util.io;
+
+/**
+ * Callback receiving the statistics of every read of a {@link ChunkedByteStreamReader}.
+ *
+ * <p>
+ * The statistics are passed as primitives, so recording them does not allocate. Implementations are called on the
+ * reading thread and must be thread-safe when a reader is shared between threads.
+ * </p>
+ *
+ * @see ReadCounters
+ * @see FlightRecorder#readMetrics()
+ */
+public interface ReadMetrics {
+    /**
+     * Check if reads should be recorded. This is checked once at the start of every read; a read started while the
+     * metrics are disabled is neither timed nor recorded.
+     *
+     * @return <code>true</code> if reads should be recorded.
+     */
+    boolean isEnabled();
+
+    /**
+     * Record a completed read.
+     *
+     * @param bytesRead     The number of bytes read from the stream.
+     * @param chunks        The number of chunks with data read from the stream.
+     * @param bytesCopied   The number of bytes copied to build the result.
+     * @param stallNanos    The time spent waiting on the stream in nanoseconds.
+     * @param durationNanos The total time of the read in nanoseconds.
+     * @param resultBytes   The size of the returned array, or -1 when the chunks were passed to a {@link ChunkConsumer}.
+     */
+    void onRead(long bytesRead, long chunks, long bytesCopied, long stallNanos, long durationNanos, long resultBytes);
+}
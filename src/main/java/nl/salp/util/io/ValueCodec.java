@@ -0,0 +1,42 @@
+package nl.salp.util.io;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Binary codec for values of a single type, writing to and reading from a {@link ByteBuffer}.
+ *
+ * @param <T> The type of the values.
+ * @see ValueCodecs
+ */
+public interface ValueCodec<T> {
+    /**
+     * Get the number of bytes a value is encoded to.
+     *
+     * @param value The value.
+     *
+     * @return The number of bytes.
+     */
+    int encodedSize(T value);
+
+    /**
+     * Encode a value at the current position of a buffer, advancing the position.
+     *
+     * @param value  The value.
+     * @param buffer The buffer.
+     *
+     * @throws java.nio.BufferOverflowException When the buffer does not have enough space remaining.
+     */
+    void encode(T value, ByteBuffer buffer);
+
+    /**
+     * Decode a value at the current position of a buffer, advancing the position.
+     *
+     * @param buffer The buffer.
+     *
+     * @return The value.
+     *
+     * @throws java.nio.BufferUnderflowException When the buffer does not contain a complete value.
+     * @throws IllegalArgumentException         When the data is not a valid encoded value.
+     */
+    T decode(ByteBuffer buffer);
+}
@@ -0,0 +1,150 @@
+package nl.salp.util.io;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+import nl.salp.util.bit.VarIntCodec;
+
+/**
+ * Standard {@link ValueCodec} implementations.
+ */
+public final class ValueCodecs {
+    /**
+     * Codec for integers, as zigzag encoded varint.
+     */
+    public static final ValueCodec<Integer> INTEGER = new ValueCodec<Integer>() {
+        @Override
+        public int encodedSize(Integer value) {
+            return VarIntCodec.sizeOf(VarIntCodec.zigZagEncode(value));
+        }
+
+        @Override
+        public void encode(Integer value, ByteBuffer buffer) {
+            VarIntCodec.writeInt(buffer, VarIntCodec.zigZagEncode(value));
+        }
+
+        @Override
+        public Integer decode(ByteBuffer buffer) {
+            return VarIntCodec.zigZagDecode(VarIntCodec.readInt(buffer));
+        }
+    };
+
+    /**
+     * Codec for longs, as zigzag encoded varint.
+     */
+    public static final ValueCodec<Long> LONG = new ValueCodec<Long>() {
+        @Override
+        public int encodedSize(Long value) {
+            return VarIntCodec.sizeOf(VarIntCodec.zigZagEncode(value));
+        }
+
+        @Override
+        public void encode(Long value, ByteBuffer buffer) {
+            VarIntCodec.writeLong(buffer, VarIntCodec.zigZagEncode(value));
+        }
+
+        @Override
+        public Long decode(ByteBuffer buffer) {
+            return VarIntCodec.zigZagDecode(VarIntCodec.readLong(buffer));
+        }
+    };
+
+    /**
+     * Codec for booleans, as a single byte.
+     */
+    public static final ValueCodec<Boolean> BOOLEAN = new ValueCodec<Boolean>() {
+        @Override
+        public int encodedSize(Boolean value) {
+            return 1;
+        }
+
+        @Override
+        public void encode(Boolean value, ByteBuffer buffer) {
+            buffer.put(value ? (byte) 1 : (byte) 0);
+        }
+
+        @Override
+        public Boolean decode(ByteBuffer buffer) {
+            byte value = buffer.get();
+            if (value != 0 && value != 1) {
+                throw new IllegalArgumentException("Invalid boolean value " + value);
+            }
+            return value == 1;
+        }
+    };
+
+    /**
+     * Codec for strings, as the varint byte length followed by the UTF-8 bytes.
+     */
+    public static final ValueCodec<String> STRING = new ValueCodec<String>() {
+        /**
+         * The character set of encoded strings.
+         */
+        private final Charset utf8 = Charset.forName("UTF-8");
+
+        @Override
+        public int encodedSize(String value) {
+            int length = utf8Length(value);
+            return VarIntCodec.sizeOf(length) + length;
+        }
+
+        @Override
+        public void encode(String value, ByteBuffer buffer) {
+            byte[] bytes = value.getBytes(utf8);
+            VarIntCodec.writeInt(buffer, bytes.length);
+            buffer.put(bytes);
+        }
+
+        @Override
+        public String decode(ByteBuffer buffer) {
+            int length = VarIntCodec.readInt(buffer);
+            if (length < 0 || length > buffer.remaining()) {
+                throw new IllegalArgumentException("Invalid string length " + length);
+            }
+            String value;
+            if (buffer.hasArray()) {
+                value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, utf8);
+                buffer.position(buffer.position() + length);
+            } else {
+                byte[] bytes = new byte[length];
+                buffer.get(bytes);
+                value = new String(bytes, utf8);
+            }
+            return value;
+        }
+    };
+
+    /**
+     * Utility class, no instances.
+     */
+    private ValueCodecs() {
+    }
+
+    /**
+     * Calculate the number of bytes of the UTF-8 encoding of a string without encoding it.
+     *
+     * @param value The string.
+     *
+     * @return The number of bytes.
+     */
+    private static int utf8Length(String value) {
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isHighSurrogate(c) || Character.isLowSurrogate(c)) {
+                // Unpaired surrogates are replaced by '?' when encoding.
+                length++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+}
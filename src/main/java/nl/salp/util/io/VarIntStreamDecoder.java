@@ -0,0 +1,153 @@
+package nl.salp.util.io;
+
+import nl.salp.util.bit.VarIntCodec;
+
+/**
+ * Decoder for a stream of varint encoded longs arriving in chunks, for example from
+ * {@link ChunkedByteStreamReader#read(java.io.InputStream, ChunkConsumer)}.
+ *
+ * <p>
+ * The complete varints of a chunk are counted and decoded in bulk with {@link VarIntCodec}; only the bytes of a varint
+ * that continues in the next chunk are kept until that chunk arrives.
+ * </p>
+ *
+ * <p>
+ * This class is not thread-safe.
+ * </p>
+ */
+public class VarIntStreamDecoder implements ChunkConsumer {
+    /**
+     * The number of values decoded at once.
+     */
+    private static final int BATCH_SIZE = 256;
+
+    /**
+     * The consumer for the decoded values.
+     */
+    private final LongValueConsumer consumer;
+    /**
+     * <code>true</code> if the values are zigzag encoded.
+     */
+    private final boolean zigZag;
+    /**
+     * The decoded values of a batch.
+     */
+    private final long[] values = new long[BATCH_SIZE];
+    /**
+     * The bytes of a varint that continues in the next chunk.
+     */
+    private final byte[] partial = new byte[VarIntCodec.MAX_LONG_BYTES];
+    /**
+     * The number of bytes of a varint that continues in the next chunk.
+     */
+    private int partialBytes;
+    /**
+     * The number of decoded values.
+     */
+    private long decoded;
+
+    /**
+     * Create a new VarIntStreamDecoder.
+     *
+     * @param consumer The consumer for the decoded values.
+     * @param zigZag   <code>true</code> if the values are zigzag encoded.
+     *
+     * @throws IllegalArgumentException When no consumer was provided.
+     */
+    public VarIntStreamDecoder(LongValueConsumer consumer, boolean zigZag) throws IllegalArgumentException {
+        if (consumer == null) {
+            throw new IllegalArgumentException("No value consumer provided");
+        }
+        this.consumer = consumer;
+        this.zigZag = zigZag;
+    }
+
+    /**
+     * Decode the varints in a chunk, completing the varint from the previous chunk first.
+     *
+     * @param chunk  The array with the chunk.
+     * @param offset The offset of the first byte of the chunk.
+     * @param length The number of bytes in the chunk.
+     *
+     * @throws IllegalArgumentException When a varint is too long.
+     */
+    @Override
+    public void accept(byte[] chunk, int offset, int length) throws IllegalArgumentException {
+        int position = offset;
+        int end = offset + length;
+        while (partialBytes > 0 && position < end) {
+            byte b = chunk[position++];
+            addPartial(b);
+            if (b >= 0) {
+                VarIntCodec.decodeLongs(partial, 0, values, 0, 1, zigZag);
+                partialBytes = 0;
+                emit(1);
+            }
+        }
+        int count = VarIntCodec.countValues(chunk, position, end - position);
+        while (count > 0) {
+            int batch = Math.min(count, BATCH_SIZE);
+            position = VarIntCodec.decodeLongs(chunk, position, values, 0, batch, zigZag);
+            emit(batch);
+            count -= batch;
+        }
+        while (position < end) {
+            addPartial(chunk[position++]);
+        }
+    }
+
+    /**
+     * Check if the last varint is complete, i.e. no bytes are waiting for the next chunk.
+     *
+     * @return <code>true</code> if the last varint is complete.
+     */
+    public boolean isComplete() {
+        return partialBytes == 0;
+    }
+
+    /**
+     * Get the number of decoded values.
+     *
+     * @return The number of decoded values.
+     */
+    public long getDecodedCount() {
+        return decoded;
+    }
+
+    /**
+     * Add a byte to the varint that continues in the next chunk.
+     *
+     * @param b The byte.
+     *
+     * @throws IllegalArgumentException When the varint is too long.
+     */
+    private void addPartial(byte b) throws IllegalArgumentException {
+        if (partialBytes == partial.length) {
+            throw new IllegalArgumentException("Malformed varint, more than " + VarIntCodec.MAX_LONG_BYTES + " bytes for a long");
+        }
+        partial[partialBytes++] = b;
+    }
+
+    /**
+     * Pass decoded values to the consumer.
+     *
+     * @param count The number of values.
+     */
+    private void emit(int count) {
+        for (int i = 0; i < count; i++) {
+            consumer.accept(values[i]);
+        }
+        decoded += count;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("VarIntStreamDecoder [");
+        sb.append("zigZag: ").append(zigZag).append(", ");
+        sb.append("decoded: ").append(decoded).append(", ");
+        sb.append("partial: ").append(partialBytes);
+        sb.append("]");
+        return sb.toString();
+    }
+}
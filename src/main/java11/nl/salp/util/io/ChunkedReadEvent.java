@@ -0,0 +1,56 @@
+package nl.salp.util.io;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event for a read of a {@link ChunkedByteStreamReader}.
+ */
+@Name("nl.salp.util.io.ChunkedRead")
+@Label("Chunked Read")
+@Category({"salp-util", "I/O"})
+@Description("Read of a stream by a ChunkedByteStreamReader")
+@StackTrace(false)
+final class ChunkedReadEvent extends Event {
+    /**
+     * The number of bytes read from the stream.
+     */
+    @Label("Bytes Read")
+    @DataAmount
+    long bytesRead;
+    /**
+     * The number of chunks with data read from the stream.
+     */
+    @Label("Chunks")
+    long chunks;
+    /**
+     * The number of bytes copied to build the result.
+     */
+    @Label("Bytes Copied")
+    @DataAmount
+    long bytesCopied;
+    /**
+     * The time spent waiting on the stream.
+     */
+    @Label("Stall Time")
+    @Timespan
+    long stallTime;
+    /**
+     * The total time of the read.
+     */
+    @Label("Read Time")
+    @Timespan
+    long readTime;
+    /**
+     * The size of the returned array, or -1 when the chunks were passed to a consumer.
+     */
+    @Label("Result Size")
+    @DataAmount
+    long resultSize;
+}
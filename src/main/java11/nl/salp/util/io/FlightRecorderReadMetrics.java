@@ -0,0 +1,42 @@
+package nl.salp.util.io;
+
+import jdk.jfr.EventType;
+
+/**
+ * {@link ReadMetrics} committing a {@link ChunkedReadEvent} for every read, obtained through
+ * {@link FlightRecorder#readMetrics()}.
+ *
+ * <p>
+ * The metrics are only enabled while a recording with the event enabled is running, so reads are not timed otherwise.
+ * </p>
+ */
+public final class FlightRecorderReadMetrics implements ReadMetrics {
+    /**
+     * The type of the read events.
+     */
+    private static final EventType EVENT_TYPE = EventType.getEventType(ChunkedReadEvent.class);
+
+    @Override
+    public boolean isEnabled() {
+        return EVENT_TYPE.isEnabled();
+    }
+
+    @Override
+    public void onRead(long bytesRead, long chunks, long bytesCopied, long stallNanos, long durationNanos, long resultBytes) {
+        ChunkedReadEvent event = new ChunkedReadEvent();
+        if (event.shouldCommit()) {
+            event.bytesRead = bytesRead;
+            event.chunks = chunks;
+            event.bytesCopied = bytesCopied;
+            event.stallTime = stallNanos;
+            event.readTime = durationNanos;
+            event.resultSize = resultBytes;
+            event.commit();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "FlightRecorderReadMetrics []";
+    }
+}
@@ -0,0 +1,270 @@
+package nl.salp.util.bit;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * Word-level kernels of the hot paths in this package, using the intrinsics of Java 21.
+ *
+ * <p>
+ * This variant is loaded from <code>META-INF/versions/21</code> of the multi-release JAR instead of the portable
+ * implementation and must give the same results.
+ * </p>
+ */
+final class Intrinsics {
+    /**
+     * The bits of the 7-bit groups of a varint word, without the continuation bits.
+     */
+    private static final long VARINT_GROUP_BITS = 0x7F7F7F7F7F7F7F7FL;
+    /**
+     * Little-endian short view of byte arrays.
+     */
+    private static final VarHandle SHORT_LE = MethodHandles.byteArrayViewVarHandle(short[].class, ByteOrder.LITTLE_ENDIAN);
+    /**
+     * Big-endian short view of byte arrays.
+     */
+    private static final VarHandle SHORT_BE = MethodHandles.byteArrayViewVarHandle(short[].class, ByteOrder.BIG_ENDIAN);
+    /**
+     * Little-endian int view of byte arrays.
+     */
+    private static final VarHandle INT_LE = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+    /**
+     * Big-endian int view of byte arrays.
+     */
+    private static final VarHandle INT_BE = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+    /**
+     * Little-endian long view of byte arrays.
+     */
+    private static final VarHandle LONG_LE = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    /**
+     * Big-endian long view of byte arrays.
+     */
+    private static final VarHandle LONG_BE = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+    /**
+     * Utility class, no instances.
+     */
+    private Intrinsics() {
+    }
+
+    /**
+     * Read a little-endian long from a byte array with a single (unaligned) load.
+     *
+     * @param data   The data.
+     * @param offset The offset of the first byte.
+     *
+     * @return The value.
+     *
+     * @throws IndexOutOfBoundsException When the array does not have 8 bytes at the offset.
+     */
+    static long getLongLE(byte[] data, int offset) throws IndexOutOfBoundsException {
+        return (long) LONG_LE.get(data, offset);
+    }
+
+    /**
+     * Read a little-endian short from a byte array with a single (unaligned) load.
+     *
+     * @param data   The data.
+     * @param offset The offset of the first byte.
+     *
+     * @return The value.
+     *
+     * @throws IndexOutOfBoundsException When the array does not have 2 bytes at the offset.
+     */
+    static short getShortLE(byte[] data, int offset) throws IndexOutOfBoundsException {
+        return (short) SHORT_LE.get(data, offset);
+    }
+
+    /**
+     * Read a big-endian short from a byte array with a single (unaligned) load.
+     *
+     * @param data   The data.
+     * @param offset The offset of the first byte.
+     *
+     * @return The value.
+     *
+     * @throws IndexOutOfBoundsException When the array does not have 2 bytes at the offset.
+     */
+    static short getShortBE(byte[] data, int offset) throws IndexOutOfBoundsException {
+        return (short) SHORT_BE.get(data, offset);
+    }
+
+    /**
+     * Read a little-endian int from a byte array with a single (unaligned) load.
+     *
+     * @param data   The data.
+     * @param offset The offset of the first byte.
+     *
+     * @return The value.
+     *
+     * @throws IndexOutOfBoundsException When the array does not have 4 bytes at the offset.
+     */
+    static int getIntLE(byte[] data, int offset) throws IndexOutOfBoundsException {
+        return (int) INT_LE.get(data, offset);
+    }
+
+    /**
+     * Read a big-endian int from a byte array with a single (unaligned) load.
+     *
+     * @param data   The data.
+     * @param offset The offset of the first byte.
+     *
+     * @return The value.
+     *
+     * @throws IndexOutOfBoundsException When the array does not have 4 bytes at the offset.
+     */
+    static int getIntBE(byte[] data, int offset) throws IndexOutOfBoundsException {
+        return (int) INT_BE.get(data, offset);
+    }
+
+    /**
+     * Read a big-endian long from a byte array with a single (unaligned) load.
+     *
+     * @param data   The data.
+     * @param offset The offset of the first byte.
+     *
+     * @return The value.
+     *
+     * @throws IndexOutOfBoundsException When the array does not have 8 bytes at the offset.
+     */
+    static long getLongBE(byte[] data, int offset) throws IndexOutOfBoundsException {
+        return (long) LONG_BE.get(data, offset);
+    }
+
+    /**
+     * Write a short little-endian to a byte array with a single (unaligned) store.
+     *
+     * @param data   The data.
+     * @param offset The offset of the first byte.
+     * @param value  The value.
+     *
+     * @throws IndexOutOfBoundsException When the array does not have 2 bytes at the offset.
+     */
+    static void putShortLE(byte[] data, int offset, short value) throws IndexOutOfBoundsException {
+        SHORT_LE.set(data, offset, value);
+    }
+
+    /**
+     * Write a short big-endian to a byte array with a single (unaligned) store.
+     *
+     * @param data   The data.
+     * @param offset The offset of the first byte.
+     * @param value  The value.
+     *
+     * @throws IndexOutOfBoundsException When the array does not have 2 bytes at the offset.
+     */
+    static void putShortBE(byte[] data, int offset, short value) throws IndexOutOfBoundsException {
+        SHORT_BE.set(data, offset, value);
+    }
+
+    /**
+     * Write a int little-endian to a byte array with a single (unaligned) store.
+     *
+     * @param data   The data.
+     * @param offset The offset of the first byte.
+     * @param value  The value.
+     *
+     * @throws IndexOutOfBoundsException When the array does not have 4 bytes at the offset.
+     */
+    static void putIntLE(byte[] data, int offset, int value) throws IndexOutOfBoundsException {
+        INT_LE.set(data, offset, value);
+    }
+
+    /**
+     * Write a int big-endian to a byte array with a single (unaligned) store.
+     *
+     * @param data   The data.
+     * @param offset The offset of the first byte.
+     * @param value  The value.
+     *
+     * @throws IndexOutOfBoundsException When the array does not have 4 bytes at the offset.
+     */
+    static void putIntBE(byte[] data, int offset, int value) throws IndexOutOfBoundsException {
+        INT_BE.set(data, offset, value);
+    }
+
+    /**
+     * Write a long little-endian to a byte array with a single (unaligned) store.
+     *
+     * @param data   The data.
+     * @param offset The offset of the first byte.
+     * @param value  The value.
+     *
+     * @throws IndexOutOfBoundsException When the array does not have 8 bytes at the offset.
+     */
+    static void putLongLE(byte[] data, int offset, long value) throws IndexOutOfBoundsException {
+        LONG_LE.set(data, offset, value);
+    }
+
+    /**
+     * Write a long big-endian to a byte array with a single (unaligned) store.
+     *
+     * @param data   The data.
+     * @param offset The offset of the first byte.
+     * @param value  The value.
+     *
+     * @throws IndexOutOfBoundsException When the array does not have 8 bytes at the offset.
+     */
+    static void putLongBE(byte[] data, int offset, long value) throws IndexOutOfBoundsException {
+        LONG_BE.set(data, offset, value);
+    }
+
+    /**
+     * Compact the 7-bit groups of a varint of up to 8 bytes read as little-endian word into its value, with a single
+     * bit extract (<code>PEXT</code> on x86).
+     *
+     * @param word  The word, starting with the first byte of the varint.
+     * @param bytes The number of bytes of the varint (1-8).
+     *
+     * @return The value.
+     */
+    static long compactVarInt(long word, int bytes) {
+        return Long.compress(word, (-1L >>> (64 - (bytes << 3))) & VARINT_GROUP_BITS);
+    }
+
+    /**
+     * Spread the low 32 bits of a value over the even bits of a long, for 2D Morton codes, with a single bit deposit
+     * (<code>PDEP</code> on x86).
+     *
+     * @param value The value; the high 32 bits are ignored.
+     *
+     * @return The spread bits.
+     */
+    static long spread2(long value) {
+        return Long.expand(value, 0x5555555555555555L);
+    }
+
+    /**
+     * Gather the even bits of a long into the low 32 bits, the inverse of {@link #spread2(long)}.
+     *
+     * @param code The code.
+     *
+     * @return The gathered bits.
+     */
+    static long compact2(long code) {
+        return Long.compress(code, 0x5555555555555555L);
+    }
+
+    /**
+     * Spread the low 21 bits of a value over every third bit of a long, starting at bit 0, for 3D Morton codes.
+     *
+     * @param value The value; the bits above 21 are ignored.
+     *
+     * @return The spread bits.
+     */
+    static long spread3(long value) {
+        return Long.expand(value, 0x1249249249249249L);
+    }
+
+    /**
+     * Gather every third bit of a long, starting at bit 0, into the low 21 bits, the inverse of {@link #spread3(long)}.
+     *
+     * @param code The code.
+     *
+     * @return The gathered bits.
+     */
+    static long compact3(long code) {
+        return Long.compress(code, 0x1249249249249249L);
+    }
+}
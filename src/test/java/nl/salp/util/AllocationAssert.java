@@ -0,0 +1,177 @@
+package nl.salp.util;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Test support for checking that the {@link AllocationFree} methods of a class do not allocate.
+ *
+ * <p>
+ * An operation calling a method is warmed up until it is compiled and then called repeatedly while measuring the bytes
+ * allocated by the current thread with <code>com.sun.management.ThreadMXBean#getThreadAllocatedBytes</code>. Any
+ * allocation per call shows up as at least 16 bytes per call, far above the noise of the measurement itself.
+ * </p>
+ *
+ * <p>
+ * Usage:
+ * </p>
+ * <pre>
+ * AllocationAssert allocations = new AllocationAssert(IntegerBitHelper.class);
+ * allocations.assertAllocationFree("setBit", new Runnable() {
+ *     public void run() {
+ *         sink += helper.setBit(value++, 13);
+ *     }
+ * });
+ * ...
+ * allocations.assertAllMarkedMethodsChecked();
+ * </pre>
+ */
+public final class AllocationAssert {
+    /**
+     * The number of calls to warm up an operation.
+     */
+    private static final int WARMUP_CALLS = 50000;
+    /**
+     * The number of calls per measurement.
+     */
+    private static final int MEASURED_CALLS = 100000;
+    /**
+     * The number of measurements, of which the lowest is used.
+     */
+    private static final int MEASUREMENTS = 5;
+    /**
+     * The number of bytes a measurement may show without failing, covering the measurement itself.
+     */
+    private static final long TOLERATED_BYTES = 1024;
+
+    /**
+     * The thread MX bean with allocation counters, or <code>null</code> if not supported by the JVM.
+     */
+    private static final com.sun.management.ThreadMXBean THREADS = threadMXBean();
+
+    /**
+     * The class with the checked methods.
+     */
+    private final Class<?> type;
+    /**
+     * The names of the checked methods.
+     */
+    private final Set<String> checked = new TreeSet<String>();
+
+    /**
+     * Create a new AllocationAssert.
+     *
+     * @param type The class with the checked methods.
+     */
+    public AllocationAssert(Class<?> type) {
+        this.type = type;
+    }
+
+    /**
+     * Check if the JVM can measure the bytes allocated by a thread.
+     *
+     * @return <code>true</code> if allocations can be measured.
+     */
+    public static boolean isSupported() {
+        return THREADS != null;
+    }
+
+    /**
+     * Measure the bytes allocated by an operation per call, after warming it up.
+     *
+     * @param operation The operation.
+     *
+     * @return The lowest number of bytes allocated per call over the measurements.
+     *
+     * @throws IllegalStateException When allocations can not be measured in this JVM.
+     */
+    public static double measure(Runnable operation) throws IllegalStateException {
+        return (double) measureCalls(operation) / MEASURED_CALLS;
+    }
+
+    /**
+     * Assert that an operation calling a method does not allocate and mark the method as checked.
+     *
+     * @param method    The name of the method called by the operation.
+     * @param operation The operation.
+     *
+     * @throws IllegalStateException When allocations can not be measured in this JVM.
+     */
+    public void assertAllocationFree(String method, Runnable operation) throws IllegalStateException {
+        long bytes = measureCalls(operation);
+        if (bytes > TOLERATED_BYTES) {
+            fail(type.getSimpleName() + "." + method + " allocated " + bytes + " bytes in " + MEASURED_CALLS + " calls ("
+                    + ((double) bytes / MEASURED_CALLS) + " bytes per call)");
+        }
+        checked.add(method);
+    }
+
+    /**
+     * Assert that all methods of the class that are marked {@link AllocationFree} have been checked.
+     */
+    public void assertAllMarkedMethodsChecked() {
+        Set<String> marked = new TreeSet<String>();
+        for (Method method : type.getDeclaredMethods()) {
+            if (method.isAnnotationPresent(AllocationFree.class)) {
+                marked.add(method.getName());
+            }
+        }
+        assertEquals("Checked methods of " + type.getSimpleName(), marked, checked);
+    }
+
+    /**
+     * Warm up an operation and measure the lowest number of bytes allocated by a batch of calls.
+     *
+     * @param operation The operation.
+     *
+     * @return The number of bytes.
+     *
+     * @throws IllegalStateException When allocations can not be measured in this JVM.
+     */
+    private static long measureCalls(Runnable operation) throws IllegalStateException {
+        if (!isSupported()) {
+            throw new IllegalStateException("Measuring allocations is not supported by this JVM");
+        }
+        for (int i = 0; i < WARMUP_CALLS; i++) {
+            operation.run();
+        }
+        long thread = Thread.currentThread().getId();
+        long lowest = Long.MAX_VALUE;
+        for (int m = 0; m < MEASUREMENTS; m++) {
+            long start = THREADS.getThreadAllocatedBytes(thread);
+            for (int i = 0; i < MEASURED_CALLS; i++) {
+                operation.run();
+            }
+            lowest = Math.min(lowest, THREADS.getThreadAllocatedBytes(thread) - start);
+        }
+        return lowest;
+    }
+
+    /**
+     * Get the thread MX bean with allocation counters, enabling them when needed.
+     *
+     * @return The MX bean, or <code>null</code> if not supported.
+     */
+    private static com.sun.management.ThreadMXBean threadMXBean() {
+        try {
+            java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if (bean instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+                if (threads.isThreadAllocatedMemorySupported()) {
+                    threads.setThreadAllocatedMemoryEnabled(true);
+                    return threads;
+                }
+            }
+        } catch (LinkageError e) {
+            // com.sun.management is not available.
+        } catch (UnsupportedOperationException e) {
+            // Allocation counters are not supported.
+        }
+        return null;
+    }
+}
@@ -0,0 +1,93 @@
+package nl.salp.util;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Unit tests for {@link AllocationAssert}.
+ */
+public class AllocationAssertTest {
+    /**
+     * Sink for allocated arrays, so the allocation is not eliminated.
+     */
+    private volatile long[] sink;
+    /**
+     * Sink for computed values.
+     */
+    private long value;
+
+    /**
+     * Skip the tests on JVMs that can not measure allocations.
+     */
+    @Before
+    public void setUp() {
+        assumeTrue(AllocationAssert.isSupported());
+    }
+
+    /**
+     * Check that an allocation per call is measured.
+     */
+    @Test
+    public void shouldMeasureAllocation() {
+        double bytes = AllocationAssert.measure(new Runnable() {
+            @Override
+            public void run() {
+                sink = new long[2];
+            }
+        });
+
+        assertTrue("Measured " + bytes + " bytes per call", bytes >= 16);
+    }
+
+    /**
+     * Check that an allocating operation fails the assertion.
+     */
+    @Test(expected = AssertionError.class)
+    public void shouldFailWhenAllocating() {
+        new AllocationAssert(AllocationAssertTest.class).assertAllocationFree("run", new Runnable() {
+            @Override
+            public void run() {
+                sink = new long[2];
+            }
+        });
+    }
+
+    /**
+     * Check that an operation without allocation passes the assertion.
+     */
+    @Test
+    public void shouldPassWithoutAllocation() {
+        new AllocationAssert(AllocationAssertTest.class).assertAllocationFree("run", new Runnable() {
+            @Override
+            public void run() {
+                value = value * 31 + 7;
+            }
+        });
+    }
+
+    /**
+     * Check that marked methods that are not checked fail the assertion.
+     */
+    @Test(expected = AssertionError.class)
+    public void shouldFailWhenMarkedMethodIsNotChecked() {
+        new AllocationAssert(Marked.class).assertAllMarkedMethodsChecked();
+    }
+
+    /**
+     * Class with a marked method.
+     */
+    private static final class Marked {
+        /**
+         * A marked method.
+         *
+         * @return 0.
+         */
+        @AllocationFree
+        int marked() {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package nl.salp.util.bit;
+
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import nl.salp.util.AllocationAssert;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Unit tests for {@link BitFormatter}.
+ */
+public class BitFormatterTest {
+    /**
+     * The bytes of the hex dump tests.
+     */
+    private static final byte[] DUMP_DATA = "Hello, world!\n\u0000ÿThe end.".getBytes(java.nio.charset.Charset.forName("ISO-8859-1"));
+    /**
+     * The hex dump of {@link #DUMP_DATA}, as written by <code>hexdump -C</code>.
+     */
+    private static final String DUMP = ""
+            + "00000000  48 65 6c 6c 6f 2c 20 77  6f 72 6c 64 21 0a 00 ff  |Hello, world!...|\n"
+            + "00000010  54 68 65 20 65 6e 64 2e                           |The end.|\n";
+
+    /**
+     * Value to operate on in the allocation test.
+     */
+    private long value;
+    /**
+     * Sink for the results of the allocation test.
+     */
+    private long sink;
+
+    /**
+     * Check that random values are formatted like {@link Long#toBinaryString(long)} and {@link Long#toHexString(long)}
+     * with padding, for every number of bits.
+     */
+    @Test
+    public void shouldFormatValues() throws Exception {
+        Random rng = new Random(47);
+        char[] chars = new char[70];
+        for (int bits = 1; bits <= 64; bits++) {
+            long value = rng.nextLong();
+            long masked = bits == 64 ? value : value & ((1L << bits) - 1);
+            String binary = pad(Long.toBinaryString(masked), bits);
+            String hex = pad(Long.toHexString(masked), (bits + 3) / 4);
+
+            assertEquals(3 + bits, BitFormatter.formatBinary(value, bits, chars, 3));
+            assertEquals(binary, new String(chars, 3, bits));
+            assertEquals(3 + hex.length(), BitFormatter.formatHex(value, bits, chars, 3));
+            assertEquals(hex, new String(chars, 3, hex.length()));
+
+            StringBuilder sb = new StringBuilder();
+            BitFormatter.appendBinary(sb, value, bits);
+            BitFormatter.appendHex(sb, value, bits);
+            assertEquals(binary + hex, sb.toString());
+        }
+    }
+
+    /**
+     * Check that byte ranges are formatted.
+     */
+    @Test
+    public void shouldFormatBytes() throws Exception {
+        byte[] data = {0x00, 0x01, (byte) 0xA5, 0x7F, (byte) 0xFF};
+        char[] chars = new char[40];
+
+        assertEquals(6, BitFormatter.formatHex(data, 1, 3, chars, 0));
+        assertEquals("01a57f", new String(chars, 0, 6));
+        assertEquals(16, BitFormatter.formatBinary(data, 2, 2, chars, 0));
+        assertEquals("1010010101111111", new String(chars, 0, 16));
+
+        StringBuilder sb = new StringBuilder();
+        BitFormatter.appendHex(sb, data, 0, data.length);
+        BitFormatter.appendBinary(sb, data, 4, 1);
+        BitFormatter.appendHex(sb, (ByteBuffer) ByteBuffer.wrap(data).position(3));
+        assertEquals("0001a57fff" + "11111111" + "7fff", sb.toString());
+    }
+
+    /**
+     * Check that a hex dump is written in the layout of <code>hexdump -C</code>.
+     */
+    @Test
+    public void shouldWriteHexDump() throws Exception {
+        char[] chars = new char[(int) BitFormatter.getHexDumpLength(DUMP_DATA.length, 0)];
+        assertEquals(DUMP.length(), chars.length);
+        assertEquals(chars.length, BitFormatter.hexDump(DUMP_DATA, 0, DUMP_DATA.length, 0, chars, 0));
+        assertEquals(DUMP, new String(chars));
+
+        StringBuilder sb = new StringBuilder();
+        BitFormatter.hexDump(sb, DUMP_DATA, 0, DUMP_DATA.length, 0);
+        assertEquals(DUMP, sb.toString());
+
+        StringWriter writer = new StringWriter();
+        BitFormatter.hexDump(writer, ByteBuffer.wrap(DUMP_DATA));
+        assertEquals(DUMP, writer.toString());
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(DUMP_DATA.length);
+        direct.put(DUMP_DATA).flip();
+        StringWriter directWriter = new StringWriter();
+        BitFormatter.hexDump(directWriter, direct);
+        assertEquals(DUMP, directWriter.toString());
+        assertEquals(0, direct.position());
+    }
+
+    /**
+     * Check that the address of a dump starts at the given address and widens when it does not fit in 32 bits.
+     */
+    @Test
+    public void shouldWriteAddresses() throws Exception {
+        StringBuilder sb = new StringBuilder();
+        BitFormatter.hexDump(sb, DUMP_DATA, 16, 4, 0x10);
+        assertEquals("00000010  54 68 65 20                                       |The |\n", sb.toString());
+
+        sb.setLength(0);
+        BitFormatter.hexDump(sb, DUMP_DATA, 16, 4, 0xFFFFFFFEL);
+        assertEquals("00000000fffffffe  54 68 65 20                                       |The |\n", sb.toString());
+        assertEquals(sb.length(), BitFormatter.getHexDumpLength(4, 0xFFFFFFFEL));
+    }
+
+    /**
+     * Check that a hex dump that does not fit in the array is rejected.
+     */
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void shouldThrowExceptionWhenDumpDoesNotFit() {
+        BitFormatter.hexDump(DUMP_DATA, 0, DUMP_DATA.length, 0, new char[DUMP.length() - 1], 0);
+    }
+
+    /**
+     * Check that an invalid number of bits is rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldThrowExceptionForInvalidBits() {
+        BitFormatter.formatHex(1, 65, new char[20], 0);
+    }
+
+    /**
+     * Check that the {@link nl.salp.util.AllocationFree} methods do not allocate.
+     */
+    @Test
+    public void shouldNotAllocate() {
+        assumeTrue(AllocationAssert.isSupported());
+        final char[] chars = new char[1024];
+        final byte[] data = new byte[64];
+        AllocationAssert allocations = new AllocationAssert(BitFormatter.class);
+        allocations.assertAllocationFree("formatBinary", new Runnable() {
+            @Override
+            public void run() {
+                sink += BitFormatter.formatBinary(value++, 64, chars, 0) + BitFormatter.formatBinary(data, 0, data.length, chars, 0);
+            }
+        });
+        allocations.assertAllocationFree("formatHex", new Runnable() {
+            @Override
+            public void run() {
+                sink += BitFormatter.formatHex(value++, 64, chars, 0) + BitFormatter.formatHex(data, 0, data.length, chars, 0);
+            }
+        });
+        allocations.assertAllocationFree("hexDump", new Runnable() {
+            @Override
+            public void run() {
+                data[0] = (byte) value++;
+                sink += BitFormatter.hexDump(data, 0, data.length, value, chars, 0);
+            }
+        });
+        allocations.assertAllMarkedMethodsChecked();
+    }
+
+    /**
+     * Left-pad a string with 0's.
+     *
+     * @param str    The string.
+     * @param length The length to pad to.
+     *
+     * @return The padded string.
+     */
+    private static String pad(String str, int length) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = str.length(); i < length; i++) {
+            sb.append('0');
+        }
+        return sb.append(str).toString();
+    }
+}
@@ -0,0 +1,305 @@
+package nl.salp.util.bit;
+
+import nl.salp.util.AllocationAssert;
+import nl.salp.util.bit.BitHelper.ByteBitHelper;
+import nl.salp.util.bit.BitHelper.IntegerBitHelper;
+import nl.salp.util.bit.BitHelper.LongBitHelper;
+import nl.salp.util.bit.BitHelper.ShortBitHelper;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Allocation tests for the {@link nl.salp.util.AllocationFree} scalar {@link BitHelper} operations.
+ */
+public class BitHelperAllocationTest {
+    /**
+     * The bit index to operate on.
+     */
+    private int bit = 5;
+    /**
+     * The byte value, changed on every call to prevent constant folding.
+     */
+    private byte byteValue;
+    /**
+     * The short value.
+     */
+    private short shortValue;
+    /**
+     * The int value.
+     */
+    private int intValue;
+    /**
+     * The long value.
+     */
+    private long longValue;
+    /**
+     * Sink for the results, so the calls are not eliminated.
+     */
+    private long sink;
+
+    /**
+     * Skip the tests on JVMs that can not measure allocations.
+     */
+    @Before
+    public void setUp() {
+        assumeTrue(AllocationAssert.isSupported());
+    }
+
+    /**
+     * Check that the scalar ByteBitHelper operations do not allocate.
+     */
+    @Test
+    public void shouldNotAllocateForByteOperations() {
+        final ByteBitHelper helper = new ByteBitHelper();
+        AllocationAssert allocations = new AllocationAssert(ByteBitHelper.class);
+        allocations.assertAllocationFree("isBitSet", new Runnable() {
+            @Override
+            public void run() {
+                sink += helper.isBitSet(byteValue++, bit) ? 1 : 0;
+            }
+        });
+        allocations.assertAllocationFree("setBit", new Runnable() {
+            @Override
+            public void run() {
+                sink += helper.setBit(byteValue++, bit);
+            }
+        });
+        allocations.assertAllocationFree("unsetBit", new Runnable() {
+            @Override
+            public void run() {
+                sink += helper.unsetBit(byteValue++, bit);
+            }
+        });
+        allocations.assertAllocationFree("isLsbSet", new Runnable() {
+            @Override
+            public void run() {
+                sink += helper.isLsbSet(byteValue++) ? 1 : 0;
+            }
+        });
+        allocations.assertAllocationFree("setLsb", new Runnable() {
+            @Override
+            public void run() {
+                sink += helper.setLsb(byteValue++);
+            }
+        });
+        allocations.assertAllocationFree("unsetLsb", new Runnable() {
+            @Override
+            public void run() {
+                sink += helper.unsetLsb(byteValue++);
+            }
+        });
+        allocations.assertAllocationFree("isMsbSet", new Runnable() {
+            @Override
+            public void run() {
+                sink += helper.isMsbSet(byteValue++) ? 1 : 0;
+            }
+        });
+        allocations.assertAllocationFree("setMsb", new Runnable() {
+            @Override
+            public void run() {
+                sink += helper.setMsb(byteValue++);
+            }
+        });
+        allocations.assertAllocationFree("unsetMsb", new Runnable() {
+            @Override
+            public void run() {
+                sink += helper.unsetMsb(byteValue++);
+            }
+        });
+        allocations.assertAllMarkedMethodsChecked();
+    }
+
+    /**
+     * Check that the scalar ShortBitHelper operations do not allocate.
+     */
+    @Test
+    public void shouldNotAllocateForShortOperations() {
+        final ShortBitHelper helper = new ShortBitHelper();
+        AllocationAssert allocations = new AllocationAssert(ShortBitHelper.class);
+        allocations.assertAllocationFree("isBitSet", new Runnable() {
+            @Override
+            public void run() {
+                sink += helper.isBitSet(shortValue++, bit) ? 1 : 0;
+            }
+        });
+        allocations.assertAllocationFree("setBit", new Runnable() {
+            @Override
+            public void run() {
+                sink += helper.setBit(shortValue++, bit);
+            }
+        });
+        allocations.assertAllocationFree("unsetBit", new Runnable() {
+            @Override
+            public void run() {
+                sink += helper.unsetBit(shortValue++, bit);
+            }
+        });
+        allocations.assertAllocationFree("isLsbSet", new Runnable() {
+            @Override
+            public void run() {
+                sink += helper.isLsbSet(shortValue++) ? 1 : 0;
+            }
+        });
+        allocations.assertAllocationFree("setLsb", new Runnable() {
+            @Override
+            public void run() {
+                sink += helper.setLsb(shortValue++);
+            }
+        });
+        allocations.assertAllocationFree("unsetLsb", new Runnable() {
+            @Override
+            public void run() {
+                sink += helper.unsetLsb(shortValue++);
+            }
+        });
+        allocations.assertAllocationFree("isMsbSet", new Runnable() {
+            @Override
+            public void run() {
+                sink += helper.isMsbSet(shortValue++) ? 1 : 0;
+            }
+        });
+        allocations.assertAllocationFree("setMsb", new Runnable() {
+            @Override
+            public void run() {
+                sink += helper.setMsb(shortValue++);
+            }
+        });
+        allocations.assertAllocationFree("unsetMsb", new Runnable() {
+            @Override
+            public void run() {
+                sink += helper.unsetMsb(shortValue++);
+            }
+        });
+        allocations.assertAllMarkedMethodsChecked();
+    }
+
+    /**
+     * Check that the scalar IntegerBitHelper operations do not allocate.
+     */
+    @Test
+    public void shouldNotAllocateForIntegerOperations() {
+        final IntegerBitHelper helper = new IntegerBitHelper();
+        AllocationAssert allocations = new AllocationAssert(IntegerBitHelper.class);
+        allocations.assertAllocationFree("isBitSet", new Runnable() {
+            @Override
+            public void run() {
+                sink += helper.isBitSet(intValue++, bit) ? 1 : 0;
+            }
+        });
+        allocations.assertAllocationFree("setBit", new Runnable() {
+            @Override
+            public void run() {
+                sink += helper.setBit(intValue++, bit);
+            }
+        });
+        allocations.assertAllocationFree("unsetBit", new Runnable() {
+            @Override
+            public void run() {
+                sink += helper.unsetBit(intValue++, bit);
+            }
+        });
+        allocations.assertAllocationFree("isLsbSet", new Runnable() {
+            @Override
+            public void run() {
+                sink += helper.isLsbSet(intValue++) ? 1 : 0;
+            }
+        });
+        allocations.assertAllocationFree("setLsb", new Runnable() {
+            @Override
+            public void run() {
+                sink += helper.setLsb(intValue++);
+            }
+        });
+        allocations.assertAllocationFree("unsetLsb", new Runnable() {
+            @Override
+            public void run() {
+                sink += helper.unsetLsb(intValue++);
+            }
+        });
+        allocations.assertAllocationFree("isMsbSet", new Runnable() {
+            @Override
+            public void run() {
+                sink += helper.isMsbSet(intValue++) ? 1 : 0;
+            }
+        });
+        allocations.assertAllocationFree("setMsb", new Runnable() {
+            @Override
+            public void run() {
+                sink += helper.setMsb(intValue++);
+            }
+        });
+        allocations.assertAllocationFree("unsetMsb", new Runnable() {
+            @Override
+            public void run() {
+                sink += helper.unsetMsb(intValue++);
+            }
+        });
+        allocations.assertAllMarkedMethodsChecked();
+    }
+
+    /**
+     * Check that the scalar LongBitHelper operations do not allocate.
+     */
+    @Test
+    public void shouldNotAllocateForLongOperations() {
+        final LongBitHelper helper = new LongBitHelper();
+        AllocationAssert allocations = new AllocationAssert(LongBitHelper.class);
+        allocations.assertAllocationFree("isBitSet", new Runnable() {
+            @Override
+            public void run() {
+                sink += helper.isBitSet(longValue++, bit) ? 1 : 0;
+            }
+        });
+        allocations.assertAllocationFree("setBit", new Runnable() {
+            @Override
+            public void run() {
+                sink += helper.setBit(longValue++, bit);
+            }
+        });
+        allocations.assertAllocationFree("unsetBit", new Runnable() {
+            @Override
+            public void run() {
+                sink += helper.unsetBit(longValue++, bit);
+            }
+        });
+        allocations.assertAllocationFree("isLsbSet", new Runnable() {
+            @Override
+            public void run() {
+                sink += helper.isLsbSet(longValue++) ? 1 : 0;
+            }
+        });
+        allocations.assertAllocationFree("setLsb", new Runnable() {
+            @Override
+            public void run() {
+                sink += helper.setLsb(longValue++);
+            }
+        });
+        allocations.assertAllocationFree("unsetLsb", new Runnable() {
+            @Override
+            public void run() {
+                sink += helper.unsetLsb(longValue++);
+            }
+        });
+        allocations.assertAllocationFree("isMsbSet", new Runnable() {
+            @Override
+            public void run() {
+                sink += helper.isMsbSet(longValue++) ? 1 : 0;
+            }
+        });
+        allocations.assertAllocationFree("setMsb", new Runnable() {
+            @Override
+            public void run() {
+                sink += helper.setMsb(longValue++);
+            }
+        });
+        allocations.assertAllocationFree("unsetMsb", new Runnable() {
+            @Override
+            public void run() {
+                sink += helper.unsetMsb(longValue++);
+            }
+        });
+        allocations.assertAllMarkedMethodsChecked();
+    }
+}
@@ -0,0 +1,174 @@
+package nl.salp.util.bit;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link BitSlicedIndex}.
+ */
+public class BitSlicedIndexTest {
+    /**
+     * Check the queries against a scan of the values, for row counts around word boundaries.
+     */
+    @Test
+    public void shouldMatchScanForAllQueries() {
+        Random rng = new Random(48);
+        for (int rows : new int[]{1, 63, 64, 65, 1000}) {
+            long[] values = new long[rows];
+            for (int i = 0; i < rows; i++) {
+                values[i] = rng.nextInt(100);
+            }
+            BitSlicedIndex index = new BitSlicedIndex(values);
+            assertEquals(rows, index.getRows());
+            assertEquals(64 - Long.numberOfLeadingZeros(max(values)), index.getBits());
+            for (int i = 0; i < rows; i++) {
+                assertEquals(values[i], index.get(i));
+            }
+            for (long bound = -1; bound <= 129; bound++) {
+                assertEquals(scan(values, bound, bound), index.equalTo(bound));
+                assertEquals(scan(values, Long.MIN_VALUE, bound - 1), index.lessThan(bound));
+                assertEquals(scan(values, Long.MIN_VALUE, bound), index.lessThanOrEqual(bound));
+                assertEquals(scan(values, bound + 1, Long.MAX_VALUE), index.greaterThan(bound));
+                assertEquals(scan(values, bound, Long.MAX_VALUE), index.greaterThanOrEqual(bound));
+                long to = bound + rng.nextInt(40) - 5;
+                assertEquals(scan(values, bound, to), index.between(bound, to));
+            }
+        }
+    }
+
+    /**
+     * Check that top-K returns exactly the rows with the largest values, breaking ties by the lowest rows.
+     */
+    @Test
+    public void shouldFindTopK() {
+        Random rng = new Random(7);
+        long[] values = new long[500];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = rng.nextInt(50);
+        }
+        BitSlicedIndex index = new BitSlicedIndex(values);
+        LongBitSet candidates = index.between(10, 40);
+        LongBitSet original = candidates.copy();
+        for (int k = 0; k <= values.length + 1; k++) {
+            assertEquals(expectedTopK(values, k, null), index.topK(k));
+            assertEquals(expectedTopK(values, k, candidates), index.topK(k, candidates));
+        }
+        assertEquals(original, candidates);
+    }
+
+    /**
+     * Check the range boundaries of values using all 63 bits.
+     */
+    @Test
+    public void shouldHandleLargeValues() {
+        long[] values = {0, 1, Long.MAX_VALUE, Long.MAX_VALUE - 1, 1L << 62};
+        BitSlicedIndex index = new BitSlicedIndex(values);
+        assertEquals(63, index.getBits());
+        assertEquals(scan(values, 1L << 62, Long.MAX_VALUE), index.greaterThanOrEqual(1L << 62));
+        assertEquals(scan(values, Long.MAX_VALUE, Long.MAX_VALUE), index.equalTo(Long.MAX_VALUE));
+        assertEquals(scan(values, 0, Long.MAX_VALUE - 1), index.lessThan(Long.MAX_VALUE));
+        assertEquals(scan(values, Long.MAX_VALUE, Long.MAX_VALUE), index.topK(1));
+    }
+
+    /**
+     * Check an index without rows.
+     */
+    @Test
+    public void shouldHandleNoRows() {
+        BitSlicedIndex index = new BitSlicedIndex(new long[0]);
+        assertEquals(1, index.getBits());
+        assertEquals(0, index.between(0, 10).cardinality());
+        assertEquals(0, index.topK(3).cardinality());
+        assertTrue(index.toString().contains("rows: 0"));
+    }
+
+    /**
+     * Check that negative values are rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldThrowExceptionForNegativeValue() {
+        new BitSlicedIndex(new long[]{1, -1});
+    }
+
+    /**
+     * Check that values not fitting the slices are rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldThrowExceptionForTooLargeValue() {
+        new BitSlicedIndex(new long[]{1, 16}, 4);
+    }
+
+    /**
+     * Check that candidates of a different length are rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldThrowExceptionForCandidatesOfOtherLength() {
+        new BitSlicedIndex(new long[]{1, 2}).topK(1, new LongBitSet(3));
+    }
+
+    /**
+     * Get the rows with a value in a range by scanning.
+     *
+     * @param values The values.
+     * @param from   The lower bound (inclusive).
+     * @param to     The upper bound (inclusive).
+     *
+     * @return The rows.
+     */
+    private static LongBitSet scan(long[] values, long from, long to) {
+        LongBitSet rows = new LongBitSet(values.length);
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] >= from && values[i] <= to) {
+                rows.set(i);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Get the top-K rows by sorting.
+     *
+     * @param values     The values.
+     * @param k          The number of rows.
+     * @param candidates The candidate rows, or <code>null</code> for all rows.
+     *
+     * @return The rows.
+     */
+    private static LongBitSet expectedTopK(long[] values, int k, LongBitSet candidates) {
+        long[] keys = new long[values.length];
+        int count = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (candidates == null || candidates.get(i)) {
+                // Largest value first, then lowest row.
+                keys[count++] = (-values[i] << 20) | i;
+            }
+        }
+        keys = Arrays.copyOf(keys, count);
+        Arrays.sort(keys);
+        LongBitSet rows = new LongBitSet(values.length);
+        for (int i = 0; i < Math.min(k, count); i++) {
+            rows.set(keys[i] & 0xFFFFF);
+        }
+        return rows;
+    }
+
+    /**
+     * Get the largest of values.
+     *
+     * @param values The values.
+     *
+     * @return The largest value.
+     */
+    private static long max(long[] values) {
+        long max = 0;
+        for (long value : values) {
+            max = Math.max(max, value);
+        }
+        return max;
+    }
+}
@@ -0,0 +1,207 @@
+package nl.salp.util.bit;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import nl.salp.util.bit.BloomFilter.BlockedBloomFilter;
+import nl.salp.util.bit.BloomFilter.StandardBloomFilter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link BloomFilter} and its implementations.
+ */
+public class BloomFilterTest {
+    /**
+     * The number of keys added in the false positive tests.
+     */
+    private static final int KEYS = 100000;
+
+    /**
+     * Check that the standard filter has no false negatives and stays close to the requested false positive rate.
+     */
+    @Test
+    public void shouldMeetFalsePositiveRateForStandardFilter() {
+        BloomFilter filter = new StandardBloomFilter(KEYS, 0.01, false);
+
+        assertFalsePositiveRate(filter, 0.013);
+    }
+
+    /**
+     * Check that the blocked filter has no false negatives and stays close to the requested false positive rate.
+     */
+    @Test
+    public void shouldMeetFalsePositiveRateForBlockedFilter() {
+        BloomFilter filter = new BlockedBloomFilter(KEYS, 0.01, false);
+
+        assertEquals(0, filter.getNumberOfBits() % 512);
+        assertFalsePositiveRate(filter, 0.02);
+    }
+
+    /**
+     * Check byte array keys, including lengths around the 16-byte hash block size.
+     */
+    @Test
+    public void shouldAddByteArrayKeys() {
+        BloomFilter filter = new BlockedBloomFilter(1000, 0.001, false);
+        for (int length = 0; length < 40; length++) {
+            filter.add(createKey(length, (byte) 1));
+        }
+
+        for (int length = 0; length < 40; length++) {
+            assertTrue(filter.mightContain(createKey(length, (byte) 1)));
+        }
+        int falsePositives = 0;
+        for (int length = 0; length < 40; length++) {
+            falsePositives += filter.mightContain(createKey(length, (byte) 2)) ? 1 : 0;
+        }
+        assertTrue(falsePositives < 2);
+    }
+
+    /**
+     * Check that keys added concurrently from several threads are all found.
+     *
+     * @throws Exception When the adding failed.
+     */
+    @Test
+    public void shouldAddConcurrently() throws Exception {
+        final BloomFilter filter = new BlockedBloomFilter(KEYS, 0.01, true);
+        final int threads = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+            for (int t = 0; t < threads; t++) {
+                final int thread = t;
+                tasks.add(new Callable<Void>() {
+                    @Override
+                    public Void call() {
+                        for (long key = thread; key < KEYS; key += threads) {
+                            filter.add(key);
+                        }
+                        return null;
+                    }
+                });
+            }
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertTrue(filter.isConcurrent());
+        for (long key = 0; key < KEYS; key++) {
+            assertTrue(filter.mightContain(key));
+        }
+    }
+
+    /**
+     * Check that a filter can be written and read back, in either mode.
+     */
+    @Test
+    public void shouldSerializeFilter() {
+        BloomFilter filter = new StandardBloomFilter(1000, 0.01, true);
+        for (long key = 0; key < 1000; key++) {
+            filter.add(key * 31);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(filter.getSerializedSize());
+        filter.writeTo(buffer);
+        buffer.flip();
+
+        BloomFilter read = BloomFilter.readFrom(buffer, false);
+
+        assertFalse(buffer.hasRemaining());
+        assertTrue(read instanceof StandardBloomFilter);
+        assertFalse(read.isConcurrent());
+        assertEquals(filter.getNumberOfBits(), read.getNumberOfBits());
+        assertEquals(filter.getNumberOfHashes(), read.getNumberOfHashes());
+        for (long key = 0; key < 10000; key++) {
+            assertEquals(filter.mightContain(key), read.mightContain(key));
+        }
+    }
+
+    /**
+     * Check that a header with more bits than the buffer holds is rejected before allocating the bits.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectBitsBeyondData() {
+        ByteBuffer buffer = ByteBuffer.allocate(13 + 8);
+        buffer.put((byte) 1).putInt(3).putLong(64L << 31).flip();
+
+        BloomFilter.readFrom(buffer, false);
+    }
+
+    /**
+     * Check that a header with an implausible number of hashes is rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectTooManyHashesInHeader() {
+        ByteBuffer buffer = ByteBuffer.allocate(13 + 8);
+        buffer.put((byte) 1).putInt(Integer.MAX_VALUE).putLong(64).putLong(0).flip();
+
+        BloomFilter.readFrom(buffer, false);
+    }
+
+    /**
+     * Check that a blocked filter size must be a multiple of the block size.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectPartialBlocks() {
+        new BlockedBloomFilter(576, 3, false);
+    }
+
+    /**
+     * Check that an invalid false positive rate is rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectInvalidFalsePositiveRate() {
+        new StandardBloomFilter(1000, 1.0, false);
+    }
+
+    /**
+     * Add {@link BloomFilterTest#KEYS} keys, check that they are all found and that the false positive rate on as
+     * many other keys is below a maximum.
+     *
+     * @param filter  The filter.
+     * @param maxRate The maximum false positive rate.
+     */
+    private static void assertFalsePositiveRate(BloomFilter filter, double maxRate) {
+        for (long key = 0; key < KEYS; key++) {
+            filter.add(key);
+        }
+        for (long key = 0; key < KEYS; key++) {
+            assertTrue(filter.mightContain(key));
+        }
+        int falsePositives = 0;
+        for (long key = KEYS; key < 2 * KEYS; key++) {
+            falsePositives += filter.mightContain(key) ? 1 : 0;
+        }
+        double rate = (double) falsePositives / KEYS;
+        assertTrue("False positive rate " + rate + " exceeds " + maxRate, rate < maxRate);
+    }
+
+    /**
+     * Create a byte array key.
+     *
+     * @param length The length.
+     * @param value  The value of the bytes.
+     *
+     * @return The key.
+     */
+    private static byte[] createKey(int length, byte value) {
+        byte[] key = new byte[length];
+        for (int i = 0; i < length; i++) {
+            key[i] = (byte) (value + i);
+        }
+        return key;
+    }
+}
@@ -0,0 +1,402 @@
+package nl.salp.util.bit;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+import nl.salp.util.AllocationAssert;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Unit tests for {@link ByteView}, comparing against {@link ByteBuffer} in the same byte order.
+ */
+public class ByteViewTest {
+    /**
+     * The byte orders to test.
+     */
+    private static final ByteOrder[] ORDERS = {ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN};
+
+    /**
+     * Sink for the results of the allocation test.
+     */
+    private long sink;
+
+    /**
+     * Check that all primitives are read from arrays at every offset.
+     */
+    @Test
+    public void shouldGetFromArray() {
+        byte[] data = randomBytes(40, 1);
+        for (ByteOrder order : ORDERS) {
+            ByteView view = ByteView.of(order);
+            ByteBuffer expected = ByteBuffer.wrap(data).order(order);
+            for (int offset = 0; offset <= data.length - 8; offset++) {
+                assertEquals(expected.getShort(offset), view.getShort(data, offset));
+                assertEquals(expected.getShort(offset) & 0xFFFF, view.getUnsignedShort(data, offset));
+                assertEquals(expected.getInt(offset), view.getInt(data, offset));
+                assertEquals(expected.getInt(offset) & 0xFFFFFFFFL, view.getUnsignedInt(data, offset));
+                assertEquals(expected.getLong(offset), view.getLong(data, offset));
+                assertEquals(Float.floatToRawIntBits(expected.getFloat(offset)), Float.floatToRawIntBits(view.getFloat(data, offset)));
+                assertEquals(Double.doubleToRawLongBits(expected.getDouble(offset)), Double.doubleToRawLongBits(view.getDouble(data, offset)));
+            }
+        }
+    }
+
+    /**
+     * Check that all primitives are written to arrays at every offset.
+     */
+    @Test
+    public void shouldPutToArray() {
+        Random rng = new Random(2);
+        for (ByteOrder order : ORDERS) {
+            ByteView view = ByteView.of(order);
+            for (int offset = 0; offset <= 32; offset++) {
+                long value = rng.nextLong();
+                byte[] actual = new byte[40];
+                byte[] expected = new byte[40];
+                ByteBuffer buffer = ByteBuffer.wrap(expected).order(order);
+
+                view.putShort(actual, offset, (short) value);
+                buffer.putShort(offset, (short) value);
+                assertArrayEquals(expected, actual);
+                view.putUnsignedShort(actual, offset, (int) value & 0xFFFF);
+                assertArrayEquals(expected, actual);
+                view.putInt(actual, offset, (int) value);
+                buffer.putInt(offset, (int) value);
+                assertArrayEquals(expected, actual);
+                view.putUnsignedInt(actual, offset, value & 0xFFFFFFFFL);
+                assertArrayEquals(expected, actual);
+                view.putLong(actual, offset, value);
+                buffer.putLong(offset, value);
+                assertArrayEquals(expected, actual);
+                view.putFloat(actual, offset, 1.5f);
+                buffer.putFloat(offset, 1.5f);
+                assertArrayEquals(expected, actual);
+                view.putDouble(actual, offset, -2.25);
+                buffer.putDouble(offset, -2.25);
+                assertArrayEquals(expected, actual);
+            }
+        }
+    }
+
+    /**
+     * Check that heap, sliced and direct buffers in either order are read and written in the order of the view,
+     * without changing the order or position of the buffer.
+     */
+    @Test
+    public void shouldGetAndPutBuffers() {
+        byte[] data = randomBytes(48, 3);
+        for (ByteOrder viewOrder : ORDERS) {
+            ByteView view = ByteView.of(viewOrder);
+            ByteBuffer expected = ByteBuffer.wrap(data, 5, 40).slice().order(viewOrder);
+            for (ByteOrder bufferOrder : ORDERS) {
+                ByteBuffer direct = ByteBuffer.allocateDirect(40);
+                direct.put(data, 5, 40).position(3);
+                ByteBuffer[] buffers = {
+                        ByteBuffer.wrap(data.clone(), 5, 40).slice().order(bufferOrder),
+                        direct.order(bufferOrder),
+                        ByteBuffer.wrap(data.clone(), 5, 40).slice().asReadOnlyBuffer().order(bufferOrder)
+                };
+                for (ByteBuffer buffer : buffers) {
+                    int position = buffer.position();
+                    for (int index = 0; index <= 32; index++) {
+                        assertEquals(expected.getShort(index), view.getShort(buffer, index));
+                        assertEquals(expected.getShort(index) & 0xFFFF, view.getUnsignedShort(buffer, index));
+                        assertEquals(expected.getInt(index), view.getInt(buffer, index));
+                        assertEquals(expected.getInt(index) & 0xFFFFFFFFL, view.getUnsignedInt(buffer, index));
+                        assertEquals(expected.getLong(index), view.getLong(buffer, index));
+                        assertEquals(Float.floatToRawIntBits(expected.getFloat(index)), Float.floatToRawIntBits(view.getFloat(buffer, index)));
+                        assertEquals(Double.doubleToRawLongBits(expected.getDouble(index)), Double.doubleToRawLongBits(view.getDouble(buffer, index)));
+                    }
+                    assertSame(bufferOrder, buffer.order());
+                    assertEquals(position, buffer.position());
+                }
+                for (ByteBuffer buffer : new ByteBuffer[]{buffers[0], buffers[1]}) {
+                    ByteBuffer written = ByteBuffer.allocate(40).order(viewOrder);
+                    view.putShort(buffer, 0, (short) 0x1234);
+                    written.putShort(0, (short) 0x1234);
+                    view.putUnsignedShort(buffer, 2, 0xFEDC);
+                    written.putShort(2, (short) 0xFEDC);
+                    view.putInt(buffer, 4, 0x12345678);
+                    written.putInt(4, 0x12345678);
+                    view.putUnsignedInt(buffer, 8, 0xFEDCBA98L);
+                    written.putInt(8, 0xFEDCBA98);
+                    view.putLong(buffer, 12, 0x0102030405060708L);
+                    written.putLong(12, 0x0102030405060708L);
+                    view.putFloat(buffer, 20, 3.5f);
+                    written.putFloat(20, 3.5f);
+                    view.putDouble(buffer, 24, -0.125);
+                    written.putDouble(24, -0.125);
+                    for (int i = 0; i < 32; i++) {
+                        assertEquals("index " + i, written.get(i), buffer.get(i));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Check that bulk reads and writes match the single value methods.
+     */
+    @Test
+    public void shouldGetAndPutInBulk() {
+        byte[] data = randomBytes(203, 4);
+        for (ByteOrder order : ORDERS) {
+            ByteView view = ByteView.of(order);
+            short[] shorts = new short[102];
+            int[] ints = new int[52];
+            long[] longs = new long[26];
+            assertEquals(3 + 200, view.getShorts(data, 3, shorts, 1, 100));
+            assertEquals(3 + 200, view.getInts(data, 3, ints, 1, 50));
+            assertEquals(3 + 200, view.getLongs(data, 3, longs, 1, 25));
+            for (int i = 0; i < 100; i++) {
+                assertEquals(view.getShort(data, 3 + 2 * i), shorts[1 + i]);
+            }
+            for (int i = 0; i < 50; i++) {
+                assertEquals(view.getInt(data, 3 + 4 * i), ints[1 + i]);
+            }
+            for (int i = 0; i < 25; i++) {
+                assertEquals(view.getLong(data, 3 + 8 * i), longs[1 + i]);
+            }
+            byte[] actual = new byte[data.length];
+            System.arraycopy(data, 0, actual, 0, 3);
+            assertEquals(203, view.putShorts(shorts, 1, 100, actual, 3));
+            assertArrayEquals(data, actual);
+            assertEquals(203, view.putInts(ints, 1, 50, actual, 3));
+            assertArrayEquals(data, actual);
+            assertEquals(203, view.putLongs(longs, 1, 25, actual, 3));
+            assertArrayEquals(data, actual);
+        }
+    }
+
+    /**
+     * Check that reading past the end of an array fails without reading.
+     */
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void shouldNotGetPastEnd() {
+        ByteView.LITTLE_ENDIAN.getInt(new byte[10], 7);
+    }
+
+    /**
+     * Check that writing past the end of an array fails without writing.
+     */
+    @Test
+    public void shouldNotPutPastEnd() {
+        byte[] data = new byte[10];
+        try {
+            ByteView.BIG_ENDIAN.putLong(data, 3, -1L);
+        } catch (IndexOutOfBoundsException e) {
+            assertArrayEquals(new byte[10], data);
+            return;
+        }
+        throw new AssertionError("No exception thrown");
+    }
+
+    /**
+     * Check that reading past the limit of a buffer fails, even when the backing array is larger.
+     */
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void shouldNotGetPastLimit() {
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        buffer.limit(8);
+        ByteView.BIG_ENDIAN.getInt(buffer, 6);
+    }
+
+    /**
+     * Check that a bulk read with too many values fails.
+     */
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void shouldNotGetTooManyValues() {
+        ByteView.BIG_ENDIAN.getInts(new byte[16], 4, new int[4], 0, 4);
+    }
+
+    /**
+     * Check that unsigned values out of range are rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectInvalidUnsignedValue() {
+        ByteView.BIG_ENDIAN.putUnsignedInt(new byte[4], 0, 1L << 32);
+    }
+
+    /**
+     * Check the views for the byte orders.
+     */
+    @Test
+    public void shouldGetViewForOrder() {
+        assertSame(ByteView.BIG_ENDIAN, ByteView.of(ByteOrder.BIG_ENDIAN));
+        assertSame(ByteView.LITTLE_ENDIAN, ByteView.of(ByteOrder.LITTLE_ENDIAN));
+        assertSame(ByteOrder.LITTLE_ENDIAN, ByteView.LITTLE_ENDIAN.getOrder());
+        assertEquals("ByteView [order: BIG_ENDIAN]", ByteView.BIG_ENDIAN.toString());
+    }
+
+    /**
+     * Check that the {@link nl.salp.util.AllocationFree} methods do not allocate, for arrays and heap and direct
+     * buffers.
+     */
+    @Test
+    public void shouldNotAllocate() {
+        assumeTrue(AllocationAssert.isSupported());
+        final byte[] data = randomBytes(64, 5);
+        final ByteBuffer heap = ByteBuffer.wrap(data.clone());
+        final ByteBuffer direct = ByteBuffer.allocateDirect(64).order(ByteOrder.LITTLE_ENDIAN);
+        final ByteView view = ByteView.BIG_ENDIAN;
+        final short[] shorts = new short[8];
+        final int[] ints = new int[8];
+        final long[] longs = new long[8];
+        AllocationAssert allocations = new AllocationAssert(ByteView.class);
+        allocations.assertAllocationFree("getShort", new Runnable() {
+            @Override
+            public void run() {
+                sink += view.getShort(data, (int) (sink & 31)) + view.getShort(heap, 3) + view.getShort(direct, 5);
+            }
+        });
+        allocations.assertAllocationFree("getUnsignedShort", new Runnable() {
+            @Override
+            public void run() {
+                sink += view.getUnsignedShort(data, (int) (sink & 31)) + view.getUnsignedShort(heap, 3) + view.getUnsignedShort(direct, 5);
+            }
+        });
+        allocations.assertAllocationFree("getInt", new Runnable() {
+            @Override
+            public void run() {
+                sink += view.getInt(data, (int) (sink & 31)) + view.getInt(heap, 3) + view.getInt(direct, 5);
+            }
+        });
+        allocations.assertAllocationFree("getUnsignedInt", new Runnable() {
+            @Override
+            public void run() {
+                sink += view.getUnsignedInt(data, (int) (sink & 31)) + view.getUnsignedInt(heap, 3) + view.getUnsignedInt(direct, 5);
+            }
+        });
+        allocations.assertAllocationFree("getLong", new Runnable() {
+            @Override
+            public void run() {
+                sink += view.getLong(data, (int) (sink & 31)) + view.getLong(heap, 3) + view.getLong(direct, 5);
+            }
+        });
+        allocations.assertAllocationFree("getFloat", new Runnable() {
+            @Override
+            public void run() {
+                sink += (long) (view.getFloat(data, (int) (sink & 31)) + view.getFloat(heap, 3) + view.getFloat(direct, 5));
+            }
+        });
+        allocations.assertAllocationFree("getDouble", new Runnable() {
+            @Override
+            public void run() {
+                sink += (long) (view.getDouble(data, (int) (sink & 31)) + view.getDouble(heap, 3) + view.getDouble(direct, 5));
+            }
+        });
+        allocations.assertAllocationFree("putShort", new Runnable() {
+            @Override
+            public void run() {
+                view.putShort(data, (int) (++sink & 31), (short) sink);
+                view.putShort(heap, 3, (short) sink);
+                view.putShort(direct, 5, (short) sink);
+            }
+        });
+        allocations.assertAllocationFree("putUnsignedShort", new Runnable() {
+            @Override
+            public void run() {
+                view.putUnsignedShort(data, (int) (++sink & 31), (int) sink & 0xFFFF);
+                view.putUnsignedShort(heap, 3, (int) sink & 0xFFFF);
+                view.putUnsignedShort(direct, 5, (int) sink & 0xFFFF);
+            }
+        });
+        allocations.assertAllocationFree("putInt", new Runnable() {
+            @Override
+            public void run() {
+                view.putInt(data, (int) (++sink & 31), (int) sink);
+                view.putInt(heap, 3, (int) sink);
+                view.putInt(direct, 5, (int) sink);
+            }
+        });
+        allocations.assertAllocationFree("putUnsignedInt", new Runnable() {
+            @Override
+            public void run() {
+                view.putUnsignedInt(data, (int) (++sink & 31), sink & 0xFFFFFFFFL);
+                view.putUnsignedInt(heap, 3, sink & 0xFFFFFFFFL);
+                view.putUnsignedInt(direct, 5, sink & 0xFFFFFFFFL);
+            }
+        });
+        allocations.assertAllocationFree("putLong", new Runnable() {
+            @Override
+            public void run() {
+                view.putLong(data, (int) (++sink & 31), sink);
+                view.putLong(heap, 3, sink);
+                view.putLong(direct, 5, sink);
+            }
+        });
+        allocations.assertAllocationFree("putFloat", new Runnable() {
+            @Override
+            public void run() {
+                view.putFloat(data, (int) (++sink & 31), sink);
+                view.putFloat(heap, 3, sink);
+                view.putFloat(direct, 5, sink);
+            }
+        });
+        allocations.assertAllocationFree("putDouble", new Runnable() {
+            @Override
+            public void run() {
+                view.putDouble(data, (int) (++sink & 31), sink);
+                view.putDouble(heap, 3, sink);
+                view.putDouble(direct, 5, sink);
+            }
+        });
+        allocations.assertAllocationFree("getShorts", new Runnable() {
+            @Override
+            public void run() {
+                sink += view.getShorts(data, (int) (++sink & 31), shorts, 0, 8);
+            }
+        });
+        allocations.assertAllocationFree("getInts", new Runnable() {
+            @Override
+            public void run() {
+                sink += view.getInts(data, (int) (++sink & 31), ints, 0, 8);
+            }
+        });
+        allocations.assertAllocationFree("getLongs", new Runnable() {
+            @Override
+            public void run() {
+                sink += view.getLongs(data, 0, longs, 0, 8);
+            }
+        });
+        allocations.assertAllocationFree("putShorts", new Runnable() {
+            @Override
+            public void run() {
+                sink += view.putShorts(shorts, 0, 8, data, (int) (++sink & 31));
+            }
+        });
+        allocations.assertAllocationFree("putInts", new Runnable() {
+            @Override
+            public void run() {
+                sink += view.putInts(ints, 0, 8, data, (int) (++sink & 31));
+            }
+        });
+        allocations.assertAllocationFree("putLongs", new Runnable() {
+            @Override
+            public void run() {
+                sink += view.putLongs(longs, 0, 8, data, 0);
+            }
+        });
+        allocations.assertAllMarkedMethodsChecked();
+    }
+
+    /**
+     * Create random bytes.
+     *
+     * @param length The number of bytes.
+     * @param seed   The seed.
+     *
+     * @return The bytes.
+     */
+    private static byte[] randomBytes(int length, long seed) {
+        byte[] data = new byte[length];
+        new Random(seed).nextBytes(data);
+        return data;
+    }
+}
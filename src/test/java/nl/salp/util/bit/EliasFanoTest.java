@@ -0,0 +1,221 @@
+package nl.salp.util.bit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link EliasFano}, comparing against the plain array of values.
+ */
+public class EliasFanoTest {
+    /**
+     * Check random access, iteration and skipping on a sequence with random gaps and duplicates.
+     */
+    @Test
+    public void shouldAccessRandomSequence() {
+        long[] values = createSequence(20000, 100, 1);
+        EliasFano sequence = new EliasFano(values);
+
+        assertEquals(values.length, sequence.size());
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(values[i], sequence.get(i));
+        }
+        EliasFano.Cursor cursor = sequence.cursor();
+        for (long value : values) {
+            assertTrue(cursor.hasNext());
+            assertEquals(value, cursor.next());
+        }
+        assertFalse(cursor.hasNext());
+        assertNextGEQ(values, sequence, new Random(2));
+    }
+
+    /**
+     * Check that the encoding takes less than 3 bits per value more than the low bits.
+     */
+    @Test
+    public void shouldUseNearMinimalSpace() {
+        long[] values = createSequence(100000, 1000, 3);
+        EliasFano sequence = new EliasFano(values);
+        int lowBits = 63 - Long.numberOfLeadingZeros((values[values.length - 1] + 1) / values.length);
+
+        assertTrue(sequence.toString(), sequence.getEncodedBits() <= values.length * (3L + lowBits) + 128);
+        assertTrue(sequence.getEncodedBits() < values.length * 64L / 5);
+    }
+
+    /**
+     * Check sequences with large values, a single value and no values.
+     */
+    @Test
+    public void shouldHandleEdgeCases() {
+        long[] large = {0, 1, 1L << 40, (1L << 40) + 1, Long.MAX_VALUE - 1, Long.MAX_VALUE};
+        EliasFano sequence = new EliasFano(large);
+        for (int i = 0; i < large.length; i++) {
+            assertEquals(large[i], sequence.get(i));
+        }
+        assertNextGEQ(large, sequence, new Random(4));
+
+        EliasFano single = new EliasFano(new long[]{42});
+        assertEquals(42, single.get(0));
+        assertEquals(42, single.nextGEQ(0));
+        assertEquals(-1, single.nextGEQ(43));
+
+        EliasFano empty = new EliasFano(new long[0]);
+        assertEquals(0, empty.nextGEQIndex(0));
+        assertFalse(empty.cursor().hasNext());
+    }
+
+    /**
+     * Check that two sequences are intersected by skipping with cursors.
+     */
+    @Test
+    public void shouldIntersectWithCursors() {
+        long[] a = createSequence(5000, 20, 5);
+        long[] b = createSequence(500, 200, 6);
+        List<Long> expected = new ArrayList<Long>();
+        for (long value : new java.util.TreeSet<Long>(asList(b))) {
+            if (Arrays.binarySearch(a, value) >= 0) {
+                expected.add(value);
+            }
+        }
+
+        List<Long> intersection = new ArrayList<Long>();
+        EliasFano.Cursor left = new EliasFano(a).cursor();
+        EliasFano.Cursor right = new EliasFano(b).cursor();
+        long x = left.hasNext() ? left.next() : -1;
+        long y = right.hasNext() ? right.next() : -1;
+        while (x >= 0 && y >= 0) {
+            if (x == y) {
+                intersection.add(x);
+                x = left.skipTo(x + 1);
+                y = right.skipTo(y + 1);
+            } else if (x < y) {
+                x = left.skipTo(y);
+            } else {
+                y = right.skipTo(x);
+            }
+        }
+
+        assertEquals(expected, intersection);
+    }
+
+    /**
+     * Check that the builder encodes the same sequence as the array constructor.
+     */
+    @Test
+    public void shouldBuildIncrementally() {
+        long[] values = createSequence(1000, 50, 7);
+        EliasFano.Builder builder = new EliasFano.Builder(values.length, values[values.length - 1] + 1000);
+        for (long value : values) {
+            builder.add(value);
+        }
+
+        EliasFano sequence = builder.build();
+
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(values[i], sequence.get(i));
+        }
+    }
+
+    /**
+     * Check that a decreasing value is rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectDecreasingValues() {
+        new EliasFano(new long[]{1, 3, 2, 4});
+    }
+
+    /**
+     * Check that an incomplete builder can not be built.
+     */
+    @Test(expected = IllegalStateException.class)
+    public void shouldRejectIncompleteBuilder() {
+        new EliasFano.Builder(2, 10).add(1).build();
+    }
+
+    /**
+     * Compare nextGEQ against a binary search for bounds around the values.
+     *
+     * @param values   The values.
+     * @param sequence The encoded values.
+     * @param rng      The random generator.
+     */
+    private static void assertNextGEQ(long[] values, EliasFano sequence, Random rng) {
+        for (int i = 0; i < values.length; i++) {
+            for (long bound : new long[]{values[i] - 1, values[i], values[i] + 1}) {
+                if (bound >= 0) {
+                    assertEquals("bound " + bound, lowerBound(values, bound), sequence.nextGEQIndex(bound));
+                }
+            }
+        }
+        for (int i = 0; i < 1000; i++) {
+            long bound = (long) (rng.nextDouble() * values[values.length - 1] * 1.1);
+            int expected = lowerBound(values, bound);
+            assertEquals(expected, sequence.nextGEQIndex(bound));
+            assertEquals(expected < values.length ? values[expected] : -1, sequence.nextGEQ(bound));
+        }
+    }
+
+    /**
+     * Find the index of the first value that is at least a bound.
+     *
+     * @param values The values.
+     * @param bound  The bound.
+     *
+     * @return The index.
+     */
+    private static int lowerBound(long[] values, long bound) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] < bound) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Create a non-decreasing sequence with random gaps.
+     *
+     * @param count  The number of values.
+     * @param maxGap The maximum gap.
+     * @param seed   The random seed.
+     *
+     * @return The sequence.
+     */
+    private static long[] createSequence(int count, int maxGap, long seed) {
+        Random rng = new Random(seed);
+        long[] values = new long[count];
+        long value = rng.nextInt(maxGap);
+        for (int i = 0; i < count; i++) {
+            value += rng.nextInt(maxGap);
+            values[i] = value;
+        }
+        return values;
+    }
+
+    /**
+     * Box an array of values.
+     *
+     * @param values The values.
+     *
+     * @return The boxed values.
+     */
+    private static List<Long> asList(long[] values) {
+        List<Long> list = new ArrayList<Long>();
+        for (long value : values) {
+            list.add(value);
+        }
+        return list;
+    }
+}
@@ -0,0 +1,215 @@
+package nl.salp.util.bit;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link HyperLogLog}.
+ */
+public class HyperLogLogTest {
+    /**
+     * Check that small cardinalities are estimated (almost) exactly by the sparse representation.
+     */
+    @Test
+    public void shouldEstimateSmallCardinalities() {
+        HyperLogLog sketch = new HyperLogLog(14);
+        for (long key = 0; key < 1000; key++) {
+            sketch.add(key);
+            sketch.add(key);
+        }
+
+        assertTrue(sketch.isSparse());
+        assertEquals(1000, sketch.cardinality());
+    }
+
+    /**
+     * Check the estimate at cardinalities across the sparse, linear counting and large ranges.
+     */
+    @Test
+    public void shouldEstimateWithinError() {
+        HyperLogLog sketch = new HyperLogLog(14);
+        long key = 0;
+        for (long cardinality : new long[]{3000, 10000, 50000, 200000, 1000000}) {
+            for (; key < cardinality; key++) {
+                sketch.add(key * 7919);
+            }
+            double error = Math.abs(sketch.cardinality() - cardinality) / (double) cardinality;
+            assertTrue("Error " + error + " at " + cardinality, error < 0.03);
+        }
+        assertFalse(sketch.isSparse());
+        assertEquals(2 + (1 << 14) * 6 / 8, sketch.getSerializedSize());
+    }
+
+    /**
+     * Check byte array keys.
+     */
+    @Test
+    public void shouldAddByteArrayKeys() {
+        HyperLogLog sketch = new HyperLogLog(12);
+        for (int i = 0; i < 20000; i++) {
+            sketch.add(("user-" + i).getBytes());
+        }
+
+        assertTrue(Math.abs(sketch.cardinality() - 20000) < 20000 * 0.05);
+    }
+
+    /**
+     * Check that merging sketches of disjoint halves gives the same registers as a single sketch, for sparse and dense
+     * sketches.
+     */
+    @Test
+    public void shouldMergeSketches() {
+        for (int cardinality : new int[]{500, 100000}) {
+            HyperLogLog all = new HyperLogLog(12);
+            HyperLogLog even = new HyperLogLog(12);
+            HyperLogLog odd = new HyperLogLog(12);
+            for (long key = 0; key < cardinality; key++) {
+                all.add(key);
+                (key % 2 == 0 ? even : odd).add(key);
+            }
+
+            even.merge(odd);
+
+            assertEquals(all.isSparse(), even.isSparse());
+            assertArrayEquals(serialize(all), serialize(even));
+        }
+    }
+
+    /**
+     * Check that a sparse sketch merges into a dense sketch.
+     */
+    @Test
+    public void shouldMergeSparseIntoDense() {
+        HyperLogLog all = new HyperLogLog(10);
+        HyperLogLog dense = new HyperLogLog(10);
+        HyperLogLog sparse = new HyperLogLog(10);
+        for (long key = 0; key < 10000; key++) {
+            all.add(key);
+            dense.add(key);
+        }
+        for (long key = 10000; key < 10010; key++) {
+            all.add(key);
+            sparse.add(key);
+        }
+
+        dense.merge(sparse);
+        sparse.merge(dense);
+
+        assertArrayEquals(serialize(all), serialize(dense));
+        assertArrayEquals(serialize(all), serialize(sparse));
+    }
+
+    /**
+     * Check that sketches can be written and read back.
+     */
+    @Test
+    public void shouldSerializeSketches() {
+        for (int cardinality : new int[]{0, 100, 100000}) {
+            HyperLogLog sketch = new HyperLogLog(11);
+            for (long key = 0; key < cardinality; key++) {
+                sketch.add(key);
+            }
+            byte[] data = serialize(sketch);
+
+            HyperLogLog read = HyperLogLog.readFrom(ByteBuffer.wrap(data));
+
+            assertEquals(sketch.isSparse(), read.isSparse());
+            assertEquals(sketch.cardinality(), read.cardinality());
+            assertArrayEquals(data, serialize(read));
+        }
+    }
+
+    /**
+     * Check that concurrent adds give the same registers as adding from a single thread.
+     *
+     * @throws Exception When adding failed.
+     */
+    @Test
+    public void shouldAddConcurrently() throws Exception {
+        final HyperLogLog sketch = new HyperLogLog(12);
+        final int threads = 4;
+        final int keys = 100000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+            for (int t = 0; t < threads; t++) {
+                final int thread = t;
+                tasks.add(new Callable<Void>() {
+                    @Override
+                    public Void call() {
+                        for (long key = thread; key < keys; key += threads) {
+                            sketch.add(key);
+                        }
+                        return null;
+                    }
+                });
+            }
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        HyperLogLog expected = new HyperLogLog(12);
+        for (long key = 0; key < keys; key++) {
+            expected.add(key);
+        }
+
+        assertArrayEquals(serialize(expected), serialize(sketch));
+    }
+
+    /**
+     * Check that sketches with different precisions can not be merged.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectDifferentPrecision() {
+        new HyperLogLog(12).merge(new HyperLogLog(13));
+    }
+
+    /**
+     * Check that an invalid precision is rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectInvalidPrecision() {
+        new HyperLogLog(HyperLogLog.MAX_PRECISION + 1);
+    }
+
+    /**
+     * Check that a sparse entry with an index beyond the sparse precision is rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectSparseEntryOutOfRange() {
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        buffer.put((byte) 1).put((byte) 12);
+        VarIntCodec.writeInt(buffer, 1);
+        VarIntCodec.writeInt(buffer, Integer.MIN_VALUE | 1);
+        buffer.flip();
+
+        HyperLogLog.readFrom(buffer);
+    }
+
+    /**
+     * Serialize a sketch.
+     *
+     * @param sketch The sketch.
+     *
+     * @return The serialized sketch.
+     */
+    private static byte[] serialize(HyperLogLog sketch) {
+        ByteBuffer buffer = ByteBuffer.allocate(sketch.getSerializedSize());
+        sketch.writeTo(buffer);
+        return buffer.array();
+    }
+}
@@ -0,0 +1,126 @@
+package nl.salp.util.bit;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Unit tests for {@link Intrinsics}, run against every variant of the multi-release JAR.
+ */
+public class IntrinsicsTest {
+    /**
+     * Check that longs are read little-endian at every offset.
+     */
+    @Test
+    public void shouldGetLongLittleEndian() {
+        Random rng = new Random(17);
+        byte[] data = new byte[64];
+        rng.nextBytes(data);
+        for (int offset = 0; offset <= data.length - 8; offset++) {
+            long expected = 0;
+            for (int i = 7; i >= 0; i--) {
+                expected = (expected << 8) | (data[offset + i] & 0xFF);
+            }
+            assertEquals("offset " + offset, expected, Intrinsics.getLongLE(data, offset));
+        }
+    }
+
+    /**
+     * Check that reading past the end of the array fails.
+     */
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void shouldNotGetLongPastEnd() {
+        Intrinsics.getLongLE(new byte[10], 3);
+    }
+
+    /**
+     * Check that shorts, ints and longs are read and written in both byte orders at every offset, like a
+     * {@link ByteBuffer}.
+     */
+    @Test
+    public void shouldGetAndPutBothByteOrders() {
+        Random rng = new Random(29);
+        byte[] data = new byte[64];
+        rng.nextBytes(data);
+        ByteBuffer le = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer be = ByteBuffer.wrap(data.clone()).order(ByteOrder.BIG_ENDIAN);
+        for (int offset = 0; offset <= data.length - 8; offset++) {
+            assertEquals(le.getShort(offset), Intrinsics.getShortLE(data, offset));
+            assertEquals(be.getShort(offset), Intrinsics.getShortBE(data, offset));
+            assertEquals(le.getInt(offset), Intrinsics.getIntLE(data, offset));
+            assertEquals(be.getInt(offset), Intrinsics.getIntBE(data, offset));
+            assertEquals(le.getLong(offset), Intrinsics.getLongLE(data, offset));
+            assertEquals(be.getLong(offset), Intrinsics.getLongBE(data, offset));
+        }
+        for (int offset = 0; offset <= data.length - 8; offset++) {
+            long value = rng.nextLong();
+            byte[] actual = new byte[data.length];
+            byte[] expected = new byte[data.length];
+            ByteBuffer leExpected = ByteBuffer.wrap(expected).order(ByteOrder.LITTLE_ENDIAN);
+            ByteBuffer beExpected = ByteBuffer.wrap(expected).order(ByteOrder.BIG_ENDIAN);
+
+            Intrinsics.putShortLE(actual, offset, (short) value);
+            leExpected.putShort(offset, (short) value);
+            assertArrayEquals(expected, actual);
+            Intrinsics.putShortBE(actual, offset, (short) value);
+            beExpected.putShort(offset, (short) value);
+            assertArrayEquals(expected, actual);
+            Intrinsics.putIntLE(actual, offset, (int) value);
+            leExpected.putInt(offset, (int) value);
+            assertArrayEquals(expected, actual);
+            Intrinsics.putIntBE(actual, offset, (int) value);
+            beExpected.putInt(offset, (int) value);
+            assertArrayEquals(expected, actual);
+            Intrinsics.putLongLE(actual, offset, value);
+            leExpected.putLong(offset, value);
+            assertArrayEquals(expected, actual);
+            Intrinsics.putLongBE(actual, offset, value);
+            beExpected.putLong(offset, value);
+            assertArrayEquals(expected, actual);
+        }
+    }
+
+    /**
+     * Check that the 7-bit groups of varints of every length are compacted, ignoring the bytes after the varint.
+     */
+    @Test
+    public void shouldCompactVarInt() {
+        Random rng = new Random(19);
+        for (int n = 0; n < 10000; n++) {
+            long word = rng.nextLong();
+            int bytes = 1 + rng.nextInt(8);
+            long expected = 0;
+            for (int i = 0; i < bytes; i++) {
+                expected |= ((word >>> (i << 3)) & 0x7F) << (7 * i);
+            }
+            assertEquals("word " + Long.toHexString(word) + ", bytes " + bytes, expected, Intrinsics.compactVarInt(word, bytes));
+        }
+    }
+
+    /**
+     * Check that bits are spread over and gathered from every second and third bit.
+     */
+    @Test
+    public void shouldSpreadAndCompactBits() {
+        Random rng = new Random(23);
+        for (int n = 0; n < 10000; n++) {
+            long value = rng.nextLong();
+            long spread2 = 0;
+            long spread3 = 0;
+            for (int i = 0; i < 32; i++) {
+                spread2 |= ((value >>> i) & 1) << (2 * i);
+                spread3 |= i < 21 ? ((value >>> i) & 1) << (3 * i) : 0;
+            }
+
+            assertEquals(spread2, Intrinsics.spread2(value));
+            assertEquals(spread3, Intrinsics.spread3(value));
+            assertEquals(value & 0xFFFFFFFFL, Intrinsics.compact2(spread2 | (value & 0xAAAAAAAAAAAAAAAAL)));
+            assertEquals(value & 0x1FFFFFL, Intrinsics.compact3(spread3 | (value & ~0x1249249249249249L)));
+        }
+    }
+}
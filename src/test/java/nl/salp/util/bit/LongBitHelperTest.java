@@ -0,0 +1,73 @@
+package nl.salp.util.bit;
+
+import nl.salp.util.bit.BitHelper.LongBitHelper;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link LongBitHelper}, for both the generic and the primitive operations.
+ *
+ * @see LongBitHelper
+ */
+public class LongBitHelperTest {
+    /**
+     * The class under test.
+     */
+    private LongBitHelper helper;
+
+    @Before
+    public void setUp() {
+        helper = new LongBitHelper();
+    }
+
+    /**
+     * Check if the correct number of bits and bytes are reported for a long implementation.
+     */
+    @Test
+    public void shouldGetNumberOfBitsAndBytes() {
+        assertEquals(64, helper.getNumberOfBits());
+        assertEquals(8, helper.getNumberOfBytes());
+    }
+
+    /**
+     * Check if masks with bits above 31 are created.
+     */
+    @Test
+    public void shouldCreateMaskWithHighBits() {
+        assertEquals(Long.valueOf(1L << 40 | 1L << 63 | 1L), helper.createMask(0, 40, 63));
+    }
+
+    /**
+     * Check if the generic and primitive operations give the same results for all bits.
+     */
+    @Test
+    public void shouldGiveSameResultsForGenericAndPrimitiveOperations() {
+        long value = 0x5A5A5A5A5A5A5A5AL;
+        Long boxed = value;
+        for (int bit = 0; bit < 64; bit++) {
+            assertEquals((value & (1L << bit)) != 0, helper.isBitSet(value, bit));
+            assertEquals(helper.isBitSet(boxed, new int[]{bit}), helper.isBitSet(value, bit));
+            assertEquals(helper.setBit(boxed, new int[]{bit}).longValue(), helper.setBit(value, bit));
+            assertEquals(helper.unsetBit(boxed, new int[]{bit}).longValue(), helper.unsetBit(value, bit));
+        }
+        assertEquals(value | 1L, helper.setLsb(value));
+        assertEquals(value & ~1L, helper.unsetLsb(value));
+        assertFalse(helper.isLsbSet(value));
+        assertEquals(value | Long.MIN_VALUE, helper.setMsb(value));
+        assertEquals(Long.MAX_VALUE, helper.unsetMsb(-1L));
+        assertTrue(helper.isMsbSet(-1L));
+        assertFalse(helper.isMsbSet(value));
+    }
+
+    /**
+     * Check if an IllegalArgumentException is thrown for a bit index beyond 63.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldThrowExceptionForTooBigBitIndex() {
+        helper.setBit(0L, 64);
+    }
+}
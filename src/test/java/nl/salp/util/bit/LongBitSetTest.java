@@ -0,0 +1,101 @@
+package nl.salp.util.bit;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link LongBitSet}.
+ */
+public class LongBitSetTest {
+    /**
+     * Check that bits can be set, tested and cleared using LSB numbering.
+     */
+    @Test
+    public void shouldSetTestAndClearBits() {
+        LongBitSet bits = new LongBitSet(130);
+        bits.set(0);
+        bits.set(65);
+        bits.set(129);
+        bits.clear(129);
+
+        assertTrue(bits.get(0));
+        assertTrue(bits.get(65));
+        assertFalse(bits.get(129));
+        assertEquals(1L, bits.words()[0]);
+        assertEquals(2L, bits.words()[1]);
+        assertEquals(2, bits.cardinality());
+    }
+
+    /**
+     * Check that the next set and cleared bits are found.
+     */
+    @Test
+    public void shouldScanForSetAndClearedBits() {
+        LongBitSet bits = new LongBitSet(130);
+        bits.set(70);
+        for (int i = 100; i < 130; i++) {
+            bits.set(i);
+        }
+
+        assertEquals(70, bits.nextSetBit(0));
+        assertEquals(100, bits.nextSetBit(71));
+        assertEquals(71, bits.nextClearBit(70));
+        assertEquals(-1, bits.nextClearBit(100));
+    }
+
+    /**
+     * Check the bulk logical operations.
+     */
+    @Test
+    public void shouldCombineBitSets() {
+        LongBitSet a = new LongBitSet(100);
+        LongBitSet b = new LongBitSet(100);
+        a.set(1);
+        a.set(2);
+        b.set(2);
+        b.set(99);
+
+        assertEquals(1, a.copy().and(b).cardinality());
+        assertEquals(3, a.copy().or(b).cardinality());
+        assertTrue(a.copy().andNot(b).get(1));
+        assertFalse(a.copy().andNot(b).get(2));
+        assertEquals(2, a.copy().xor(b).cardinality());
+        assertEquals(a, a.copy());
+    }
+
+    /**
+     * Check that bit sets of different lengths can not be combined.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectDifferentLengths() {
+        new LongBitSet(100).and(new LongBitSet(101));
+    }
+
+    /**
+     * Check that words with bits set beyond the number of bits are rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectBitsBeyondLength() {
+        new LongBitSet(new long[]{0L, 1L << 36}, 100);
+    }
+
+    /**
+     * Check that words with all bits up to the number of bits set are accepted.
+     */
+    @Test
+    public void shouldAcceptBitsUpToLength() {
+        assertEquals(100, new LongBitSet(new long[]{-1L, (1L << 36) - 1}, 100).cardinality());
+        assertEquals(128, new LongBitSet(new long[]{-1L, -1L}, 128).cardinality());
+    }
+
+    /**
+     * Check that an invalid index is rejected.
+     */
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void shouldRejectInvalidIndex() {
+        new LongBitSet(100).get(100);
+    }
+}
@@ -0,0 +1,254 @@
+package nl.salp.util.bit;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.RandomAccessFile;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Unit tests for {@link MappedBitSet}.
+ */
+public class MappedBitSetTest {
+    /**
+     * Folder for the bit set files, removed after every test.
+     */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Check that bits can be set, tested and cleared.
+     */
+    @Test
+    public void shouldSetTestAndClearBits() throws Exception {
+        MappedBitSet bits = new MappedBitSet(new File(folder.getRoot(), "bits"), 1000);
+        try {
+            bits.set(0);
+            bits.set(63);
+            bits.set(64);
+            bits.set(999);
+            bits.clear(63);
+
+            assertTrue(bits.get(0));
+            assertFalse(bits.get(63));
+            assertTrue(bits.get(64));
+            assertTrue(bits.get(999));
+            assertEquals(3, bits.cardinality());
+        } finally {
+            bits.close();
+        }
+    }
+
+    /**
+     * Check that the LSB numbering matches {@link BitHelper} within each word.
+     */
+    @Test
+    public void shouldUseLsbBitNumbering() throws Exception {
+        MappedBitSet bits = new MappedBitSet(new File(folder.getRoot(), "bits"), 128);
+        try {
+            bits.set(0);
+            bits.set(65);
+
+            assertEquals(1L, bits.getWord(0));
+            assertEquals(2L, bits.getWord(1));
+        } finally {
+            bits.close();
+        }
+    }
+
+    /**
+     * Check that the next set and cleared bits are found.
+     */
+    @Test
+    public void shouldScanForSetAndClearedBits() throws Exception {
+        MappedBitSet bits = new MappedBitSet(new File(folder.getRoot(), "bits"), 200);
+        try {
+            bits.set(3);
+            bits.set(130);
+            for (int i = 0; i < 200; i++) {
+                if (i != 150) {
+                    bits.set(i);
+                }
+            }
+            bits.clear(5);
+
+            assertEquals(6, bits.nextSetBit(5));
+            assertEquals(5, bits.nextClearBit(0));
+            assertEquals(150, bits.nextClearBit(6));
+            assertEquals(-1, bits.nextClearBit(151));
+            bits.clear();
+            assertEquals(-1, bits.nextSetBit(0));
+        } finally {
+            bits.close();
+        }
+    }
+
+    /**
+     * Check that the bits are retained after reopening the file.
+     */
+    @Test
+    public void shouldReopenWithoutRebuild() throws Exception {
+        File file = new File(folder.getRoot(), "bits");
+        MappedBitSet bits = new MappedBitSet(file, 10000);
+        bits.set(1234);
+        bits.force();
+        bits.close();
+
+        MappedBitSet reopened = new MappedBitSet(file);
+        try {
+            assertEquals(10000, reopened.length());
+            assertTrue(reopened.get(1234));
+            assertEquals(1234, reopened.nextSetBit(0));
+        } finally {
+            reopened.close();
+        }
+    }
+
+    /**
+     * Check that bit indexes beyond the int range work, spanning multiple mapped regions.
+     */
+    @Test
+    public void shouldSupportMoreThanIntegerMaxValueBits() throws Exception {
+        long length = 3L << 32;
+        MappedBitSet bits = new MappedBitSet(new File(folder.getRoot(), "bits"), length);
+        try {
+            bits.set((1L << 33) + 5);
+            bits.set(length - 1);
+
+            assertTrue(bits.get((1L << 33) + 5));
+            assertEquals(length - 1, bits.nextSetBit((1L << 33) + 6));
+        } finally {
+            bits.close();
+        }
+    }
+
+    /**
+     * Check that a file with a different length is rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectDifferentLength() throws Exception {
+        File file = new File(folder.getRoot(), "bits");
+        new MappedBitSet(file, 100).close();
+        new MappedBitSet(file, 200);
+    }
+
+    /**
+     * Check that a file that is not a bit set file is rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectOtherFiles() throws Exception {
+        File file = new File(folder.getRoot(), "other");
+        FileOutputStream out = new FileOutputStream(file);
+        out.write(new byte[32]);
+        out.close();
+        new MappedBitSet(file);
+    }
+
+    /**
+     * Check that opening a missing file is rejected without creating the file.
+     */
+    @Test
+    public void shouldNotCreateMissingFile() throws Exception {
+        File file = new File(folder.getRoot(), "missing");
+        try {
+            new MappedBitSet(file);
+            fail("Missing file opened");
+        } catch (IllegalArgumentException e) {
+            assertFalse(file.exists());
+        }
+    }
+
+    /**
+     * Check that a header with a negative length is rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNegativeLength() throws Exception {
+        File file = new File(folder.getRoot(), "bits");
+        new MappedBitSet(file, 100).close();
+        writeLength(file, -1);
+        new MappedBitSet(file);
+    }
+
+    /**
+     * Check that a header with a length beyond the file size is rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectLengthBeyondFile() throws Exception {
+        File file = new File(folder.getRoot(), "bits");
+        new MappedBitSet(file, 100).close();
+        writeLength(file, Long.MAX_VALUE);
+        new MappedBitSet(file);
+    }
+
+    /**
+     * Check that an invalid index is rejected.
+     */
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void shouldRejectInvalidIndex() throws Exception {
+        MappedBitSet bits = new MappedBitSet(new File(folder.getRoot(), "bits"), 100);
+        try {
+            bits.set(100);
+        } finally {
+            bits.close();
+        }
+    }
+
+    /**
+     * Check that a closed bit set can still be closed again and report its length.
+     */
+    @Test
+    public void shouldAllowCloseAndLengthAfterClose() throws Exception {
+        MappedBitSet bits = new MappedBitSet(new File(folder.getRoot(), "bits"), 100);
+        bits.close();
+        bits.close();
+
+        assertEquals(100, bits.length());
+    }
+
+    /**
+     * Check that a closed bit set can not be read.
+     */
+    @Test(expected = IllegalStateException.class)
+    public void shouldRejectReadAfterClose() throws Exception {
+        MappedBitSet bits = new MappedBitSet(new File(folder.getRoot(), "bits"), 100);
+        bits.close();
+
+        bits.get(1);
+    }
+
+    /**
+     * Check that a closed bit set can not be written.
+     */
+    @Test(expected = IllegalStateException.class)
+    public void shouldRejectWriteAfterClose() throws Exception {
+        MappedBitSet bits = new MappedBitSet(new File(folder.getRoot(), "bits"), 100);
+        bits.close();
+
+        bits.set(1);
+    }
+
+    /**
+     * Overwrite the number of bits in the header of a bit set file.
+     *
+     * @param file   The file.
+     * @param length The number of bits.
+     */
+    private static void writeLength(File file, long length) throws Exception {
+        byte[] data = new byte[8];
+        ByteView.LITTLE_ENDIAN.putLong(data, 0, length);
+        RandomAccessFile out = new RandomAccessFile(file, "rw");
+        try {
+            out.seek(8);
+            out.write(data);
+        } finally {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,459 @@
+package nl.salp.util.bit;
+
+import java.util.Random;
+
+import nl.salp.util.AllocationAssert;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Unit tests for {@link Morton}.
+ */
+public class MortonTest {
+    /**
+     * The value to operate on in the allocation test, changed on every call to prevent constant folding.
+     */
+    private int value;
+    /**
+     * Sink for the results of the allocation test, so the calls are not eliminated.
+     */
+    private long sink;
+
+    /**
+     * Check that the bits of 2D coordinates are interleaved with x in the even bits.
+     */
+    @Test
+    public void shouldInterleave2D() {
+        assertEquals(0L, Morton.encode2D(0, 0));
+        assertEquals(1L, Morton.encode2D(1, 0));
+        assertEquals(2L, Morton.encode2D(0, 1));
+        assertEquals(0x5555555555555555L, Morton.encode2D(-1, 0));
+        assertEquals(0xAAAAAAAAAAAAAAAAL, Morton.encode2D(0, -1));
+        assertEquals(interleave(new long[]{0x12345678L, 0x9ABCDEF0L}, 32), Morton.encode2D(0x12345678, 0x9ABCDEF0));
+    }
+
+    /**
+     * Check that random 2D coordinates are decoded from their code.
+     */
+    @Test
+    public void shouldEncodeAndDecode2D() {
+        Random rng = new Random(23);
+        for (int i = 0; i < 10000; i++) {
+            int x = rng.nextInt();
+            int y = rng.nextInt();
+            long code = Morton.encode2D(x, y);
+
+            assertEquals(interleave(new long[]{x & 0xFFFFFFFFL, y & 0xFFFFFFFFL}, 32), code);
+            assertEquals(x, Morton.decode2DX(code));
+            assertEquals(y, Morton.decode2DY(code));
+        }
+    }
+
+    /**
+     * Check that random 3D coordinates are decoded from their code.
+     */
+    @Test
+    public void shouldEncodeAndDecode3D() {
+        Random rng = new Random(29);
+        for (int i = 0; i < 10000; i++) {
+            int x = rng.nextInt(1 << 21);
+            int y = rng.nextInt(1 << 21);
+            int z = rng.nextInt(1 << 21);
+            long code = Morton.encode3D(x, y, z);
+
+            assertEquals(interleave(new long[]{x, y, z}, 21), code);
+            assertEquals(x, Morton.decode3DX(code));
+            assertEquals(y, Morton.decode3DY(code));
+            assertEquals(z, Morton.decode3DZ(code));
+        }
+        assertEquals(Long.MAX_VALUE, Morton.encode3D((1 << 21) - 1, (1 << 21) - 1, (1 << 21) - 1));
+    }
+
+    /**
+     * Check that coordinates are encoded in int codes and decoded from them.
+     */
+    @Test
+    public void shouldEncodeAndDecodeIntCodes() {
+        Random rng = new Random(31);
+        for (int i = 0; i < 10000; i++) {
+            int x = rng.nextInt(1 << 16);
+            int y = rng.nextInt(1 << 16);
+            int code = Morton.encodeInt2D(x, y);
+
+            assertEquals(Morton.encode2D(x, y), code & 0xFFFFFFFFL);
+            assertEquals(x, Morton.decodeInt2DX(code));
+            assertEquals(y, Morton.decodeInt2DY(code));
+
+            x = rng.nextInt(1 << 10);
+            y = rng.nextInt(1 << 10);
+            int z = rng.nextInt(1 << 10);
+            code = Morton.encodeInt3D(x, y, z);
+
+            assertEquals(Morton.encode3D(x, y, z), code);
+            assertEquals(x, Morton.decodeInt3DX(code));
+            assertEquals(y, Morton.decodeInt3DY(code));
+            assertEquals(z, Morton.decodeInt3DZ(code));
+        }
+    }
+
+    /**
+     * Check that coordinates that do not fit in a 3D code are rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldThrowExceptionForTooLarge3DCoordinate() {
+        Morton.encode3D(0, 1 << 21, 0);
+    }
+
+    /**
+     * Check that negative coordinates are rejected for 3D codes.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldThrowExceptionForNegative3DCoordinate() {
+        Morton.encode3D(0, 0, -1);
+    }
+
+    /**
+     * Check that coordinates that do not fit in a 2D int code are rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldThrowExceptionForTooLargeInt2DCoordinate() {
+        Morton.encodeInt2D(1 << 16, 0);
+    }
+
+    /**
+     * Check that the bulk versions give the same results as the scalar versions.
+     */
+    @Test
+    public void shouldEncodeAndDecodeInBulk() {
+        Random rng = new Random(37);
+        int[] x = new int[100];
+        int[] y = new int[100];
+        int[] z = new int[100];
+        for (int i = 0; i < x.length; i++) {
+            x[i] = rng.nextInt(1 << 21);
+            y[i] = rng.nextInt(1 << 21);
+            z[i] = rng.nextInt(1 << 21);
+        }
+        long[] codes = new long[100];
+        int[] dx = new int[100];
+        int[] dy = new int[100];
+        int[] dz = new int[100];
+
+        Morton.encode2D(x, y, codes, 10, 80);
+        Morton.decode2D(codes, dx, dy, 10, 80);
+        for (int i = 0; i < codes.length; i++) {
+            boolean inRange = i >= 10 && i < 90;
+            assertEquals(inRange ? Morton.encode2D(x[i], y[i]) : 0L, codes[i]);
+            assertEquals(inRange ? x[i] : 0, dx[i]);
+            assertEquals(inRange ? y[i] : 0, dy[i]);
+        }
+
+        Morton.encode3D(x, y, z, codes, 0, 100);
+        Morton.decode3D(codes, dx, dy, dz, 0, 100);
+        for (int i = 0; i < codes.length; i++) {
+            assertEquals(Morton.encode3D(x[i], y[i], z[i]), codes[i]);
+        }
+        assertArrayEquals(x, dx);
+        assertArrayEquals(y, dy);
+        assertArrayEquals(z, dz);
+    }
+
+    /**
+     * Check that a bulk range beyond an array is rejected.
+     */
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void shouldThrowExceptionForInvalidBulkRange() {
+        Morton.encode2D(new int[10], new int[5], new long[10], 0, 10);
+    }
+
+    /**
+     * Check the box checks, BIGMIN and LITMAX against a scan of all 2D codes of random boxes.
+     */
+    @Test
+    public void shouldFindBigMinAndLitMax2D() {
+        Random rng = new Random(41);
+        for (int n = 0; n < 200; n++) {
+            int x1 = rng.nextInt(16);
+            int x2 = rng.nextInt(16);
+            int y1 = rng.nextInt(16);
+            int y2 = rng.nextInt(16);
+            long min = Morton.encode2D(Math.min(x1, x2), Math.min(y1, y2));
+            long max = Morton.encode2D(Math.max(x1, x2), Math.max(y1, y2));
+            boolean[] inBox = new boolean[256];
+            for (int x = Math.min(x1, x2); x <= Math.max(x1, x2); x++) {
+                for (int y = Math.min(y1, y2); y <= Math.max(y1, y2); y++) {
+                    inBox[(int) Morton.encode2D(x, y)] = true;
+                }
+            }
+            for (int code = 0; code < 256; code++) {
+                assertEquals(inBox[code], Morton.isInBox2D(code, min, max));
+                if (code > min && code < max && !inBox[code]) {
+                    assertEquals("BIGMIN of " + code, next(inBox, code), Morton.bigMin2D(code, min, max));
+                    assertEquals("LITMAX of " + code, previous(inBox, code), Morton.litMax2D(code, min, max));
+                }
+            }
+        }
+    }
+
+    /**
+     * Check the box checks, BIGMIN and LITMAX against a scan of all 3D codes of random boxes.
+     */
+    @Test
+    public void shouldFindBigMinAndLitMax3D() {
+        Random rng = new Random(43);
+        for (int n = 0; n < 200; n++) {
+            int[] low = new int[3];
+            int[] high = new int[3];
+            for (int d = 0; d < 3; d++) {
+                int a = rng.nextInt(8);
+                int b = rng.nextInt(8);
+                low[d] = Math.min(a, b);
+                high[d] = Math.max(a, b);
+            }
+            long min = Morton.encode3D(low[0], low[1], low[2]);
+            long max = Morton.encode3D(high[0], high[1], high[2]);
+            boolean[] inBox = new boolean[512];
+            for (int x = low[0]; x <= high[0]; x++) {
+                for (int y = low[1]; y <= high[1]; y++) {
+                    for (int z = low[2]; z <= high[2]; z++) {
+                        inBox[(int) Morton.encode3D(x, y, z)] = true;
+                    }
+                }
+            }
+            for (int code = 0; code < 512; code++) {
+                assertEquals(inBox[code], Morton.isInBox3D(code, min, max));
+                if (code > min && code < max && !inBox[code]) {
+                    assertEquals("BIGMIN of " + code, next(inBox, code), Morton.bigMin3D(code, min, max));
+                    assertEquals("LITMAX of " + code, previous(inBox, code), Morton.litMax3D(code, min, max));
+                }
+            }
+        }
+    }
+
+    /**
+     * Check that a range query over sorted codes visits exactly the codes in the box when skipping with BIGMIN.
+     */
+    @Test
+    public void shouldSkipOutsideBoxInRangeQuery() {
+        long min = Morton.encode2D(100000, 200000);
+        long max = Morton.encode2D(100007, 200009);
+        int visited = 0;
+        long code = min;
+        while (code <= max) {
+            if (Morton.isInBox2D(code, min, max)) {
+                assertTrue(Morton.decode2DX(code) >= 100000 && Morton.decode2DX(code) <= 100007);
+                visited++;
+                code++;
+            } else {
+                long next = Morton.bigMin2D(code, min, max);
+                assertTrue(next > code);
+                code = next;
+            }
+        }
+        assertEquals(8 * 10, visited);
+        assertFalse(Morton.isInBox2D(max + 1, min, max));
+    }
+
+    /**
+     * Check that the {@link nl.salp.util.AllocationFree} methods do not allocate.
+     */
+    @Test
+    public void shouldNotAllocate() {
+        assumeTrue(AllocationAssert.isSupported());
+        final int[] xs = {1, 2, 3, 4};
+        final int[] ys = {5, 6, 7, 8};
+        final int[] zs = {9, 10, 11, 12};
+        final long[] codes = new long[4];
+        AllocationAssert allocations = new AllocationAssert(Morton.class);
+        allocations.assertAllocationFree("encode2D", new Runnable() {
+            @Override
+            public void run() {
+                sink += Morton.encode2D(value++, value);
+            }
+        });
+        allocations.assertAllocationFree("decode2DX", new Runnable() {
+            @Override
+            public void run() {
+                sink += Morton.decode2DX(value++);
+            }
+        });
+        allocations.assertAllocationFree("decode2DY", new Runnable() {
+            @Override
+            public void run() {
+                sink += Morton.decode2DY(value++);
+            }
+        });
+        allocations.assertAllocationFree("encode3D", new Runnable() {
+            @Override
+            public void run() {
+                sink += Morton.encode3D(value++ & 0xFFFFF, 7, 9);
+            }
+        });
+        allocations.assertAllocationFree("decode3DX", new Runnable() {
+            @Override
+            public void run() {
+                sink += Morton.decode3DX(value++);
+            }
+        });
+        allocations.assertAllocationFree("decode3DY", new Runnable() {
+            @Override
+            public void run() {
+                sink += Morton.decode3DY(value++);
+            }
+        });
+        allocations.assertAllocationFree("decode3DZ", new Runnable() {
+            @Override
+            public void run() {
+                sink += Morton.decode3DZ(value++);
+            }
+        });
+        allocations.assertAllocationFree("encodeInt2D", new Runnable() {
+            @Override
+            public void run() {
+                sink += Morton.encodeInt2D(value++ & 0xFFFF, 3);
+            }
+        });
+        allocations.assertAllocationFree("decodeInt2DX", new Runnable() {
+            @Override
+            public void run() {
+                sink += Morton.decodeInt2DX(value++);
+            }
+        });
+        allocations.assertAllocationFree("decodeInt2DY", new Runnable() {
+            @Override
+            public void run() {
+                sink += Morton.decodeInt2DY(value++);
+            }
+        });
+        allocations.assertAllocationFree("encodeInt3D", new Runnable() {
+            @Override
+            public void run() {
+                sink += Morton.encodeInt3D(value++ & 0x3FF, 3, 5);
+            }
+        });
+        allocations.assertAllocationFree("decodeInt3DX", new Runnable() {
+            @Override
+            public void run() {
+                sink += Morton.decodeInt3DX(value++);
+            }
+        });
+        allocations.assertAllocationFree("decodeInt3DY", new Runnable() {
+            @Override
+            public void run() {
+                sink += Morton.decodeInt3DY(value++);
+            }
+        });
+        allocations.assertAllocationFree("decodeInt3DZ", new Runnable() {
+            @Override
+            public void run() {
+                sink += Morton.decodeInt3DZ(value++);
+            }
+        });
+        allocations.assertAllocationFree("isInBox2D", new Runnable() {
+            @Override
+            public void run() {
+                sink += Morton.isInBox2D(value++, 0x30, 0xFC) ? 1 : 0;
+            }
+        });
+        allocations.assertAllocationFree("isInBox3D", new Runnable() {
+            @Override
+            public void run() {
+                sink += Morton.isInBox3D(value++, 0x30, 0x1FC) ? 1 : 0;
+            }
+        });
+        allocations.assertAllocationFree("bigMin2D", new Runnable() {
+            @Override
+            public void run() {
+                sink += Morton.bigMin2D(0x30 + (value++ & 0x3F), 0x30, 0xFC);
+            }
+        });
+        allocations.assertAllocationFree("litMax2D", new Runnable() {
+            @Override
+            public void run() {
+                sink += Morton.litMax2D(0x30 + (value++ & 0x3F), 0x30, 0xFC);
+            }
+        });
+        allocations.assertAllocationFree("bigMin3D", new Runnable() {
+            @Override
+            public void run() {
+                sink += Morton.bigMin3D(0x30 + (value++ & 0x3F), 0x30, 0x1FC);
+            }
+        });
+        allocations.assertAllocationFree("litMax3D", new Runnable() {
+            @Override
+            public void run() {
+                sink += Morton.litMax3D(0x30 + (value++ & 0x3F), 0x30, 0x1FC);
+            }
+        });
+        allocations.assertAllocationFree("decode2D", new Runnable() {
+            @Override
+            public void run() {
+                Morton.encode2D(xs, ys, codes, 0, codes.length);
+                Morton.decode2D(codes, xs, ys, 0, codes.length);
+            }
+        });
+        allocations.assertAllocationFree("decode3D", new Runnable() {
+            @Override
+            public void run() {
+                Morton.encode3D(xs, ys, zs, codes, 0, codes.length);
+                Morton.decode3D(codes, xs, ys, zs, 0, codes.length);
+            }
+        });
+        allocations.assertAllMarkedMethodsChecked();
+    }
+
+    /**
+     * Interleave the bits of coordinates one bit at a time.
+     *
+     * @param coordinates The coordinates.
+     * @param bits        The number of bits per coordinate.
+     *
+     * @return The code.
+     */
+    private static long interleave(long[] coordinates, int bits) {
+        long code = 0;
+        for (int bit = 0; bit < bits; bit++) {
+            for (int d = 0; d < coordinates.length; d++) {
+                code |= ((coordinates[d] >>> bit) & 1) << (bit * coordinates.length + d);
+            }
+        }
+        return code;
+    }
+
+    /**
+     * Find the next code in a box.
+     *
+     * @param inBox The codes in the box.
+     * @param code  The code to start after.
+     *
+     * @return The next code.
+     */
+    private static long next(boolean[] inBox, int code) {
+        int next = code + 1;
+        while (!inBox[next]) {
+            next++;
+        }
+        return next;
+    }
+
+    /**
+     * Find the previous code in a box.
+     *
+     * @param inBox The codes in the box.
+     * @param code  The code to start before.
+     *
+     * @return The previous code.
+     */
+    private static long previous(boolean[] inBox, int code) {
+        int previous = code - 1;
+        while (!inBox[previous]) {
+            previous--;
+        }
+        return previous;
+    }
+}
@@ -0,0 +1,151 @@
+package nl.salp.util.bit;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Unit tests for {@link PackedLongArray}.
+ */
+public class PackedLongArrayTest {
+    /**
+     * Check that random values can be set and read back for every number of bits.
+     */
+    @Test
+    public void shouldGetAndSetForAllWidths() {
+        Random rng = new Random(11);
+        for (int bits = 1; bits <= 64; bits++) {
+            long[] expected = randomValues(rng, 200, bits);
+            PackedLongArray array = new PackedLongArray(expected.length, bits);
+            for (int i = 0; i < expected.length; i++) {
+                array.set(i, expected[i]);
+            }
+
+            assertEquals(bits, array.getBitsPerValue());
+            assertEquals(((200 + 63) / 64) * bits, array.words().length);
+            for (int i = 0; i < expected.length; i++) {
+                assertEquals("bits " + bits + ", index " + i, expected[i], array.get(i));
+            }
+        }
+    }
+
+    /**
+     * Check that blocks encoded in bulk are decoded in bulk and by index for every number of bits.
+     */
+    @Test
+    public void shouldEncodeAndDecodeBlocksForAllWidths() {
+        Random rng = new Random(13);
+        for (int bits = 1; bits <= 64; bits++) {
+            long[] expected = randomValues(rng, 3 * PackedLongArray.BLOCK_SIZE, bits);
+            PackedLongArray array = new PackedLongArray(expected.length, bits);
+            for (int block = 0; block < 3; block++) {
+                array.encodeBlock(block, expected, block * PackedLongArray.BLOCK_SIZE);
+            }
+
+            long[] decoded = new long[expected.length + 1];
+            for (int block = 0; block < 3; block++) {
+                array.decodeBlock(block, decoded, 1 + block * PackedLongArray.BLOCK_SIZE);
+            }
+            for (int i = 0; i < expected.length; i++) {
+                assertEquals("bits " + bits + ", index " + i, expected[i], decoded[i + 1]);
+                assertEquals("bits " + bits + ", index " + i, expected[i], array.get(i));
+            }
+        }
+    }
+
+    /**
+     * Check that a partially used last block decodes to 0 beyond the size.
+     */
+    @Test
+    public void shouldDecodePartialBlock() {
+        PackedLongArray array = new PackedLongArray(70, 11);
+        for (int i = 0; i < 70; i++) {
+            array.set(i, i + 1000);
+        }
+        long[] decoded = new long[PackedLongArray.BLOCK_SIZE];
+
+        array.decodeBlock(1, decoded, 0);
+
+        for (int i = 0; i < PackedLongArray.BLOCK_SIZE; i++) {
+            assertEquals(i < 6 ? 1064 + i : 0, decoded[i]);
+        }
+    }
+
+    /**
+     * Check that setting a value that does not fit widens all values in place.
+     */
+    @Test
+    public void shouldWidenForLargerValue() {
+        PackedLongArray array = new PackedLongArray(1000, 3);
+        for (int i = 0; i < 1000; i++) {
+            array.set(i, i & 7);
+        }
+
+        array.set(500, 100000);
+
+        assertEquals(17, array.getBitsPerValue());
+        assertEquals(100000, array.get(500));
+        for (int i = 0; i < 1000; i++) {
+            if (i != 500) {
+                assertEquals(i & 7, array.get(i));
+            }
+        }
+        array.set(0, -1L);
+        assertEquals(64, array.getBitsPerValue());
+        assertEquals(-1L, array.get(0));
+        assertEquals(100000, array.get(500));
+        assertEquals(999 & 7, array.get(999));
+    }
+
+    /**
+     * Check that encoding a block with a value that does not fit widens all values.
+     */
+    @Test
+    public void shouldWidenForLargerBlockValue() {
+        PackedLongArray array = new PackedLongArray(128, 4);
+        array.set(127, 9);
+        long[] values = new long[PackedLongArray.BLOCK_SIZE];
+        values[3] = 1 << 20;
+
+        array.encodeBlock(0, values, 0);
+
+        assertEquals(21, array.getBitsPerValue());
+        assertEquals(1 << 20, array.get(3));
+        assertEquals(9, array.get(127));
+    }
+
+    /**
+     * Check that the number of bits can not be reduced.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNarrowing() {
+        new PackedLongArray(10, 8).resize(7);
+    }
+
+    /**
+     * Check that an invalid index is rejected.
+     */
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void shouldRejectInvalidIndex() {
+        new PackedLongArray(10, 8).get(10);
+    }
+
+    /**
+     * Create random values of a number of bits.
+     *
+     * @param rng   The random generator.
+     * @param count The number of values.
+     * @param bits  The number of bits.
+     *
+     * @return The values.
+     */
+    private static long[] randomValues(Random rng, int count, int bits) {
+        long[] values = new long[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = bits == 64 ? rng.nextLong() : rng.nextLong() & ((1L << bits) - 1);
+        }
+        return values;
+    }
+}
@@ -0,0 +1,113 @@
+package nl.salp.util.bit;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Unit tests for {@link RankSelect}, comparing against a linear scan of the bit set.
+ */
+public class RankSelectTest {
+    /**
+     * Check rank and select on a random bit set with an average density.
+     */
+    @Test
+    public void shouldRankAndSelectRandomBits() {
+        assertRankAndSelect(createBits(300001, 0.5, 42));
+    }
+
+    /**
+     * Check rank and select on a sparse bit set, where the select hints span many superblocks.
+     */
+    @Test
+    public void shouldRankAndSelectSparseBits() {
+        assertRankAndSelect(createBits(1000000, 0.0005, 7));
+    }
+
+    /**
+     * Check rank and select on a dense bit set, with few cleared bits.
+     */
+    @Test
+    public void shouldRankAndSelectDenseBits() {
+        assertRankAndSelect(createBits(200000, 0.999, 3));
+    }
+
+    /**
+     * Check rank and select on bit set lengths at the boundaries of words, blocks and superblocks.
+     */
+    @Test
+    public void shouldHandleBoundaries() {
+        for (long length : new long[]{0, 1, 63, 64, 65, 511, 512, 513, 65535, 65536, 65537}) {
+            assertRankAndSelect(createBits(length, 0.3, length));
+        }
+    }
+
+    /**
+     * Check selecting within a single word.
+     */
+    @Test
+    public void shouldSelectInWord() {
+        long word = 0x8000000100010001L;
+
+        assertEquals(0, RankSelect.selectInWord(word, 0));
+        assertEquals(16, RankSelect.selectInWord(word, 1));
+        assertEquals(32, RankSelect.selectInWord(word, 2));
+        assertEquals(63, RankSelect.selectInWord(word, 3));
+    }
+
+    /**
+     * Check that an invalid rank is rejected.
+     */
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void shouldRejectInvalidRank() {
+        LongBitSet bits = new LongBitSet(100);
+        bits.set(5);
+
+        new RankSelect(bits).select1(1);
+    }
+
+    /**
+     * Compare all ranks and selects with a linear scan.
+     *
+     * @param bits The bit set.
+     */
+    private static void assertRankAndSelect(LongBitSet bits) {
+        RankSelect index = new RankSelect(bits);
+        long ones = 0;
+        long zeros = 0;
+        for (long i = 0; i < bits.length(); i++) {
+            assertEquals(ones, index.rank1(i));
+            assertEquals(zeros, index.rank0(i));
+            if (bits.get(i)) {
+                assertEquals(i, index.select1(ones++));
+            } else {
+                assertEquals(i, index.select0(zeros++));
+            }
+        }
+        assertEquals(ones, index.rank1(bits.length()));
+        assertEquals(ones, index.ones());
+        assertEquals(zeros, index.zeros());
+    }
+
+    /**
+     * Create a random bit set.
+     *
+     * @param length  The number of bits.
+     * @param density The probability of a bit being set.
+     * @param seed    The random seed.
+     *
+     * @return The bit set.
+     */
+    private static LongBitSet createBits(long length, double density, long seed) {
+        Random rng = new Random(seed);
+        LongBitSet bits = new LongBitSet(length);
+        for (long i = 0; i < length; i++) {
+            if (rng.nextDouble() < density) {
+                bits.set(i);
+            }
+        }
+        return bits;
+    }
+}
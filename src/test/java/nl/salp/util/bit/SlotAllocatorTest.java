@@ -0,0 +1,257 @@
+package nl.salp.util.bit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+import nl.salp.util.AllocationAssert;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Unit tests for {@link SlotAllocator}.
+ */
+public class SlotAllocatorTest {
+    /**
+     * Sink for the results of the allocation test.
+     */
+    private long sink;
+
+    /**
+     * Check that the lowest free slots are allocated until the allocator is full, for sizes of one to four levels.
+     */
+    @Test
+    public void shouldAllocateLowestSlotsUntilFull() {
+        for (boolean concurrent : new boolean[]{false, true}) {
+            for (long capacity : new long[]{1, 63, 64, 65, 4096, 4097, 300000}) {
+                SlotAllocator allocator = new SlotAllocator(capacity, concurrent);
+                for (long slot = 0; slot < capacity; slot++) {
+                    assertEquals(slot, allocator.allocate());
+                }
+                assertEquals(-1, allocator.allocate());
+                assertEquals(-1, allocator.nextFree(0));
+                assertEquals(capacity, allocator.getAllocatedCount());
+
+                allocator.free(capacity - 1);
+                if (capacity > 1) {
+                    allocator.free(capacity / 2 - 1);
+                    assertEquals(capacity / 2 - 1, allocator.nextFree(0));
+                    assertEquals(capacity / 2 - 1, allocator.allocate());
+                }
+                assertEquals(capacity - 1, allocator.allocate());
+                assertEquals(-1, allocator.allocate());
+            }
+        }
+    }
+
+    /**
+     * Check random allocations and frees against a reference set.
+     */
+    @Test
+    public void shouldMatchReferenceForRandomOperations() {
+        Random rng = new Random(53);
+        for (boolean concurrent : new boolean[]{false, true}) {
+            long capacity = 270000;
+            SlotAllocator allocator = new SlotAllocator(capacity, concurrent);
+            TreeSet<Long> allocated = new TreeSet<Long>();
+            TreeSet<Long> free = new TreeSet<Long>();
+            for (long slot = 0; slot < capacity; slot++) {
+                free.add(slot);
+            }
+            for (int n = 0; n < 200000; n++) {
+                if (rng.nextInt(3) > 0 || allocated.isEmpty()) {
+                    long slot = allocator.allocate();
+                    assertEquals(free.pollFirst(), Long.valueOf(slot));
+                    allocated.add(slot);
+                } else {
+                    Long slot = allocated.ceiling((long) rng.nextInt((int) capacity));
+                    slot = slot == null ? allocated.first() : slot;
+                    allocated.remove(slot);
+                    free.add(slot);
+                    allocator.free(slot);
+                }
+                if (n % 1000 == 0) {
+                    long from = rng.nextInt((int) capacity);
+                    Long next = allocated.ceiling(from);
+                    assertEquals(next == null ? -1L : next, allocator.nextAllocated(from));
+                    Long nextFree = free.ceiling(from);
+                    assertEquals(nextFree == null ? -1L : nextFree, allocator.nextFree(from));
+                }
+            }
+            assertEquals(allocated.size(), allocator.getAllocatedCount());
+            List<Long> iterated = new ArrayList<Long>();
+            for (long slot = allocator.nextAllocated(0); slot >= 0; slot = allocator.nextAllocated(slot + 1)) {
+                assertTrue(allocator.isAllocated(slot));
+                iterated.add(slot);
+            }
+            assertEquals(new ArrayList<Long>(allocated), iterated);
+        }
+    }
+
+    /**
+     * Check that a slot beyond the capacity is never reported as allocated.
+     */
+    @Test
+    public void shouldNotFindSlotsBeyondCapacity() {
+        SlotAllocator allocator = new SlotAllocator(100, false);
+        assertEquals(-1, allocator.nextAllocated(0));
+        allocator.allocate();
+        assertEquals(0, allocator.nextAllocated(0));
+        assertEquals(-1, allocator.nextAllocated(1));
+        assertEquals(-1, allocator.nextAllocated(1000));
+        assertEquals(99, allocator.nextFree(99));
+        assertEquals(-1, allocator.nextFree(100));
+        assertFalse(allocator.isAllocated(99));
+    }
+
+    /**
+     * Check that freeing a free slot is rejected.
+     */
+    @Test(expected = IllegalStateException.class)
+    public void shouldThrowExceptionWhenFreeingFreeSlot() {
+        new SlotAllocator(100, true).free(5);
+    }
+
+    /**
+     * Check that freeing a slot beyond the capacity is rejected.
+     */
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void shouldThrowExceptionWhenFreeingInvalidSlot() {
+        new SlotAllocator(100, false).free(100);
+    }
+
+    /**
+     * Check that an invalid capacity is rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldThrowExceptionForInvalidCapacity() {
+        new SlotAllocator(0, false);
+    }
+
+    /**
+     * Check that concurrent threads never get the same slot and that no slot is lost in the summaries.
+     */
+    @Test
+    public void shouldAllocateConcurrently() throws Exception {
+        final int capacity = 20000;
+        final SlotAllocator allocator = new SlotAllocator(capacity, true);
+        final AtomicIntegerArray owners = new AtomicIntegerArray(capacity);
+        final AtomicReference<String> error = new AtomicReference<String>();
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final int owner = t + 1;
+            threads[t] = new Thread() {
+                @Override
+                public void run() {
+                    Random rng = new Random(owner);
+                    long[] held = new long[capacity / 4];
+                    int count = 0;
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int n = 0; n < 300000; n++) {
+                        if (count < held.length && (count == 0 || rng.nextBoolean())) {
+                            long slot = allocator.allocate();
+                            if (slot < 0) {
+                                error.compareAndSet(null, "Allocator full with " + count + " slots held");
+                                return;
+                            }
+                            if (!owners.compareAndSet((int) slot, 0, owner)) {
+                                error.compareAndSet(null, "Slot " + slot + " allocated twice");
+                                return;
+                            }
+                            held[count++] = slot;
+                        } else {
+                            int index = rng.nextInt(count);
+                            long slot = held[index];
+                            held[index] = held[--count];
+                            owners.set((int) slot, 0);
+                            allocator.free(slot);
+                        }
+                    }
+                    for (int i = 0; i < count; i++) {
+                        owners.set((int) held[i], 0);
+                        allocator.free(held[i]);
+                    }
+                }
+            };
+            threads[t].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertNull(error.get());
+        assertEquals(0, allocator.getAllocatedCount());
+        assertEquals(-1, allocator.nextAllocated(0));
+        for (long slot = 0; slot < capacity; slot++) {
+            assertEquals(slot, allocator.allocate());
+        }
+        assertEquals(-1, allocator.allocate());
+    }
+
+    /**
+     * Check that the {@link nl.salp.util.AllocationFree} methods do not allocate.
+     */
+    @Test
+    public void shouldNotAllocate() {
+        assumeTrue(AllocationAssert.isSupported());
+        final SlotAllocator allocator = new SlotAllocator(1 << 20, false);
+        final SlotAllocator concurrent = new SlotAllocator(1 << 20, true);
+        AllocationAssert allocations = new AllocationAssert(SlotAllocator.class);
+        allocations.assertAllocationFree("free", new Runnable() {
+            @Override
+            public void run() {
+                long slot = allocator.allocate();
+                long concurrentSlot = concurrent.allocate();
+                sink += slot + concurrentSlot;
+                allocator.free(slot);
+                concurrent.free(concurrentSlot);
+            }
+        });
+        allocations.assertAllocationFree("allocate", new Runnable() {
+            @Override
+            public void run() {
+                long slot = allocator.allocate();
+                if (slot < 0) {
+                    for (long i = allocator.nextAllocated(0); i >= 0; i = allocator.nextAllocated(i + 1)) {
+                        allocator.free(i);
+                    }
+                }
+                sink += slot;
+            }
+        });
+        allocations.assertAllocationFree("isAllocated", new Runnable() {
+            @Override
+            public void run() {
+                sink += allocator.isAllocated(sink & 0xFFFF) ? 1 : 0;
+            }
+        });
+        allocations.assertAllocationFree("nextAllocated", new Runnable() {
+            @Override
+            public void run() {
+                sink += allocator.nextAllocated(sink & 0xFFFFF) + concurrent.nextAllocated(0);
+            }
+        });
+        allocations.assertAllocationFree("nextFree", new Runnable() {
+            @Override
+            public void run() {
+                sink += allocator.nextFree(sink & 0xFFFFF) + concurrent.nextFree(0);
+            }
+        });
+        allocations.assertAllMarkedMethodsChecked();
+    }
+}
@@ -0,0 +1,259 @@
+package nl.salp.util.bit;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Unit tests for {@link VarIntCodec}.
+ */
+public class VarIntCodecTest {
+    /**
+     * Values around the varint length boundaries.
+     */
+    private static final long[] VALUES = {0, 1, 127, 128, 16383, 16384, Integer.MAX_VALUE, Integer.MIN_VALUE, -1,
+            1L << 35, 1L << 56, Long.MAX_VALUE, Long.MIN_VALUE};
+
+    /**
+     * Check that zigzag encoding maps small signed values to small unsigned values.
+     */
+    @Test
+    public void shouldZigZagEncode() {
+        assertEquals(0, VarIntCodec.zigZagEncode(0));
+        assertEquals(1, VarIntCodec.zigZagEncode(-1));
+        assertEquals(2, VarIntCodec.zigZagEncode(1));
+        assertEquals(-1, VarIntCodec.zigZagEncode(Integer.MIN_VALUE));
+        assertEquals(-1L, VarIntCodec.zigZagEncode(Long.MIN_VALUE));
+        assertEquals(Integer.MIN_VALUE, VarIntCodec.zigZagDecode(VarIntCodec.zigZagEncode(Integer.MIN_VALUE)));
+        assertEquals(Long.MAX_VALUE, VarIntCodec.zigZagDecode(VarIntCodec.zigZagEncode(Long.MAX_VALUE)));
+    }
+
+    /**
+     * Check that ints are written with the reported size and read back.
+     */
+    @Test
+    public void shouldWriteAndReadInts() {
+        ByteBuffer buffer = ByteBuffer.allocate(VarIntCodec.MAX_INT_BYTES);
+        for (long value : VALUES) {
+            buffer.clear();
+            VarIntCodec.writeInt(buffer, (int) value);
+            assertEquals(VarIntCodec.sizeOf((int) value), buffer.position());
+            buffer.flip();
+            assertEquals((int) value, VarIntCodec.readInt(buffer));
+        }
+    }
+
+    /**
+     * Check that longs are written with the reported size and read back.
+     */
+    @Test
+    public void shouldWriteAndReadLongs() {
+        ByteBuffer buffer = ByteBuffer.allocate(VarIntCodec.MAX_LONG_BYTES);
+        for (long value : VALUES) {
+            buffer.clear();
+            VarIntCodec.writeLong(buffer, value);
+            assertEquals(VarIntCodec.sizeOf(value), buffer.position());
+            buffer.flip();
+            assertEquals(value, VarIntCodec.readLong(buffer));
+        }
+    }
+
+    /**
+     * Check that consecutive values are read from heap buffers with an array offset, which decode single words, and
+     * from direct buffers, which decode per byte.
+     */
+    @Test
+    public void shouldReadConsecutiveValuesFromBuffers() {
+        ByteBuffer heap = ByteBuffer.wrap(new byte[3 + VALUES.length * (VarIntCodec.MAX_INT_BYTES + VarIntCodec.MAX_LONG_BYTES)], 3,
+                VALUES.length * (VarIntCodec.MAX_INT_BYTES + VarIntCodec.MAX_LONG_BYTES)).slice();
+        ByteBuffer direct = ByteBuffer.allocateDirect(heap.capacity());
+        for (ByteBuffer buffer : new ByteBuffer[]{heap, direct}) {
+            for (long value : VALUES) {
+                VarIntCodec.writeInt(buffer, (int) value);
+                VarIntCodec.writeLong(buffer, value);
+            }
+            buffer.flip();
+            for (long value : VALUES) {
+                assertEquals((int) value, VarIntCodec.readInt(buffer));
+                assertEquals(value, VarIntCodec.readLong(buffer));
+            }
+            assertEquals(0, buffer.remaining());
+        }
+    }
+
+    /**
+     * Check that a varint that is too long is rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectTooLongInt() {
+        VarIntCodec.readInt(ByteBuffer.wrap(new byte[]{-1, -1, -1, -1, -1, 1}));
+    }
+
+    /**
+     * Check that a varint that is too long is rejected when it is decoded from a single word.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectTooLongIntInWord() {
+        VarIntCodec.readInt(ByteBuffer.wrap(new byte[]{-1, -1, -1, -1, -1, 1, 0, 0, 0}));
+    }
+
+    /**
+     * Check that ints of all lengths are bulk encoded and decoded, with and without zigzag encoding.
+     */
+    @Test
+    public void shouldEncodeAndDecodeIntsInBulk() {
+        int[] values = randomInts(1000, 1);
+        for (boolean zigZag : new boolean[]{false, true}) {
+            byte[] data = new byte[3 + values.length * VarIntCodec.MAX_INT_BYTES];
+            int end = VarIntCodec.encodeInts(values, 0, values.length, zigZag, data, 3);
+            int[] decoded = new int[values.length + 2];
+
+            assertEquals(end, VarIntCodec.decodeInts(data, 3, decoded, 2, values.length, zigZag));
+            assertArrayEquals(values, Arrays.copyOfRange(decoded, 2, decoded.length));
+            assertEquals(values.length, VarIntCodec.countValues(data, 3, end - 3));
+        }
+    }
+
+    /**
+     * Check that longs of all lengths are bulk encoded and decoded, with and without zigzag encoding.
+     */
+    @Test
+    public void shouldEncodeAndDecodeLongsInBulk() {
+        long[] values = randomLongs(1000, 2);
+        for (boolean zigZag : new boolean[]{false, true}) {
+            byte[] data = new byte[values.length * VarIntCodec.MAX_LONG_BYTES];
+            int end = VarIntCodec.encodeLongs(values, 0, values.length, zigZag, data, 0);
+            long[] decoded = new long[values.length];
+
+            assertEquals(end, VarIntCodec.decodeLongs(data, 0, decoded, 0, values.length, zigZag));
+            assertArrayEquals(values, decoded);
+        }
+    }
+
+    /**
+     * Check that bulk encoded values match the single value encoding.
+     */
+    @Test
+    public void shouldMatchSingleValueEncoding() {
+        long[] values = randomLongs(200, 3);
+        ByteBuffer single = ByteBuffer.allocate(values.length * VarIntCodec.MAX_LONG_BYTES);
+        for (long value : values) {
+            VarIntCodec.writeLong(single, value);
+        }
+        ByteBuffer bulk = ByteBuffer.allocate(single.capacity());
+
+        VarIntCodec.writeLongs(bulk, values, 0, values.length, false);
+
+        assertEquals(single.position(), bulk.position());
+        assertArrayEquals(single.array(), bulk.array());
+    }
+
+    /**
+     * Check bulk reading and writing with heap and direct buffers, which must respect the buffer position and limit.
+     */
+    @Test
+    public void shouldReadAndWriteBuffersInBulk() {
+        long[] longs = randomLongs(300, 4);
+        int[] ints = randomInts(300, 5);
+        for (ByteBuffer buffer : new ByteBuffer[]{ByteBuffer.allocate(5000), ByteBuffer.allocateDirect(5000)}) {
+            buffer.put((byte) 1);
+            VarIntCodec.writeLongs(buffer, longs, 0, longs.length, true);
+            VarIntCodec.writeInts(buffer, ints, 0, ints.length, false);
+            buffer.flip();
+            buffer.get();
+            long[] decodedLongs = new long[longs.length];
+            int[] decodedInts = new int[ints.length];
+
+            VarIntCodec.readLongs(buffer, decodedLongs, 0, longs.length, true);
+            VarIntCodec.readInts(buffer, decodedInts, 0, ints.length, false);
+
+            assertArrayEquals(longs, decodedLongs);
+            assertArrayEquals(ints, decodedInts);
+            assertEquals(0, buffer.remaining());
+        }
+    }
+
+    /**
+     * Check that bulk decoding does not read beyond the limit of a buffer.
+     */
+    @Test(expected = BufferUnderflowException.class)
+    public void shouldRejectTruncatedBulkData() {
+        ByteBuffer buffer = ByteBuffer.allocate(20);
+        VarIntCodec.writeLong(buffer, 1);
+        VarIntCodec.writeLong(buffer, 1L << 40);
+        buffer.flip();
+        buffer.limit(buffer.limit() - 1);
+
+        VarIntCodec.readLongs(buffer, new long[2], 0, 2, false);
+    }
+
+    /**
+     * Check that bulk decoding from a buffer without a backing array reports truncated data like a heap buffer.
+     */
+    @Test(expected = BufferUnderflowException.class)
+    public void shouldRejectTruncatedDirectData() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(20);
+        VarIntCodec.writeInt(buffer, 1);
+        VarIntCodec.writeInt(buffer, 1 << 30);
+        buffer.flip();
+        buffer.limit(buffer.limit() - 1);
+
+        VarIntCodec.readInts(buffer, new int[2], 0, 2, false);
+    }
+
+    /**
+     * Check that decoding from an array that ends within a value reports truncated data like a buffer.
+     */
+    @Test(expected = BufferUnderflowException.class)
+    public void shouldRejectTruncatedArray() {
+        VarIntCodec.decodeLongs(new byte[]{1, -1, -1}, 0, new long[2], 0, 2, false);
+    }
+
+    /**
+     * Check that a bulk decoded int that is too long is rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectTooLongBulkInt() {
+        VarIntCodec.decodeInts(new byte[]{-1, -1, -1, -1, -1, 1, 0, 0, 0}, 0, new int[1], 0, 1, false);
+    }
+
+    /**
+     * Create random ints with a random number of significant bits, so all varint lengths occur.
+     *
+     * @param count The number of values.
+     * @param seed  The random seed.
+     *
+     * @return The values.
+     */
+    private static int[] randomInts(int count, long seed) {
+        Random rng = new Random(seed);
+        int[] values = new int[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = rng.nextInt() >> rng.nextInt(32);
+        }
+        return values;
+    }
+
+    /**
+     * Create random longs with a random number of significant bits, so all varint lengths occur.
+     *
+     * @param count The number of values.
+     * @param seed  The random seed.
+     *
+     * @return The values.
+     */
+    private static long[] randomLongs(int count, long seed) {
+        Random rng = new Random(seed);
+        long[] values = new long[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = rng.nextLong() >> rng.nextInt(64);
+        }
+        return values;
+    }
+}
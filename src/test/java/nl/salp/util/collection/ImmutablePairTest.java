@@ -1,5 +1,8 @@
 package nl.salp.util.collection;
 
+import java.util.HashSet;
+import java.util.Set;
+
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
@@ -34,6 +37,14 @@ public class ImmutablePairTest {
         assertTrue(pairTwo.equals(pairOne));
     }
 
+    @Test
+    public void shouldEqualItself() {
+        ImmutablePair<Boolean, String> pair = new ImmutablePair<Boolean, String>(true, "foobar");
+
+        assertTrue(pair.equals(pair));
+        assertFalse(pair.equals(null));
+    }
+
     @Test
     public void shouldNotEqualDifferentValues() {
         ImmutablePair<Boolean, String> pairOne = new ImmutablePair<Boolean, String>(true, "foobar");
@@ -63,6 +74,25 @@ public class ImmutablePairTest {
         assertEquals(pair.hashCode(), pairEqual.hashCode());
     }
 
+    @Test
+    public void shouldSpreadHashCodesForSmallIntegerKeys() {
+        final int size = 256;
+        final int buckets = 1 << 16;
+        Set<Integer> hashes = new HashSet<Integer>();
+        Set<Integer> usedBuckets = new HashSet<Integer>();
+        for (int left = 0; left < size; left++) {
+            for (int right = 0; right < size; right++) {
+                int hash = new ImmutablePair<Integer, Integer>(left, right).hashCode();
+                hashes.add(hash);
+                usedBuckets.add((hash ^ (hash >>> 16)) & (buckets - 1));
+            }
+        }
+
+        assertEquals(size * size, hashes.size());
+        // Uniform hashing of 65536 keys into 65536 buckets fills about 63% of them.
+        assertTrue(usedBuckets.size() > buckets / 2);
+    }
+
     @Test
     public void shouldGenerateString() {
         ImmutablePair<Boolean, String> pair = new ImmutablePair<Boolean, String>(true, "foobar");
@@ -0,0 +1,70 @@
+package nl.salp.util.collection;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LongPairListTest {
+    @Test
+    public void shouldAddAndGetValues() {
+        LongPairList list = new LongPairList(1);
+        list.add(1L, 2L);
+        list.add(3L, 4L);
+
+        assertEquals(2, list.size());
+        assertEquals(3L, list.getLeft(1));
+        assertEquals(2L, list.getRight(0));
+        assertEquals(new ImmutablePair<Long, Long>(3L, 4L), list.get(1));
+    }
+
+    @Test
+    public void shouldBulkAppend() {
+        LongPairList list = new LongPairList();
+        list.addAll(new long[]{1, 2, 3}, new long[]{4, 5, 6});
+        LongPairList copy = new LongPairList();
+        copy.addAll(list);
+
+        assertEquals(list, copy);
+        assertEquals(6L, copy.getRight(2));
+    }
+
+    @Test
+    public void shouldSortByLeftAndRightStable() {
+        Random rng = new Random(42);
+        LongPairList list = new LongPairList();
+        for (int i = 0; i < 1000; i++) {
+            list.add(rng.nextInt(50) - 25, rng.nextInt(50) - 25);
+        }
+
+        list.sortByRight();
+        list.sortByLeft();
+
+        for (int i = 1; i < list.size(); i++) {
+            long previous = list.getLeft(i - 1);
+            long current = list.getLeft(i);
+            assertTrue(previous < current || (previous == current && list.getRight(i - 1) <= list.getRight(i)));
+        }
+    }
+
+    @Test
+    public void shouldStreamPairsInOrder() {
+        LongPairList list = new LongPairList();
+        list.addAll(new long[]{1, 2}, new long[]{3, 4});
+        final long[] sums = new long[2];
+
+        list.forEach(new LongPairConsumer() {
+            private int index;
+
+            @Override
+            public void accept(long left, long right) {
+                sums[index++] = left + right;
+            }
+        });
+
+        assertArrayEquals(new long[]{4, 6}, sums);
+    }
+}
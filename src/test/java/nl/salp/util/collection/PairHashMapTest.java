@@ -0,0 +1,107 @@
+package nl.salp.util.collection;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PairHashMapTest {
+    @Test
+    public void shouldGetPutValue() {
+        PairHashMap<String, Integer, String> map = new PairHashMap<String, Integer, String>();
+        map.put("foo", 1, "foobar");
+
+        assertEquals("foobar", map.get("foo", 1));
+        assertTrue(map.containsKey("foo", 1));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void shouldReturnNullForMissingKey() {
+        PairHashMap<String, Integer, String> map = new PairHashMap<String, Integer, String>();
+        map.put("foo", 1, "foobar");
+
+        assertNull(map.get("foo", 2));
+        assertNull(map.get("bar", 1));
+        assertFalse(map.containsKey("foo", 2));
+    }
+
+    @Test
+    public void shouldReplaceValue() {
+        PairHashMap<String, Integer, String> map = new PairHashMap<String, Integer, String>();
+
+        assertNull(map.put("foo", 1, "foo"));
+        assertEquals("foo", map.put("foo", 1, "bar"));
+        assertEquals("bar", map.get("foo", 1));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void shouldRemoveValue() {
+        PairHashMap<String, Integer, String> map = new PairHashMap<String, Integer, String>();
+        map.put("foo", 1, "foobar");
+
+        assertEquals("foobar", map.remove("foo", 1));
+        assertNull(map.remove("foo", 1));
+        assertNull(map.get("foo", 1));
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void shouldClear() {
+        PairHashMap<String, Integer, String> map = new PairHashMap<String, Integer, String>();
+        map.put("foo", 1, "foobar");
+        map.clear();
+
+        assertNull(map.get("foo", 1));
+        assertTrue(map.isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldThrowExceptionWithANullLeftKey() {
+        new PairHashMap<String, Integer, String>().get(null, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldThrowExceptionWithANullRightKey() {
+        new PairHashMap<String, Integer, String>().put("foo", null, "bar");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldThrowExceptionWithANullValue() {
+        new PairHashMap<String, Integer, String>().put("foo", 1, null);
+    }
+
+    /**
+     * Run random puts and removes against both a PairHashMap and a HashMap with ImmutablePair keys and check that they agree.
+     */
+    @Test
+    public void shouldBehaveLikeHashMapWithImmutablePairKeys() {
+        PairHashMap<Integer, Integer, Integer> map = new PairHashMap<Integer, Integer, Integer>();
+        Map<ImmutablePair<Integer, Integer>, Integer> expected = new HashMap<ImmutablePair<Integer, Integer>, Integer>();
+        Random rng = new Random(42);
+        for (int i = 0; i < 100000; i++) {
+            int left = rng.nextInt(64);
+            int right = rng.nextInt(64);
+            ImmutablePair<Integer, Integer> key = new ImmutablePair<Integer, Integer>(left, right);
+            if (rng.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(left, right));
+            } else {
+                assertEquals(expected.put(key, i), map.put(left, right, i));
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        for (int left = 0; left < 64; left++) {
+            for (int right = 0; right < 64; right++) {
+                assertEquals(expected.get(new ImmutablePair<Integer, Integer>(left, right)), map.get(left, right));
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package nl.salp.util.collection;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PairIndexTest {
+    @Test
+    public void shouldLookupByLeftAndRight() {
+        PairIndex<String, Integer> index = new PairIndex<String, Integer>();
+        index.add("foo", 1);
+        index.add("foo", 2);
+        index.add("bar", 1);
+
+        assertEquals(new HashSet<ImmutablePair<String, Integer>>(Arrays.asList(
+                new ImmutablePair<String, Integer>("foo", 1), new ImmutablePair<String, Integer>("foo", 2))),
+                new HashSet<ImmutablePair<String, Integer>>(index.byLeft("foo")));
+        assertEquals(2, index.byRight(1).size());
+        assertTrue(index.byLeft("baz").isEmpty());
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    public void shouldNotAddDuplicates() {
+        PairIndex<String, Integer> index = new PairIndex<String, Integer>();
+
+        assertTrue(index.add("foo", 1));
+        assertFalse(index.add("foo", 1));
+        assertEquals(1, index.size());
+        assertEquals(1, index.byRight(1).size());
+    }
+
+    @Test
+    public void shouldRemoveFromBothIndexes() {
+        PairIndex<String, Integer> index = new PairIndex<String, Integer>();
+        index.add("foo", 1);
+        index.add("foo", 2);
+
+        assertTrue(index.remove(new ImmutablePair<String, Integer>("foo", 1)));
+        assertFalse(index.remove(new ImmutablePair<String, Integer>("foo", 1)));
+
+        assertEquals(1, index.byLeft("foo").size());
+        assertTrue(index.byRight(1).isEmpty());
+        assertFalse(index.contains(new ImmutablePair<String, Integer>("foo", 1)));
+        assertEquals(1, index.size());
+    }
+
+    @Test(timeout = 10000)
+    public void shouldHandleLargeFanOut() {
+        int count = 200000;
+        PairIndex<String, Integer> index = new PairIndex<String, Integer>();
+        for (int i = 0; i < count; i++) {
+            assertTrue(index.add("hot", i));
+        }
+        assertFalse(index.add("hot", count / 2));
+        for (int i = 0; i < count; i += 2) {
+            assertTrue(index.remove(new ImmutablePair<String, Integer>("hot", i)));
+        }
+
+        List<ImmutablePair<String, Integer>> pairs = index.byLeft("hot");
+        assertEquals(count / 2, pairs.size());
+        assertEquals(count / 2, new HashSet<ImmutablePair<String, Integer>>(pairs).size());
+        for (ImmutablePair<String, Integer> pair : pairs) {
+            assertEquals(1, pair.getRightValue() % 2);
+        }
+        assertTrue(index.contains(new ImmutablePair<String, Integer>("hot", 1)));
+        assertFalse(index.contains(new ImmutablePair<String, Integer>("hot", 0)));
+        assertTrue(index.byRight(0).isEmpty());
+        assertEquals(count / 2, index.size());
+        for (int i = 1; i < count; i += 2) {
+            assertTrue(index.remove(new ImmutablePair<String, Integer>("hot", i)));
+        }
+        assertTrue(index.byLeft("hot").isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void shouldReturnStableLookupResults() {
+        PairIndex<String, Integer> index = new PairIndex<String, Integer>();
+        index.add("foo", 1);
+        List<ImmutablePair<String, Integer>> pairs = index.byLeft("foo");
+
+        index.add("foo", 2);
+
+        assertEquals(1, pairs.size());
+    }
+
+    @Test
+    public void shouldKeepIndexesConsistentUnderConcurrentModification() throws Exception {
+        final PairIndex<Integer, Integer> index = new PairIndex<Integer, Integer>(4);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+            for (int t = 0; t < 4; t++) {
+                final int thread = t;
+                tasks.add(new Callable<Void>() {
+                    @Override
+                    public Void call() {
+                        for (int i = 0; i < 2000; i++) {
+                            index.add(i % 50, (i * 7 + thread) % 50);
+                            if (i % 3 == 0) {
+                                index.remove(new ImmutablePair<Integer, Integer>(i % 50, (i * 11) % 50));
+                            }
+                        }
+                        return null;
+                    }
+                });
+            }
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<ImmutablePair<Integer, Integer>> snapshot = index.snapshot();
+        assertEquals(index.size(), snapshot.size());
+        int byRight = 0;
+        for (int right = 0; right < 50; right++) {
+            for (ImmutablePair<Integer, Integer> pair : index.byRight(right)) {
+                assertTrue(index.byLeft(pair.getLeftValue()).contains(pair));
+                byRight++;
+            }
+        }
+        assertEquals(snapshot.size(), byRight);
+    }
+}
@@ -0,0 +1,98 @@
+package nl.salp.util.collection;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class PairInternerTest {
+    @Test
+    public void shouldReturnSameInstanceForEqualValues() {
+        PairInterner<String, Integer> interner = new PairInterner<String, Integer>();
+
+        ImmutablePair<String, Integer> first = interner.intern("foo", 1);
+        ImmutablePair<String, Integer> second = interner.intern(new String("foo"), 1);
+
+        assertSame(first, second);
+        assertEquals(1, interner.size());
+    }
+
+    @Test
+    public void shouldReturnDifferentInstancesForDifferentValues() {
+        PairInterner<String, Integer> interner = new PairInterner<String, Integer>();
+
+        ImmutablePair<String, Integer> first = interner.intern("foo", 1);
+        ImmutablePair<String, Integer> second = interner.intern("foo", 2);
+
+        assertNotSame(first, second);
+        assertEquals(2, interner.size());
+    }
+
+    @Test
+    public void shouldUseFirstInternedPairAsCanonicalInstance() {
+        PairInterner<String, Integer> interner = new PairInterner<String, Integer>();
+        ImmutablePair<String, Integer> pair = new ImmutablePair<String, Integer>("foo", 1);
+
+        assertSame(pair, interner.intern(pair));
+        assertSame(pair, interner.intern(new ImmutablePair<String, Integer>("foo", 1)));
+        assertSame(pair, interner.intern("foo", 1));
+    }
+
+    @Test
+    public void shouldInternManyPairs() {
+        PairInterner<Integer, Integer> interner = new PairInterner<Integer, Integer>(1);
+        List<ImmutablePair<Integer, Integer>> canonical = new ArrayList<ImmutablePair<Integer, Integer>>();
+        for (int i = 0; i < 10000; i++) {
+            canonical.add(interner.intern(i, i % 7));
+        }
+
+        for (int i = 0; i < 10000; i++) {
+            assertSame(canonical.get(i), interner.intern(i, i % 7));
+        }
+        assertEquals(10000, interner.size());
+    }
+
+    @Test
+    public void shouldReturnSameInstanceAcrossThreads() throws Exception {
+        final PairInterner<Integer, Integer> interner = new PairInterner<Integer, Integer>();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Callable<List<ImmutablePair<Integer, Integer>>>> tasks = new ArrayList<Callable<List<ImmutablePair<Integer, Integer>>>>();
+            for (int t = 0; t < 4; t++) {
+                tasks.add(new Callable<List<ImmutablePair<Integer, Integer>>>() {
+                    @Override
+                    public List<ImmutablePair<Integer, Integer>> call() {
+                        List<ImmutablePair<Integer, Integer>> pairs = new ArrayList<ImmutablePair<Integer, Integer>>();
+                        for (int i = 0; i < 5000; i++) {
+                            pairs.add(interner.intern(i % 100, i % 3));
+                        }
+                        return pairs;
+                    }
+                });
+            }
+            List<Future<List<ImmutablePair<Integer, Integer>>>> results = executor.invokeAll(tasks);
+            List<ImmutablePair<Integer, Integer>> expected = results.get(0).get();
+            for (Future<List<ImmutablePair<Integer, Integer>>> result : results) {
+                List<ImmutablePair<Integer, Integer>> pairs = result.get();
+                for (int i = 0; i < pairs.size(); i++) {
+                    assertSame(expected.get(i), pairs.get(i));
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldThrowExceptionWithANullValue() {
+        new PairInterner<String, Integer>().intern("foo", null);
+    }
+}
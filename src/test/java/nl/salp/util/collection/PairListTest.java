@@ -0,0 +1,118 @@
+package nl.salp.util.collection;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PairListTest {
+    /**
+     * Natural ordering for integers.
+     */
+    private static final Comparator<Integer> INTEGER_ORDER = new Comparator<Integer>() {
+        @Override
+        public int compare(Integer a, Integer b) {
+            return a.compareTo(b);
+        }
+    };
+
+    @Test
+    public void shouldAddAndGetValues() {
+        PairList<String, Integer> list = new PairList<String, Integer>(1);
+        list.add("foo", 1);
+        list.add(new ImmutablePair<String, Integer>("bar", 2));
+
+        assertEquals(2, list.size());
+        assertEquals("foo", list.getLeft(0));
+        assertEquals(Integer.valueOf(2), list.getRight(1));
+        assertEquals(new ImmutablePair<String, Integer>("bar", 2), list.get(1));
+    }
+
+    @Test
+    public void shouldBulkAppend() {
+        PairList<String, Integer> list = new PairList<String, Integer>();
+        list.addAll(new String[]{"a", "b"}, new Integer[]{1, 2});
+        list.addAll(Arrays.asList(new ImmutablePair<String, Integer>("c", 3)));
+        PairList<String, Integer> copy = new PairList<String, Integer>();
+        copy.addAll(list);
+
+        assertEquals(3, copy.size());
+        assertEquals(list, copy);
+        assertEquals("c", copy.getLeft(2));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldThrowExceptionWithANullValue() {
+        new PairList<String, Integer>().add("foo", null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldThrowExceptionWithDifferentlySizedArrays() {
+        new PairList<String, Integer>().addAll(new String[]{"a", "b"}, new Integer[]{1});
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void shouldThrowExceptionWithAnInvalidIndex() {
+        PairList<String, Integer> list = new PairList<String, Integer>();
+        list.add("foo", 1);
+        list.getLeft(1);
+    }
+
+    @Test
+    public void shouldSortByLeftAndRightStable() {
+        Random rng = new Random(42);
+        PairList<Integer, Integer> list = new PairList<Integer, Integer>();
+        for (int i = 0; i < 1000; i++) {
+            list.add(rng.nextInt(50), rng.nextInt(50));
+        }
+
+        list.sortByRight(INTEGER_ORDER);
+        list.sortByLeft(INTEGER_ORDER);
+
+        for (int i = 1; i < list.size(); i++) {
+            int left = list.getLeft(i - 1).compareTo(list.getLeft(i));
+            assertTrue(left < 0 || (left == 0 && list.getRight(i - 1) <= list.getRight(i)));
+        }
+    }
+
+    @Test
+    public void shouldStreamPairsInOrder() {
+        PairList<String, Integer> list = new PairList<String, Integer>();
+        list.add("a", 1);
+        list.add("b", 2);
+        final List<String> seen = new ArrayList<String>();
+
+        list.forEach(new PairConsumer<String, Integer>() {
+            @Override
+            public void accept(String left, Integer right) {
+                seen.add(left + right);
+            }
+        });
+
+        assertEquals(Arrays.asList("a1", "b2"), seen);
+    }
+
+    @Test
+    public void shouldMaterializePairs() {
+        PairList<String, Integer> list = new PairList<String, Integer>();
+        list.add("a", 1);
+
+        assertEquals(Collections.singletonList(new ImmutablePair<String, Integer>("a", 1)), list.toPairs());
+    }
+
+    @Test
+    public void shouldClear() {
+        PairList<String, Integer> list = new PairList<String, Integer>();
+        list.add("a", 1);
+        list.clear();
+
+        assertTrue(list.isEmpty());
+    }
+}
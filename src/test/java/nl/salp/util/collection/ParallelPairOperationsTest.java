@@ -0,0 +1,200 @@
+package nl.salp.util.collection;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class ParallelPairOperationsTest {
+    /**
+     * Natural ordering for integers.
+     */
+    private static final Comparator<Integer> INTEGER_ORDER = new Comparator<Integer>() {
+        @Override
+        public int compare(Integer a, Integer b) {
+            return a.compareTo(b);
+        }
+    };
+    /**
+     * Ordering of pairs by left value only.
+     */
+    private static final Comparator<ImmutablePair<Integer, Integer>> LEFT_ORDER = new Comparator<ImmutablePair<Integer, Integer>>() {
+        @Override
+        public int compare(ImmutablePair<Integer, Integer> a, ImmutablePair<Integer, Integer> b) {
+            return a.getLeftValue().compareTo(b.getLeftValue());
+        }
+    };
+    /**
+     * Sums integers.
+     */
+    private static final Aggregator<Integer, Long> SUM = new Aggregator<Integer, Long>() {
+        @Override
+        public Long create() {
+            return 0L;
+        }
+
+        @Override
+        public Long accumulate(Long aggregate, Integer value) {
+            return aggregate + value;
+        }
+    };
+
+    private ExecutorService executor;
+    private ParallelPairOperations operations;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+        operations = new ParallelPairOperations(executor, 4);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void shouldSortByLeftStable() {
+        PairList<Integer, Integer> list = createList(100000, 1000, 42);
+        List<ImmutablePair<Integer, Integer>> expected = list.toPairs();
+        Collections.sort(expected, LEFT_ORDER);
+
+        operations.sortByLeft(list, INTEGER_ORDER);
+
+        assertEquals(expected, list.toPairs());
+    }
+
+    @Test
+    public void shouldSortByRight() {
+        PairList<Integer, Integer> list = createList(50000, 1000, 7);
+
+        operations.sortByRight(list, INTEGER_ORDER);
+
+        for (int i = 1; i < list.size(); i++) {
+            assertEquals(true, list.getRight(i - 1) <= list.getRight(i));
+        }
+    }
+
+    @Test
+    public void shouldSortLongPairsStable() {
+        Random rng = new Random(42);
+        LongPairList list = new LongPairList();
+        LongPairList expected = new LongPairList();
+        for (int i = 0; i < 77777; i++) {
+            long left = rng.nextInt(5000) - 2500;
+            list.add(left, i);
+            expected.add(left, i);
+        }
+        expected.sortByLeft();
+
+        operations.sortByLeft(list);
+
+        assertEquals(expected, list);
+    }
+
+    @Test
+    public void shouldSortSmallListOnCallingThread() {
+        PairList<Integer, Integer> list = createList(100, 10, 1);
+        List<ImmutablePair<Integer, Integer>> expected = list.toPairs();
+        Collections.sort(expected, LEFT_ORDER);
+
+        operations.sortByLeft(list, INTEGER_ORDER);
+
+        assertEquals(expected, list.toPairs());
+    }
+
+    @Test
+    public void shouldGroupByLeft() {
+        PairList<Integer, Integer> list = createList(100000, 5000, 42);
+        Map<Integer, Long> expected = new HashMap<Integer, Long>();
+        for (int i = 0; i < list.size(); i++) {
+            Long sum = expected.get(list.getLeft(i));
+            expected.put(list.getLeft(i), (sum == null ? 0L : sum) + list.getRight(i));
+        }
+
+        PairList<Integer, Long> groups = operations.groupByLeft(list, SUM);
+
+        assertEquals(expected.size(), groups.size());
+        for (int i = 0; i < groups.size(); i++) {
+            assertEquals(expected.get(groups.getLeft(i)), groups.getRight(i));
+        }
+    }
+
+    @Test
+    public void shouldJoinOnLeft() {
+        assertJoin(createList(20000, 3000, 1), createList(30000, 3000, 2));
+    }
+
+    /**
+     * Check joining a list below the sequential threshold with one above it, in both directions.
+     */
+    @Test
+    public void shouldJoinListsOfDifferentSizes() {
+        PairList<Integer, Integer> small = createList(100, 100, 3);
+        PairList<Integer, Integer> big = createList(20000, 100, 4);
+        assertJoin(small, big);
+        assertJoin(big, small);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldThrowExceptionWithoutExecutor() {
+        new ParallelPairOperations(null);
+    }
+
+    /**
+     * Assert that a join gives the same pairs as a nested loop join.
+     *
+     * @param left  The left list.
+     * @param right The right list.
+     */
+    private void assertJoin(PairList<Integer, Integer> left, PairList<Integer, Integer> right) {
+        List<String> expected = new ArrayList<String>();
+        for (int i = 0; i < left.size(); i++) {
+            for (int j = 0; j < right.size(); j++) {
+                if (left.getLeft(i).equals(right.getLeft(j))) {
+                    expected.add(left.getLeft(i) + ":" + left.getRight(i) + ":" + right.getRight(j));
+                }
+            }
+        }
+
+        PairList<Integer, ImmutablePair<Integer, Integer>> joined = operations.join(left, right);
+
+        List<String> actual = new ArrayList<String>();
+        for (int i = 0; i < joined.size(); i++) {
+            ImmutablePair<Integer, Integer> values = joined.getRight(i);
+            actual.add(joined.getLeft(i) + ":" + values.getLeftValue() + ":" + values.getRightValue());
+        }
+        Collections.sort(expected);
+        Collections.sort(actual);
+        assertEquals(expected, actual);
+    }
+
+    /**
+     * Create a list of random pairs.
+     *
+     * @param size     The number of pairs.
+     * @param distinct The number of distinct left values.
+     * @param seed     The random seed.
+     *
+     * @return The list.
+     */
+    private static PairList<Integer, Integer> createList(int size, int distinct, long seed) {
+        Random rng = new Random(seed);
+        PairList<Integer, Integer> list = new PairList<Integer, Integer>();
+        for (int i = 0; i < size; i++) {
+            list.add(rng.nextInt(distinct), i);
+        }
+        return list;
+    }
+}
@@ -1,12 +1,16 @@
 package nl.salp.util.io;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
 import java.util.Random;
 
 import org.junit.Test;
 
 import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class ChunkedByteStreamReaderTest {
     /**
@@ -55,6 +59,94 @@ public class ChunkedByteStreamReaderTest {
         assertArrayEquals(data, output);
     }
 
+    @Test
+    public void shouldPassChunksToConsumer() throws Exception {
+        byte[] data = generateDataAndProvideForStream(300);
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        ChunkedByteStreamReader reader = new ChunkedByteStreamReader(128);
+        long read = reader.read(stream, new ChunkConsumer() {
+            @Override
+            public void accept(byte[] chunk, int offset, int length) {
+                output.write(chunk, offset, length);
+            }
+        });
+
+        assertEquals(300, read);
+        assertArrayEquals(data, output.toByteArray());
+    }
+
+    @Test
+    public void shouldRecordReadInMetrics() throws Exception {
+        byte[] data = generateDataAndProvideForStream(300);
+        ReadCounters counters = new ReadCounters();
+
+        ChunkedByteStreamReader reader = new ChunkedByteStreamReader(128, counters);
+        byte[] output = reader.read(stream);
+
+        assertArrayEquals(data, output);
+        assertEquals(1, counters.getReads());
+        assertEquals(300, counters.getBytesRead());
+        assertEquals(3, counters.getChunks());
+        assertEquals(128 + 256 + 300, counters.getBytesCopied());
+        assertEquals(300, counters.getResultBytes());
+        assertTrue(counters.getStallNanos() >= 0);
+        assertTrue(counters.getDurationNanos() >= counters.getStallNanos());
+    }
+
+    @Test
+    public void shouldRecordConsumedReadInMetrics() throws Exception {
+        generateDataAndProvideForStream(300);
+        ReadCounters counters = new ReadCounters();
+
+        ChunkedByteStreamReader reader = new ChunkedByteStreamReader(128, counters);
+        reader.read(stream, new ChunkConsumer() {
+            @Override
+            public void accept(byte[] chunk, int offset, int length) {
+            }
+        });
+
+        assertEquals(1, counters.getReads());
+        assertEquals(300, counters.getBytesRead());
+        assertEquals(3, counters.getChunks());
+        assertEquals(0, counters.getBytesCopied());
+        assertEquals(0, counters.getResultBytes());
+
+        counters.reset();
+        assertEquals(0, counters.getReads());
+        assertEquals(0, counters.getBytesRead());
+    }
+
+    @Test
+    public void shouldNotTimeReadWhenMetricsAreDisabled() throws Exception {
+        byte[] data = generateDataAndProvideForStream(300);
+        final int[] checks = new int[1];
+        ReadMetrics disabled = new ReadMetrics() {
+            @Override
+            public boolean isEnabled() {
+                checks[0]++;
+                return false;
+            }
+
+            @Override
+            public void onRead(long bytesRead, long chunks, long bytesCopied, long stallNanos, long durationNanos, long resultBytes) {
+                fail("Read recorded while the metrics are disabled");
+            }
+        };
+
+        ChunkedByteStreamReader reader = new ChunkedByteStreamReader(16, disabled);
+        byte[] output = reader.read(stream);
+        generateDataAndProvideForStream(300);
+        reader.read(stream, new ChunkConsumer() {
+            @Override
+            public void accept(byte[] chunk, int offset, int length) {
+            }
+        });
+
+        assertArrayEquals(data, output);
+        assertEquals(2, checks[0]);
+    }
+
     /**
      * Generate random data and provided it as the stream ({@link ChunkedByteStreamReaderTest#stream}) data.
      *
@@ -0,0 +1,241 @@
+package nl.salp.util.io;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link PForDeltaCodec}.
+ */
+public class PForDeltaCodecTest {
+    /**
+     * Check that sorted IDs with small gaps compress to a little over a byte per value.
+     */
+    @Test
+    public void shouldCompressSortedIds() {
+        long[] values = createSortedIds(100000, 200, 1);
+        PForDeltaCodec codec = new PForDeltaCodec();
+
+        byte[] data = codec.encode(values);
+
+        assertArrayEquals(values, codec.decode(data));
+        assertTrue("Encoded size " + data.length, data.length < values.length * 1.1);
+    }
+
+    /**
+     * Check that timestamps with a fixed interval and occasional jumps use exceptions instead of a wide block.
+     */
+    @Test
+    public void shouldPatchExceptions() {
+        long[] values = new long[10000];
+        long timestamp = 1500000000000L;
+        for (int i = 0; i < values.length; i++) {
+            timestamp += i % 100 == 0 ? 3600000 : 1000 + (i % 3);
+            values[i] = timestamp;
+        }
+        PForDeltaCodec codec = new PForDeltaCodec();
+
+        byte[] data = codec.encode(values);
+
+        assertArrayEquals(values, codec.decode(data));
+        assertTrue("Encoded size " + data.length, data.length < values.length / 2);
+    }
+
+    /**
+     * Check that unsorted values over the whole long range, including the extremes, are encoded.
+     */
+    @Test
+    public void shouldEncodeRandomValues() {
+        Random rng = new Random(5);
+        long[] values = new long[1000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = rng.nextLong();
+        }
+        values[10] = Long.MIN_VALUE;
+        values[11] = Long.MAX_VALUE;
+        values[12] = Long.MIN_VALUE;
+        PForDeltaCodec codec = new PForDeltaCodec();
+
+        assertArrayEquals(values, codec.decode(codec.encode(values)));
+    }
+
+    /**
+     * Check that blocks of every width, with and without exceptions, are decoded from heap, read-only and direct buffers.
+     */
+    @Test
+    public void shouldDecodeEveryWidth() {
+        Random rng = new Random(7);
+        PForDeltaCodec codec = new PForDeltaCodec();
+        for (int width = 0; width <= 64; width++) {
+            long[] values = new long[3 * PForDeltaCodec.BLOCK_SIZE];
+            long mask = width == 64 ? -1L : (1L << width) - 1;
+            long value = rng.nextLong();
+            for (int i = 0; i < values.length; i++) {
+                value += i >= 2 * PForDeltaCodec.BLOCK_SIZE && i % 10 == 0 ? rng.nextLong() : rng.nextLong() & mask;
+                values[i] = value;
+            }
+            byte[] data = codec.encode(values);
+            ByteBuffer direct = ByteBuffer.allocateDirect(data.length);
+            direct.put(data).flip();
+
+            assertArrayEquals("Width " + width, values, codec.decode(data));
+            assertArrayEquals("Width " + width, values, codec.decode(ByteBuffer.wrap(data).asReadOnlyBuffer()));
+            assertArrayEquals("Width " + width, values, codec.decode(direct));
+        }
+    }
+
+    /**
+     * Check lengths around the block size.
+     */
+    @Test
+    public void shouldEncodePartialBlocks() {
+        PForDeltaCodec codec = new PForDeltaCodec();
+        for (int length : new int[]{0, 1, 127, 128, 129, 255, 256, 1000}) {
+            long[] values = createSortedIds(length, 50, length);
+
+            assertArrayEquals(values, codec.decode(codec.encode(values)));
+        }
+    }
+
+    /**
+     * Check that int values are encoded and decoded, and that a range of a buffer can be used.
+     */
+    @Test
+    public void shouldEncodeInts() {
+        int[] values = new int[500];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i % 2 == 0 ? Integer.MIN_VALUE + i : Integer.MAX_VALUE - i;
+        }
+        PForDeltaCodec codec = new PForDeltaCodec();
+        ByteBuffer buffer = ByteBuffer.allocate(PForDeltaCodec.maxEncodedSize(400) + 1);
+        buffer.put((byte) 42);
+
+        codec.encode(values, 100, 400, buffer);
+        buffer.flip();
+        buffer.get();
+
+        assertArrayEquals(Arrays.copyOfRange(values, 100, 500), codec.decodeInts(buffer));
+        assertFalse(buffer.hasRemaining());
+    }
+
+    /**
+     * Check that decoding long values as ints is rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectLongsAsInts() {
+        PForDeltaCodec codec = new PForDeltaCodec();
+
+        codec.decodeInts(ByteBuffer.wrap(codec.encode(new long[]{1, 1L << 40})));
+    }
+
+    /**
+     * Check that values are decoded while the encoded data is streamed in chunks of various sizes.
+     *
+     * @throws Exception When reading the stream failed.
+     */
+    @Test
+    public void shouldDecodeStream() throws Exception {
+        final long[] values = createSortedIds(5000, 1000, 9);
+        values[3000] += 1L << 50;
+        byte[] data = new PForDeltaCodec().encode(values);
+        for (int chunkBytes : new int[]{1, 7, 128, 100000}) {
+            final long[] decoded = new long[values.length];
+            final int[] count = new int[1];
+            PForDeltaCodec.StreamDecoder decoder = new PForDeltaCodec().createStreamDecoder(new LongValueConsumer() {
+                @Override
+                public void accept(long value) {
+                    decoded[count[0]++] = value;
+                }
+            });
+
+            long read = new ChunkedByteStreamReader(chunkBytes).read(new ByteArrayInputStream(data), decoder);
+
+            assertEquals(data.length, read);
+            assertTrue(decoder.isComplete());
+            assertEquals(values.length, decoder.getDecodedCount());
+            assertArrayEquals(values, decoded);
+        }
+    }
+
+    /**
+     * Check that a stream that ends early leaves the decoder incomplete.
+     *
+     * @throws Exception When reading the stream failed.
+     */
+    @Test
+    public void shouldDetectIncompleteStream() throws Exception {
+        byte[] data = new PForDeltaCodec().encode(createSortedIds(1000, 10, 3));
+        PForDeltaCodec.StreamDecoder decoder = new PForDeltaCodec().createStreamDecoder(new LongValueConsumer() {
+            @Override
+            public void accept(long value) {
+            }
+        });
+
+        new ChunkedByteStreamReader(16).read(new ByteArrayInputStream(Arrays.copyOf(data, data.length - 1)), decoder);
+
+        assertFalse(decoder.isComplete());
+        assertEquals(896, decoder.getDecodedCount());
+    }
+
+    /**
+     * Check that a unit that does not match its length is rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectCorruptUnit() {
+        PForDeltaCodec codec = new PForDeltaCodec();
+        byte[] data = codec.encode(createSortedIds(128, 10, 1));
+        data[2]++;
+
+        codec.decode(data);
+    }
+
+    /**
+     * Check that a number of values that can not fit in the data is rejected before allocating the values.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectImplausibleCount() {
+        new PForDeltaCodec().decode(new byte[]{(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07});
+    }
+
+    /**
+     * Check that a stream decoder rejects a unit longer than any valid unit instead of waiting for it.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectOversizedStreamUnit() {
+        PForDeltaCodec.StreamDecoder decoder = new PForDeltaCodec().createStreamDecoder(new LongValueConsumer() {
+            @Override
+            public void accept(long value) {
+            }
+        });
+
+        decoder.accept(new byte[]{(byte) 0x80, 0x01, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x7F}, 0, 6);
+    }
+
+    /**
+     * Create sorted IDs with random gaps.
+     *
+     * @param count  The number of IDs.
+     * @param maxGap The maximum gap between IDs.
+     * @param seed   The random seed.
+     *
+     * @return The IDs.
+     */
+    private static long[] createSortedIds(int count, int maxGap, long seed) {
+        Random rng = new Random(seed);
+        long[] values = new long[count];
+        long id = 1L << 33;
+        for (int i = 0; i < count; i++) {
+            id += rng.nextInt(maxGap);
+            values[i] = id;
+        }
+        return values;
+    }
+}
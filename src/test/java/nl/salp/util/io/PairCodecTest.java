@@ -0,0 +1,101 @@
+package nl.salp.util.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import nl.salp.util.collection.ImmutablePair;
+import nl.salp.util.collection.PairList;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PairCodecTest {
+    @Test
+    public void shouldEncodeAndDecodePair() {
+        PairCodec<Integer, String> codec = new PairCodec<Integer, String>(ValueCodecs.INTEGER, ValueCodecs.STRING);
+        ImmutablePair<Integer, String> pair = new ImmutablePair<Integer, String>(-3, "f\u00f6\u00f6bar\uD83D\uDE00");
+        ByteBuffer buffer = ByteBuffer.allocate(codec.encodedSize(pair));
+
+        codec.encode(pair, buffer);
+        buffer.flip();
+
+        assertEquals(pair, codec.decode(buffer));
+        assertEquals(0, buffer.remaining());
+    }
+
+    @Test
+    public void shouldEncodeSmallIntegersInASingleByte() {
+        PairCodec<Integer, Long> codec = new PairCodec<Integer, Long>(ValueCodecs.INTEGER, ValueCodecs.LONG);
+
+        assertEquals(2, codec.encodedSize(new ImmutablePair<Integer, Long>(-64, 63L)));
+        assertEquals(15, codec.encodedSize(new ImmutablePair<Integer, Long>(Integer.MIN_VALUE, Long.MAX_VALUE)));
+    }
+
+    @Test
+    public void shouldEncodeAndDecodeListColumnWise() {
+        PairCodec<Long, Boolean> codec = new PairCodec<Long, Boolean>(ValueCodecs.LONG, ValueCodecs.BOOLEAN);
+        PairList<Long, Boolean> list = new PairList<Long, Boolean>();
+        list.add(1L, true);
+        list.add(Long.MIN_VALUE, false);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(codec.encodedSize(list));
+
+        codec.encode(list, buffer);
+        buffer.flip();
+
+        assertEquals(2, buffer.get(0));
+        assertEquals(2, buffer.get(1)); // zigzag(1)
+        assertEquals(list, codec.decodeList(buffer));
+    }
+
+    @Test
+    public void shouldEncodeCollectionInListFormat() {
+        PairCodec<Integer, Integer> codec = new PairCodec<Integer, Integer>(ValueCodecs.INTEGER, ValueCodecs.INTEGER);
+        List<ImmutablePair<Integer, Integer>> pairs = new ArrayList<ImmutablePair<Integer, Integer>>();
+        PairList<Integer, Integer> list = new PairList<Integer, Integer>();
+        for (int i = 0; i < 100; i++) {
+            pairs.add(new ImmutablePair<Integer, Integer>(i, -i));
+            list.add(i, -i);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(codec.encodedSize(list));
+
+        codec.encode(pairs, buffer);
+        buffer.flip();
+
+        assertEquals(pairs, codec.decodeList(buffer).toPairs());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectCorruptListSize() {
+        ByteBuffer buffer = ByteBuffer.wrap(new byte[]{(byte) 0xFF, (byte) 0xFF, 0x7F, 0, 0});
+
+        new PairCodec<Integer, Integer>(ValueCodecs.INTEGER, ValueCodecs.INTEGER).decodeList(buffer);
+    }
+
+    /**
+     * Compare the encoded size of a list of pairs with Java serialization of the equivalent list of map entries.
+     */
+    @Test
+    public void shouldBeSmallerThanJavaSerialization() throws Exception {
+        PairCodec<Integer, Long> codec = new PairCodec<Integer, Long>(ValueCodecs.INTEGER, ValueCodecs.LONG);
+        PairList<Integer, Long> list = new PairList<Integer, Long>();
+        ArrayList<Map.Entry<Integer, Long>> entries = new ArrayList<Map.Entry<Integer, Long>>();
+        for (int i = 0; i < 1000; i++) {
+            list.add(i, 1000000L + i);
+            entries.add(new AbstractMap.SimpleImmutableEntry<Integer, Long>(i, 1000000L + i));
+        }
+        ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(serialized);
+        out.writeObject(entries);
+        out.close();
+
+        int encodedSize = codec.encodedSize(list);
+
+        assertTrue(encodedSize * 5 < serialized.size());
+    }
+}
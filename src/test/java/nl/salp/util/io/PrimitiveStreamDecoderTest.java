@@ -0,0 +1,113 @@
+package nl.salp.util.io;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+import org.junit.Test;
+
+import nl.salp.util.bit.ByteView;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link PrimitiveStreamDecoder}.
+ */
+public class PrimitiveStreamDecoderTest {
+    /**
+     * Check that values of every width and order split over chunks of various sizes are decoded.
+     *
+     * @throws Exception When reading the stream failed.
+     */
+    @Test
+    public void shouldDecodeAcrossChunkBoundaries() throws Exception {
+        Random rng = new Random(9);
+        byte[] data = new byte[4000];
+        rng.nextBytes(data);
+        for (ByteOrder order : new ByteOrder[]{ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN}) {
+            ByteBuffer buffer = ByteBuffer.wrap(data).order(order);
+            for (int width : new int[]{1, 2, 4, 8}) {
+                for (boolean unsigned : new boolean[]{false, true}) {
+                    long[] expected = new long[data.length / width];
+                    for (int i = 0; i < expected.length; i++) {
+                        expected[i] = expected(buffer, i * width, width, unsigned);
+                    }
+                    for (int chunkBytes : new int[]{1, 3, 7, 8, 13, 1024}) {
+                        final long[] decoded = new long[expected.length];
+                        final int[] count = new int[1];
+                        PrimitiveStreamDecoder decoder = new PrimitiveStreamDecoder(new LongValueConsumer() {
+                            @Override
+                            public void accept(long value) {
+                                decoded[count[0]++] = value;
+                            }
+                        }, ByteView.of(order), width, unsigned);
+
+                        new ChunkedByteStreamReader(chunkBytes).read(new ByteArrayInputStream(data), decoder);
+
+                        String message = order + ", width " + width + ", unsigned " + unsigned + ", chunk " + chunkBytes;
+                        assertTrue(message, decoder.isComplete());
+                        assertEquals(message, expected.length, decoder.getDecodedCount());
+                        assertArrayEquals(message, expected, decoded);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Check that a stream ending within a value leaves the decoder incomplete.
+     */
+    @Test
+    public void shouldDetectIncompleteValue() {
+        PrimitiveStreamDecoder decoder = new PrimitiveStreamDecoder(new LongValueConsumer() {
+            @Override
+            public void accept(long value) {
+            }
+        }, ByteView.BIG_ENDIAN, 4, false);
+
+        decoder.accept(new byte[]{1, 2, 3, 4, 5, 6}, 0, 6);
+        decoder.accept(new byte[]{7}, 0, 1);
+
+        assertFalse(decoder.isComplete());
+        assertEquals(1, decoder.getDecodedCount());
+    }
+
+    /**
+     * Check that an invalid width is rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectInvalidWidth() {
+        new PrimitiveStreamDecoder(new LongValueConsumer() {
+            @Override
+            public void accept(long value) {
+            }
+        }, ByteView.BIG_ENDIAN, 3, false);
+    }
+
+    /**
+     * Get the expected value from a buffer.
+     *
+     * @param buffer   The buffer.
+     * @param index    The index of the value.
+     * @param width    The number of bytes of the value.
+     * @param unsigned <code>true</code> if the value is unsigned.
+     *
+     * @return The value.
+     */
+    private static long expected(ByteBuffer buffer, int index, int width, boolean unsigned) {
+        switch (width) {
+            case 1:
+                return unsigned ? buffer.get(index) & 0xFF : buffer.get(index);
+            case 2:
+                return unsigned ? buffer.getShort(index) & 0xFFFF : buffer.getShort(index);
+            case 4:
+                return unsigned ? buffer.getInt(index) & 0xFFFFFFFFL : buffer.getInt(index);
+            default:
+                return buffer.getLong(index);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package nl.salp.util.io;
+
+import java.io.ByteArrayInputStream;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import nl.salp.util.bit.VarIntCodec;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link VarIntStreamDecoder}.
+ */
+public class VarIntStreamDecoderTest {
+    /**
+     * Check that varints split over chunks of various sizes are decoded.
+     *
+     * @throws Exception When reading the stream failed.
+     */
+    @Test
+    public void shouldDecodeAcrossChunkBoundaries() throws Exception {
+        Random rng = new Random(8);
+        long[] values = new long[2000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = rng.nextLong() >> rng.nextInt(64);
+        }
+        byte[] data = new byte[values.length * VarIntCodec.MAX_LONG_BYTES];
+        data = Arrays.copyOf(data, VarIntCodec.encodeLongs(values, 0, values.length, true, data, 0));
+        for (int chunkBytes : new int[]{1, 3, 8, 11, 128}) {
+            final long[] decoded = new long[values.length];
+            final int[] count = new int[1];
+            VarIntStreamDecoder decoder = new VarIntStreamDecoder(new LongValueConsumer() {
+                @Override
+                public void accept(long value) {
+                    decoded[count[0]++] = value;
+                }
+            }, true);
+
+            new ChunkedByteStreamReader(chunkBytes).read(new ByteArrayInputStream(data), decoder);
+
+            assertTrue(decoder.isComplete());
+            assertEquals(values.length, decoder.getDecodedCount());
+            assertArrayEquals(values, decoded);
+        }
+    }
+
+    /**
+     * Check that a stream ending within a varint leaves the decoder incomplete.
+     *
+     * @throws Exception When reading the stream failed.
+     */
+    @Test
+    public void shouldDetectIncompleteValue() throws Exception {
+        VarIntStreamDecoder decoder = new VarIntStreamDecoder(new LongValueConsumer() {
+            @Override
+            public void accept(long value) {
+            }
+        }, false);
+
+        decoder.accept(new byte[]{1, 2, (byte) 0x80}, 0, 3);
+
+        assertFalse(decoder.isComplete());
+        assertEquals(2, decoder.getDecodedCount());
+    }
+
+    /**
+     * Check that a varint that is too long is rejected, even when split over chunks.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectTooLongValue() {
+        VarIntStreamDecoder decoder = new VarIntStreamDecoder(new LongValueConsumer() {
+            @Override
+            public void accept(long value) {
+            }
+        }, false);
+        byte[] continuation = {-1, -1, -1, -1, -1, -1};
+
+        decoder.accept(continuation, 0, continuation.length);
+        decoder.accept(continuation, 0, continuation.length);
+    }
+}
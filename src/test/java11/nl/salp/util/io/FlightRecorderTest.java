@@ -0,0 +1,72 @@
+package nl.salp.util.io;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class FlightRecorderTest {
+    private static final String EVENT = "nl.salp.util.io.ChunkedRead";
+
+    @Test
+    public void shouldBeAvailable() {
+        assertTrue(FlightRecorder.isAvailable());
+        assertEquals("nl.salp.util.io.FlightRecorderReadMetrics", FlightRecorder.readMetrics().getClass().getName());
+    }
+
+    @Test
+    public void shouldOnlyBeEnabledWhileRecording() {
+        ReadMetrics metrics = FlightRecorder.readMetrics();
+        assertFalse(metrics.isEnabled());
+        Recording recording = new Recording();
+        try {
+            recording.enable(EVENT);
+            recording.start();
+            assertTrue(metrics.isEnabled());
+            recording.stop();
+        } finally {
+            recording.close();
+        }
+        assertFalse(metrics.isEnabled());
+    }
+
+    @Test
+    public void shouldRecordReadEvents() throws Exception {
+        ChunkedByteStreamReader reader = new ChunkedByteStreamReader(128, FlightRecorder.readMetrics());
+        Path file = Files.createTempFile("chunked-read", ".jfr");
+        try {
+            reader.read(new ByteArrayInputStream(new byte[100]));
+            Recording recording = new Recording();
+            try {
+                recording.enable(EVENT);
+                recording.start();
+                reader.read(new ByteArrayInputStream(new byte[300]));
+                recording.stop();
+                recording.dump(file);
+            } finally {
+                recording.close();
+            }
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            assertEquals(1, events.size());
+            RecordedEvent event = events.get(0);
+            assertEquals(EVENT, event.getEventType().getName());
+            assertEquals(300, event.getLong("bytesRead"));
+            assertEquals(3, event.getLong("chunks"));
+            assertEquals(128 + 256 + 300, event.getLong("bytesCopied"));
+            assertEquals(300, event.getLong("resultSize"));
+            assertTrue(event.getDuration("readTime").toNanos() >= event.getDuration("stallTime").toNanos());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}